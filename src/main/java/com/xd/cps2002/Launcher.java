@@ -1,6 +1,7 @@
 package com.xd.cps2002;
 
 import com.xd.cps2002.game.Game;
+import com.xd.cps2002.game.HTMLWriter;
 import com.xd.cps2002.game.game_exceptions.*;
 import com.xd.cps2002.player.*;
 import com.xd.cps2002.player.player_exceptions.MoveException;
@@ -15,17 +16,14 @@ import java.util.Scanner;
  * @author Xandru Mifsud
  */
 public class Launcher{
-    static boolean isInitialised = false;
-    static ArrayList<Integer> winners = new ArrayList<>();
-
     public static void main(String[] args){
-        Game game = Game.getGame(); // get instance
+        Game game = new Game(); // the Launcher keeps no state of its own, such that it can play any Game instance
         initialiseGame(game); // setup game
         startGame(game); // start game
 
         // print all the winners, and then exit
         System.out.println("Congratulations to the following winners!");
-        for(int p_id : winners){
+        for(int p_id : game.getWinners()){
             System.out.println("Player #" + p_id);
         }
 
@@ -48,7 +46,7 @@ public class Launcher{
      * handling to return the game to a correct state. When caught, they provide the programmer with the opportunity to
      * take further action, eg. by re-prompting for input.
      *
-     * @param game is an instance of (singleton) Game which maintains the game state variables and updates them.
+     * @param game is an instance of Game which maintains the game state variables and updates them.
      */
     public static void initialiseGame(Game game){
         boolean team_mode = false;
@@ -164,10 +162,6 @@ public class Launcher{
         // attempt to setup Game instance - if fails, there is some fatal inconsistency!
         try{
             game.initialise(n_players, n_teams, map_size, map_type);
-
-            if(game.isInitialised()){
-                isInitialised = true;
-            }
         }
         // if fatal, print stack trace and exit with status code 1
         catch(InvalidNumberOfPlayersException | InvalidMapSizeException | InvalidNumberOfTeamsException e){
@@ -198,13 +192,13 @@ public class Launcher{
      * For this reason, and since this methods primarily handles input by means of the Scanner class, no testing is
      * required beyond that of mocking, which is beyond the scope of this assignment specification.
      *
-     * @param game is an instance of (singleton) Game which maintains the game state variables and updates them.
+     * @param game is an instance of Game which maintains the game state variables and updates them.
      * @return ArrayList of type Integer, of the winners if any, containing their unique identifier.
      * @throws SetupOperationPrecedenceException is thrown when there is an attempted call to getMoves() before a call
      * to initializeGame()
      */
     public static ArrayList<Integer> getMoves(Game game){
-        if(!isInitialised){
+        if(!game.isInitialised()){
             throw new SetupOperationPrecedenceException("Attempted call to getMoves() before initialiseGame().");
         }
         else {
@@ -215,7 +209,7 @@ public class Launcher{
 
                 System.out.println("Player #" + player.get_pID() + ", it's your turn!\n");
 
-                Position new_position;
+                long new_position; // packed coordinates, so that rejected moves do not allocate a Position
 
                 // repeatedly ask for input until the move specified is valid
                 while(true) {
@@ -223,7 +217,7 @@ public class Launcher{
 
                     try{
                         // if MoveException is thrown, then the character input is invalid
-                        new_position = player.move(scanner.next().charAt(0));
+                        new_position = player.movePacked(scanner.next().charAt(0));
 
                         // if character input is valid and move within map boundary
                         if(game.getMap().isValidPosition(new_position)) {
@@ -256,7 +250,18 @@ public class Launcher{
                 }
             }
 
-            return winners;
+            try { // under PER_ROUND, force the HTML maps written in the round to disk
+                game.endRound();
+            }
+            // if persistence to disk fails, this is generally a fatal error beyond the scope of the program
+            catch (IOException ioe) {
+                ioe.printStackTrace();
+
+                System.out.println("Fatal error occurred during file persistence. Sorry! Exiting...");
+                System.exit(1);
+            }
+
+            return game.getWinners();
         }
     }
 
@@ -265,43 +270,49 @@ public class Launcher{
      * move. It is responsible for taking the necessary action when a player either dies by landing on a water tile,
      * or wins by landing on the treasure tile.
      *
-     * @param game is an instance of (singleton) Game which maintains the game state variables and updates them.
+     * @param game is an instance of Game which maintains the game state variables and updates them.
      * @param player is a Player instance for which the game state is to be updated.
      * @return ArrayList of type Integer, of the winners if any, containing their unique identifier.
      * @throws SetupOperationPrecedenceException is thrown when there is an attempted call to updateGameState() before a
      * call to initializeGame()
      */
     public static ArrayList<Integer> updateGameState(Game game, Player player){
-        if(!isInitialised){
+        if(!game.isInitialised()){
             throw new SetupOperationPrecedenceException("Attempted call to updateGameState() when game variables have not" +
                     " been initialized.");
         }
         else {
-            PlayerStatus status = game.getMap().getTileType(player.getPosition()).statusAfterMove; // get status of player
+            // get status of player
+            PlayerStatus status = game.getMap().getTileType(player.getPackedPosition()).statusAfterMove;
 
             if (status.equals(PlayerStatus.Death)) { // if dead, reset player
                 System.out.println("\n\u001B[34m" + "Better be careful, or you'll drown!" + "\u001B[0m");
                 player.reset();
             }else if(status.equals(PlayerStatus.Win)) { // else if won, break outside while loop by setting win = true
-                winners.add(player.get_pID());
+                game.addWinner(player.get_pID());
             }
 
-            return winners;
+            return game.getWinners();
         }
     }
 
     /**
      * Define the main game game sequence, through a number of calls to getMoves(), as well as writeHTMLFile().
      *
-     * @param game is an instance of (singleton) Game which maintains the game state variables and updates them.
+     * @param game is an instance of Game which maintains the game state variables and updates them.
      * @throws SetupOperationPrecedenceException is thrown when there is an attempted call to startGame() before a call
      * to initializeGame()
      */
     public static void startGame(Game game){
-        if(!isInitialised){
+        if(!game.isInitialised()){
             throw new SetupOperationPrecedenceException("Attempted call to startGame() before initialiseGame().");
         }
         else{
+            // persist the HTML maps asynchronously, such that the players do not wait for the disk on their turns
+            HTMLWriter html_writer = new HTMLWriter(HTMLWriter.DEFAULT_MAX_PENDING, HTMLWriter.DEFAULT_BATCH_SIZE,
+                                                    game.getFsyncPolicy());
+            game.setHTMLWriter(html_writer);
+
             // initialise maps
             for(Player player : game.getPlayers()) {
                 try {
@@ -317,9 +328,21 @@ public class Launcher{
             }
 
             // this is the main game sequence
-            while(winners.size() == 0){ // loop until a player lands on the Treasure tile
+            while(game.getWinners().size() == 0){ // loop until a player lands on the Treasure tile
                 getMoves(game); // ask players to play their respective moves
             }
+
+            // wait for the last HTML maps to be persisted
+            try {
+                html_writer.close();
+            }
+            // if persistence to disk fails, this is generally a fatal error beyond the scope of the program
+            catch (IOException ioe) {
+                ioe.printStackTrace();
+
+                System.out.println("Fatal error occurred during file persistence. Sorry! Exiting...");
+                System.exit(1);
+            }
         }
     }
 }
\ No newline at end of file
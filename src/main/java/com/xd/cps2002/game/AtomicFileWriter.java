@@ -0,0 +1,160 @@
+package com.xd.cps2002.game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The AtomicFileWriter class persists HTML maps to disk crash-safely: each file is written in full to a temporary file
+ * next to it, which is then atomically moved into place. Hence a browser polling an HTML map, or a crash of the process
+ * in the middle of a write, sees either the previous map or the new one, never a half-written page.
+ *
+ * Whether this also holds after a crash of the machine (eg. a power loss) is decided by the writer's FsyncPolicy. Under
+ * PER_WRITE and PER_ROUND, each temporary file is forced to disk before it is moved into place, such that the file holds
+ * either the previous map or the new one after such a crash too. Under PER_WRITE, the directory is then forced to disk
+ * as well; under PER_ROUND, the directories of the files moved into place since the last round are forced to disk by
+ * sync(), which is to be called at the end of every round. Under NONE, nothing is forced to disk, so after a crash of
+ * the machine a file may be left empty or truncated, and sync() has no effect. An AtomicFileWriter is used by a single
+ * thread at a time, eg. the I/O thread of an HTMLWriter.
+ */
+public final class AtomicFileWriter implements HTMLWriter.FileSink{
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private final FsyncPolicy fsync_policy;
+    private final LinkedHashSet<Path> unsynced = new LinkedHashSet<>(); // directories written to since the last sync()
+
+    // writer metrics
+    private final AtomicLong files_written = new AtomicLong();
+    private final AtomicLong fsyncs = new AtomicLong();
+
+    /**
+     * Creates a writer which forces the files to disk according to the given policy.
+     * @param fsync_policy is the FsyncPolicy of the writer.
+     * @throws IllegalArgumentException is thrown whenever fsync_policy is null.
+     */
+    public AtomicFileWriter(FsyncPolicy fsync_policy){
+        if(fsync_policy == null){
+            throw new IllegalArgumentException("The fsync policy must be specified.");
+        }
+        this.fsync_policy = fsync_policy;
+    }
+
+    /**
+     * @return FsyncPolicy this.fsync_policy.
+     */
+    @Override
+    public FsyncPolicy getFsyncPolicy(){
+        return fsync_policy;
+    }
+
+    /**
+     * Atomically replaces the contents of a file with an HTML map.
+     * @param file is the path of the file to write.
+     * @param page is the HTML map.
+     * @throws IOException is thrown when there is a failure in writing the file.
+     */
+    @Override
+    public void write(Path file, byte[] page) throws IOException{
+        write(file, ByteBuffer.wrap(page));
+    }
+
+    /**
+     * Atomically replaces the contents of a file, by writing the buffers to a temporary file using gathering writes and
+     * moving it into place. Unless the policy is NONE, the temporary file is forced to disk before it is moved. Under
+     * PER_WRITE, the directory is also forced to disk after, such that the new contents survive a crash once this
+     * returns.
+     * @param file is the path of the file to write.
+     * @param buffers are the contents of the file, in order.
+     * @throws IOException is thrown when there is a failure in writing the file.
+     */
+    public void write(Path file, ByteBuffer... buffers) throws IOException{
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                                                   StandardOpenOption.TRUNCATE_EXISTING)){
+            writeFully(channel, buffers);
+            if(fsync_policy != FsyncPolicy.NONE){ // such that the file is never moved into place half-written
+                channel.force(false);
+                fsyncs.incrementAndGet();
+            }
+        }
+
+        try{
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch(AtomicMoveNotSupportedException e){ // eg. on some network file systems, where a plain move is the best bet
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        files_written.incrementAndGet();
+
+        if(fsync_policy == FsyncPolicy.PER_WRITE){
+            syncDirectory(file.toAbsolutePath().getParent());
+        }
+        else if(fsync_policy == FsyncPolicy.PER_ROUND){
+            unsynced.add(file.toAbsolutePath().getParent());
+        }
+    }
+
+    /**
+     * Under PER_ROUND, forces the directories of the files written since the last call to disk, such that the files
+     * moved into place survive a crash. Each directory is forced once, however many files were written to it. Has no
+     * effect under the other policies.
+     */
+    @Override
+    public void sync(){
+        for(Path dir : unsynced){
+            syncDirectory(dir);
+        }
+        unsynced.clear();
+    }
+
+    /**
+     * @return long the number of files written.
+     */
+    public long getFilesWritten(){
+        return files_written.get();
+    }
+
+    /**
+     * @return long the number of files and directories forced to disk.
+     */
+    public long getFsyncs(){
+        return fsyncs.get();
+    }
+
+    /**
+     * Writes buffers to a channel using gathering writes, until all of the buffers have been written.
+     * @param channel is the GatheringByteChannel to which the buffers are written.
+     * @param buffers are the buffers to write, in order.
+     * @throws IOException is thrown when there is a failure in writing to the channel.
+     */
+    static void writeFully(GatheringByteChannel channel, ByteBuffer... buffers) throws IOException{
+        long remaining = 0;
+        for(ByteBuffer buffer : buffers){
+            remaining += buffer.remaining();
+        }
+        while(remaining > 0){ // a gathering write may write only some of the bytes
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    /**
+     * Forces a directory to disk, such that the latest moves of files into place in it survive a crash.
+     * @param dir is the path of the directory.
+     */
+    private void syncDirectory(Path dir){
+        try(FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)){
+            channel.force(true);
+            fsyncs.incrementAndGet();
+        }
+        catch(IOException ignored){ // directories cannot be opened on some platforms (eg. Windows), nor need forcing
+        }
+    }
+}
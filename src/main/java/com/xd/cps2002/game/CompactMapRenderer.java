@@ -0,0 +1,148 @@
+package com.xd.cps2002.game;
+
+import com.xd.cps2002.game.game_exceptions.SetupOperationPrecedenceException;
+import com.xd.cps2002.map.TileType;
+import com.xd.cps2002.player.Player;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * The CompactMapRenderer class keeps the rendered HTML maps of a team in the COMPACT MapFormat. Rather than a
+ * {@code <div>} per tile, the tiles visited by the team are packed into BITS_PER_TILE bits per tile, holding 0 for an
+ * uncovered tile or 1 + the TileType ordinal of a visited tile, and embedded in the HTML map in base64. The start and
+ * current positions of the player are given by their linear index. The map is then drawn on a canvas by SCRIPT, which is
+ * shared by all of the HTML maps and hence written only once per directory, as SCRIPT_FILE.
+ *
+ * Only the tiles visited by the team are held in the HTML maps, such that the map is not given away to the players. For
+ * a 50x50 map, an HTML map takes less than 1KB rather than some 90KB in the GRID MapFormat.
+ *
+ * As for the TeamMapRenderer, the packed tiles are shared by the team and, after the first render, only the tiles newly
+ * visited by the team are rendered, re-encoding only the base64 characters holding them.
+ */
+public final class CompactMapRenderer extends MapRenderer{
+    static final String SCRIPT_FILE = "map.js";
+    static final int BITS_PER_TILE = bitsPerTile();
+    private static final int TILES_PER_BYTE = 8 / BITS_PER_TILE;
+
+    // the pre-encoded script drawing the HTML maps, and the markup closing the canvas of an HTML map
+    static final byte[] SCRIPT = genScript().getBytes(HTMLGenerator.CHARSET);
+    private static final byte[] PAGE_END = ("\"></canvas>\n<script src=\"" + SCRIPT_FILE + "\"></script>\n\n" +
+                                            "</body>\n</html>").getBytes(HTMLGenerator.CHARSET);
+
+    private final HTMLGenerator htmlGenerator = HTMLGenerator.getHTMLGenerator();
+
+    private byte[] packed = null; // the packed tiles, or null if not rendered yet
+    private byte[] payload = null; // the packed tiles in base64
+
+    /**
+     * Splits the HTML map of a player into the segments to be written in order: the header, the player's markers, the
+     * shared packed tiles and the end of the HTML map.
+     * @param player is the Player instance for which the map is written.
+     * @return ByteBuffer[] wrapping each of the segments.
+     * @throws SetupOperationPrecedenceException is thrown if the tiles have not been rendered yet.
+     * @throws IllegalArgumentException is thrown if the player is null or not in the rendered team.
+     */
+    @Override
+    ByteBuffer[] segments(Player player){
+        checkRendered(player);
+
+        byte[] header = headers.get(player.get_pID());
+        if(header == null){
+            header = concat(HTMLGenerator.HTML_BEGIN,
+                            ("<body>\n\n" + htmlGenerator.genTitle(player) +
+                             "<canvas id=\"map\" data-size=\"" + map.getSize() + "\" data-bits=\"" + BITS_PER_TILE +
+                             "\" ").getBytes(HTMLGenerator.CHARSET));
+            headers.put(player.get_pID(), header);
+        }
+
+        byte[] markers = ("data-start=\"" + linearIndex(player.getStartPosition().pack()) + "\" data-current=\"" +
+                          linearIndex(player.getPackedPosition()) + "\" data-tiles=\"").getBytes(HTMLGenerator.CHARSET);
+
+        return new ByteBuffer[]{ByteBuffer.wrap(header), ByteBuffer.wrap(markers), ByteBuffer.wrap(payload),
+                                ByteBuffer.wrap(PAGE_END)};
+    }
+
+    /**
+     * Renders every tile as uncovered, allocating the packed tiles for the size of the map if needed.
+     */
+    @Override
+    void clear(){
+        int length = (map.getSize()*map.getSize() + TILES_PER_BYTE - 1) / TILES_PER_BYTE;
+        if(packed == null || packed.length != length){
+            packed = new byte[length];
+        }
+        else{
+            Arrays.fill(packed, (byte) 0);
+        }
+        payload = Base64.getEncoder().encode(packed);
+    }
+
+    /**
+     * Renders a visited tile, re-encoding the base64 characters which hold it.
+     * @param idx is the linear index of the tile.
+     */
+    @Override
+    void setTile(int idx){
+        int map_size = map.getSize();
+        int code = 1 + map.getTileType(idx % map_size, idx / map_size).ordinal();
+        int byte_idx = idx / TILES_PER_BYTE;
+        packed[byte_idx] |= code << ((idx % TILES_PER_BYTE)*BITS_PER_TILE);
+
+        // every 3 bytes are encoded as 4 base64 characters, independently of the other bytes
+        int from = byte_idx - byte_idx % 3;
+        byte[] chars = Base64.getEncoder().encode(Arrays.copyOfRange(packed, from, Math.min(from + 3, packed.length)));
+        System.arraycopy(chars, 0, payload, from / 3 * 4, chars.length);
+    }
+
+    /**
+     * @return int the number of bits needed for the code of a tile, rounded up to a power of 2 such that a tile is never
+     * split across bytes.
+     */
+    private static int bitsPerTile(){
+        int bits = 1;
+        while((1 << bits) < TileType.values().length + 1){ // the codes of the TileTypes, and of an uncovered tile
+            bits *= 2;
+        }
+        return bits;
+    }
+
+    /**
+     * Generates the script drawing an HTML map on its canvas, with the same tile size, colours and markers as the
+     * GRID MapFormat.
+     * @return String with the script.
+     */
+    private static String genScript(){
+        StringBuilder colours = new StringBuilder("\"rgba(150, 150, 150, 0.8)\""); // the colour of an uncovered tile
+        for(TileType tile : TileType.values()){
+            colours.append(", \"").append(tile.html_colour).append('"');
+        }
+
+        return "(function(){\n" +
+               "var TILE = 40, PADDING = 10;\n" +
+               "var COLOURS = [" + colours + "];\n" +
+               "var canvas = document.getElementById(\"map\");\n" +
+               "var size = +canvas.dataset.size, bits = +canvas.dataset.bits;\n" +
+               "var start = +canvas.dataset.start, current = +canvas.dataset.current;\n" +
+               "var tiles = atob(canvas.dataset.tiles), per_byte = 8 / bits, mask = (1 << bits) - 1;\n" +
+               "canvas.width = canvas.height = size * TILE + 2 * PADDING;\n" +
+               "var ctx = canvas.getContext(\"2d\");\n" +
+               "ctx.strokeStyle = \"rgba(0, 0, 0, 0.8)\";\n" +
+               "ctx.font = \"30px sans-serif\";\n" +
+               "ctx.textAlign = \"center\";\n" +
+               "ctx.textBaseline = \"middle\";\n" +
+               "for(var idx = 0; idx < size * size; idx++){\n" +
+               "  var code = (tiles.charCodeAt(Math.floor(idx / per_byte)) >> (idx % per_byte * bits)) & mask;\n" +
+               "  var x = PADDING + idx % size * TILE, y = PADDING + Math.floor(idx / size) * TILE;\n" +
+               "  ctx.fillStyle = COLOURS[code];\n" +
+               "  ctx.fillRect(x, y, TILE, TILE);\n" +
+               "  ctx.strokeRect(x + 0.5, y + 0.5, TILE - 1, TILE - 1);\n" +
+               "  if(idx === current || idx === start){\n" + // the current marker is drawn over the start marker
+               "    ctx.fillStyle = \"#000\";\n" +
+               "    ctx.fillText((idx === current) ? \"\\uD83C\\uDF1E\" : \"\\u26E9\", x + TILE / 2, y + TILE / 2);\n" +
+               "  }\n" +
+               "}\n" +
+               "})();\n";
+    }
+}
@@ -0,0 +1,26 @@
+package com.xd.cps2002.game;
+
+/**
+ * The {@link FsyncPolicy} enum defines when the HTML maps written by an {@link AtomicFileWriter} are forced to disk,
+ * trading durability for throughput. Whatever the policy, each HTML map is replaced atomically, such that neither a
+ * browser nor a crash of the process ever sees a half-written page; the policy decides what is left after a crash of
+ * the machine (eg. a power loss).
+ */
+public enum FsyncPolicy{
+    /**
+     * The {@code NONE} policy leaves it to the operating system to write the HTML maps to disk, in its own time. Hence
+     * a crash of the machine may leave an HTML map empty or truncated.
+     */
+    NONE,
+    /**
+     * The {@code PER_ROUND} policy forces every HTML map to disk before it replaces the previous one, and the
+     * directories holding the HTML maps written in a round at the end of the round, such that a crash of the machine
+     * loses at most the maps of the current round, leaving the previous ones in their place.
+     */
+    PER_ROUND,
+    /**
+     * The {@code PER_WRITE} policy forces every HTML map to disk before it replaces the previous one, and its directory
+     * right after, such that each map survives a crash of the machine once it is written.
+     */
+    PER_WRITE
+}
@@ -4,22 +4,24 @@ import com.xd.cps2002.game.game_exceptions.*;
 import com.xd.cps2002.map.*;
 import com.xd.cps2002.player.*;
 import com.xd.cps2002.player.player_exceptions.*;
+import com.xd.cps2002.util.RandomSource;
+import com.xd.cps2002.util.SplittableRandomSource;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.Files;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * The Game class is responsible for coordinating the main logic of the game, and the primary interface for user
  * input and provision of output to the user. It is designed to be the primary interface to the game API, providing
  * descriptive and detailed errors. Moreover, it handles the majority of setup and is designed to prevent the execution
  * of setup steps in an invalid procedural order, if done so through this class. Otherwise access to the sub-systems is
- * left unhindered by this class. It follows the Singleton design pattern, allowing better granular control over the
- * creation of entities, especially Map.
+ * left unhindered by this class. Each Game instance keeps its own players, teams, map, winners and output directory, such
+ * that many games can be hosted by a single JVM through a GameRegistry. The interactive Launcher creates and plays a
+ * Game instance of its own.
  *
  * The setup sequence via this class is intended to be executed in the following manner,
  *
@@ -35,27 +37,39 @@ import java.util.Random;
  * @author Xandru Mifsud
  */
 public class Game{
-    private static Game instance = null; // the singleton instance
+    private static Game instance = null; // the instance returned by getGame()
 
     private Player[] players = null;
     private Team[] teams = null;
     private Map map = null;
     private HTMLGenerator htmlGenerator = HTMLGenerator.getHTMLGenerator();
     private boolean is_set;
+    private boolean large_map_mode = false; // if true, maps larger than 50x50 are allowed
+    private RandomSource random = new SplittableRandomSource(); // source of random numbers for setup
+    private boolean is_seeded = false; // if true, the game was seeded using setSeed() and can be reproduced
+    private final ArrayList<Integer> winners = new ArrayList<>(); // ids of the players who found the treasure
+    private final HashMap<Team, MapRenderer> renderers = new HashMap<>(); // rendered tiles of each team's HTML maps
+    private MapFormat map_format = MapFormat.GRID; // the format in which the HTML maps are written
+    private String script_dir = null; // the directory to which the script drawing COMPACT HTML maps was written
+    private String stylesheet_dir = null; // the directory to which the stylesheet of GRID HTML maps was written
+    private HTMLWriter html_writer = null; // if set, persists the HTML maps asynchronously
+    private AtomicFileWriter file_writer = new AtomicFileWriter(FsyncPolicy.NONE); // persists the HTML maps otherwise
 
     public String dir = null;
 
     /**
-     * Private constructor to initialize an Game instance (if one does not already exist).
+     * Constructor for an independent Game instance, eg. one of many games created by a GameRegistry.
      */
-    private Game(){is_set = false;}
+    public Game(){is_set = false;}
 
     /**
-     * Returns a Game instance; in the case that an instance already exists, it returns the exisiting one.
-     * Else it creates a new instance and returns it.
-     * @return Game instance is the singleton to be returned.
+     * Returns a shared Game instance; in the case that an instance already exists, it returns the exisiting one. Else it
+     * creates a new instance and returns it.
+     * @return Game instance is the shared instance to be returned.
+     * @deprecated a JVM may host many games, hence create a Game instance directly, or through a GameRegistry.
      */
-    public static Game getGame(){
+    @Deprecated
+    public static synchronized Game getGame(){
         if(instance == null){
             instance = new Game();
         }
@@ -71,6 +85,17 @@ public class Game{
         teams = null;
         dir = null;
         is_set = false;
+        large_map_mode = false;
+        random = new SplittableRandomSource();
+        is_seeded = false;
+        winners.clear();
+        renderers.clear();
+        map_format = MapFormat.GRID;
+        script_dir = null;
+        stylesheet_dir = null;
+        html_writer = null;
+        file_writer.sync(); // such that the maps pending a PER_ROUND sync are not dropped
+        file_writer = new AtomicFileWriter(FsyncPolicy.NONE);
     }
 
     /**
@@ -130,6 +155,22 @@ public class Game{
         return teams;
     }
 
+    /**
+     * Simple getter for the Game instance's winners, in the order in which they found the treasure.
+     * @return ArrayList of type Integer, of the winners if any, containing their unique identifier.
+     */
+    public ArrayList<Integer> getWinners(){
+        return winners;
+    }
+
+    /**
+     * Records a player as a winner of the Game instance.
+     * @param p_id is the unique identifier of the player who found the treasure.
+     */
+    public void addWinner(int p_id){
+        winners.add(p_id);
+    }
+
     // ----- SETTERS -----
 
     /**
@@ -174,6 +215,46 @@ public class Game{
         }
     }
 
+    /**
+     * Enables or disables large-map mode, which raises the maximum map size from 50x50 to Map.MAX_LARGE_SIZE, given that
+     * initialise() has not been called prior. Large maps are intended for simulations rather than interactive play.
+     * @param large_map_mode is true if maps larger than 50x50 are to be allowed.
+     * @throws SetupOperationPrecedenceException is thrown when initialise() was called prior.
+     */
+    public void setLargeMapMode(boolean large_map_mode) throws SetupOperationPrecedenceException{
+        if(is_set){ // if initialise() called prior
+            throw new SetupOperationPrecedenceException("Cannot set large-map mode after call to initialise().");
+        }
+        else{
+            this.large_map_mode = large_map_mode;
+        }
+    }
+
+    /**
+     * Simple getter for whether large-map mode is enabled.
+     * @return boolean which is True only when maps larger than 50x50 are allowed.
+     */
+    public boolean isLargeMapMode(){
+        return large_map_mode;
+    }
+
+    /**
+     * Seeds the source of random numbers used to generate the map, the starting positions of the players and the
+     * teams, given that initialise() has not been called prior. Games initialised using the same seed and the same
+     * settings are identical.
+     * @param seed is the seed from which the game is to be generated.
+     * @throws SetupOperationPrecedenceException is thrown when initialise() was called prior.
+     */
+    public void setSeed(long seed) throws SetupOperationPrecedenceException{
+        if(is_set){ // if initialise() called prior
+            throw new SetupOperationPrecedenceException("Cannot set the seed after call to initialise().");
+        }
+        else{
+            random = new SplittableRandomSource(seed);
+            is_seeded = true;
+        }
+    }
+
     /**
      * Simple function to set the directory path at which to write the generated HTML maps.
      * @param dir is the directory path specified by the user, in which to write the HTML files.
@@ -214,13 +295,14 @@ public class Game{
 
     /**
      * If n_players {@literal <} 5, and 5 {@literal <}= map_size {@literal <}= 50, or 5 {@literal <}= n_players and 8 {@literal <}= map_size {@literal <}= 50, return true.
+     * In large-map mode, the maximum map size of 50 is raised to Map.MAX_LARGE_SIZE.
      * @param map_size is an integer to be checked if it falls within one of the two ranges above, given a value of n_players.
      * @param n_players is the number of players, which shall determine the minimum map size.
      * @return true if in range, false otherwise.
      */
     public boolean isValidMapSize(int map_size, int n_players){
         // else if the map_size is too small for 5 or more players
-        if(51 <= map_size || map_size <= 4){ // else if map_size is outside the global minimum and maximum size
+        if(!Map.isValidSize(map_size, large_map_mode)){ // else if map_size is outside the global minimum and maximum size
             return false;
         }
         else return 5 > n_players || map_size > 7;
@@ -238,7 +320,8 @@ public class Game{
     // --------SETUP FUNCTIONS--------
 
     /**
-     * Initializes n_players Player instances, if n_players is not less than 2 or greater then 8.
+     * Initializes n_players Player instances, if n_players is not less than 2 or greater then 8. The players are views
+     * of a single PlayerStore, such that their moves can be applied in bulk using applyMoves(byte[] moves).
      * @param n_players is the number of players to be initialized.
      * @return players is the array of initialised Player instances.
      * @throws InvalidNumberOfPlayersException is thrown if the number of players is {@literal <} 2 or {@literal >} 8.
@@ -248,9 +331,10 @@ public class Game{
 
         if(isValidNPlayers(n_players)){ // validation check
             players = new Player[n_players]; // initialize if within range
+            PlayerStore store = new PlayerStore(n_players); // keeps the state of all the players
 
             for(int i = 0; i < n_players; i++){
-                players[i] = new Player();
+                players[i] = store.get(store.add());
             }
 
             return players;
@@ -263,7 +347,7 @@ public class Game{
     /**
      * Initializes a Map of type map_type and size map_size, provided that:
      * i.   Any players in the game have been initialized (i.e. MainGame.players is not null)
-     * ii.  The map_size is not less than 5 and not greater than 50.
+     * ii.  The map_size is not less than 5 and not greater than 50 (or Map.MAX_LARGE_SIZE in large-map mode).
      * iii. If the number of players is at least 5, than the minimum map_size is at least 8.
      * @param map_size is the size of the map.
      * @param map_type is the type of map to be initialised by the MapCreator, more or less corresponding to difficulty level.
@@ -272,34 +356,40 @@ public class Game{
      * @throws InvalidMapSizeException is thrown if the map_size is invalid. [Criteria ii. {@literal &} iii. above]
      */
     public Map genMap(int map_size, String map_type, Player[] players) throws InvalidMapSizeException{
-        if(51 <= map_size || map_size <= 4){ // else if map_size is outside the global minimum and maximum size
+        if(!Map.isValidSize(map_size, large_map_mode)){ // else if map_size is outside the global minimum and maximum size
+            if(large_map_mode){
+                throw new InvalidMapSizeException(map_size, "In large-map mode, the maximum map size is " +
+                        Map.MAX_LARGE_SIZE + "x" + Map.MAX_LARGE_SIZE + ".");
+            }
             throw new InvalidMapSizeException(map_size);
         }
         else if(5 <= players.length && map_size <= 7){ // else if the map_size is too small for 5 or more players
             throw new InvalidMapSizeException(map_size, "For 5 to 8 players, the minimum map size is 8x8.");
         }
-        else{ // else initialize map
-            return MapCreator.createMap(map_type, map_size);
+        else if(is_seeded){ // else initialize map, from the game's seed if one was set
+            return MapCreator.createMap(map_type, map_size, large_map_mode, random.split());
+        }
+        else{
+            return MapCreator.createMap(map_type, map_size, large_map_mode);
         }
     }
 
     /**
      * Initializes the starting position for all the Player instances players, based on the passed Map instance map.
+     * Each player starts on a different tile, drawn at random from the tiles from which the treasure tile is reachable.
      * @param players is an array of Player instances for which the starting positions are to be initialised.
      * @param map is a Map instance on which the starting positions are to be initialised.
      * @return players array with starting positions initialised.
+     * @throws IllegalStateException if the map has fewer winnable tiles than there are players.
      */
     public Player[] genPlayerPositions(Player[] players, Map map){
+        // draw the starting positions from the winnable tiles of the map, rather than drawing random tiles until a
+        // winnable one is found, such that each position is drawn in constant time
+        StartPositionSampler sampler = map.getStartPositionSampler(random);
+
         // for each player, initialize starting position
         for(Player player : players){
-            Position starting_position;
-            do{
-                // randomly generate position within map size
-                starting_position = new Position(new Random().nextInt(map.getSize()),
-                                                 new Random().nextInt(map.getSize()));
-            }while(!map.isPositionWinnable(starting_position)); // check that the treasure tile is reachable
-
-            player.setStartPosition(starting_position); // set position
+            player.setStartPosition(sampler.next()); // set position
         }
 
         return players;
@@ -329,7 +419,8 @@ public class Game{
             int team_size = (int) Math.floor((double) players.length / n_teams); // number of players (on average) per team
 
             for(int i = 0; i < n_teams; i++) { // begin populating teams
-                teams[i] = new Team();
+                // if the map is known, the team marks its visited positions in a bitset over the map's tiles
+                teams[i] = (map != null) ? new Team(map.getSize()) : new Team();
 
                 // how many players in the team - if the last team, must contain the remainder of the players
                 int team_n_players = (i < n_teams - 1) ? team_size : players.length - (n_teams - 1) * team_size;
@@ -357,6 +448,64 @@ public class Game{
         }
     }
 
+    // -------- BULK GAME PLAY ---------
+
+    /**
+     * Returns the PlayerStore shared by all of the Game instance's players, which is the case when the players were
+     * created by genPlayers() (eg. through initialise()).
+     * @return PlayerStore of the players, or null if the players are not set or do not share a single store.
+     */
+    public PlayerStore getPlayerStore(){
+        if(players == null || players.length == 0){
+            return null;
+        }
+
+        PlayerStore store = players[0].getStore();
+        if(store.size() != players.length){
+            return null;
+        }
+        for(Player player : players){
+            if(player.getStore() != store){
+                return null;
+            }
+        }
+
+        return store;
+    }
+
+    /**
+     * Applies one move to each player in bulk, with the same rules as a round of the game: moves outside of the map are
+     * rejected, players landing on a water tile are reset to their starting position, and players landing on the
+     * treasure tile are marked as winners (see Player.getStatus()) and recorded in the Game instance's winners (see
+     * getWinners()). This allows simulated games to move their players without going through a Player object per move.
+     * @param moves is the move of each player (see PlayerStore.direction(char input)), indexed by the index of the
+     *              player in the store (see Player.getStoreIndex()).
+     * @return int number of moves which were applied, i.e. not rejected.
+     * @throws SetupOperationPrecedenceException is thrown when the players or map are not set, or if the players were
+     * not created by genPlayers().
+     */
+    public int applyMoves(byte[] moves){
+        PlayerStore store = getPlayerStore();
+
+        if(map == null || store == null){
+            throw new SetupOperationPrecedenceException("Cannot apply moves in bulk before players are created by " +
+                    "genPlayers() and the map is set.");
+        }
+
+        Map game_map = map;
+        int applied = store.applyMoves(moves, game_map.getSize(), packed -> game_map.getTileType(packed).statusAfterMove);
+
+        // record the players who found the treasure with these moves, in the order of their index in the store
+        for(int i = 0; i < store.size(); i++){
+            boolean won = moves[i] != PlayerStore.NONE && store.getStatus(i) == PlayerStatus.Win;
+            if(won && !winners.contains(store.getId(i))){ // players who won earlier are skipped, and keep their status
+                addWinner(store.getId(i));
+            }
+        }
+
+        return applied;
+    }
+
     // -------- UTILITY FUNCTIONS ---------
 
     /**
@@ -367,9 +516,8 @@ public class Game{
      * @param players is the array of Player instances to be shuffled.
      */
     private void shufflePlayers(Player[] players){
-        Random rnd = ThreadLocalRandom.current();
         for (int i = players.length - 1; i > 0; i--){
-            int j = rnd.nextInt(i + 1);
+            int j = random.nextInt(i + 1);
 
             // shuffling swap
             Player p = players[j];
@@ -379,25 +527,160 @@ public class Game{
     }
 
     /**
-     * Convenience function for generating and persisting to disk the HTML map file for a Player instance.
+     * Setter for the HTMLWriter by which the HTML maps are persisted asynchronously, such that writeHTMLFile() does not
+     * wait for the disk. If null (the default), writeHTMLFile() persists the HTML maps itself. The HTMLWriter is not
+     * closed by the game.
+     * @param html_writer is the HTMLWriter, or null to persist the HTML maps synchronously.
+     */
+    public void setHTMLWriter(HTMLWriter html_writer){
+        this.html_writer = html_writer;
+    }
+
+    /**
+     * Getter for the HTMLWriter by which the HTML maps are persisted asynchronously.
+     * @return HTMLWriter this.html_writer, or null if the HTML maps are persisted synchronously.
+     */
+    public HTMLWriter getHTMLWriter(){
+        return html_writer;
+    }
+
+    /**
+     * Setter for the MapFormat in which the HTML maps are written from now on.
+     * @param map_format is the MapFormat (GRID by default).
+     * @throws IllegalArgumentException is thrown whenever map_format is null, or the game's map is too large to be
+     * written in map_format (see checkMapFormat()).
+     */
+    public void setMapFormat(MapFormat map_format){
+        if(map_format == null){
+            throw new IllegalArgumentException("MapFormat cannot be null.");
+        }
+        else if(map != null){
+            checkMapFormat(map_format, map);
+        }
+
+        if(map_format != this.map_format){
+            this.map_format = map_format;
+            renderers.clear(); // the renderers only render a single format
+        }
+    }
+
+    /**
+     * Getter for the MapFormat in which the HTML maps are written.
+     * @return MapFormat this.map_format.
+     */
+    public MapFormat getMapFormat(){
+        return map_format;
+    }
+
+    /**
+     * Setter for the FsyncPolicy deciding when the HTML maps are forced to disk. The policy of HTML maps persisted
+     * asynchronously is that of the HTMLWriter, which is fixed when it is built (eg. from getFsyncPolicy()), hence the
+     * policy cannot be changed while an HTMLWriter with a different policy is set. The HTML maps written under the
+     * previous policy are forced to disk first, as they would have been at the end of the round.
+     * @param fsync_policy is the FsyncPolicy (NONE by default).
+     * @throws IllegalArgumentException is thrown whenever fsync_policy is null.
+     * @throws SetupOperationPrecedenceException is thrown if an HTMLWriter with a different policy is set.
+     */
+    public void setFsyncPolicy(FsyncPolicy fsync_policy){
+        if(fsync_policy == null){
+            throw new IllegalArgumentException("FsyncPolicy cannot be null.");
+        }
+        else if(html_writer != null && html_writer.getFsyncPolicy() != fsync_policy){
+            throw new SetupOperationPrecedenceException("Cannot change the fsync policy of the HTMLWriter after it is " +
+                                                        "built.");
+        }
+
+        file_writer.sync(); // such that the maps pending a PER_ROUND sync are not dropped
+        file_writer = new AtomicFileWriter(fsync_policy);
+    }
+
+    /**
+     * Getter for the FsyncPolicy deciding when the HTML maps are forced to disk.
+     * @return FsyncPolicy the policy of the game's AtomicFileWriter.
+     */
+    public FsyncPolicy getFsyncPolicy(){
+        return file_writer.getFsyncPolicy();
+    }
+
+    /**
+     * Marks the end of a round, such that under PER_ROUND the HTML maps written in the round are forced to disk; by the
+     * HTMLWriter once it has written them if one is set, or before returning otherwise.
+     * @throws IOException is thrown when there is a failure in persisting to disk [generally fatal].
+     */
+    public void endRound() throws IOException{
+        if(html_writer != null){
+            html_writer.endRound();
+        }
+        else{
+            file_writer.sync();
+        }
+    }
+
+    /**
+     * Blocks until the HTML maps written so far have been persisted to disk, if they are persisted asynchronously.
+     * @throws IOException is thrown when there is a failure in persisting to disk [generally fatal].
+     */
+    public void flushHTMLFiles() throws IOException{
+        if(html_writer != null){
+            html_writer.flush();
+        }
+    }
+
+    /**
+     * Convenience function for generating and persisting to disk the HTML map file for a Player instance, in the
+     * game's MapFormat. The tiles of the HTML maps of each team are kept by a MapRenderer, such that only the tiles
+     * newly visited by the team are rendered, once for the whole team, and each player's HTML map is written by splicing
+     * in their markers. The file shared by the HTML maps in the MapFormat, i.e. the stylesheet of the GRID MapFormat or
+     * the script drawing the COMPACT MapFormat, is first written to the directory, once. The HTML map replaces the
+     * previous one atomically, such that a browser never sees a half-written page. If an HTMLWriter is set, a copy of
+     * the HTML map is queued to be persisted by it instead.
      * @param player is the Player instance for which an HTML map is to be generated.
      * @param map is a Map instance on which the HTML maps are to be built.
      * @throws IOException is thrown when there is a failure in persisting to disk [generally fatal].
+     * @throws IllegalArgumentException is thrown when the map is too large to be written in the game's MapFormat.
      */
     public void writeHTMLFile(Player player, Map map) throws IOException{
         if(dir == null){ // if directory not set, throw a SetupOperationPrecedenceException
             throw new SetupOperationPrecedenceException("Directory to write HTML files not specified.");
         }
         else{
-            // generate and persist to disk the HTML map for the player instance
-            FileWriter writer = new FileWriter(dir + System.getProperty("file.separator") +
-                                               "player_" + player.get_pID() + "_map.html");
+            htmlGenerator.checkPlayerMap(player, map);
+            checkMapFormat(map_format, map);
+
+            // bring the tiles of the player's team up to date, and persist the HTML map for the player instance to disk
+            MapRenderer renderer = renderers.computeIfAbsent(player.getTeam(), team -> MapRenderer.create(map_format));
+            renderer.render(player.getTeam(), map);
+
+            if(map_format == MapFormat.GRID && !dir.equals(stylesheet_dir)){
+                file_writer.write(Paths.get(dir, HTMLGenerator.STYLESHEET_FILE), HTMLGenerator.STYLESHEET);
+                stylesheet_dir = dir;
+            }
+            else if(map_format == MapFormat.COMPACT && !dir.equals(script_dir)){
+                file_writer.write(Paths.get(dir, CompactMapRenderer.SCRIPT_FILE), CompactMapRenderer.SCRIPT);
+                script_dir = dir;
+            }
 
-            // iterate through the html ArrayList and persist
-            for(String ln : htmlGenerator.genPlayerMap(player, map)){
-                writer.write(ln);
+            Path file = Paths.get(dir, "player_" + player.get_pID() + "_map.html");
+            if(html_writer == null){
+                file_writer.write(file, renderer.segments(player));
             }
-            writer.close();
+            else{
+                html_writer.submit(file, renderer.toByteArray(player));
+            }
+        }
+    }
+
+    /**
+     * Helper function used to check that the HTML maps of a map can be written in a MapFormat. In the GRID MapFormat, the
+     * tiles of a map must fit in a single byte array, which rules out the largest maps allowed in large-map mode.
+     * @param map_format is the MapFormat in which the HTML maps are to be written.
+     * @param map is the Map instance on which the HTML maps are to be built.
+     * @throws IllegalArgumentException is thrown when the map is too large to be written in map_format.
+     */
+    private static void checkMapFormat(MapFormat map_format, Map map){
+        if(map_format == MapFormat.GRID && !TeamMapRenderer.canRender(map.getSize())){
+            throw new IllegalArgumentException("A " + map.getSize() + "x" + map.getSize() + " map is too large to be " +
+                    "written in the GRID MapFormat, use the COMPACT MapFormat instead.");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,281 @@
+package com.xd.cps2002.game;
+
+import com.xd.cps2002.game.game_exceptions.GameRegistryFullException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * The GameRegistry class creates, looks up and retires many independent Game instances, such that a single JVM can host
+ * thousands of games at once. Each game is identified by a unique game id given out by the registry, and has its own
+ * players, teams, map, winners and (optionally) output directory, named game_[id] within the registry's output
+ * directory.
+ *
+ * To keep the memory used bounded, the registry holds at most max_games games at any one time; creating a game while
+ * the registry is full throws a GameRegistryFullException, until a game is retired. Retiring a game resets it, such
+ * that its players, teams and map can be garbage collected even if the caller still references the Game instance.
+ *
+ * The registry keeps lifecycle metrics: the number of games created, retired and rejected, the peak number of active
+ * games, the age of each active game and the total lifetime of all retired games.
+ *
+ * All of the methods may be called by many threads at once. A single Game instance is not synchronized however, and is
+ * intended to be played by one thread at a time.
+ */
+public final class GameRegistry{
+    private final int max_games; // the maximum number of games held by the registry at any one time
+    private final Path output_root; // directory in which each game's output directory is created, or null if none
+    private final LongSupplier clock; // source of the current time, in nanoseconds
+
+    private final ConcurrentHashMap<Integer, Entry> games = new ConcurrentHashMap<>(); // active games, by game id
+    private final AtomicInteger next_id = new AtomicInteger(); // the id given to the next game created
+    private final AtomicInteger active = new AtomicInteger(); // the number of games held, including reserved slots
+
+    // lifecycle metrics
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong retired = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicInteger peak_active = new AtomicInteger();
+    private final AtomicLong retired_lifetime_nanos = new AtomicLong();
+
+    /**
+     * Creates an empty registry, whose games are not given an output directory.
+     * @param max_games is the maximum number of games held by the registry at any one time.
+     * @throws IllegalArgumentException is thrown whenever max_games is less than 1.
+     */
+    public GameRegistry(int max_games){
+        this(max_games, null, System::nanoTime);
+    }
+
+    /**
+     * Creates an empty registry, whose games write their HTML files to a directory of their own within output_root.
+     * @param max_games is the maximum number of games held by the registry at any one time.
+     * @param output_root is the directory path in which the output directory of each game is created.
+     * @throws IllegalArgumentException is thrown whenever max_games is less than 1.
+     * @throws IOException is thrown whenever the path specified is not a directory.
+     */
+    public GameRegistry(int max_games, String output_root) throws IOException{
+        this(max_games, toDirectory(output_root), System::nanoTime);
+    }
+
+    /**
+     * Constructor used by the above, which also allows the clock to be replaced for testing.
+     * @param max_games is the maximum number of games held by the registry at any one time.
+     * @param output_root is the directory in which the output directory of each game is created, or null if none.
+     * @param clock gives the current time, in nanoseconds.
+     * @throws IllegalArgumentException is thrown whenever max_games is less than 1.
+     */
+    GameRegistry(int max_games, Path output_root, LongSupplier clock){
+        if(max_games < 1){
+            throw new IllegalArgumentException("A game registry must be able to hold at least one game.");
+        }
+
+        this.max_games = max_games;
+        this.output_root = output_root;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates a new, uninitialised, Game instance and registers it under a new game id. The game can then be looked up
+     * using get(int game_id) and set up as usual, eg. through Game.initialise().
+     * @return int game id of the new game.
+     * @throws GameRegistryFullException is thrown whenever the registry already holds max_games games.
+     * @throws IOException is thrown whenever the output directory of the game cannot be created.
+     */
+    public int create() throws IOException{
+        reserveSlot();
+
+        try{
+            int game_id = next_id.getAndIncrement();
+            Game game = new Game();
+
+            if(output_root != null){ // give each game an output directory of its own
+                game.setHTMLDirectory(Files.createDirectories(output_root.resolve("game_" + game_id)).toString());
+            }
+
+            games.put(game_id, new Entry(game, clock.getAsLong()));
+            created.incrementAndGet();
+            return game_id;
+        }
+        catch(IOException | RuntimeException e){
+            active.decrementAndGet(); // release the reserved slot, since the game was not registered
+            throw e;
+        }
+    }
+
+    /**
+     * Looks up an active game.
+     * @param game_id is the id of the game, as returned by create().
+     * @return Game instance with the given id, or null if there is no such game or it has been retired.
+     */
+    public Game get(int game_id){
+        Entry entry = games.get(game_id);
+        return (entry == null) ? null : entry.game;
+    }
+
+    /**
+     * Retires an active game, removing it from the registry and resetting its state such that it can be garbage
+     * collected. The files already written to the game's output directory are kept.
+     * @param game_id is the id of the game, as returned by create().
+     * @return true if the game was retired, or false if there is no such game or it has already been retired.
+     */
+    public boolean retire(int game_id){
+        Entry entry = games.remove(game_id);
+        if(entry == null){
+            return false;
+        }
+
+        retired_lifetime_nanos.addAndGet(clock.getAsLong() - entry.created_at);
+        retired.incrementAndGet();
+        active.decrementAndGet();
+
+        entry.game.reset();
+        return true;
+    }
+
+    /**
+     * Retires every active game created more than max_age_millis milliseconds ago, eg. to clear out abandoned games.
+     * @param max_age_millis is the maximum age of the games to keep.
+     * @return int number of games retired.
+     */
+    public int retireOlderThan(long max_age_millis){
+        long now = clock.getAsLong();
+        long max_age_nanos = max_age_millis * 1_000_000;
+
+        int count = 0;
+        for(int game_id : games.keySet()){
+            Entry entry = games.get(game_id);
+            if(entry != null && now - entry.created_at > max_age_nanos && retire(game_id)){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Getter for the ids of the active games.
+     * @return ArrayList of type Integer, containing the id of each active game, in no particular order.
+     */
+    public ArrayList<Integer> getGameIds(){
+        return new ArrayList<>(games.keySet());
+    }
+
+    /**
+     * Getter for the age of an active game.
+     * @param game_id is the id of the game, as returned by create().
+     * @return long number of milliseconds since the game was created, or -1 if there is no such active game.
+     */
+    public long getAgeMillis(int game_id){
+        Entry entry = games.get(game_id);
+        return (entry == null) ? -1 : (clock.getAsLong() - entry.created_at) / 1_000_000;
+    }
+
+    /**
+     * @return int the maximum number of games held by the registry at any one time.
+     */
+    public int getMaxGames(){
+        return max_games;
+    }
+
+    /**
+     * @return int the number of games currently held by the registry.
+     */
+    public int getActiveGames(){
+        return games.size();
+    }
+
+    /**
+     * @return int the largest number of games held by the registry at any one time.
+     */
+    public int getPeakActiveGames(){
+        return peak_active.get();
+    }
+
+    /**
+     * @return long the number of games created.
+     */
+    public long getCreatedGames(){
+        return created.get();
+    }
+
+    /**
+     * @return long the number of games retired.
+     */
+    public long getRetiredGames(){
+        return retired.get();
+    }
+
+    /**
+     * @return long the number of games which could not be created since the registry was full.
+     */
+    public long getRejectedGames(){
+        return rejected.get();
+    }
+
+    /**
+     * @return double the average number of milliseconds between the creation and retirement of a game, or 0 if no
+     * games have been retired.
+     */
+    public double getAverageLifetimeMillis(){
+        long count = retired.get();
+        return (count == 0) ? 0 : retired_lifetime_nanos.get() / 1e6 / count;
+    }
+
+    /**
+     * Reserves a slot for a new game, such that no more than max_games games are ever held at once.
+     * @throws GameRegistryFullException is thrown whenever the registry already holds max_games games.
+     */
+    private void reserveSlot(){
+        int count;
+        do{
+            count = active.get();
+            if(count >= max_games){
+                rejected.incrementAndGet();
+                throw new GameRegistryFullException(max_games);
+            }
+        }while(!active.compareAndSet(count, count + 1));
+
+        peak_active.accumulateAndGet(count + 1, Math::max);
+    }
+
+    /**
+     * Checks that a directory path exists, in the same manner as Game.setHTMLDirectory(String dir).
+     * @param dir is the directory path to check.
+     * @return Path of the directory.
+     * @throws IOException is thrown whenever the path specified is not a directory.
+     */
+    private static Path toDirectory(String dir) throws IOException{
+        Path path;
+
+        try{
+            path = Paths.get(dir);
+        }
+        catch(Exception e){
+            throw new IOException(); // throw an IOException
+        }
+
+        if(!Files.isDirectory(path)){
+            throw new IOException();
+        }
+        return path;
+    }
+
+    /**
+     * An active game, along with the time at which it was created.
+     */
+    private static final class Entry{
+        private final Game game;
+        private final long created_at; // in nanoseconds, as given by the registry's clock
+
+        Entry(Game game, long created_at){
+            this.game = game;
+            this.created_at = created_at;
+        }
+    }
+}
@@ -4,10 +4,17 @@ import com.xd.cps2002.map.Map;
 import com.xd.cps2002.map.TileType;
 import com.xd.cps2002.player.Player;
 import com.xd.cps2002.player.Position;
+import com.xd.cps2002.player.Team;
 import com.xd.cps2002.player.player_exceptions.NullTeamException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The HTMLGenerator class is responsible for generating the HTML maps for each player. It implements a Singleton design
@@ -16,11 +23,39 @@ import java.util.Collections;
  * By decoupling the CSS style definitions of the tiles from this generator, the possibility to add new tile types is
  * greatly simplified.
  *
+ * Besides genPlayerMap(), which gives the HTML map as a list of Strings, writePlayerMap() streams the same HTML map
+ * directly to an OutputStream. The tile markup is encoded to bytes once, for every TileType, such that streaming a map
+ * does not create a String per tile; wrapping the stream in a BufferedOutputStream also means that the map is written
+ * in a few large writes rather than a write per tile.
+ *
+ * Since the style of the tiles is the same for every HTML map, the HTML maps written by the Game link to STYLESHEET,
+ * written once per directory as STYLESHEET_FILE, rather than embedding it; only the size of the grid, which depends on
+ * the map, is embedded. The prologue of the HTML map, up to the body, is encoded once per map size and cached.
+ *
  * @author Xandru Mifsud
  */
 public class HTMLGenerator{
     private static HTMLGenerator instance = null; // the singleton instance
 
+    // the HTML maps are pure ASCII, since the symbols marking the start and current positions are HTML entities
+    static final Charset CHARSET = StandardCharsets.US_ASCII;
+
+    // the pre-encoded markup of the parts of the HTML map which do not depend on the player or the map
+    static final byte[] HTML_BEGIN = "<!DOCTYPE html>\n<html>\n\n".getBytes(CHARSET);
+    static final byte[] HTML_END = "</div>\n</body>".getBytes(CHARSET);
+    static final byte[] UNCOVERED_TILE = "<div class=\"uncovered\"></div>\n".getBytes(CHARSET);
+
+    // the pre-encoded markup of a visited tile, the start tile and the current tile, indexed by TileType ordinal
+    static final byte[][] VISITED_TILES = encodeTiles("");
+    static final byte[][] START_TILES = encodeTiles("&#x26E9;");
+    static final byte[][] CURRENT_TILES = encodeTiles("&#x1F31E;");
+
+    // the style of the tiles shared by the HTML maps, and the pre-encoded prologues of the HTML maps, by map size
+    static final String STYLESHEET_FILE = "map.css";
+    static final byte[] STYLESHEET = genStylesheet().getBytes(CHARSET);
+    private static final ConcurrentHashMap<Integer, byte[]> INLINE_PROLOGUES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer, byte[]> LINKED_PROLOGUES = new ConcurrentHashMap<>();
+
     /**
      * Private constructor to initialize an HTMLGenerator instance (if one does not already exist).
      */
@@ -52,39 +87,119 @@ public class HTMLGenerator{
      *                 grid-template-rows.
      * @return Returns a string with the correctly formatted head block and nested CSS style block.
      */
-    private String genHTMLHead(int map_size){
-        StringBuilder style = new StringBuilder("<head>\n" + // begin head block
-                                                "<style>\n\n" + // begin style block
-
-                                                // define the CSS grid-container
-                                                ".grid-container {display: grid;\n" +
-                                                " grid-template-columns: repeat(" + map_size + ", 40px);\n" +
-                                                " grid-template-rows: repeat(" + map_size + ", 40px);\n" +
-                                                " padding: 10px;}\n\n" +
-
-                                                // defining style of an uncovered tile
-                                                ".uncovered {background-color: rgba(150, 150, 150, 0.8);\n" +
-                                                " border: 1px solid rgba(0, 0, 0, 0.8);}\n\n");
+    String genHTMLHead(int map_size){
+        return "<head>\n" + // begin head block
+               "<style>\n\n" + // begin style block
+               genGridStyle(map_size) +
+               genStylesheet() + // the style of an uncovered tile, and of each tile defined in the TileType enum
+               "</style>\n</head>\n\n"; // close style block followed by head block
+    }
+
+    /**
+     * Convenience function to generate the head block of an HTML file linking to the shared STYLESHEET_FILE, with a
+     * nested CSS style block holding only the grid-container definition, which depends on the size of the map.
+     * @param map_size is used to define the CSS grid-container size.
+     * @return Returns a string with the head block.
+     */
+    String genLinkedHTMLHead(int map_size){
+        return "<head>\n" +
+               "<link rel=\"stylesheet\" href=\"" + STYLESHEET_FILE + "\">\n" +
+               "<style>\n\n" +
+               genGridStyle(map_size) +
+               "</style>\n</head>\n\n";
+    }
+
+    /**
+     * Gives the pre-encoded prologue of an HTML map, up to the body block, encoding it only the first time that it is
+     * needed for a map size. The prologue must not be modified.
+     * @param map_size is the size of the map.
+     * @param linked is true for the prologue linking to STYLESHEET_FILE, and false for the one embedding the style.
+     * @return byte[] with the begin html block followed by the head block.
+     */
+    static byte[] prologue(int map_size, boolean linked){
+        ConcurrentHashMap<Integer, byte[]> prologues = linked ? LINKED_PROLOGUES : INLINE_PROLOGUES;
+        byte[] prologue = prologues.get(map_size);
+        if(prologue == null){
+            HTMLGenerator generator = getHTMLGenerator();
+            String head = linked ? generator.genLinkedHTMLHead(map_size) : generator.genHTMLHead(map_size);
+            prologue = MapRenderer.concat(HTML_BEGIN, head.getBytes(CHARSET));
+            prologues.putIfAbsent(map_size, prologue);
+        }
+        return prologue;
+    }
+
+    /**
+     * Convenience function to generate the CSS grid-container definition, by means of grid-template-columns and
+     * grid-template-rows.
+     * @param map_size is used to define the CSS grid-container size.
+     * @return Returns a string with the grid-container definition.
+     */
+    private static String genGridStyle(int map_size){
+        return ".grid-container {display: grid;\n" +
+               " grid-template-columns: repeat(" + map_size + ", 40px);\n" +
+               " grid-template-rows: repeat(" + map_size + ", 40px);\n" +
+               " padding: 10px;}\n\n";
+    }
 
-        // add the tile style for each tile defined in the TileType enum
+    /**
+     * Convenience function to generate the style of the tiles, which is the same for every HTML map: the style of an
+     * uncovered tile, and the tile style for each tile defined in the TileType enum, by means of the html_blurb.
+     * @return Returns a string with the style of the tiles.
+     */
+    private static String genStylesheet(){
+        StringBuilder style = new StringBuilder(".uncovered {background-color: rgba(150, 150, 150, 0.8);\n" +
+                                                " border: 1px solid rgba(0, 0, 0, 0.8);}\n\n");
         for(TileType tile : TileType.values()){
             style.append(tile.html_blurb);
         }
+        return style.toString();
+    }
 
-        style.append("</style>\n</head>\n\n"); // close style block followed by head block
+    /**
+     * Convenience function to generate the first part of the body block, up to the grid-container class, with a header
+     * identifying the player (and their team, if they are not playing alone).
+     * @param player is the Player instance for which the map is generated.
+     * @return Returns a string with the first part of the body block.
+     */
+    String genBodyBegin(Player player){
+        return "<body>\n\n" +
+               genTitle(player) + // header with player number
+               "<div class=\"grid-container\">\n";
+    }
 
-        return style.toString();
+    /**
+     * Convenience function to generate the header identifying the player (and their team, if they are not playing
+     * alone).
+     * @param player is the Player instance for which the map is generated.
+     * @return Returns a string with the header.
+     */
+    String genTitle(Player player){
+        return (player.getTeam().players.size() == 1)
+               ? "<h1>Map for Player #" + player.get_pID() + "</h1>\n\n"
+               : "<h1>Map for Player #" + player.get_pID() + " in Team #" + player.getTeam().get_tID() + "</h1>\n\n";
     }
 
     /**
-     * Responsible for generating the HTML map, as a structured String ArrayList
+     * Convenience function to encode the markup of a tile of each TileType, holding the given symbol.
+     * @param symbol is the content of the tile, eg. an HTML entity, or an empty String for no symbol.
+     * @return byte[][] with the encoded markup of the tile, indexed by TileType ordinal.
+     */
+    private static byte[][] encodeTiles(String symbol){
+        byte[][] tiles = new byte[TileType.values().length][];
+        for(TileType tile : TileType.values()){
+            tiles[tile.ordinal()] = ("<div class=\"" + tile.html_handle + "\">" + symbol + "</div>\n").getBytes(CHARSET);
+        }
+        return tiles;
+    }
+
+    /**
+     * Checks that an HTML map can be generated for a Player instance on a Map instance.
      * @param player is a Player instance for which a map will be generated.
      * @param map is a Map instance on which the HTML map will be based.
      * @throws IllegalArgumentException whenever the Player or Map instances passed are null.
      * @throws NullTeamException is thrown when Team team is null, i.e. when it has not been set.
-     * @return an ArrayList of type String with the lines of the HTML file.
      */
-    public ArrayList<String> genPlayerMap(Player player, Map map){
+    void checkPlayerMap(Player player, Map map){
         if(map == null){
             throw new IllegalArgumentException("Map instance cannot be null.");
         }
@@ -94,6 +209,18 @@ public class HTMLGenerator{
         else if(player.getTeam() == null){
             throw new NullTeamException(player.get_pID());
         }
+    }
+
+    /**
+     * Responsible for generating the HTML map, as a structured String ArrayList
+     * @param player is a Player instance for which a map will be generated.
+     * @param map is a Map instance on which the HTML map will be based.
+     * @throws IllegalArgumentException whenever the Player or Map instances passed are null.
+     * @throws NullTeamException is thrown when Team team is null, i.e. when it has not been set.
+     * @return an ArrayList of type String with the lines of the HTML file.
+     */
+    public ArrayList<String> genPlayerMap(Player player, Map map){
+        checkPlayerMap(player, map);
 
         int map_size = map.getSize();
 
@@ -123,14 +250,8 @@ public class HTMLGenerator{
         // add the head and nested CSS style block, as generated by genHTMLHead(map_size) [at index 1]
         html.add(genHTMLHead(map_size));
 
-        String title = (player.getTeam().players.size() == 1)
-                     ? "<h1>Map for Player #" + player.get_pID() + "</h1>\n\n"
-                     : "<h1>Map for Player #" + player.get_pID() + " in Team #" + player.getTeam().get_tID() + "</h1>\n\n";
-
         // add the first part of the <body> block - up to the grid-container class [at index 2]
-        html.add("<body>\n\n" +
-                title + // header with player number
-                "<div class=\"grid-container\">\n");
+        html.add(genBodyBegin(player));
 
         // add map_size^2 uncovered tiles to the map [at index 3 to map_size^2 + 3]
         html.addAll(Collections.nCopies(map_size*map_size, "<div class=\"uncovered\"></div>\n"));
@@ -164,4 +285,62 @@ public class HTMLGenerator{
         // }
         // writer.close();
     }
+
+    /**
+     * Streams the HTML map of a Player instance to an OutputStream, giving exactly the same HTML as genPlayerMap() but
+     * without creating a String per tile: the tiles are written in order, using their pre-encoded markup. The stream
+     * is neither flushed nor closed, and should be buffered (eg. by a BufferedOutputStream) by the caller.
+     * @param player is a Player instance for which a map will be generated.
+     * @param map is a Map instance on which the HTML map will be based.
+     * @param out is the OutputStream to which the HTML map is written.
+     * @throws IllegalArgumentException whenever the Player or Map instances passed are null.
+     * @throws NullTeamException is thrown when Team team is null, i.e. when it has not been set.
+     * @throws IOException is thrown when there is a failure in writing to the stream.
+     */
+    public void writePlayerMap(Player player, Map map, OutputStream out) throws IOException{
+        checkPlayerMap(player, map);
+
+        int map_size = map.getSize();
+        Team team = player.getTeam();
+        Position start_position = player.getStartPosition();
+        long curr_position = player.getPackedPosition();
+        int start_idx = map_size*start_position.y + start_position.x;
+        int curr_idx = map_size*Position.unpackY(curr_position) + Position.unpackX(curr_position);
+
+        // if the team does not mark its visited tiles in a BitSet for this map, mark them from its history instead
+        BitSet visited = null;
+        if(team.getMapSize() != map_size){
+            visited = new BitSet(map_size*map_size);
+            for(Position position : team.getPositionHistory()){
+                if(map.isValidPosition(position.x, position.y)){
+                    visited.set(map_size*position.y + position.x);
+                }
+            }
+        }
+
+        out.write(prologue(map_size, false));
+        out.write(genBodyBegin(player).getBytes(CHARSET));
+
+        for(int y = 0, idx = 0; y < map_size; y++){
+            for(int x = 0; x < map_size; x++, idx++){
+                int tile = map.getTileType(x, y).ordinal();
+
+                // the current position is marked over the start position, as in genPlayerMap()
+                if(idx == curr_idx){
+                    out.write(CURRENT_TILES[tile]);
+                }
+                else if(idx == start_idx){
+                    out.write(START_TILES[tile]);
+                }
+                else if((visited == null) ? team.hasVisited(Position.pack(x, y)) : visited.get(idx)){
+                    out.write(VISITED_TILES[tile]);
+                }
+                else{
+                    out.write(UNCOVERED_TILE);
+                }
+            }
+        }
+
+        out.write(HTML_END);
+    }
 }
@@ -0,0 +1,502 @@
+package com.xd.cps2002.game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The HTMLWriter class persists HTML maps to disk asynchronously, such that the latency of the disk does not land on the
+ * turns of the players. The HTML maps are queued by submit(), and written to disk by a dedicated I/O thread, which takes
+ * the queued maps in batches of up to batch_size files.
+ *
+ * Since only the latest HTML map of a player is of any use, a map queued for a file which already has a map waiting to
+ * be written replaces the waiting map, rather than being queued after it (i.e. the writes are coalesced). At most
+ * max_pending files may be waiting to be written; if the disk falls behind such that the queue is full, submit() blocks
+ * until the I/O thread makes room (i.e. backpressure is applied to the game).
+ *
+ * The files are written by an AtomicFileWriter, such that each HTML map is replaced atomically, and forced to disk
+ * according to the writer's FsyncPolicy. Under PER_ROUND, endRound() is to be called at the end of every round; the
+ * files are then forced to disk by the I/O thread as soon as the maps queued by the end of the round have been written,
+ * even if more maps have been queued since (i.e. a steady stream of maps does not hold back the round's sync).
+ *
+ * If the I/O thread fails to write a file, the failure is rethrown by every later call to submit() or flush(), since
+ * failing to persist the HTML maps is generally fatal. A single HTMLWriter may be shared by many games, eg. by the games
+ * of a GameRegistry.
+ */
+public final class HTMLWriter implements Closeable{
+    public static final int DEFAULT_MAX_PENDING = 1024;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final int max_pending; // the number of files which may be waiting to be written
+    private final int batch_size; // the number of files taken by the I/O thread at once
+    private final FileSink sink; // writes each file
+    private final Thread io_thread;
+
+    // the latest HTML map waiting to be written to each file, in the order in which the files were queued
+    private final LinkedHashMap<Path, PendingWrite> pending = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition not_empty = lock.newCondition();
+    private final Condition not_full = lock.newCondition();
+    private final Condition idle = lock.newCondition(); // signalled when nothing is waiting to be or being written
+    private boolean busy = false; // true while the I/O thread is writing a batch, or forcing files to disk
+    private long queued_seq = 0; // the sequence number of the last file queued, in the order in which files are written
+    private long written_seq = 0; // the sequence number of the last file written
+    // for each round ended since the files were last forced to disk, the sequence number of the last file queued by then
+    private final ArrayDeque<Long> sync_targets = new ArrayDeque<>();
+    private boolean closed = false;
+    private IOException failure = null; // the first failure of the I/O thread
+
+    // writer metrics
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong backpressure_waits = new AtomicLong();
+    private final AtomicLong backpressure_nanos = new AtomicLong();
+    private final AtomicLong total_latency_nanos = new AtomicLong(); // from submission to being written, over all writes
+    private final AtomicLong max_latency_nanos = new AtomicLong();
+    private int peak_pending = 0;
+
+    /**
+     * Creates a writer with a queue of DEFAULT_MAX_PENDING files, written in batches of DEFAULT_BATCH_SIZE files and
+     * never forced to disk.
+     */
+    public HTMLWriter(){
+        this(DEFAULT_MAX_PENDING, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a writer, and starts its I/O thread.
+     * @param max_pending is the number of files which may be waiting to be written before submit() blocks.
+     * @param batch_size is the maximum number of files taken by the I/O thread at once.
+     * @throws IllegalArgumentException is thrown whenever max_pending or batch_size is less than 1.
+     */
+    public HTMLWriter(int max_pending, int batch_size){
+        this(max_pending, batch_size, FsyncPolicy.NONE);
+    }
+
+    /**
+     * Creates a writer forcing the files to disk according to the given policy, and starts its I/O thread.
+     * @param max_pending is the number of files which may be waiting to be written before submit() blocks.
+     * @param batch_size is the maximum number of files taken by the I/O thread at once.
+     * @param fsync_policy is the FsyncPolicy deciding when the files are forced to disk.
+     * @throws IllegalArgumentException is thrown whenever max_pending or batch_size is less than 1, or fsync_policy is
+     * null.
+     */
+    public HTMLWriter(int max_pending, int batch_size, FsyncPolicy fsync_policy){
+        this(max_pending, batch_size, new AtomicFileWriter(fsync_policy));
+    }
+
+    /**
+     * Creates a writer writing each file using the given FileSink, eg. to control the I/O thread in unit tests.
+     * @param max_pending is the number of files which may be waiting to be written before submit() blocks.
+     * @param batch_size is the maximum number of files taken by the I/O thread at once.
+     * @param sink writes each file.
+     * @throws IllegalArgumentException is thrown whenever max_pending or batch_size is less than 1.
+     */
+    HTMLWriter(int max_pending, int batch_size, FileSink sink){
+        if(max_pending < 1){
+            throw new IllegalArgumentException("At least one file must be allowed to wait to be written.");
+        }
+        else if(batch_size < 1){
+            throw new IllegalArgumentException("A batch must hold at least one file.");
+        }
+
+        this.max_pending = max_pending;
+        this.batch_size = batch_size;
+        this.sink = sink;
+
+        // use a daemon thread, such that an idle writer does not stop the JVM from exiting
+        io_thread = new Thread(this::drain, "html-writer");
+        io_thread.setDaemon(true);
+        io_thread.start();
+    }
+
+    /**
+     * @return FsyncPolicy the policy deciding when the files are forced to disk.
+     */
+    public FsyncPolicy getFsyncPolicy(){
+        return sink.getFsyncPolicy();
+    }
+
+    /**
+     * Queues an HTML map to be written to a file, replacing any map still waiting to be written to the same file. If
+     * max_pending other files are waiting to be written, blocks until the I/O thread makes room.
+     * @param file is the path of the file to write.
+     * @param page is the HTML map, which must not be modified after being submitted.
+     * @throws IOException is thrown if the I/O thread failed to write a file, or the calling thread is interrupted while
+     * blocked (as an InterruptedIOException).
+     * @throws IllegalStateException is thrown if the writer is closed.
+     */
+    public void submit(Path file, byte[] page) throws IOException{
+        lock.lock();
+        try{
+            checkUsable();
+            submitted.incrementAndGet();
+
+            if(pending.size() >= max_pending && !pending.containsKey(file)){ // apply backpressure
+                backpressure_waits.incrementAndGet();
+                long start = System.nanoTime();
+                try{
+                    while(pending.size() >= max_pending && !pending.containsKey(file) && failure == null && !closed){
+                        not_full.await();
+                    }
+                }
+                catch(InterruptedException e){
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting to queue " + file + ".");
+                }
+                finally{
+                    backpressure_nanos.addAndGet(System.nanoTime() - start);
+                }
+                checkUsable();
+            }
+
+            PendingWrite write = pending.get(file);
+            if(write != null){ // coalesce with the map waiting to be written
+                write.page = page;
+                write.submit_nanos = System.nanoTime();
+                coalesced.incrementAndGet();
+            }
+            else{
+                pending.put(file, new PendingWrite(page, System.nanoTime(), ++queued_seq));
+                peak_pending = Math.max(peak_pending, pending.size());
+                not_empty.signal();
+            }
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the end of a round: under PER_ROUND, the files written so far are forced to disk by the I/O thread once the
+     * HTML maps submitted so far have been written, without waiting for any maps submitted later. Does not block.
+     * @throws IOException is thrown if the I/O thread failed to write a file.
+     * @throws IllegalStateException is thrown if the writer is closed.
+     */
+    public void endRound() throws IOException{
+        lock.lock();
+        try{
+            checkUsable();
+            sync_targets.addLast(queued_seq);
+            not_empty.signal();
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every HTML map submitted so far has been written to disk, and forced to disk if a round ended.
+     * @throws IOException is thrown if the I/O thread failed to write a file, or the calling thread is interrupted while
+     * blocked (as an InterruptedIOException).
+     */
+    public void flush() throws IOException{
+        lock.lock();
+        try{
+            while((!pending.isEmpty() || busy || !sync_targets.isEmpty()) && failure == null && io_thread.isAlive()){
+                idle.await();
+            }
+            if(failure != null){
+                throw failure;
+            }
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the HTML maps to be written.");
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes every HTML map submitted so far to disk, and stops the I/O thread. Closing a closed writer has no effect.
+     * @throws IOException is thrown if the I/O thread failed to write a file.
+     */
+    @Override
+    public void close() throws IOException{
+        try{
+            flush();
+        }
+        finally{
+            lock.lock();
+            try{
+                closed = true;
+                not_empty.signalAll();
+                not_full.signalAll();
+            }
+            finally{
+                lock.unlock();
+            }
+
+            try{
+                io_thread.join();
+            }
+            catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return int the number of files waiting to be written.
+     */
+    public int getQueueDepth(){
+        lock.lock();
+        try{
+            return pending.size();
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return int the highest number of files which were waiting to be written at once.
+     */
+    public int getPeakQueueDepth(){
+        lock.lock();
+        try{
+            return peak_pending;
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return long the number of HTML maps submitted.
+     */
+    public long getSubmittedWrites(){
+        return submitted.get();
+    }
+
+    /**
+     * @return long the number of HTML maps which replaced a map waiting to be written to the same file.
+     */
+    public long getCoalescedWrites(){
+        return coalesced.get();
+    }
+
+    /**
+     * @return long the number of files written.
+     */
+    public long getCompletedWrites(){
+        return written.get();
+    }
+
+    /**
+     * @return long the number of files which failed to be written.
+     */
+    public long getFailedWrites(){
+        return failed.get();
+    }
+
+    /**
+     * @return long the number of batches of files taken by the I/O thread.
+     */
+    public long getBatches(){
+        return batches.get();
+    }
+
+    /**
+     * @return long the number of times that submit() blocked since the queue was full.
+     */
+    public long getBackpressureWaits(){
+        return backpressure_waits.get();
+    }
+
+    /**
+     * @return long the number of milliseconds spent blocked in submit() since the queue was full, over all threads.
+     */
+    public long getBackpressureMillis(){
+        return backpressure_nanos.get() / 1_000_000;
+    }
+
+    /**
+     * @return double the mean number of microseconds from an HTML map being submitted to being written, or 0 if no
+     * files were written.
+     */
+    public double getMeanWriteLatencyMicros(){
+        long n = written.get();
+        return (n == 0) ? 0 : total_latency_nanos.get() / 1e3 / n;
+    }
+
+    /**
+     * @return double the highest number of microseconds from an HTML map being submitted to being written.
+     */
+    public double getMaxWriteLatencyMicros(){
+        return max_latency_nanos.get() / 1e3;
+    }
+
+    /**
+     * Checks that HTML maps may still be submitted.
+     * @throws IOException is thrown if the I/O thread failed to write a file.
+     * @throws IllegalStateException is thrown if the writer is closed.
+     */
+    private void checkUsable() throws IOException{
+        if(failure != null){
+            throw failure;
+        }
+        else if(closed){
+            throw new IllegalStateException("The HTML writer is closed.");
+        }
+    }
+
+    /**
+     * The work of the I/O thread: repeatedly takes a batch of the files waiting to be written, and writes them, until
+     * the writer is closed and no files are waiting. Since the files are written in the order in which they were queued,
+     * the files queued by the end of a round have all been written once the file with the round's sequence number has
+     * been written, at which point the files are forced to disk, covering every round ended up to that file.
+     */
+    private void drain(){
+        ArrayList<Path> files = new ArrayList<>(batch_size);
+        ArrayList<PendingWrite> writes = new ArrayList<>(batch_size);
+
+        while(true){
+            long batch_seq = 0; // the sequence number of the last file in the batch
+            lock.lock();
+            try{
+                while(pending.isEmpty() && sync_targets.isEmpty() && !closed){
+                    not_empty.await();
+                }
+                if(pending.isEmpty() && sync_targets.isEmpty()){ // closed, with nothing left to write
+                    idle.signalAll();
+                    return;
+                }
+
+                // take the batch, in the order in which the files were queued
+                Iterator<Map.Entry<Path, PendingWrite>> it = pending.entrySet().iterator();
+                while(it.hasNext() && files.size() < batch_size){
+                    Map.Entry<Path, PendingWrite> entry = it.next();
+                    files.add(entry.getKey());
+                    writes.add(entry.getValue());
+                    batch_seq = entry.getValue().seq;
+                    it.remove();
+                }
+                busy = true;
+                not_full.signalAll();
+            }
+            catch(InterruptedException e){
+                return;
+            }
+            finally{
+                lock.unlock();
+            }
+
+            if(!files.isEmpty()){
+                batches.incrementAndGet();
+            }
+            for(int i = 0; i < files.size(); i++){
+                try{
+                    sink.write(files.get(i), writes.get(i).page);
+                    written.incrementAndGet();
+
+                    long latency = System.nanoTime() - writes.get(i).submit_nanos;
+                    total_latency_nanos.addAndGet(latency);
+                    max_latency_nanos.accumulateAndGet(latency, Math::max);
+                }
+                catch(IOException e){
+                    failed.incrementAndGet();
+                    fail(e);
+                }
+            }
+            files.clear();
+            writes.clear();
+
+            // force the files to disk if the files queued by the end of the oldest round waiting for a sync are written
+            boolean sync = false;
+            lock.lock();
+            try{
+                written_seq = Math.max(written_seq, batch_seq);
+                while(!sync_targets.isEmpty() && sync_targets.peekFirst() <= written_seq){
+                    sync_targets.removeFirst();
+                    sync = true;
+                }
+            }
+            finally{
+                lock.unlock();
+            }
+
+            if(sync){
+                try{
+                    sink.sync();
+                }
+                catch(IOException e){
+                    fail(e);
+                }
+            }
+
+            lock.lock();
+            try{
+                busy = false;
+                if((pending.isEmpty() && sync_targets.isEmpty()) || failure != null){
+                    idle.signalAll();
+                }
+                if(failure != null){
+                    not_full.signalAll(); // wake up any blocked submitters, such that they see the failure
+                }
+            }
+            finally{
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Records the first failure of the I/O thread, to be rethrown by submit() and flush().
+     * @param e is the IOException thrown by the FileSink.
+     */
+    private void fail(IOException e){
+        lock.lock();
+        try{
+            if(failure == null){
+                failure = e;
+            }
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes an HTML map to a file, and forces the files written to disk at the end of a round, on the I/O thread.
+     */
+    interface FileSink{
+        void write(Path file, byte[] page) throws IOException;
+
+        default void sync() throws IOException{ }
+
+        default FsyncPolicy getFsyncPolicy(){
+            return FsyncPolicy.NONE;
+        }
+    }
+
+    /**
+     * The latest HTML map waiting to be written to a file, when it was submitted, and the sequence number given to the
+     * file when it was queued (which is kept when a later map replaces the waiting one, since the file keeps its place).
+     */
+    private static final class PendingWrite{
+        private byte[] page;
+        private long submit_nanos;
+        private final long seq;
+
+        PendingWrite(byte[] page, long submit_nanos, long seq){
+            this.page = page;
+            this.submit_nanos = submit_nanos;
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.xd.cps2002.game;
+
+/**
+ * The {@link MapFormat} enum defines the formats in which the HTML maps of the players can be written.
+ */
+public enum MapFormat{
+    /**
+     * The {@code GRID} format writes every tile of the map as a {@code <div>} of a CSS grid, as in
+     * {@link HTMLGenerator#genPlayerMap}. It needs no scripts, but takes some 35 bytes per tile.
+     */
+    GRID,
+    /**
+     * The {@code COMPACT} format packs the tiles visited by the team into a few bits per tile, embedded in the HTML map
+     * in base64, along with the start and current positions of the player. The map is drawn on a canvas by a script
+     * shared by all of the HTML maps, written once per directory alongside them. An HTML map takes some 10x to 100x
+     * fewer bytes than in the {@code GRID} format, depending on the size of the map.
+     */
+    COMPACT
+}
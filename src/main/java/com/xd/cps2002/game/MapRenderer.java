@@ -0,0 +1,237 @@
+package com.xd.cps2002.game;
+
+import com.xd.cps2002.game.game_exceptions.SetupOperationPrecedenceException;
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.player.Player;
+import com.xd.cps2002.player.Position;
+import com.xd.cps2002.player.Team;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The MapRenderer class is the base of the renderers which keep the rendered HTML maps of a team, in some MapFormat.
+ * The state shared by the team is rendered by render(), once for the whole team and, after the first render, only for
+ * the tiles newly visited by the team. The HTML map of each player is then written as a sequence of segments, from the
+ * shared state and the player's own header and markers, without copying the shared state.
+ *
+ * The shared state is only rendered from scratch if needed, i.e. on the first render, or whenever the map or team
+ * change, or the team's history is cleared. How the shared state is cleared, and how a visited tile is rendered into it,
+ * is left to the renderer of each MapFormat.
+ */
+public abstract class MapRenderer{
+    long full_renders = 0;
+    long delta_renders = 0;
+
+    final HashMap<Integer, byte[]> headers = new HashMap<>(); // the markup of each player's header, by p_id
+
+    // the state from which the shared state and headers were last rendered
+    Map map = null; // null if not rendered yet
+    Team team = null;
+    private int team_size; // the number of players in the team, which is shown in the headers
+    private int rendered_history; // the number of positions in the team's history which have been rendered
+    private int rendered_clears; // the number of times that the team's history had been cleared when last rendered
+
+    /**
+     * Package-private constructor, since the renderers are only created for the MapFormats.
+     */
+    MapRenderer(){ }
+
+    /**
+     * Creates a renderer for the HTML maps of a team in the given MapFormat.
+     * @param format is the MapFormat of the HTML maps.
+     * @return MapRenderer which renders the HTML maps in the given format.
+     * @throws IllegalArgumentException whenever format is null.
+     */
+    public static MapRenderer create(MapFormat format){
+        if(format == null){
+            throw new IllegalArgumentException("MapFormat cannot be null.");
+        }
+        return (format == MapFormat.COMPACT) ? new CompactMapRenderer() : new TeamMapRenderer();
+    }
+
+    /**
+     * Brings the rendered state up to date with the tiles visited by the team, rendering only the tiles newly visited
+     * since the last render, unless the state needs to be rendered from scratch.
+     * @param team is the Team instance whose tiles are rendered.
+     * @param map is the Map instance on which the HTML maps are based.
+     * @throws IllegalArgumentException whenever the Team or Map instances passed are null.
+     */
+    public void render(Team team, Map map){
+        if(map == null){
+            throw new IllegalArgumentException("Map instance cannot be null.");
+        }
+        else if(team == null){
+            throw new IllegalArgumentException("Team instance cannot be null.");
+        }
+
+        if(map != this.map || team != this.team || team.getHistoryClears() != rendered_clears){
+            if(map != this.map || team != this.team){ // the headers hold the map size and the team id
+                headers.clear();
+            }
+
+            this.map = map;
+            this.team = team;
+            this.rendered_history = 0;
+            this.rendered_clears = team.getHistoryClears();
+            clear(); // such that the visited tiles are rendered as changes
+            full_renders++;
+        }
+        else{
+            delta_renders++;
+        }
+
+        // the headers also depend on whether the player is alone in their team
+        if(team.players.size() != team_size){
+            headers.clear();
+            team_size = team.players.size();
+        }
+
+        // render the tiles newly visited by the team
+        List<Position> history = team.getPositionHistory();
+        for(int i = rendered_history; i < history.size(); i++){
+            Position position = history.get(i);
+            if(map.isValidPosition(position.x, position.y)){
+                setTile(map.getSize()*position.y + position.x);
+            }
+        }
+        rendered_history = history.size();
+    }
+
+    /**
+     * Writes the HTML map of a player in the rendered team to a GatheringByteChannel, such as a FileChannel, splicing
+     * the player's own parts into the shared state without copying it. The map is written using gathering writes, i.e.
+     * typically using a single system call. The channel is not closed.
+     * @param player is the Player instance for which the map is written.
+     * @param channel is the GatheringByteChannel to which the HTML map is written.
+     * @throws SetupOperationPrecedenceException is thrown if the tiles have not been rendered yet.
+     * @throws IllegalArgumentException is thrown if the player is null or not in the rendered team.
+     * @throws IOException is thrown when there is a failure in writing to the channel.
+     */
+    public void writePlayerMap(Player player, GatheringByteChannel channel) throws IOException{
+        AtomicFileWriter.writeFully(channel, segments(player));
+    }
+
+    /**
+     * Writes the HTML map of a player in the rendered team to an OutputStream, splicing the player's own parts into the
+     * shared state without copying it. The stream is neither flushed nor closed.
+     * @param player is the Player instance for which the map is written.
+     * @param out is the OutputStream to which the HTML map is written.
+     * @throws SetupOperationPrecedenceException is thrown if the tiles have not been rendered yet.
+     * @throws IllegalArgumentException is thrown if the player is null or not in the rendered team.
+     * @throws IOException is thrown when there is a failure in writing to the stream.
+     */
+    public void writePlayerMap(Player player, OutputStream out) throws IOException{
+        for(ByteBuffer buffer : segments(player)){
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+    }
+
+    /**
+     * Gives a copy of the HTML map of a player in the rendered team, eg. to be written asynchronously while the tiles
+     * are rendered for the next round.
+     * @param player is the Player instance for which the map is copied.
+     * @return byte[] with the HTML map.
+     * @throws SetupOperationPrecedenceException is thrown if the tiles have not been rendered yet.
+     * @throws IllegalArgumentException is thrown if the player is null or not in the rendered team.
+     */
+    public byte[] toByteArray(Player player){
+        ByteBuffer[] buffers = segments(player);
+
+        int length = 0;
+        for(ByteBuffer buffer : buffers){
+            length += buffer.remaining();
+        }
+
+        ByteBuffer page = ByteBuffer.allocate(length);
+        for(ByteBuffer buffer : buffers){
+            page.put(buffer);
+        }
+        return page.array();
+    }
+
+    /**
+     * @return long the number of times that the tiles were rendered from scratch.
+     */
+    public long getFullRenders(){
+        return full_renders;
+    }
+
+    /**
+     * @return long the number of times that only the newly visited tiles were rendered.
+     */
+    public long getDeltaRenders(){
+        return delta_renders;
+    }
+
+    /**
+     * Splits the HTML map of a player into the segments to be written in order.
+     * @param player is the Player instance for which the map is written.
+     * @return ByteBuffer[] wrapping each of the segments.
+     * @throws SetupOperationPrecedenceException is thrown if the tiles have not been rendered yet.
+     * @throws IllegalArgumentException is thrown if the player is null or not in the rendered team.
+     */
+    abstract ByteBuffer[] segments(Player player);
+
+    /**
+     * Renders every tile of this.map as uncovered, allocating the shared state for the size of the map if needed.
+     */
+    abstract void clear();
+
+    /**
+     * Renders a tile visited by the team into the shared state.
+     * @param idx is the linear index of the tile.
+     */
+    abstract void setTile(int idx);
+
+    /**
+     * Helper function used to check that the HTML map of a player can be written from the shared state.
+     * @param player is the Player instance for which the map is written.
+     * @throws SetupOperationPrecedenceException is thrown if the tiles have not been rendered yet.
+     * @throws IllegalArgumentException is thrown if the player is null or not in the rendered team.
+     */
+    void checkRendered(Player player){
+        if(map == null){
+            throw new SetupOperationPrecedenceException("The HTML maps have not been rendered yet.");
+        }
+        else if(player == null || player.getTeam() != team){
+            throw new IllegalArgumentException("The player must be in the rendered team.");
+        }
+    }
+
+    /**
+     * Helper function used to give the linear index of a position within the map.
+     * @param packed_position is the position, as packed by Position.pack(int x, int y).
+     * @return int the linear index y * size + x of the position, or -1 if it lies outside the map.
+     */
+    int linearIndex(long packed_position){
+        if(!map.isValidPosition(packed_position)){
+            return -1;
+        }
+        return map.getSize()*Position.unpackY(packed_position) + Position.unpackX(packed_position);
+    }
+
+    /**
+     * Helper function used to concatenate byte arrays.
+     * @param parts are the byte arrays to concatenate.
+     * @return byte[] with the parts one after the other.
+     */
+    static byte[] concat(byte[]... parts){
+        int length = 0;
+        for(byte[] part : parts){
+            length += part.length;
+        }
+
+        byte[] whole = new byte[length];
+        int offset = 0;
+        for(byte[] part : parts){
+            System.arraycopy(part, 0, whole, offset, part.length);
+            offset += part.length;
+        }
+        return whole;
+    }
+}
@@ -0,0 +1,188 @@
+package com.xd.cps2002.game;
+
+import com.xd.cps2002.game.game_exceptions.SetupOperationPrecedenceException;
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.player.Player;
+import com.xd.cps2002.player.Team;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * The TeamMapRenderer class keeps the rendered tiles of the HTML maps of a team. Since the players in a team share the
+ * team's history, their HTML maps only differ in the header and in the tiles holding the start and current position
+ * markers. Hence the tiles are rendered once for the whole team, without any markers, and the HTML map of each player
+ * is derived by splicing their markers into the shared tiles as the map is written, such that the tiles are not
+ * rendered once per player.
+ *
+ * Moreover, after the tiles are first rendered, only the tiles newly visited by the team are rendered, so the cost of
+ * rendering a round does not depend on the size of the map. To allow a tile to be rendered in place, the markup of every
+ * tile takes the same number of bytes: the markup of shorter tiles is padded with spaces before the line break, which
+ * the browser ignores. Hence the HTML maps are the same as the ones given by HTMLGenerator.genPlayerMap(), but for the
+ * padding, and for the head block linking to the shared HTMLGenerator.STYLESHEET_FILE rather than embedding the style of
+ * the tiles. The tiles are only rendered from scratch if needed, i.e. on the first render, or whenever the map or team
+ * change, or the team's history is cleared. These HTML maps are the ones of the GRID MapFormat.
+ */
+public final class TeamMapRenderer extends MapRenderer{
+    // the pre-encoded markup of each kind of tile, padded to the same width
+    static final int TILE_WIDTH = maxWidth();
+    private static final byte[] UNCOVERED_TILE = pad(HTMLGenerator.UNCOVERED_TILE);
+    private static final byte[][] VISITED_TILES = pad(HTMLGenerator.VISITED_TILES);
+    private static final byte[][] START_TILES = pad(HTMLGenerator.START_TILES);
+    private static final byte[][] CURRENT_TILES = pad(HTMLGenerator.CURRENT_TILES);
+
+    // the largest number of bytes which the rendered tiles can take up, since they are kept in a single byte array
+    static final int MAX_TILES_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final HTMLGenerator htmlGenerator = HTMLGenerator.getHTMLGenerator();
+
+    private byte[] tiles = null; // the rendered tiles, without markers, or null if not rendered yet
+
+    /**
+     * Brings the rendered tiles up to date with the tiles visited by the team (see MapRenderer.render()).
+     * @param team is the Team instance whose tiles are rendered.
+     * @param map is the Map instance on which the HTML maps are based.
+     * @throws IllegalArgumentException whenever the Team or Map instances passed are null, or the map is too large for
+     * its tiles to be rendered (see canRender(int map_size)).
+     */
+    @Override
+    public void render(Team team, Map map){
+        if(map != null && !canRender(map.getSize())){
+            throw new IllegalArgumentException("A " + map.getSize() + "x" + map.getSize() + " map is too large to be " +
+                    "rendered as an HTML page of tiles.");
+        }
+        super.render(team, map);
+    }
+
+    /**
+     * Checks whether the tiles of a map can be rendered, i.e. whether they fit in a single byte array. Since every tile
+     * takes up TILE_WIDTH bytes, this rules out the largest maps allowed in large-map mode.
+     * @param map_size is the size of the map.
+     * @return boolean true if the tiles of a (map_size x map_size) map take up at most MAX_TILES_LENGTH bytes.
+     */
+    static boolean canRender(int map_size){
+        return (long) map_size*map_size*TILE_WIDTH <= MAX_TILES_LENGTH;
+    }
+
+    /**
+     * Splits the HTML map of a player into the segments to be written in order: the header, the shared tiles up to the
+     * first marker, the first marker, and so on, up to the end of the HTML map.
+     * @param player is the Player instance for which the map is written.
+     * @return ByteBuffer[] wrapping each of the segments.
+     * @throws SetupOperationPrecedenceException is thrown if the tiles have not been rendered yet.
+     * @throws IllegalArgumentException is thrown if the player is null or not in the rendered team.
+     */
+    @Override
+    ByteBuffer[] segments(Player player){
+        checkRendered(player);
+
+        byte[] header = headers.get(player.get_pID());
+        if(header == null){
+            header = concat(HTMLGenerator.prologue(map.getSize(), true),
+                            htmlGenerator.genBodyBegin(player).getBytes(HTMLGenerator.CHARSET));
+            headers.put(player.get_pID(), header);
+        }
+
+        // the current position marker is spliced over the start position marker, as in genPlayerMap()
+        int start_idx = linearIndex(player.getStartPosition().pack());
+        int curr_idx = linearIndex(player.getPackedPosition());
+        int first_idx = (start_idx == curr_idx) ? -1 : Math.min(start_idx, curr_idx);
+        int second_idx = (start_idx == curr_idx) ? curr_idx : Math.max(start_idx, curr_idx);
+
+        ArrayList<ByteBuffer> buffers = new ArrayList<>(7);
+        buffers.add(ByteBuffer.wrap(header));
+        int offset = 0;
+        for(int idx : new int[]{first_idx, second_idx}){
+            if(idx < 0){ // no marker, or a marker outside the map
+                continue;
+            }
+
+            buffers.add(ByteBuffer.wrap(tiles, offset, offset(idx) - offset));
+            byte[][] markers = (idx == curr_idx) ? CURRENT_TILES : START_TILES;
+            buffers.add(ByteBuffer.wrap(markers[map.getTileType(idx % map.getSize(), idx / map.getSize()).ordinal()]));
+            offset = offset(idx + 1);
+        }
+        buffers.add(ByteBuffer.wrap(tiles, offset, tiles.length - offset));
+        buffers.add(ByteBuffer.wrap(HTMLGenerator.HTML_END));
+
+        return buffers.toArray(new ByteBuffer[0]);
+    }
+
+    /**
+     * Renders every tile as uncovered, allocating the tiles for the size of the map if needed.
+     */
+    @Override
+    void clear(){
+        int length = offset(map.getSize()*map.getSize());
+        if(tiles == null || tiles.length != length){
+            tiles = new byte[length];
+        }
+        for(int offset = 0; offset < length; offset += TILE_WIDTH){
+            System.arraycopy(UNCOVERED_TILE, 0, tiles, offset, TILE_WIDTH);
+        }
+    }
+
+    /**
+     * Renders a visited tile using the markup for its TileType.
+     * @param idx is the linear index of the tile.
+     */
+    @Override
+    void setTile(int idx){
+        int map_size = map.getSize();
+        byte[] tile = VISITED_TILES[map.getTileType(idx % map_size, idx / map_size).ordinal()];
+        System.arraycopy(tile, 0, tiles, offset(idx), TILE_WIDTH);
+    }
+
+    /**
+     * Gives the offset of a tile within the rendered tiles, computed using long arithmetic since idx*TILE_WIDTH
+     * overflows an int for large maps.
+     * @param idx is the linear index of the tile.
+     * @return int the offset of the tile's markup.
+     * @throws ArithmeticException if the offset does not fit in an int, which render() rules out by checking the size.
+     */
+    private static int offset(int idx){
+        return Math.toIntExact((long) idx*TILE_WIDTH);
+    }
+
+    /**
+     * @return int the width of the widest markup of any tile.
+     */
+    private static int maxWidth(){
+        int width = HTMLGenerator.UNCOVERED_TILE.length;
+        for(byte[][] markup : new byte[][][]{HTMLGenerator.VISITED_TILES, HTMLGenerator.START_TILES,
+                                            HTMLGenerator.CURRENT_TILES}){
+            for(byte[] tile : markup){
+                width = Math.max(width, tile.length);
+            }
+        }
+        return width;
+    }
+
+    /**
+     * Pads the markup of a tile to TILE_WIDTH bytes, by inserting spaces before its closing line break.
+     * @param tile is the markup of the tile, ending in a line break.
+     * @return byte[] with the padded markup.
+     */
+    private static byte[] pad(byte[] tile){
+        byte[] padded = new byte[TILE_WIDTH];
+        System.arraycopy(tile, 0, padded, 0, tile.length - 1);
+        for(int i = tile.length - 1; i < TILE_WIDTH - 1; i++){
+            padded[i] = ' ';
+        }
+        padded[TILE_WIDTH - 1] = '\n';
+        return padded;
+    }
+
+    /**
+     * Pads the markup of a tile of each TileType to TILE_WIDTH bytes.
+     * @param markup is the markup of the tile for each TileType, indexed by TileType ordinal.
+     * @return byte[][] with the padded markup, indexed by TileType ordinal.
+     */
+    private static byte[][] pad(byte[][] markup){
+        byte[][] padded = new byte[markup.length][];
+        for(int i = 0; i < markup.length; i++){
+            padded[i] = pad(markup[i]);
+        }
+        return padded;
+    }
+}
@@ -0,0 +1,11 @@
+package com.xd.cps2002.game.game_exceptions;
+
+/**
+ * Simple unchecked exception intended to be thrown when a game cannot be created by a GameRegistry, since the registry
+ * already holds the maximum number of games it is allowed to.
+ */
+public class GameRegistryFullException extends RuntimeException{
+    public GameRegistryFullException(int max_games){
+        super("Cannot create more than " + max_games + " concurrent games. Retire a game before creating another.");
+    }
+}
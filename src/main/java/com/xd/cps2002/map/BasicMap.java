@@ -1,10 +1,10 @@
 package com.xd.cps2002.map;
 
 import com.xd.cps2002.player.Position;
+import com.xd.cps2002.util.RandomSource;
+import com.xd.cps2002.util.SplittableRandomSource;
 
-import java.util.Arrays;
-import java.util.Random;
-import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The {@code BasicMap} class is a concrete implementation of the {@link} Map class, and it contains the implementations
@@ -47,6 +47,51 @@ public class BasicMap extends Map {
      */
     private int minWinnableTilesPercent = 75;
 
+    /**
+     * Queue of the linear indices of the tiles which still need to be checked by {@link BasicMap#isPlayable()}. It is
+     * created the first time the function is called and then reused, so that checking the same map repeatedly (as is
+     * done by {@link MapCreator}) does not allocate any memory.
+     */
+    private IntQueue uncheckedTiles;
+
+    /**
+     * The minimum size of a map for {@link BasicMap#isPlayable()} to label its components in parallel using a
+     * {@link ComponentLabeller} by default, rather than carrying out a single-threaded search.
+     */
+    static final int PARALLEL_LABELLING_MIN_SIZE = 1024;
+
+    /**
+     * Whether {@link BasicMap#isPlayable()} labels the components of the map in parallel. If set to {@code null}, the
+     * labeller is used for maps of size {@link BasicMap#PARALLEL_LABELLING_MIN_SIZE} or more, provided that there is
+     * more than one core available.
+     */
+    private Boolean parallelLabelling = null;
+
+    /**
+     * Whether {@link BasicMap#generate()} only places water tiles which keep all of the other tiles connected, such that
+     * the generated map is always playable (see {@link BasicMap#setAlwaysPlayable(boolean)}).
+     */
+    private boolean alwaysPlayable = false;
+
+    /**
+     * The source of random numbers used by {@link BasicMap#generate()} (see
+     * {@link BasicMap#setRandomSource(RandomSource)}).
+     */
+    private RandomSource random;
+
+    /**
+     * The number of passes over the map in which {@link BasicMap#generate()} randomly chooses water tiles when
+     * {@link BasicMap#alwaysPlayable} is set, before placing any remaining water tiles in the first tiles found which
+     * still keep the rest of the map connected.
+     */
+    private static final int MAX_RANDOM_PASSES = 4;
+
+    /**
+     * The number of times {@link BasicMap#generate()} tries to place the water tiles when {@link BasicMap#alwaysPlayable}
+     * is set, before settling for fewer water tiles.
+     */
+    private static final int MAX_PLACEMENT_ATTEMPTS = 8;
+
     /**
      * Constructor used to initialize an empty {@code BasicMap} object. It uses the constructor of the {@link Map} super
      * class.
@@ -61,6 +106,19 @@ public class BasicMap extends Map {
         super(n);
     }
 
+    /**
+     * Constructor used to initialize an empty {@code BasicMap} object, optionally in large-map mode. It uses the
+     * constructor of the {@link Map} super class.
+     * @param n size of the {@code n} x {@code n} square map
+     * @param largeMap true if the map should be created in large-map mode.
+     * @throws IllegalArgumentException if the method is given an invalid size parameter (outside of the range 5-50, or
+     * 5-46340 in large-map mode)
+     */
+    protected BasicMap(int n, boolean largeMap) {
+        // Initialize Map object using the Map class constructor
+        super(n, largeMap);
+    }
+
     /**
      * Constructor used to initialize a {@code BasicMap} object with a pre-generated map. It also uses the constructor
      * of the {@link Map} super class.
@@ -97,6 +155,8 @@ public class BasicMap extends Map {
      * cannot be water tiles.
      */
     public void setWaterTilePercentage(int minWaterTilePercent, int maxWaterTilePercent) {
+        checkNotFrozen();
+
         // If either percentage is not in range, throw an exception
         if(minWaterTilePercent < 0 || minWaterTilePercent > 64
                 || maxWaterTilePercent < 0 || maxWaterTilePercent > 64) {
@@ -126,6 +186,8 @@ public class BasicMap extends Map {
      * {@link BasicMap#minWinnableTilesPercent} is given a default value when the map is initialized.
      */
     public void setMinPlayableTilesPercentage(int minPlayableTilesPercentage) {
+        checkNotFrozen();
+
         // If the percentage is not in range, throw an exception
         if(minPlayableTilesPercentage < 1 || minPlayableTilesPercentage > 100) {
             throw new IllegalArgumentException("The percentage of playable must be in the range from 1 to 100 " +
@@ -136,6 +198,104 @@ public class BasicMap extends Map {
         this.minWinnableTilesPercent = minPlayableTilesPercentage;
     }
 
+    /**
+     * This function is used to choose whether the function {@link BasicMap#isPlayable()} labels the connected
+     * components of the map in parallel using a {@link ComponentLabeller}, rather than carrying out a single-threaded
+     * search from the treasure tile. Both give exactly the same result.
+     *
+     * @param parallelLabelling true to always label the map in parallel, false to always use a single-threaded search.
+     *
+     * @implNote By default, the labeller is only used for maps of size {@link BasicMap#PARALLEL_LABELLING_MIN_SIZE} or
+     * more when more than one core is available, since it needs an {@code int} per tile to store the labels and only
+     * pays off when the work can be spread across cores.
+     */
+    public void setParallelLabelling(boolean parallelLabelling) {
+        checkNotFrozen();
+        this.parallelLabelling = parallelLabelling;
+    }
+
+    /**
+     * This function is used to choose whether {@link BasicMap#generate()} guarantees that the generated map is
+     * playable, such that the map only needs to be generated once rather than until {@link BasicMap#isPlayable()}
+     * returns true.
+     *
+     * @param alwaysPlayable true to only place water tiles which keep the rest of the map connected, false to place water
+     *                       tiles anywhere except next to the treasure tile.
+     *
+     * @implNote When set, every tile which is not a water tile can reach the treasure tile, hence the percentage of
+     * winnable tiles only depends on the number of water tiles. If the percentage of water tiles chosen would leave less
+     * than the minimum percentage of playable tiles, fewer water tiles are placed. Since water tiles cannot split the
+     * map, they tend to form thinner lakes than when placed freely, and if the maximum percentage of water tiles is
+     * close to 64%, there may be no room left to place all of them. In very small maps, the water tiles placed first
+     * may also box in the rest, in which case the water tiles are placed again (up to
+     * {@link BasicMap#MAX_PLACEMENT_ATTEMPTS} times).
+     */
+    public void setAlwaysPlayable(boolean alwaysPlayable) {
+        checkNotFrozen();
+        this.alwaysPlayable = alwaysPlayable;
+    }
+
+    /**
+     * @return true if {@link BasicMap#generate()} only places water tiles which keep the rest of the map connected (see
+     * {@link BasicMap#setAlwaysPlayable(boolean)}).
+     */
+    public boolean isAlwaysPlayable() {
+        return alwaysPlayable;
+    }
+
+    /**
+     * This function is used to set the source of random numbers used by {@link BasicMap#generate()}. Generating maps of
+     * the same size and settings using sources created from the same seed always gives the same tiles, which allows a
+     * game to be reproduced. If no source is set, the map creates one with a random seed the first time it is generated.
+     * @param random the source of random numbers used to generate the map.
+     * @throws NullPointerException if the source is null.
+     */
+    public void setRandomSource(RandomSource random) {
+        checkNotFrozen();
+
+        if(random == null) {
+            throw new NullPointerException("The source of random numbers cannot be null.");
+        }
+        this.random = random;
+    }
+
+    /**
+     * Helper function used to decide whether {@link BasicMap#isPlayable()} should label the map in parallel.
+     * @return true if the map should be labelled using a {@link ComponentLabeller}.
+     */
+    private boolean useParallelLabelling() {
+        if(parallelLabelling != null) {
+            return parallelLabelling;
+        }
+        return size >= PARALLEL_LABELLING_MIN_SIZE && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote The queue used by {@link BasicMap#isPlayable()} is kept between calls, hence it is counted as well.
+     */
+    @Override
+    long retainedBytes() {
+        long bytes = super.retainedBytes();
+        if(uncheckedTiles != null) {
+            bytes += 4L * uncheckedTiles.capacity();
+        }
+        return bytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote Since a frozen map is never checked again, the queue used by {@link BasicMap#isPlayable()} is dropped
+     * so that it is not kept alongside the map while the map is shared.
+     */
+    @Override
+    void freeze() {
+        super.freeze();
+        uncheckedTiles = null;
+    }
+
     /**
      * Generates the tiles for the {@code BasicMap} object randomly.
      *
@@ -146,20 +306,38 @@ public class BasicMap extends Map {
      * of randomly generated water tiles to maps tiles is within the lower and upper bounds specified by the members
      * {@link BasicMap#minWaterTilePercent} and {@link BasicMap#maxWaterTilePercent}. The function also makes sure that
      * none of the water tiles that are generated are placed adjacent to the treasure tile.
+     *
+     * @throws UnsupportedOperationException if the map is frozen (see {@link Map#isFrozen()}).
      */
     @Override
     public void generate() {
-        // Create a new 2D array of tiles
-        tiles = new TileType[size][size];
+        checkNotFrozen();
+
+        // Use the source of random numbers set for the map, or create one the first time the map is generated
+        if(random == null) {
+            random = new SplittableRandomSource();
+        }
+        RandomSource r = random;
+
+        // Create a new grid of empty tiles, or empty the existing one if the map is being regenerated
+        if(tiles == null) {
+            tiles = new PackedTileGrid(size);
+        }
+        else {
+            tiles.clear();
+        }
+        winnableTilesSet = false;
+        treasureDistancesSet = false;
+        winnableTileIndicesSet = false;
+        componentIds = null;
 
         // Randomly choose the position of the treasure tile
         int treasureX,treasureY;
-        Random r = new Random();
         treasureX = r.nextInt(size);
         treasureY = r.nextInt(size);
 
         // Set the tile at the chosen position to be a treasure tile
-        tiles[treasureX][treasureY] = TileType.Treasure;
+        tiles.setCode(tiles.index(treasureX, treasureY), PackedTileGrid.TREASURE);
 
         // Store the position of the treasure tile in the "treasurePos" member
         treasurePos = new Position(treasureX, treasureY);
@@ -175,58 +353,145 @@ public class BasicMap extends Map {
         // Calculate the number of water tiles that need to be generated
         int waterTilesQuota = (int) Math.ceil(size * size * (randWaterTilePercentage/100));
 
-        // Try to place all of the water tiles in randomly generated positions
-        while(waterTilesQuota > 0) {
-            // Randomly choose a position on the map
-            int waterX = r.nextInt(size);
-            int waterY = r.nextInt(size);
+        // Count the tiles which may hold a water tile, i.e. all the tiles except those in the 3x3 square centred on the
+        // treasure tile (which may be cut off by the edges of the map)
+        int blockedColumns = Math.min(size - 1, treasureX + 1) - Math.max(0, treasureX - 1) + 1;
+        int blockedRows = Math.min(size - 1, treasureY + 1) - Math.max(0, treasureY - 1) + 1;
+        int eligibleTiles = size * size - blockedColumns * blockedRows;
 
-            // If the position is currently empty and is not next to a treasure tile, place the water tile
-            if(tiles[waterX][waterY] == null && !isNextToTreasureTile(waterX, waterY)) {
-                tiles[waterX][waterY] = TileType.Water;
-                waterTilesQuota--;
+        // The setters limit the percentage of water tiles, but never place more water tiles than there is room for
+        waterTilesQuota = Math.min(waterTilesQuota, eligibleTiles);
+
+        if(!alwaysPlayable) {
+            // Place exactly "waterTilesQuota" water tiles, in a single pass over the map
+            placeWaterTiles(waterTilesQuota, eligibleTiles, treasureX, treasureY, r, false);
+        }
+        else {
+            // Every other tile will be able to reach the treasure, so leave enough tiles for the map to be playable
+            int minReachableTiles = (int) Math.floor((size * size-1) * (minWinnableTilesPercent /100.0));
+            waterTilesQuota = Math.min(waterTilesQuota, size * size - 1 - minReachableTiles);
+
+            // Place the water tiles, starting again from an empty map if they could not all be placed
+            // Note: this can only happen in very small maps, where the water tiles placed first can box in the rest
+            for(int attempt = 1; placeConnectedWaterTiles(waterTilesQuota, eligibleTiles, treasureX, treasureY, r) > 0
+                    && attempt < MAX_PLACEMENT_ATTEMPTS; attempt++) {
+                tiles.clear();
+                tiles.setCode(tiles.index(treasureX, treasureY), PackedTileGrid.TREASURE);
             }
         }
 
         // Fill in the rest of the tiles with grass tiles
-        for(int i = 0; i < size; i++) {
-            for(int j = 0; j < size; j++) {
-                // If the tile is still null, set it to a grass tile
-                if(tiles[i][j] == null) tiles[i][j] = TileType.Grass;
-            }
+        tiles.fillEmptyWithGrass();
+    }
+
+    /**
+     * Helper function used to randomly place a number of water tiles on an empty map, such that they keep the rest of
+     * the map connected.
+     * @param quota the number of water tiles to be placed.
+     * @param eligible the number of tiles outside the 3x3 square centred on the treasure tile.
+     * @param treasureX x-coordinate of the treasure tile.
+     * @param treasureY y-coordinate of the treasure tile.
+     * @param r the random number generator used to choose the water tiles.
+     * @return the number of water tiles which could not be placed.
+     */
+    private int placeConnectedWaterTiles(int quota, int eligible, int treasureX, int treasureY, RandomSource r) {
+        // Randomly place the water tiles over a few passes, since some of the chosen tiles are skipped in each pass
+        for(int pass = 0; pass < MAX_RANDOM_PASSES && quota > 0; pass++) {
+            int placed = placeWaterTiles(quota, eligible, treasureX, treasureY, r, true);
+            quota -= placed;
+            eligible -= placed;
         }
+
+        // Place any remaining water tiles in the first tiles which still keep the rest of the map connected
+        if(quota > 0) {
+            quota -= placeWaterTiles(quota, quota, treasureX, treasureY, r, true);
+        }
+        return quota;
     }
 
     /**
-     * Helper function used to check if a tile at a specific coordinate is adjacent to a {@link TileType#Treasure}
-     * tile.
-     * @param x x-coordinate of the tile to check
-     * @param y y-coordinate of the tile to check
-     * @return returns true if the tile is next to a {@link TileType#Treasure} tile and false otherwise.
-     */
-    private boolean isNextToTreasureTile(int x, int y) {
-        // Check if the chosen position has a treasure tile near it
-        boolean isNextToTreasure = false;
-
-        adjacentTilesSearch:
-        for(int i = -1; i <= 1; i++) {
-            for(int j = -1; j <= 1; j++) {
-                // Find a new position adjacent to the current one
-                int newX = x + i;
-                int newY = y + j;
-
-                // Check that the new generated position is different from the treasure tile position and check that
-                // the new position is valid on the map
-                if((newX != x || newY != y) && isValidPosition(newX,newY)) {
-                    // If the adjacent tile is a treasure tile, return true and stop searching
-                    if(tiles[newX][newY] == TileType.Treasure) {
-                        isNextToTreasure = true;
-                        break adjacentTilesSearch;
+     * Helper function used to randomly place a number of water tiles on the empty tiles of the map, such that none of
+     * them are placed on or adjacent to the treasure tile.
+     * @param quota the number of water tiles to be placed.
+     * @param eligible the number of empty tiles outside the 3x3 square centred on the treasure tile.
+     * @param treasureX x-coordinate of the treasure tile.
+     * @param treasureY y-coordinate of the treasure tile.
+     * @param r the random number generator used to choose the water tiles.
+     * @param keepConnected true if chosen tiles should be skipped when placing a water tile on them would split the rest
+     *                      of the map (see {@link BasicMap#keepsTilesConnected(int, int)}).
+     * @return the number of water tiles placed.
+     *
+     * @implNote The tiles are chosen using selection sampling (Knuth's Algorithm S): the eligible tiles are visited in
+     * order and each one is chosen with probability {@code remaining quota / remaining eligible tiles}. This chooses
+     * exactly {@code quota} distinct tiles, with every subset of eligible tiles being equally likely, in a single pass
+     * over the map which draws at most one random number per tile. Unlike picking random positions until an empty one is
+     * found, the time taken does not depend on how many water tiles are placed. If {@code quota} is at least
+     * {@code eligible}, every eligible tile is chosen in order without drawing any random numbers, until the quota is
+     * met.
+     */
+    private int placeWaterTiles(int quota, int eligible, int treasureX, int treasureY, RandomSource r,
+                                boolean keepConnected) {
+        int placed = 0;
+        int idx = 0;
+        for(int y = 0; y < size && quota > 0; y++) {
+            boolean isNearTreasureRow = Math.abs(y - treasureY) <= 1;
+            for(int x = 0; x < size && quota > 0; x++, idx++) {
+                if(tiles.code(idx) != PackedTileGrid.EMPTY || (isNearTreasureRow && Math.abs(x - treasureX) <= 1)) {
+                    continue;
+                }
+
+                // Once every remaining eligible tile has to be chosen, there is no need to draw a random number
+                if(quota >= eligible || r.nextInt(eligible) < quota) {
+                    if(!keepConnected || keepsTilesConnected(x, y)) {
+                        tiles.setCode(idx, PackedTileGrid.WATER);
+                        placed++;
+                        quota--;
+                    }
+                    else if(quota < eligible) {
+                        // Randomly chosen tiles which would split the map are skipped, and count towards the quota for
+                        // this pass so that the remaining tiles are still chosen with the right probability
+                        quota--;
                     }
                 }
+                eligible--;
             }
+            // Skip any tiles left in the row if the quota was met part of the way through it
+            idx = (y + 1) * size;
         }
-        return isNextToTreasure;
+        return placed;
+    }
+
+    /**
+     * Helper function used to check whether placing a water tile on a tile keeps the tiles around it which are not water
+     * tiles connected to each other. If so, placing the water tile cannot split the map into more than one region.
+     * @param x x-coordinate of the tile to check.
+     * @param y y-coordinate of the tile to check.
+     * @return true if the neighbouring tiles which are not water tiles remain connected through the 8 tiles surrounding
+     * the tile, false otherwise.
+     *
+     * @implNote Within the 8 surrounding tiles, two neighbouring tiles (e.g. the tiles above and to the right) can only
+     * be connected through the corner tile between them. Hence, the number of separate groups of neighbouring tiles is
+     * the number of neighbouring tiles which are not water tiles, less the number of such pairs joined by a corner tile
+     * (unless all 4 pairs are joined, in which case they form a single ring).
+     */
+    private boolean keepsTilesConnected(int x, int y) {
+        boolean up = isOpen(x, y - 1), right = isOpen(x + 1, y), down = isOpen(x, y + 1), left = isOpen(x - 1, y);
+
+        int neighbours = (up ? 1 : 0) + (right ? 1 : 0) + (down ? 1 : 0) + (left ? 1 : 0);
+        int joined = (up && right && isOpen(x + 1, y - 1) ? 1 : 0) + (right && down && isOpen(x + 1, y + 1) ? 1 : 0) +
+                (down && left && isOpen(x - 1, y + 1) ? 1 : 0) + (left && up && isOpen(x - 1, y - 1) ? 1 : 0);
+
+        return neighbours > 0 && neighbours - joined <= 1;
+    }
+
+    /**
+     * Helper function used to check whether a player can move onto a tile while the map is being generated.
+     * @param x x-coordinate of the tile to check.
+     * @param y y-coordinate of the tile to check.
+     * @return true if the tile is on the map and is not a water tile, false otherwise.
+     */
+    private boolean isOpen(int x, int y) {
+        return x >= 0 && x < size && y >= 0 && y < size && tiles.code(tiles.index(x, y)) != PackedTileGrid.WATER;
     }
 
     /**
@@ -242,10 +507,29 @@ public class BasicMap extends Map {
      * start from this tile. Also, due to rounding, this function may actually check that the map contains a percentage
      * of playable tiles less than that specified in {@link BasicMap#minWinnableTilesPercent}.
      *
-     * @implNote The function carries out a Depth First Search (DFS) traversal of the map starting from the treasure
-     * tile to check which grass tiles are actually connected to the treasure tile. The function also creates an array
-     * of booleans ({@link Map#winnableTiles}) representing the tiles which are connected to the treasure tile. The
-     * elements of this array can be accessed using the {@link Map#isPositionWinnable(Position)} function.
+     * @implNote The function carries out a Breadth First Search (BFS) traversal of the map starting from the treasure
+     * tile to check which grass tiles are actually connected to the treasure tile. The function also marks the tiles
+     * which are connected to the treasure tile in the winnable plane of {@link Map#tiles}, working directly on the
+     * packed grid. These tiles can be accessed using the {@link Map#isPositionWinnable(Position)} function.
+     *
+     * The traversal queues the linear indices of the tiles in a primitive {@link IntQueue}, rather than pushing a new
+     * {@link Position} onto a {@code Stack} for every tile. Thus, the time taken grows linearly with the number of
+     * tiles, and the memory used only grows with the size of the frontier of the search, which is what allows the
+     * function to be used on maps in large-map mode. The queue is kept in {@link BasicMap#uncheckedTiles} between
+     * calls, and tiles are visited using the winnable plane of the grid, so once the queue has grown to fit the
+     * frontier of the map the function does not allocate anything.
+     *
+     * If enabled (see {@link Map#setTreasureDistancesEnabled(boolean)}), the search also stores the distance of each
+     * tile it reaches in {@link Map#treasureDistances}, since breadth first search reaches every tile through one of the
+     * shortest walks from the treasure tile. For maps which are not in large-map mode, the winnable tiles are also added
+     * to {@link Map#winnableTileIndices} as they are found, such that start positions can be drawn from them.
+     *
+     * For large maps, the connected components of the map may instead be labelled in parallel (see
+     * {@link BasicMap#setParallelLabelling(boolean)}), in which case the winnable tiles are the ones in the same
+     * component as the treasure tile. The labels are dropped once the winnable tiles have been marked, since they take
+     * up an {@code int} per tile, and are only computed again if they are asked for through
+     * {@link Map#getComponentIds()}. Labelling the map does not give the distances to the treasure tile, which are then
+     * not available.
      */
     @Override
     public boolean isPlayable() {
@@ -254,59 +538,191 @@ public class BasicMap extends Map {
             throw new NullPointerException("Treasure position has not been set yet.");
         }
 
-        // Initialize "winnableTiles" with all tiles set to false
-        winnableTiles = new boolean[size][size];
-        for(boolean[] row : winnableTiles) {
-            Arrays.fill(row, false);
+        // A frozen map may be shared between threads, so return the result of the check carried out when it was frozen
+        if(frozen) {
+            return frozenPlayable;
+        }
+
+        // Un-mark all of the tiles in the grid as winnable
+        tiles.clearAllWinnable();
+        treasureDistancesSet = false;
+        winnableTileIndicesSet = false;
+
+        // Count the grass tiles which can reach the treasure, either by labelling the map or by searching it
+        int reachableCount = useParallelLabelling() ? markWinnableTilesByLabelling() : markWinnableTilesBySearch();
+
+        // Remove the treasure tile from the set of reachable (i.e. starting) tiles
+        reachableCount--;
+
+        // Calculate the minimum number of reachable tiles needed
+        int minReachableTiles = (int) Math.floor((size * size-1) * (minWinnableTilesPercent /100.0));
+
+        // Check that the minimum number of reachable tiles is met.
+        return reachableCount >= minReachableTiles;
+    }
+
+    /**
+     * Helper function used by {@link BasicMap#isPlayable()} to mark the winnable tiles using a single-threaded breadth
+     * first search from the treasure tile.
+     * @return the number of tiles reached by the search, including the treasure tile if it was reached from one of its
+     * neighbouring tiles.
+     */
+    private int markWinnableTilesBySearch() {
+        // Reuse the queue of the indices of the tiles which still need to be checked, creating it on the first call
+        if(uncheckedTiles == null) {
+            uncheckedTiles = new IntQueue(4 * size);
+        }
+        uncheckedTiles.clear();
+
+        // Reuse the distance field if the distances to the treasure tile are being computed
+        DistanceField distances = null;
+        if(treasureDistancesEnabled) {
+            if(treasureDistances == null) {
+                treasureDistances = new DistanceField(size * size);
+            }
+            distances = treasureDistances;
+            distances.clear();
         }
 
-        // Store a stack of tile positions which still need to be checked
-        Stack<Position> uncheckedPositions = new Stack<>();
+        // Reuse the array of the winnable tiles, unless the map is a large map, in which case it is built on demand
+        int[] winnable = winnableTileBuffer();
+        int winnableCount = 0;
+
         // Start checking from the treasure tile
-        uncheckedPositions.push(treasurePos);
+        int treasureIdx = tiles.index(treasurePos.x, treasurePos.y);
+        uncheckedTiles.add(treasureIdx);
+        if(distances != null) {
+            distances.set(treasureIdx, 0);
+        }
 
-        /* Perform a DFS traversal of the 2D tile array to check which grass tiles can reach the treasure */
+        /* Perform a BFS traversal of the tile grid to check which grass tiles can reach the treasure */
         // Keep a count of grass tiles which have been reached
         int reachableCount = 0;
+        int lastRowStart = size * (size - 1);
 
-        // Keep traversing until no more possible positions remain
-        while(!uncheckedPositions.empty()) {
-            // Get the top position on the stack and get the type of the tile
-            Position currentPos = uncheckedPositions.pop();
-
-            // Check all of the neighbouring tiles
-            for(int xOffset = -1; xOffset <= 1; xOffset++) {
-                for(int yOffset = -1; yOffset <= 1; yOffset++) {
-                    // Check the the move is either up, down, left, or right (i.e. at least one co-ordinate must remain
-                    // the same)
-                    if(xOffset == 0 ^ yOffset == 0) {
-                        Position adjacentPos = new Position(currentPos.x + xOffset, currentPos.y + yOffset);
-                        // Check if the adjacent position is valid, has not been visited yet and is not a water tile
-                        if(isValidPosition(adjacentPos)
-                            && !winnableTiles[adjacentPos.x][adjacentPos.y]
-                            && getTileType(adjacentPos) != TileType.Water) {
-                            // If so, add the position to the stack, so that its neighbouring tiles can also be
-                            // traversed.
-                            uncheckedPositions.push(adjacentPos);
-
-                            // Mark the adjacent tile as winnable and update the count of tiles reached
-                            winnableTiles[adjacentPos.x][adjacentPos.y] = true;
-                            reachableCount++;
-                        }
-                    }
+        // Keep traversing until no more possible tiles remain
+        while(!uncheckedTiles.isEmpty()) {
+            // Get the tile at the head of the queue and find its column
+            int currentIdx = uncheckedTiles.poll();
+            int x = currentIdx % size;
+
+            // Every tile other than the treasure tile is only queued once, so it is added to the winnable tiles once
+            if(winnable != null && currentIdx != treasureIdx) {
+                winnable[winnableCount++] = currentIdx;
+            }
+
+            // Check the tiles to the left, right, above and below the current tile, if they exist in the map
+            // Note: since the search is breadth first, the tiles are first reached through one of the shortest walks
+            int distance = (distances != null) ? distances.get(currentIdx) + 1 : 0;
+            if(x > 0) reachableCount += visit(currentIdx - 1, distances, distance);
+            if(x < size - 1) reachableCount += visit(currentIdx + 1, distances, distance);
+            if(currentIdx >= size) reachableCount += visit(currentIdx - size, distances, distance);
+            if(currentIdx < lastRowStart) reachableCount += visit(currentIdx + size, distances, distance);
+        }
+        // Set the treasure tile to unreachable (since the player should not be able to start playing on this tile)
+        tiles.clearWinnable(treasureIdx);
+        winnableTilesSet = true;
+        setWinnableTileCount(winnableCount);
+
+        // The treasure tile is reached again from its neighbours, so set its distance back to 0
+        if(distances != null) {
+            distances.set(treasureIdx, 0);
+            treasureDistancesSet = true;
+        }
+
+        return reachableCount;
+    }
+
+    /**
+     * Helper function used by {@link BasicMap#isPlayable()} to mark the winnable tiles by labelling the connected
+     * components of the map in parallel, and then marking the tiles in the same component as the treasure tile.
+     * @return the number of tiles in the same component as the treasure tile (which is the same number of tiles that
+     * would be reached by {@link BasicMap#markWinnableTilesBySearch()}).
+     */
+    private int markWinnableTilesByLabelling() {
+        // The labels are only needed until the winnable tiles are marked, hence they are not kept by the map
+        int[] labels = new ComponentLabeller(tiles, ForkJoinPool.getCommonPoolParallelism())
+                .label(ForkJoinPool.commonPool());
+
+        int treasureIdx = tiles.index(treasurePos.x, treasurePos.y);
+        int treasureLabel = labels[treasureIdx];
+
+        // Reuse the array of the winnable tiles, unless the map is a large map, in which case it is built on demand
+        int[] winnable = winnableTileBuffer();
+        int winnableCount = 0;
+
+        // Mark every tile in the same component as the treasure tile as winnable
+        int componentSize = 0;
+        for(int idx = 0; idx < labels.length; idx++) {
+            if(labels[idx] == treasureLabel) {
+                tiles.setWinnable(idx);
+                componentSize++;
+
+                if(winnable != null && idx != treasureIdx) {
+                    winnable[winnableCount++] = idx;
                 }
             }
         }
+
         // Set the treasure tile to unreachable (since the player should not be able to start playing on this tile)
-        winnableTiles[treasurePos.x][treasurePos.y] = false;
+        tiles.clearWinnable(treasureIdx);
+        winnableTilesSet = true;
+        setWinnableTileCount(winnableCount);
 
-        // Remove the treasure tile from the set of reachable (i.e. starting) tiles
-        reachableCount--;
+        // The search only counts the treasure tile if it is reached again from one of its neighbours, which is not the
+        // case if the treasure tile is a component of its own
+        return (componentSize > 1) ? componentSize : 0;
+    }
 
-        // Calculate the minimum number of reachable tiles needed
-        int minReachableTiles = (int) Math.floor((size * size-1) * (minWinnableTilesPercent /100.0));
+    /**
+     * Helper function used by {@link BasicMap#isPlayable()} to get the array in which to store the linear indices of the
+     * winnable tiles, creating it the first time it is needed.
+     * @return the array of the winnable tiles, which can hold every tile in the map, or null if the map is a large map.
+     */
+    private int[] winnableTileBuffer() {
+        if(largeMap) {
+            return null;
+        }
 
-        // Check that the minimum number of reachable tiles is met.
-        return reachableCount >= minReachableTiles;
+        if(winnableTileIndices == null || winnableTileIndices.length < size * size) {
+            winnableTileIndices = new int[size * size];
+        }
+        return winnableTileIndices;
+    }
+
+    /**
+     * Helper function used by {@link BasicMap#isPlayable()} to record the number of winnable tiles stored in the array
+     * returned by {@link BasicMap#winnableTileBuffer()}.
+     * @param count the number of winnable tiles stored in the array.
+     */
+    private void setWinnableTileCount(int count) {
+        if(!largeMap) {
+            winnableTileCount = count;
+            winnableTileIndicesSet = true;
+        }
+    }
+
+    /**
+     * Helper function used by {@link BasicMap#isPlayable()} to visit a tile adjacent to the tile being checked. If the
+     * tile has not been visited yet and is not a water tile, it is marked as winnable and added to the queue of tiles
+     * which still need to be checked.
+     * @param idx linear index of the adjacent tile.
+     * @param distances the distance field in which to store the distance of the tile, or null if the distances to the
+     *                  treasure tile are not being computed.
+     * @param distance the distance of the adjacent tile from the treasure tile.
+     * @return 1 if the tile was reached for the first time and 0 otherwise, to be added to the count of tiles reached.
+     */
+    private int visit(int idx, DistanceField distances, int distance) {
+        if(tiles.isWinnable(idx) || tiles.code(idx) == PackedTileGrid.WATER) {
+            return 0;
+        }
+
+        // Mark the adjacent tile as winnable, so that its neighbouring tiles can also be traversed
+        tiles.setWinnable(idx);
+        uncheckedTiles.add(idx);
+        if(distances != null) {
+            distances.set(idx, distance);
+        }
+        return 1;
     }
 }
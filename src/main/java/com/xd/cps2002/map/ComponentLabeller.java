@@ -0,0 +1,216 @@
+package com.xd.cps2002.map;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code ComponentLabeller} class labels the connected components of the tiles of a {@link PackedTileGrid} which
+ * are not water tiles, where two tiles are connected if they are next to each other horizontally or vertically (i.e.
+ * the moves a player can make). It is used by {@link BasicMap#isPlayable()} to find the winnable tiles of large maps
+ * using more than one core.
+ *
+ * The labelling is carried out in three phases:
+ *
+ * <ol>
+ *     <li>The grid is split into horizontal strips of rows, and the tiles in each strip are labelled in parallel using
+ *     a fork/join task. Each strip uses a union-find structure stored in the {@code labels} array itself, where each
+ *     tile points to a tile with a smaller index in the same component.</li>
+ *     <li>The labels of the strips are merged by joining the components on either side of each border between two
+ *     strips, using the same union-find structure.</li>
+ *     <li>Every tile is labelled in parallel with the root of its component.</li>
+ * </ol>
+ *
+ * Since every tile always points to a tile with a smaller index, the label of a component is the linear index of its
+ * first tile, regardless of how the grid was split into strips. Water tiles are labelled with
+ * {@link ComponentLabeller#WATER}.
+ */
+final class ComponentLabeller {
+    /**
+     * The label given to water tiles, which do not belong to any component.
+     */
+    static final int WATER = -1;
+
+    /**
+     * The minimum number of tiles in a strip, to keep the overhead of forking tasks small in comparison to the work
+     * carried out by each task.
+     */
+    private static final int MIN_STRIP_TILES = 1 << 16;
+
+    /**
+     * The grid to be labelled.
+     */
+    private final PackedTileGrid tiles;
+    /**
+     * The dimension of the square grid.
+     */
+    private final int size;
+    /**
+     * The number of rows in each strip (the last strip may be shorter).
+     */
+    private final int stripRows;
+    /**
+     * The union-find structure, which holds the component label of each tile once labelling is done.
+     */
+    private final int[] labels;
+
+    /**
+     * Creates a labeller for the given grid, splitting it into strips such that each core has a few strips to work on.
+     * @param tiles the grid to be labelled.
+     * @param parallelism the number of cores which will be used to label the grid.
+     */
+    ComponentLabeller(PackedTileGrid tiles, int parallelism) {
+        this(tiles, parallelism, Math.max(1, MIN_STRIP_TILES / tiles.size()));
+    }
+
+    /**
+     * Creates a labeller for the given grid, splitting it into strips with a given minimum number of rows.
+     * @param tiles the grid to be labelled.
+     * @param parallelism the number of cores which will be used to label the grid.
+     * @param minStripRows the minimum number of rows in each strip.
+     */
+    ComponentLabeller(PackedTileGrid tiles, int parallelism, int minStripRows) {
+        this.tiles = tiles;
+        this.size = tiles.size();
+        this.stripRows = Math.max(minStripRows, (size + 4 * parallelism - 1) / (4 * parallelism));
+        this.labels = new int[tiles.tileCount()];
+    }
+
+    /**
+     * Labels the connected components of the grid.
+     * @param pool the fork/join pool used to label the strips in parallel.
+     * @return an array holding the component label of each tile, indexed by the linear index of the tile.
+     */
+    int[] label(ForkJoinPool pool) {
+        int strips = (size + stripRows - 1) / stripRows;
+
+        // Phase 1: label each strip in parallel
+        pool.invoke(new StripTask(0, strips, false));
+
+        // Phase 2: join the components on either side of each border between two strips
+        for(int strip = 1; strip < strips; strip++) {
+            int rowStart = strip * stripRows * size;
+            for(int idx = rowStart; idx < rowStart + size; idx++) {
+                if(labels[idx] != WATER && labels[idx - size] != WATER) {
+                    union(idx, idx - size);
+                }
+            }
+        }
+
+        // Phase 3: point every tile directly to the root of its component, in parallel
+        pool.invoke(new StripTask(0, strips, true));
+
+        return labels;
+    }
+
+    /**
+     * Labels the tiles in the given strip, using only the tiles within the strip.
+     * @param strip the index of the strip.
+     */
+    private void labelStrip(int strip) {
+        int rowStart = strip * stripRows;
+        int rowEnd = Math.min(size, rowStart + stripRows);
+
+        for(int y = rowStart; y < rowEnd; y++) {
+            int idx = y * size;
+            for(int x = 0; x < size; x++, idx++) {
+                if(tiles.code(idx) == PackedTileGrid.WATER) {
+                    labels[idx] = WATER;
+                    continue;
+                }
+
+                // Start off as a component of its own, then join the tiles to the left and above (within the strip)
+                labels[idx] = idx;
+                if(x > 0 && labels[idx - 1] != WATER) {
+                    union(idx, idx - 1);
+                }
+                if(y > rowStart && labels[idx - size] != WATER) {
+                    union(idx, idx - size);
+                }
+            }
+        }
+    }
+
+    /**
+     * Points every tile in the given strip directly to the root of its component.
+     * @param strip the index of the strip.
+     *
+     * @implNote Other strips may be flattened at the same time, and a tile may point to a tile in another strip.
+     * However, every value written in this phase (a grandparent while halving a path, or the root itself) is an
+     * ancestor of the overwritten tile in the same tree, and no two trees are joined in this phase. Hence, whichever
+     * value is read while following a chain of tiles, the chain still leads to the same root.
+     */
+    private void flattenStrip(int strip) {
+        int start = strip * stripRows * size;
+        int end = Math.min(size, (strip + 1) * stripRows) * size;
+
+        for(int idx = start; idx < end; idx++) {
+            if(labels[idx] != WATER) {
+                labels[idx] = find(idx);
+            }
+        }
+    }
+
+    /**
+     * Finds the root of the component of a tile, halving the path to the root along the way.
+     * @param idx linear index of the tile.
+     * @return the linear index of the root of the component.
+     */
+    private int find(int idx) {
+        while(labels[idx] != idx) {
+            labels[idx] = labels[labels[idx]];
+            idx = labels[idx];
+        }
+        return idx;
+    }
+
+    /**
+     * Joins the components of two tiles, such that the root with the larger index points to the one with the smaller
+     * index.
+     * @param a linear index of the first tile.
+     * @param b linear index of the second tile.
+     */
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+
+        if(rootA < rootB) {
+            labels[rootB] = rootA;
+        }
+        else if(rootB < rootA) {
+            labels[rootA] = rootB;
+        }
+    }
+
+    /**
+     * Fork/join task which either labels or flattens a range of strips, splitting the range in half until a single
+     * strip remains.
+     */
+    private final class StripTask extends RecursiveAction {
+        private final int firstStrip;
+        private final int endStrip;
+        private final boolean flatten;
+
+        /**
+         * @param firstStrip the index of the first strip in the range.
+         * @param endStrip the index after the last strip in the range.
+         * @param flatten true if the strips should be flattened (phase 3), false if they should be labelled (phase 1).
+         */
+        StripTask(int firstStrip, int endStrip, boolean flatten) {
+            this.firstStrip = firstStrip;
+            this.endStrip = endStrip;
+            this.flatten = flatten;
+        }
+
+        @Override
+        protected void compute() {
+            if(endStrip - firstStrip == 1) {
+                if(flatten) flattenStrip(firstStrip);
+                else labelStrip(firstStrip);
+            }
+            else {
+                int middle = (firstStrip + endStrip) >>> 1;
+                invokeAll(new StripTask(firstStrip, middle, flatten), new StripTask(middle, endStrip, flatten));
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.xd.cps2002.map;
+
+import java.util.Arrays;
+
+/**
+ * The {@code DistanceField} class stores the length of the shortest walk from each tile of a map to the treasure tile,
+ * indexed by the linear index {@code y * size + x} of the tile. It is filled in by {@link BasicMap#isPlayable()} while
+ * it searches the map, and read through {@link Map#getTreasureDistance(int, int)}.
+ *
+ * Since no walk can be longer than the number of tiles in the map, maps with fewer than 65,535 tiles (i.e. up to
+ * 255 x 255 tiles) store each distance in a {@code char}, using half the memory of an {@code int}. Each distance is
+ * stored plus one, such that a zeroed array marks every tile as unreachable.
+ */
+final class DistanceField {
+    /**
+     * The distance returned for tiles from which the treasure tile cannot be reached, including water tiles.
+     */
+    static final int UNREACHABLE = -1;
+
+    /**
+     * The distances of a map with fewer than 65,535 tiles, or null if the map is larger.
+     */
+    private final char[] shortDistances;
+    /**
+     * The distances of a map with 65,535 tiles or more, or null if the map is smaller.
+     */
+    private final int[] distances;
+
+    /**
+     * Creates a distance field in which every tile is unreachable.
+     * @param tileCount the number of tiles in the map.
+     */
+    DistanceField(int tileCount) {
+        if(tileCount < Character.MAX_VALUE) {
+            shortDistances = new char[tileCount];
+            distances = null;
+        }
+        else {
+            shortDistances = null;
+            distances = new int[tileCount];
+        }
+    }
+
+    /**
+     * @return true if the distances are stored in a {@code char} per tile.
+     */
+    boolean isCompact() {
+        return shortDistances != null;
+    }
+
+    /**
+     * @return the number of bytes taken up by the distances, which is 2 bytes per tile if the distances are compact and
+     * 4 bytes per tile otherwise (see {@link Map#retainedBytes()}).
+     */
+    long retainedBytes() {
+        return (shortDistances != null) ? 2L * shortDistances.length : 4L * distances.length;
+    }
+
+    /**
+     * @param idx linear index of the tile.
+     * @return the distance from the tile to the treasure tile, or {@link DistanceField#UNREACHABLE}.
+     */
+    int get(int idx) {
+        return (shortDistances != null) ? shortDistances[idx] - 1 : distances[idx] - 1;
+    }
+
+    /**
+     * @param idx linear index of the tile.
+     * @param distance the distance from the tile to the treasure tile.
+     */
+    void set(int idx, int distance) {
+        if(shortDistances != null) {
+            shortDistances[idx] = (char) (distance + 1);
+        }
+        else {
+            distances[idx] = distance + 1;
+        }
+    }
+
+    /**
+     * Marks every tile as unreachable.
+     */
+    void clear() {
+        if(shortDistances != null) {
+            Arrays.fill(shortDistances, (char) 0);
+        }
+        else {
+            Arrays.fill(distances, 0);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.xd.cps2002.map;
+
+/**
+ * The {@code IntQueue} class is a simple first-in first-out queue of primitive {@code int} values, implemented as a
+ * ring buffer. It is used to traverse maps using the linear indices of their tiles, without having to box each index or
+ * allocate a {@link com.xd.cps2002.player.Position} for every tile which is visited.
+ *
+ * @implNote The capacity of the buffer is always a power of two, so that wrapping around the end of the buffer is done
+ * with a bit mask. The buffer doubles in size whenever it is full, hence it only needs to be as large as the largest
+ * frontier of the traversal rather than the number of tiles in the map.
+ */
+final class IntQueue {
+    /**
+     * The ring buffer holding the elements of the queue.
+     */
+    private int[] elements;
+    /**
+     * The index of the element at the head of the queue.
+     */
+    private int head;
+    /**
+     * The number of elements in the queue.
+     */
+    private int count;
+
+    /**
+     * Creates an empty queue which can hold at least {@code initialCapacity} elements before it needs to grow.
+     * @param initialCapacity the minimum initial capacity of the queue.
+     */
+    IntQueue(int initialCapacity) {
+        int capacity = 16;
+        while(capacity < initialCapacity && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        elements = new int[capacity];
+    }
+
+    /**
+     * @return true if the queue has no elements.
+     */
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return the number of elements in the queue.
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * @return the number of elements the queue can hold before it needs to grow.
+     */
+    int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Adds a value to the tail of the queue, growing the buffer if it is full.
+     * @param value the value to add.
+     */
+    void add(int value) {
+        if(count == elements.length) {
+            grow();
+        }
+        elements[(head + count) & (elements.length - 1)] = value;
+        count++;
+    }
+
+    /**
+     * Removes the value at the head of the queue.
+     * @return the value which was removed.
+     * @throws IllegalStateException if the queue is empty.
+     */
+    int poll() {
+        if(count == 0) {
+            throw new IllegalStateException("Cannot poll an empty queue.");
+        }
+        int value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        count--;
+        return value;
+    }
+
+    /**
+     * Removes all of the elements in the queue, while keeping the buffer so that it can be reused.
+     */
+    void clear() {
+        head = 0;
+        count = 0;
+    }
+
+    /**
+     * Doubles the size of the buffer, copying the elements such that the head of the queue is at index 0.
+     */
+    private void grow() {
+        int[] grown = new int[elements.length << 1];
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, grown, 0, firstPart);
+        System.arraycopy(elements, 0, grown, firstPart, head);
+        elements = grown;
+        head = 0;
+    }
+}
@@ -3,6 +3,9 @@ package com.xd.cps2002.map;
 import com.xd.cps2002.game.Game;
 import com.xd.cps2002.player.Player;
 import com.xd.cps2002.player.Position;
+import com.xd.cps2002.util.RandomSource;
+
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The {@code Map} abstract class provides a common interface for all the different types of map types. This acts as the
@@ -18,14 +21,38 @@ import com.xd.cps2002.player.Position;
  * @author Domenico Agius
  */
 public abstract class Map {
+    /**
+     * The smallest size of a map (5 x 5 tiles).
+     */
+    public static final int MIN_SIZE = 5;
+    /**
+     * The largest size of a standard map (50 x 50 tiles).
+     */
+    public static final int MAX_SIZE = 50;
+    /**
+     * The largest size of a map in large-map mode. This is the largest size for which the linear index of every tile
+     * still fits in an {@code int} (46340 x 46340 tiles).
+     */
+    public static final int MAX_LARGE_SIZE = 46340;
+
     /**
      * The {@code size} member stores the dimension of the square map (size x size tiles).
      */
     protected int size;
+
     /**
-     * The {@code tiles} member stores the actual types for each tile on the map that the player can walk on.
+     * The {@code largeMap} member is true if the map was created in large-map mode, which lifts the maximum size of the
+     * map from {@link Map#MAX_SIZE} to {@link Map#MAX_LARGE_SIZE}.
+     */
+    protected boolean largeMap;
+    /**
+     * The {@code tiles} member stores the actual types for each tile on the map that the player can walk on, along with
+     * the tiles from which a player can reach the treasure tile and win the game (see {@link Map#winnableTilesSet}).
+     *
+     * @implNote The tiles are stored in a bit-packed {@link PackedTileGrid} rather than a 2D array of {@link TileType}
+     * references, so that many maps can be kept in memory at once and scanning a map is cache-friendly.
      */
-    protected TileType[][] tiles;
+    protected PackedTileGrid tiles;
 
     /**
      * The {@code treasurePos} member stores position of the treasure tile in the map.
@@ -33,14 +60,78 @@ public abstract class Map {
     protected Position treasurePos;
 
     /**
-     * The {@code winnableTiles} member stores a 2D array of tiles from which a player can reach the treasure tile and
-     * win the game. It is assumed that this array does not mark the treasure tile itself as winnable however, since a
-     * player should not start directly on a treasure tile.
+     * The {@code winnableTilesSet} member is true once the tiles from which a player can reach the treasure tile and win
+     * the game have been marked in the winnable plane of {@link Map#tiles}. It is assumed that the treasure tile itself
+     * is not marked as winnable however, since a player should not start directly on a treasure tile.
      *
-     * The reason why the class does not implement a function to directly return start positions for the players is so
+     * The reason why the class does not implement a function to directly set the start positions of the players is so
      * that the {@link Map} class can operate completely independently of the {@link Player} and {@link Game} classes.
+     * Instead, the start positions are drawn from the winnable tiles using a {@link StartPositionSampler}.
      */
-    protected boolean[][] winnableTiles;
+    protected boolean winnableTilesSet;
+
+    /**
+     * The {@code componentIds} member stores the label of the connected component of each tile, indexed by the linear
+     * index {@code y * size + x} of the tile. Tiles are connected if a player can walk from one to the other, and each
+     * component is labelled with the linear index of its first tile, while water tiles are labelled with {@code -1}.
+     * The array is only computed by {@link ComponentLabeller} on demand through {@link Map#getComponentIds()}, since it
+     * takes up an {@code int} per tile, and is reset to {@code null} whenever the tiles change.
+     *
+     * @implNote The member is {@code volatile} since the labels of a frozen map may be computed on demand by any of the
+     * threads sharing the map (see {@link Map#isFrozen()}).
+     */
+    protected volatile int[] componentIds;
+
+    /**
+     * The {@code treasureDistances} member stores the length of the shortest walk from each tile to the treasure tile,
+     * which is filled in while checking that the map is playable if {@link Map#treasureDistancesEnabled} is set. It is
+     * created the first time it is needed and reused whenever the map is checked again.
+     */
+    protected DistanceField treasureDistances;
+
+    /**
+     * The {@code treasureDistancesEnabled} member is true if the distances to the treasure tile are computed while
+     * checking that the map is playable (see {@link Map#setTreasureDistancesEnabled(boolean)}).
+     */
+    protected boolean treasureDistancesEnabled;
+
+    /**
+     * The {@code treasureDistancesSet} member is true once {@link Map#treasureDistances} holds the distances for the
+     * current tiles of the map.
+     */
+    protected boolean treasureDistancesSet;
+
+    /**
+     * The {@code winnableTileIndices} member stores the linear indices of the winnable tiles of the map, of which only
+     * the first {@link Map#winnableTileCount} are used. Start positions are drawn from this array by a
+     * {@link StartPositionSampler}, rather than by drawing random tiles until a winnable one is found. For standard maps
+     * the array is filled in while checking that the map is playable, and reused whenever the map is checked again,
+     * while for large maps it is only built the first time it is needed, since it takes up an {@code int} per tile.
+     */
+    protected int[] winnableTileIndices;
+
+    /**
+     * The {@code winnableTileCount} member stores the number of winnable tiles in {@link Map#winnableTileIndices}.
+     */
+    protected int winnableTileCount;
+
+    /**
+     * The {@code winnableTileIndicesSet} member is true once {@link Map#winnableTileIndices} holds the winnable tiles
+     * for the current tiles of the map.
+     */
+    protected boolean winnableTileIndicesSet;
+
+    /**
+     * The {@code frozen} member is true once the map has been frozen, after which its tiles can no longer be changed and
+     * the map can safely be shared between threads (see {@link Map#isFrozen()}).
+     */
+    protected boolean frozen;
+
+    /**
+     * The {@code frozenPlayable} member stores the result of {@link Map#isPlayable()} at the time the map was frozen,
+     * which is returned by later calls rather than checking the map again.
+     */
+    protected boolean frozenPlayable;
 
     /**
      * Constructor used to initialize an empty {@code Map} object.
@@ -52,17 +143,36 @@ public abstract class Map {
      */
     protected Map(int n)
     {
-        // If map size is invalid (not between 5-50) throw an exception
-        if(n < 5 || n > 50) {
+        this(n, false);
+    }
+
+    /**
+     * Constructor used to initialize an empty {@code Map} object, optionally in large-map mode.
+     * @param n size of the {@code n} x {@code n} square map
+     * @param largeMap true if the map should be created in large-map mode.
+     * @throws IllegalArgumentException if the method is given an invalid size parameter (outside of the range 5-50, or
+     * 5-46340 in large-map mode)
+     *
+     * @implNote Large maps are stored in exactly the same way as standard maps. The mode only exists so that client
+     * code has to explicitly opt in to maps which are too large to be rendered tile by tile or played interactively.
+     */
+    protected Map(int n, boolean largeMap)
+    {
+        // If map size is invalid (not between 5-50, or 5-46340 for large maps) throw an exception
+        if(!isValidSize(n, largeMap)) {
             throw new IllegalArgumentException("BasicMap was initialized with an invalid size argument.");
         }
 
-        // Otherwise set the map size as normal
+        // Otherwise set the map size and mode as normal
         this.size=n;
+        this.largeMap = largeMap;
+
+        // Only compute the distances to the treasure tile by default if the map is not a large map
+        this.treasureDistancesEnabled = !largeMap;
 
-        // Initialize the "tiles" and "reachableTiles" arrays to null
+        // Initialize the "tiles" grid to null, and mark the winnable tiles as not computed yet
         tiles = null;
-        winnableTiles = null;
+        winnableTilesSet = false;
 
         // Initialize the "treasurePos" to null
         treasurePos = null;
@@ -95,10 +205,13 @@ public abstract class Map {
                     "(they must form a square).");
         }
 
-        // Set the size of the map to the size of the array
+        // Set the size of the map to the size of the array, and enable large-map mode if it is larger than 50 x 50
         size = tiles.length;
+        largeMap = size > MAX_SIZE;
+        treasureDistancesEnabled = !largeMap;
 
-        // Count the number of treasure tiles in the map
+        // Pack the given tiles into a new grid, counting the number of treasure tiles in the map
+        PackedTileGrid grid = new PackedTileGrid(size);
         int treasureCount = 0;
 
         treasureSearch:
@@ -117,6 +230,9 @@ public abstract class Map {
                     // If this is the 1st treasure tile that has been found, store its position
                     else treasurePos = new Position(i, j);
                 }
+
+                // Note that the first index of the 2D array is the x-coordinate
+                grid.set(grid.index(i, j), tiles[i][j]);
             }
         }
 
@@ -125,11 +241,11 @@ public abstract class Map {
             throw new IllegalArgumentException("The 2D array of tiles must include 1 treasure tile.");
         }
 
-        // Store the given 2D tile array in the "tiles" member
-        this.tiles = tiles;
+        // Store the packed tiles in the "tiles" member
+        this.tiles = grid;
 
-        // Initialize "winnableTiles" to null
-        winnableTiles = null;
+        // Mark the winnable tiles as not computed yet
+        winnableTilesSet = false;
     }
 
     /**
@@ -140,6 +256,62 @@ public abstract class Map {
         return size;
     }
 
+    /**
+     * Getter method used to check if the {@code Map} object was created in large-map mode.
+     * @return true if the map is in large-map mode.
+     */
+    public boolean isLargeMap() {
+        return largeMap;
+    }
+
+    /**
+     * Function used to check if a map size is valid.
+     * @param n size of the {@code n} x {@code n} square map
+     * @param largeMap true if large-map mode is enabled.
+     * @return true if {@code n} is between {@link Map#MIN_SIZE} and {@link Map#MAX_SIZE}, or between
+     * {@link Map#MIN_SIZE} and {@link Map#MAX_LARGE_SIZE} in large-map mode.
+     */
+    public static boolean isValidSize(int n, boolean largeMap) {
+        return n >= MIN_SIZE && n <= (largeMap ? MAX_LARGE_SIZE : MAX_SIZE);
+    }
+
+    /**
+     * Getter method used to check if the {@code Map} object has been frozen. Frozen maps are returned by
+     * {@link MapCreator#createMap(String, int, long)} and may be shared by many games at once. Hence, their tiles cannot
+     * be changed, and {@link Map#isPlayable()} returns the result of the check carried out when the map was frozen.
+     * @return true if the map is frozen.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Freezes the map, such that it can no longer be changed. The map is checked for playability first, so that its
+     * winnable tiles are marked before it is shared.
+     * @throws NullPointerException if the Map's tiles have not been set or generated yet.
+     */
+    void freeze() {
+        if(!frozen) {
+            frozenPlayable = isPlayable();
+            frozen = true;
+
+            // The distances can no longer be computed once the map is frozen, hence they are only kept if they are set
+            if(!treasureDistancesSet) {
+                treasureDistances = null;
+            }
+        }
+    }
+
+    /**
+     * Helper function used by subclasses to stop a frozen map from being changed.
+     * @throws UnsupportedOperationException if the map is frozen.
+     */
+    protected void checkNotFrozen() {
+        if(frozen) {
+            throw new UnsupportedOperationException("A frozen map cannot be changed.");
+        }
+    }
+
     /**
      * Method used to randomly generate the map. This method should be implemented by each subclass of the Map class to
      * allow different methods of map generation.
@@ -155,19 +327,91 @@ public abstract class Map {
      * @return true if the player can reach the treasure starting from any point in the map.
      * @apiNote This function assumes that the {@link Map#treasurePos} member has been set previously using either the
      * {@link Map#Map(TileType[][])} constructor or the {@link Map#generate()} function.
-     * @implNote It is assumed that this function will also set the member variable {@link Map#winnableTiles} while
+     * @implNote It is assumed that this function will also mark the winnable tiles in {@link Map#tiles} and set
+     * {@link Map#winnableTilesSet} while
      * checking that the map is playable. Moreover this was left to be implemented by the subclasses since it assumed
      * that given that they may generate maps differently, they may also need to traverse the maps differently as well.
      */
     public abstract boolean isPlayable();
 
+    /**
+     * Getter method used to get the label of the connected component of each tile in the map, computing the labels if
+     * they have not been computed yet. Two tiles have the same label if and only if a player can walk from one tile to
+     * the other, which makes the array useful for queries such as "can this player reach that tile".
+     * @return an array holding the component label of each tile, indexed by the linear index {@code y * size + x} of
+     * the tile. Water tiles are labelled with {@code -1}.
+     * @throws NullPointerException if the Map's tiles have not been set or generated yet.
+     *
+     * @apiNote The array returned is the one stored by the map, to avoid copying large maps. Hence, it must not be
+     * modified.
+     */
+    public int[] getComponentIds() {
+        // If the map tiles have not been generated yet, throw an exception
+        if(tiles == null) {
+            throw new NullPointerException("Map tiles have not been generated yet.");
+        }
+
+        // Label the components of the map if they have not been labelled yet
+        int[] ids = componentIds;
+        if(ids == null) {
+            ids = new ComponentLabeller(tiles, ForkJoinPool.getCommonPoolParallelism()).label(ForkJoinPool.commonPool());
+            componentIds = ids;
+        }
+
+        return ids;
+    }
+
+    /**
+     * Function used to estimate the number of bytes of heap retained by the map, which is used by {@link MapPool} and
+     * {@link MapCache} to bound the memory taken up by the maps they keep.
+     * @return the number of bytes taken up by the packed tiles of the map and by the arrays computed from them which the
+     * map keeps, not counting the headers of the objects holding them.
+     *
+     * @implNote The component labels and the winnable tile indices of a frozen map are counted in full even if they have
+     * not been computed yet, since any of the threads sharing the map may compute them later on. Hence, the bytes
+     * retained by a frozen map never grow past the number returned.
+     */
+    long retainedBytes() {
+        long bytes = (tiles == null) ? 0 : tiles.retainedBytes();
+        if(componentIds != null || frozen) {
+            bytes += 4L * size * size;
+        }
+        if(treasureDistances != null) {
+            bytes += treasureDistances.retainedBytes();
+        }
+        if(frozen && !winnableTileIndicesSet) {
+            bytes += 4L * size * size;
+        }
+        else if(winnableTileIndices != null) {
+            bytes += 4L * winnableTileIndices.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Function used to get the label of the connected component of the tile at the given coordinate in the map.
+     * @param x x-coordinate in the map
+     * @param y y-coordinate in the map
+     * @return the label of the component of the tile, or {@code -1} if the tile is a water tile.
+     * @throws NullPointerException if the Map's tiles have not been set or generated yet.
+     * @throws IllegalArgumentException if given a position which does not exist in the map.
+     */
+    public int getComponentId(int x, int y) {
+        // If the given position is invalid throw an exception
+        if(!isValidPosition(x,y)) {
+            throw new IllegalArgumentException("Given tile position is not valid.");
+        }
+
+        return getComponentIds()[y * size + x];
+    }
+
     /**
      *  Used to check if starting from a particular position the player can reach the treasure tile by just using
      *  up/down/left/right movements.
      * @param pos The {@code Position} from which the treasure tile needs to be reached.
      * @return returns true if the treasure tile can be reached from the given map position and false otherwise.
      * @apiNote The function expects that the position actually exists in the map. It also expects that the function
-     * {@link Map#isPlayable()} has been run before, so that the member {@link Map#winnableTiles} gets set beforehand.
+     * {@link Map#isPlayable()} has been run before, so that the winnable tiles get marked beforehand.
      * @implNote Note that if the tile at {@code pos} is actually the treasure tile, the function returns false, since
      * the player should not be able to start from this tile.
      * @throws NullPointerException if given a null {@link Position} argument.
@@ -184,13 +428,160 @@ public abstract class Map {
             throw new IllegalArgumentException("Given tile position is not valid.");
         }
 
-        // If the "isPlayable" function has not been run yet and "winnableTiles" is still empty throw an exception
-        if(winnableTiles == null) {
+        // If the "isPlayable" function has not been run yet and the winnable tiles are still not set throw an exception
+        if(!winnableTilesSet) {
             throw new NullPointerException("The isPlayable function must be run before isPositionWinnable.");
         }
 
-        // Check if the given position is winnable using the "winnableTiles" array
-        return winnableTiles[pos.x][pos.y];
+        // Check if the given position is winnable using the winnable plane of the "tiles" grid
+        return tiles.isWinnable(tiles.index(pos.x, pos.y));
+    }
+
+    /**
+     * Function used to get the number of tiles from which a player can start playing, i.e. the number of winnable tiles.
+     * @return the number of winnable tiles in the map.
+     * @throws NullPointerException if the winnable tiles have not been marked by {@link Map#isPlayable()} yet.
+     */
+    public int getWinnableTileCount() {
+        // If the "isPlayable" function has not been run yet and the winnable tiles are still not set throw an exception
+        if(!winnableTilesSet) {
+            throw new NullPointerException("The isPlayable function must be run before getWinnableTileCount.");
+        }
+
+        synchronized(this) {
+            collectWinnableTileIndices();
+            return winnableTileCount;
+        }
+    }
+
+    /**
+     * Function used to get a sampler which draws distinct starting positions at random from the winnable tiles of the
+     * map, in constant time per position.
+     * @param random the source of random numbers used to draw the positions.
+     * @return a new sampler over the winnable tiles of the map.
+     * @throws NullPointerException if the source of random numbers is null, or if the winnable tiles have not been
+     * marked by {@link Map#isPlayable()} yet.
+     *
+     * @apiNote The sampler reads the winnable tiles kept by the map, so it should not be used after the tiles of the map
+     * have been generated or checked again.
+     */
+    public StartPositionSampler getStartPositionSampler(RandomSource random) {
+        // Throw an exception if the source of random numbers is null
+        if(random == null) {
+            throw new NullPointerException("The source of random numbers cannot be null.");
+        }
+
+        // If the "isPlayable" function has not been run yet and the winnable tiles are still not set throw an exception
+        if(!winnableTilesSet) {
+            throw new NullPointerException("The isPlayable function must be run before getStartPositionSampler.");
+        }
+
+        synchronized(this) {
+            collectWinnableTileIndices();
+            return new StartPositionSampler(size, winnableTileIndices, winnableTileCount, random);
+        }
+    }
+
+    /**
+     * Helper function used to build the array of the linear indices of the winnable tiles from the winnable plane of
+     * {@link Map#tiles}, if it was not already filled in while checking that the map is playable.
+     *
+     * @implNote The function is only called while holding the lock of the map, since the array of a frozen map may be
+     * built on demand by any of the threads sharing the map.
+     */
+    private void collectWinnableTileIndices() {
+        if(winnableTileIndicesSet) {
+            return;
+        }
+
+        // Count the winnable tiles first, such that the array of a large map only takes up an int per winnable tile
+        int tileCount = size * size;
+        int count = 0;
+        for(int idx = 0; idx < tileCount; idx++) {
+            if(tiles.isWinnable(idx)) {
+                count++;
+            }
+        }
+
+        int[] indices = new int[count];
+        int next = 0;
+        for(int idx = 0; idx < tileCount; idx++) {
+            if(tiles.isWinnable(idx)) {
+                indices[next++] = idx;
+            }
+        }
+
+        winnableTileIndices = indices;
+        winnableTileCount = count;
+        winnableTileIndicesSet = true;
+    }
+
+    /**
+     * This function is used to choose whether the length of the shortest walk from each tile to the treasure tile is
+     * computed while checking that the map is playable, such that it can be looked up using
+     * {@link Map#getTreasureDistance(int, int)}. It is enabled by default, except for maps in large-map mode where it
+     * would take up an {@code int} per tile.
+     * @param enabled true if the distances should be computed.
+     * @throws UnsupportedOperationException if the map is frozen.
+     */
+    public void setTreasureDistancesEnabled(boolean enabled) {
+        checkNotFrozen();
+        treasureDistancesEnabled = enabled;
+    }
+
+    /**
+     * Getter method used to check if the distances to the treasure tile are computed while checking that the map is
+     * playable.
+     * @return true if the distances are computed.
+     */
+    public boolean isTreasureDistancesEnabled() {
+        return treasureDistancesEnabled;
+    }
+
+    /**
+     * Function used to get the length of the shortest walk, using up/down/left/right movements, from a tile to the
+     * treasure tile.
+     * @param x x-coordinate in the map
+     * @param y y-coordinate in the map
+     * @return the number of moves needed to reach the treasure tile, 0 for the treasure tile itself, or {@code -1} if
+     * the treasure tile cannot be reached from the tile (including water tiles).
+     * @throws NullPointerException if the distances have not been computed by {@link Map#isPlayable()} yet.
+     * @throws IllegalArgumentException if given a position which does not exist in the map.
+     *
+     * @implNote The distances are computed in the same search which marks the winnable tiles, so each lookup is a
+     * single array access.
+     */
+    public int getTreasureDistance(int x, int y) {
+        // If the given position is invalid throw an exception
+        if(!isValidPosition(x,y)) {
+            throw new IllegalArgumentException("Given tile position is not valid.");
+        }
+
+        // If the distances have not been computed for the current tiles, throw an exception
+        if(!treasureDistancesSet) {
+            throw new NullPointerException("The isPlayable function must be run with treasure distances enabled " +
+                    "before getTreasureDistance.");
+        }
+
+        return treasureDistances.get(y * size + x);
+    }
+
+    /**
+     * Function used to get the length of the shortest walk from a tile {@link Position} to the treasure tile. This
+     * function was implemented as a convenience function to allow use of the {@link Position} class.
+     * @param pos position in the map
+     * @return the number of moves needed to reach the treasure tile (see {@link Map#getTreasureDistance(int, int)}).
+     * @throws NullPointerException if given a null {@link Position} argument, or if the distances have not been
+     * computed by {@link Map#isPlayable()} yet.
+     * @throws IllegalArgumentException if given a {@link Position} which does not exist in the map.
+     */
+    public int getTreasureDistance(Position pos) {
+        // Throw an exception if pos argument is null
+        if(pos == null) {
+            throw new NullPointerException("Given tile position cannot be null.");
+        }
+
+        return getTreasureDistance(pos.x, pos.y);
     }
 
     /**
@@ -222,6 +613,16 @@ public abstract class Map {
         return isValidPosition(pos.x, pos.y);
     }
 
+    /**
+     * Function used to check if the given packed coordinate is a valid position which exists in the map. This function
+     * allows the validity of a move to be checked without allocating a {@link Position}.
+     * @param packedPos x and y coordinates in the map, packed into a long using {@link Position#pack(int, int)}.
+     * @return true if the given coordinate is a valid tile position in the map and false otherwise.
+     */
+    public boolean isValidPosition(long packedPos) {
+        return isValidPosition(Position.unpackX(packedPos), Position.unpackY(packedPos));
+    }
+
     /**
      * Function used to check the type of the tile at the given coordinate in the map.
      * @param x x-coordinate in the map
@@ -243,8 +644,8 @@ public abstract class Map {
             throw new IllegalArgumentException("Given tile position is not valid.");
         }
 
-        // Get the tile at the given position from the "tiles" 2D array
-        return tiles[x][y];
+        // Get the tile at the given position from the "tiles" grid
+        return tiles.get(tiles.index(x, y));
     }
 
     /**
@@ -267,4 +668,16 @@ public abstract class Map {
         // Pass the x and y coordinates to the other version of the function
         return getTileType(pos.x, pos.y);
     }
+
+    /**
+     * Function used to check the type of the tile at the given packed coordinate in the map. This function allows the
+     * tile reached by a move to be looked up without allocating a {@link Position}.
+     * @param packedPos x and y coordinates in the map, packed into a long using {@link Position#pack(int, int)}.
+     * @return the type of the tile at the given coordinate
+     * @throws NullPointerException if the Map's tiles have not been set or generated yet.
+     * @throws IllegalArgumentException if given a coordinate which does not exist in the map.
+     */
+    public TileType getTileType(long packedPos) {
+        return getTileType(Position.unpackX(packedPos), Position.unpackY(packedPos));
+    }
 }
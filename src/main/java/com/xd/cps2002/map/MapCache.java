@@ -0,0 +1,261 @@
+package com.xd.cps2002.map;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The {@code MapCache} class keeps the maps created from a seed using {@link MapCreator#createMap(String, int, long)},
+ * so that games which ask for the same map type, size and seed share a single map rather than each generating their own
+ * copy. Since they are shared, the cached maps are frozen (see {@link Map#isFrozen()}).
+ *
+ * The cache holds at most {@code maxMaps} maps, which retain at most {@code maxBytes} bytes in total (see
+ * {@link Map#retainedBytes()}). When either limit is exceeded, the least recently used maps are evicted first. The
+ * number of hits, misses and evictions is kept so that the limits can be tuned.
+ *
+ * The cache can be used by many threads at once. If several threads ask for the same map while it is not cached, the
+ * map is only generated once, by the first of the threads, while the others wait for it.
+ */
+public final class MapCache {
+
+    /**
+     * The maximum number of maps kept in the cache.
+     */
+    private final int maxMaps;
+
+    /**
+     * The maximum total number of bytes retained by all of the maps kept in the cache.
+     */
+    private final long maxBytes;
+
+    /**
+     * The cached maps, in order from the least to the most recently used.
+     */
+    private final LinkedHashMap<Key, Cached> maps = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The maps which are currently being generated, so that each map is only generated once.
+     */
+    private final HashMap<Key, FutureTask<Map>> pending = new HashMap<>();
+
+    /**
+     * The total number of bytes retained by all of the cached maps.
+     */
+    private long cachedBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructor used to create an empty map cache.
+     * @param maxMaps the maximum number of maps kept in the cache.
+     * @param maxBytes the maximum total number of bytes retained by all of the maps kept in the cache.
+     * @throws IllegalArgumentException if either limit is negative.
+     */
+    public MapCache(int maxMaps, long maxBytes) {
+        if(maxMaps < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("Invalid map cache configuration.");
+        }
+
+        this.maxMaps = maxMaps;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets the frozen map of the given type, size and seed from the cache, generating it if it is not cached.
+     * @param mapType the type of map (see {@link MapCreator#createMap(String, int)}).
+     * @param size the size of the map.
+     * @param seed the seed used to generate the map.
+     * @return a frozen map, which is the same map object for as long as it stays in the cache.
+     * @throws IllegalArgumentException if the map type or size is invalid.
+     */
+    public Map get(String mapType, int size, long seed) {
+        return get(mapType, size, false, seed);
+    }
+
+    /**
+     * Same as {@link MapCache#get(String, int, long)}, but gets a map created in large-map mode if {@code largeMap} is
+     * true.
+     * @param mapType the type of map (see {@link MapCreator#createMap(String, int)}).
+     * @param size the size of the map.
+     * @param largeMap true if the map should be created in large-map mode (see {@link Map#isLargeMap()}).
+     * @param seed the seed used to generate the map.
+     * @return a frozen map, which is the same map object for as long as it stays in the cache.
+     * @throws IllegalArgumentException if the map type or size is invalid.
+     */
+    public Map get(String mapType, int size, boolean largeMap, long seed) {
+        mapType = mapType.toLowerCase();
+        MapCreator.checkMapType(mapType);
+        MapCreator.checkMapSize(size, largeMap);
+
+        Key key = new Key(mapType, size, largeMap, seed);
+        FutureTask<Map> task;
+        boolean generateHere = false;
+
+        synchronized(this) {
+            Cached cached = maps.get(key);
+            if(cached != null) {
+                hits++;
+                return cached.map;
+            }
+
+            misses++;
+            task = pending.get(key);
+            if(task == null) {
+                // Generate the map outside of the lock, so that other maps can still be taken from the cache meanwhile
+                final String type = mapType;
+                task = new FutureTask<>(() -> {
+                    Map generated = MapCreator.generateMap(type, size, largeMap, seed);
+                    generated.freeze();
+                    return generated;
+                });
+                pending.put(key, task);
+                generateHere = true;
+            }
+        }
+
+        if(generateHere) {
+            task.run();
+            synchronized(this) {
+                pending.remove(key);
+                if(!task.isCancelled()) {
+                    try {
+                        put(key, task.get());
+                    }
+                    catch(InterruptedException | ExecutionException e) {
+                        // The exception is thrown to the caller below
+                    }
+                }
+            }
+        }
+
+        try {
+            return task.get();
+        }
+        catch(ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a map to be generated.");
+        }
+    }
+
+    /**
+     * @return the number of maps which were found in the cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of maps which were not found in the cache and had to be generated (or waited for).
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of maps which were evicted from the cache to keep it within its limits.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of maps currently in the cache.
+     */
+    public synchronized int getCachedMapCount() {
+        return maps.size();
+    }
+
+    /**
+     * @return the total number of bytes retained by all of the maps currently in the cache.
+     */
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * Removes all of the maps from the cache. Games which are already using the maps can keep on using them.
+     */
+    public synchronized void clear() {
+        maps.clear();
+        cachedBytes = 0;
+    }
+
+    /**
+     * Helper function used to add a map to the cache, evicting the least recently used maps until the cache is within
+     * its limits. A map which retains more bytes than the limit on the cache is not cached at all.
+     * @param key the type, size, mode and seed of the map.
+     * @param map the frozen map to be cached.
+     */
+    private void put(Key key, Map map) {
+        long bytes = map.retainedBytes();
+        if(bytes > maxBytes || maxMaps == 0) {
+            return;
+        }
+
+        maps.put(key, new Cached(map, bytes));
+        cachedBytes += bytes;
+
+        Iterator<Cached> leastRecentlyUsed = maps.values().iterator();
+        while(maps.size() > maxMaps || cachedBytes > maxBytes) {
+            Cached evicted = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            cachedBytes -= evicted.bytes;
+            evictions++;
+        }
+    }
+
+    /**
+     * A cached map, together with the number of bytes it was charged for when it was added to the cache.
+     */
+    private static final class Cached {
+        private final Map map;
+        private final long bytes;
+
+        Cached(Map map, long bytes) {
+            this.map = map;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * The type, size, mode and seed of a cached map.
+     */
+    private static final class Key {
+        private final String mapType;
+        private final int size;
+        private final boolean largeMap;
+        private final long seed;
+
+        Key(String mapType, int size, boolean largeMap, long seed) {
+            this.mapType = mapType;
+            this.size = size;
+            this.largeMap = largeMap;
+            this.seed = seed;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return size == other.size && largeMap == other.largeMap && seed == other.seed
+                    && mapType.equals(other.mapType);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * mapType.hashCode() + size) + Boolean.hashCode(largeMap)) + Long.hashCode(seed);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.xd.cps2002.map;
 
+import com.xd.cps2002.util.RandomSource;
+import com.xd.cps2002.util.SplittableRandomSource;
+
 /** The {@code MapCreator} class is used to create different types of {@link Map} objects. This class is the
  * "creator" class used to implement the static factory design pattern.
  *
@@ -7,15 +10,13 @@ package com.xd.cps2002.map;
  * other classes. Hence, this allows the code to support new map types without necessarily needing to change the code
  * where the {@link Map} sub-class is instantiated.
  *
- * Moreover, since the factory method used to create {@link Map} instances is {@code static}, the function can also
- * simultaneously restrict the number of map instances that can be created to a single instance. In effect, the class
- * also acts similar to a singleton, and creates and stores a {@link Map} object which is referred to throughout the
- * runtime of the program.
+ * Every call to {@link MapCreator#createMap(String, int)} returns a new map, such that many games can run in the same
+ * program, each with a map of its own. Games which should be played on the same map can instead create it from a seed
+ * using {@link MapCreator#createMap(String, int, long)}, which keeps the maps it creates in a {@link MapCache} and
+ * returns the same frozen map for the same map type, size and seed.
  *
- * The advantage of including the logic to limit the creation of new instances in the {@link MapCreator} rather than
- * {@link Map} is two-fold. First of all, the functionality to implement this restriction is only implemented once
- * rather than having to implement it for each and every concrete instance of the {@link Map} class. Secondly, since the
- * {@link Map} subclasses do not need to be singletons, they also become far more easy to test as a result.
+ * The class does not keep any state other than the optional {@link MapPool} and the {@link MapCache}, both of which are
+ * thread-safe. Hence, maps can be created by many threads at once.
  *
  * To only allow the {@link MapCreator} class to initialize concrete implementations of the {@link Map} class, the
  * subclasses' constructors need to have {@code protected} rather {@code private} access modifiers. However, this access
@@ -27,14 +28,26 @@ package com.xd.cps2002.map;
 public class MapCreator {
 
     /**
-     * The {@code instance} member stores the Singleton instance of the map accessed by classes outside of the
-     * {@link com.xd.cps2002.map} package.
-     *
-     * @implNote  Its access modifier is set as {@code default} instead of {@code private} to allow unit tests in the
-     * same package to easily reset the instance between tests. However, classes outside the package still are not given
-     * direct access to this member.
+     * The default maximum number of maps kept in the cache of maps created from a seed.
+     */
+    public static final int DEFAULT_CACHED_MAPS = 64;
+
+    /**
+     * The default maximum number of bytes retained by the maps kept in the cache of maps created from a seed (32MB),
+     * counting their packed tiles and the arrays they keep alongside them (see {@link Map#retainedBytes()}).
+     */
+    public static final long DEFAULT_CACHED_BYTES = 1L << 25;
+
+    /**
+     * The pool of pre-generated maps from which {@link MapCreator#createMap(String, int)} takes maps, or null if maps
+     * are generated on the calling thread when they are requested.
+     */
+    private static volatile MapPool pool;
+
+    /**
+     * The cache of maps created from a seed by {@link MapCreator#createMap(String, int, long)}.
      */
-     static Map instance;
+    private static volatile MapCache cache = new MapCache(DEFAULT_CACHED_MAPS, DEFAULT_CACHED_BYTES);
 
     /** Factory method used to create different types of {@link Map} objects. Depending on the string passed to the
      * {@code mapType} parameter, the method can return the following map types:
@@ -44,55 +57,107 @@ public class MapCreator {
      *     at least 75% of the tiles </li>
      *     <li>"hazardous" - creates a map where 25-35% of the tiles are water tiles, and the player can start playing
      *     from at least 60% of the tiles </li>
+     *     <li>"safe-connected" and "hazardous-connected" - create a "safe" and a "hazardous" map respectively, which are
+     *     generated such that the player can start playing from every tile which is not a water tile (see
+     *     {@link BasicMap#setAlwaysPlayable(boolean)}), so the tiles of the map are only generated once </li>
      * </ul>
      *
-     * @param mapType A string representing the type of map to be created.
-     * @param size size of the map to be created.
-     * @return A Map object with the type represented by {@code mapType}
+     * The "safe" and "hazardous" map types are regenerated until they are playable, hence they may have tiles from which
+     * the treasure cannot be reached. If a {@link MapPool} has been set using {@link MapCreator#setMapPool(MapPool)}, the
+     * map is taken from the pool rather than generated on the calling thread.
      *
-     * @apiNote This method creates a new {@link Map} instance only the first time it is called. This means that the
-     * method is guaranteed to return a map of the requested type only the first time it is called.
+     * @param mapType A string representing the type of map to be created.
+     * @param size size of the map to be created, which cannot be larger than {@link Map#MAX_SIZE}.
+     * @return A new Map object with the type represented by {@code mapType}
+     * @throws IllegalArgumentException if the map type or size is invalid.
      * */
     public static Map createMap(String mapType, int size) {
+        return createMap(mapType, size, false);
+    }
+
+    /** Factory method used to create a map of one of the types listed in {@link MapCreator#createMap(String, int)},
+     * optionally in large-map mode (see {@link Map#isLargeMap()}).
+     *
+     * @param mapType A string representing the type of map to be created.
+     * @param size size of the map to be created, which cannot be larger than {@link Map#MAX_SIZE} unless
+     *             {@code largeMap} is true.
+     * @param largeMap true if the map should be created in large-map mode, which raises the maximum size of the map to
+     *                 {@link Map#MAX_LARGE_SIZE}.
+     * @return A new Map object with the type represented by {@code mapType}
+     * @throws IllegalArgumentException if the map type or size is invalid.
+     * */
+    public static Map createMap(String mapType, int size, boolean largeMap) {
         // Change mapType to lowercase to avoid having case sensitivity
         mapType = mapType.toLowerCase();
 
-        // If the singleton instance has not been created yet, create one according to the map type specified in the
-        // parameter "mapType"
-        if(instance == null) {
-            switch (mapType) {
-                case "safe": {
-                    // Create a BasicMap with 0-10% water tiles where at least 75% of the tiles are playable
-                    BasicMap basicMap = new BasicMap(size);
-                    basicMap.setWaterTilePercentage(0, 10);
-                    basicMap.setMinPlayableTilesPercentage(75);
-
-                    // Store the basic map in the singleton instance
-                    instance = basicMap;
-                } break;
-                case "hazardous": {
-                    // Create a BasicMap with 25-35% water tiles where at least 60% of the tiles are playable
-                    BasicMap basicMap = new BasicMap(size);
-                    basicMap.setWaterTilePercentage(25, 35);
-                    basicMap.setMinPlayableTilesPercentage(60);
-
-                    // Store the basic map in the singleton instance
-                    instance = basicMap;
-                } break;
-
-                // If the map type is invalid, throw an exception
-                default:
-                    throw new IllegalArgumentException("Invalid map type.");
-            }
-
-            // Keep regenerating the tiles of the map until it can be played by the players
-            do {
-                instance.generate();
-            } while(!instance.isPlayable());
-        }
+        // Take a map from the pool of pre-generated maps if there is one, otherwise generate it according to the map
+        // type specified in the parameter "mapType"
+        MapPool mapPool = pool;
+        return (mapPool != null) ? mapPool.take(mapType, size, largeMap) : generateMap(mapType, size, largeMap);
+    }
+
+    /** Factory method used to create a map of one of the types listed in {@link MapCreator#createMap(String, int)} from
+     * a seed. Maps created using the same map type, size and seed always have the same tiles, and are kept in a cache
+     * such that they are only generated once.
+     *
+     * @param mapType A string representing the type of map to be created.
+     * @param size size of the map to be created, which cannot be larger than {@link Map#MAX_SIZE}.
+     * @param seed the seed used to generate the map.
+     * @return A frozen Map object with the type represented by {@code mapType}, which may be shared with other callers
+     * asking for the same map (see {@link Map#isFrozen()}).
+     * @throws IllegalArgumentException if the map type or size is invalid.
+     * */
+    public static Map createMap(String mapType, int size, long seed) {
+        return createMap(mapType, size, false, seed);
+    }
+
+    /** Same as {@link MapCreator#createMap(String, int, long)}, but creates the map in large-map mode if
+     * {@code largeMap} is true (see {@link Map#isLargeMap()}). Maps created in large-map mode are cached separately
+     * from those which are not.
+     *
+     * @param mapType A string representing the type of map to be created.
+     * @param size size of the map to be created, which cannot be larger than {@link Map#MAX_SIZE} unless
+     *             {@code largeMap} is true.
+     * @param largeMap true if the map should be created in large-map mode.
+     * @param seed the seed used to generate the map.
+     * @return A frozen Map object with the type represented by {@code mapType}, which may be shared with other callers
+     * asking for the same map (see {@link Map#isFrozen()}).
+     * @throws IllegalArgumentException if the map type or size is invalid.
+     * */
+    public static Map createMap(String mapType, int size, boolean largeMap, long seed) {
+        return cache.get(mapType, size, largeMap, seed);
+    }
+
+    /** Factory method used to create a map of one of the types listed in {@link MapCreator#createMap(String, int)},
+     * using the given source of random numbers. This allows a game to generate its map from the same seed as the rest
+     * of the game, such that the whole game can be reproduced.
+     *
+     * @param mapType A string representing the type of map to be created.
+     * @param size size of the map to be created, which cannot be larger than {@link Map#MAX_SIZE}.
+     * @param random the source of random numbers used to generate the map, which is kept by the map.
+     * @return A new Map object with the type represented by {@code mapType}
+     * @throws IllegalArgumentException if the map type or size is invalid.
+     *
+     * @implNote The map is always generated on the calling thread rather than taken from the {@link MapPool}, since
+     * pooled maps are generated using sources of their own.
+     * */
+    public static Map createMap(String mapType, int size, RandomSource random) {
+        return createMap(mapType, size, false, random);
+    }
 
-        // Return the singleton instance
-        return instance;
+    /** Same as {@link MapCreator#createMap(String, int, RandomSource)}, but creates the map in large-map mode if
+     * {@code largeMap} is true (see {@link Map#isLargeMap()}).
+     *
+     * @param mapType A string representing the type of map to be created.
+     * @param size size of the map to be created, which cannot be larger than {@link Map#MAX_SIZE} unless
+     *             {@code largeMap} is true.
+     * @param largeMap true if the map should be created in large-map mode.
+     * @param random the source of random numbers used to generate the map, which is kept by the map.
+     * @return A new Map object with the type represented by {@code mapType}
+     * @throws IllegalArgumentException if the map type or size is invalid.
+     * */
+    public static Map createMap(String mapType, int size, boolean largeMap, RandomSource random) {
+        return generateMap(mapType.toLowerCase(), size, largeMap, random);
     }
 
     /** Factory method used to create different types of {@link Map} objects with a preset set of tiles (for testing).
@@ -104,10 +169,7 @@ public class MapCreator {
      *
      * @param mapType A string representing the type of map to be created.
      * @param tiles a 2D array of {@link TileType} elements which represents the placement of the tiles in the map
-     * @return A Map object with the type represented by {@code mapType}
-     *
-     * @apiNote This method creates a new {@link Map} instance only the first time it is called. This means that the
-     * method is guaranteed to return a map of the requested type only the first time it is called.
+     * @return A new Map object with the type represented by {@code mapType}
      *
      * @implNote Since this method does not randomly generate the map tiles, it could not be made to return "safe" and
      * "hazardous" map types. Hence, it only returns the "basic" map type.
@@ -116,18 +178,145 @@ public class MapCreator {
         // Change mapType to lowercase to avoid having case sensitivity
         mapType = mapType.toLowerCase();
 
-        // If the singleton instance has not been created yet, create one according to the map type specified in the
-        // parameter "mapType"
-        if(instance == null) {
-            switch (mapType) {
-                case "basic":
-                    instance = new BasicMap(tiles); break;
-                default:
-                    throw new IllegalArgumentException("Invalid map type.");
-            }
+        // Create a new map according to the map type specified in the parameter "mapType"
+        switch (mapType) {
+            case "basic":
+                return new BasicMap(tiles);
+            default:
+                throw new IllegalArgumentException("Invalid map type.");
+        }
+    }
+
+    /**
+     * This function is used to set the pool of pre-generated maps used by {@link MapCreator#createMap(String, int)}.
+     * @param mapPool the pool from which maps are taken, or null to generate each map when it is requested.
+     */
+    public static void setMapPool(MapPool mapPool) {
+        pool = mapPool;
+    }
+
+    /**
+     * @return the pool of pre-generated maps used by {@link MapCreator#createMap(String, int)}, or null if maps are
+     * generated when they are requested.
+     */
+    public static MapPool getMapPool() {
+        return pool;
+    }
+
+    /**
+     * This function is used to replace the cache of maps created from a seed, for example to change its limits.
+     * @param mapCache the cache used by {@link MapCreator#createMap(String, int, long)}.
+     * @throws NullPointerException if the cache is null.
+     */
+    public static void setMapCache(MapCache mapCache) {
+        if(mapCache == null) {
+            throw new NullPointerException("The map cache cannot be null.");
+        }
+        cache = mapCache;
+    }
+
+    /**
+     * @return the cache of maps created from a seed by {@link MapCreator#createMap(String, int, long)}, which also
+     * keeps its hit, miss and eviction counts.
+     */
+    public static MapCache getMapCache() {
+        return cache;
+    }
+
+    /**
+     * Helper function used to check that a map type can be passed to {@link MapCreator#createMap(String, int)}.
+     * @param mapType the lowercase map type.
+     * @throws IllegalArgumentException if the map type is invalid.
+     */
+    static void checkMapType(String mapType) {
+        switch (mapType) {
+            case "safe": case "hazardous": case "safe-connected": case "hazardous-connected":
+                return;
+            default:
+                throw new IllegalArgumentException("Invalid map type.");
+        }
+    }
+
+    /**
+     * Helper function used to check the size of a requested map before it is generated on another thread.
+     * @param size the size of the map.
+     * @param largeMap true if the map is to be created in large-map mode.
+     * @throws IllegalArgumentException if the size is not a valid map size in the given mode.
+     */
+    static void checkMapSize(int size, boolean largeMap) {
+        if(!Map.isValidSize(size, largeMap)) {
+            throw new IllegalArgumentException("Invalid map size.");
+        }
+    }
+
+    /**
+     * Helper function used to create a new map of a given type and generate its tiles until it is playable. It is used
+     * by {@link MapCreator#createMap(String, int, boolean)} and by the worker threads of a {@link MapPool}.
+     * @param mapType the lowercase map type (see {@link MapCreator#createMap(String, int)}).
+     * @param size size of the map to be created.
+     * @param largeMap true if the map should be created in large-map mode.
+     * @return a new map which has been generated and checked for playability.
+     */
+    static Map generateMap(String mapType, int size, boolean largeMap) {
+        return generateMap(mapType, size, largeMap, new SplittableRandomSource());
+    }
+
+    /**
+     * Helper function used to create a new map of a given type from a seed, used by {@link MapCache}.
+     * @param mapType the lowercase map type (see {@link MapCreator#createMap(String, int)}).
+     * @param size size of the map to be created.
+     * @param largeMap true if the map should be created in large-map mode.
+     * @param seed the seed used to generate the map.
+     * @return a new map which has been generated and checked for playability.
+     */
+    static Map generateMap(String mapType, int size, boolean largeMap, long seed) {
+        return generateMap(mapType, size, largeMap, new SplittableRandomSource(seed));
+    }
+
+    /**
+     * Helper function used to create a new map of a given type and generate its tiles until it is playable.
+     * @param mapType the lowercase map type (see {@link MapCreator#createMap(String, int)}).
+     * @param size size of the map to be created.
+     * @param largeMap true if the map should be created in large-map mode.
+     * @param random the source of random numbers used to generate the map.
+     * @return a new map which has been generated and checked for playability.
+     */
+    private static Map generateMap(String mapType, int size, boolean largeMap, RandomSource random) {
+        // The connected map types are generated such that every tile which is not a water tile can reach the treasure
+        boolean connected = mapType.endsWith("-connected");
+        if(connected) {
+            mapType = mapType.substring(0, mapType.length() - "-connected".length());
         }
 
-        // Return the singleton instance
-        return instance;
+        BasicMap basicMap;
+        switch (mapType) {
+            case "safe": {
+                // Create a BasicMap with 0-10% water tiles where at least 75% of the tiles are playable
+                basicMap = new BasicMap(size, largeMap);
+                basicMap.setWaterTilePercentage(0, 10);
+                basicMap.setMinPlayableTilesPercentage(75);
+            } break;
+            case "hazardous": {
+                // Create a BasicMap with 25-35% water tiles where at least 60% of the tiles are playable
+                basicMap = new BasicMap(size, largeMap);
+                basicMap.setWaterTilePercentage(25, 35);
+                basicMap.setMinPlayableTilesPercentage(60);
+            } break;
+
+            // If the map type is invalid, throw an exception
+            default:
+                throw new IllegalArgumentException("Invalid map type.");
+        }
+        basicMap.setAlwaysPlayable(connected);
+
+        // Keep regenerating the tiles of the map until it can be played by the players
+        // Note: the connected map types are always playable, hence their tiles are only generated once. The map still
+        // needs to be checked, to mark the tiles from which the players can reach the treasure.
+        basicMap.setRandomSource(random);
+        do {
+            basicMap.generate();
+        } while(!basicMap.isPlayable());
+
+        return basicMap;
     }
 }
@@ -0,0 +1,345 @@
+package com.xd.cps2002.map;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code MapPool} class keeps a pool of maps which have already been generated and checked for playability, for
+ * each map type, size and mode which has been requested. The pool is refilled by background worker threads, so that
+ * {@link MapCreator#createMap(String, int, boolean)} can return a map without waiting for it to be generated.
+ *
+ * The pool for each map type, size and mode holds at most {@code capacity} maps. Once a map is taken and the number of
+ * maps left in the pool drops to {@code lowWatermark} or less, a worker thread refills the pool back up to its
+ * capacity. To keep the memory used by the pool bounded, the total number of bytes retained by all of the pooled maps
+ * (see {@link Map#retainedBytes()}) is limited to {@code maxPooledBytes}, such that large maps do not fill up the heap.
+ *
+ * If a map is requested while its pool is empty, the map is generated on the calling thread (counted as a miss) and
+ * the pool for its type and size is started, such that later requests can be served from the pool (counted as hits).
+ */
+public final class MapPool {
+
+    /**
+     * The maximum number of maps kept in the pool of each map type and size.
+     */
+    private final int capacity;
+
+    /**
+     * The number of maps left in the pool of a map type and size at or below which the pool is refilled.
+     */
+    private final int lowWatermark;
+
+    /**
+     * The maximum total number of bytes retained by all of the maps kept in the pool.
+     */
+    private final long maxPooledBytes;
+
+    /**
+     * The pools of maps, keyed by map type, size and mode.
+     */
+    private final ConcurrentHashMap<Key, Entry> pools = new ConcurrentHashMap<>();
+
+    /**
+     * The worker threads used to generate the maps in the pool.
+     */
+    private final ExecutorService workers;
+
+    /**
+     * The total number of bytes retained by all of the maps currently kept in the pool, including the bytes reserved
+     * for maps which are being generated.
+     */
+    private final AtomicLong pooledBytes = new AtomicLong();
+
+    /**
+     * The number of maps which were taken from the pool.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * The number of maps which had to be generated on the calling thread since the pool was empty.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructor used to create a map pool.
+     * @param capacity the maximum number of maps kept in the pool of each map type and size.
+     * @param lowWatermark the number of maps left in a pool at or below which it is refilled, in the range from 0 to
+     *                     {@code capacity - 1}.
+     * @param maxPooledBytes the maximum total number of bytes retained by all of the maps kept in the pool.
+     * @param workerCount the number of background worker threads used to generate maps.
+     * @throws IllegalArgumentException if any of the arguments are out of range.
+     */
+    public MapPool(int capacity, int lowWatermark, long maxPooledBytes, int workerCount) {
+        if(capacity < 1 || lowWatermark < 0 || lowWatermark >= capacity || maxPooledBytes < 0 || workerCount < 1) {
+            throw new IllegalArgumentException("Invalid map pool configuration.");
+        }
+
+        this.capacity = capacity;
+        this.lowWatermark = lowWatermark;
+        this.maxPooledBytes = maxPooledBytes;
+
+        // Use daemon threads, such that the pool does not stop the JVM from exiting
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "map-pool-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.workers = Executors.newFixedThreadPool(workerCount, threadFactory);
+    }
+
+    /**
+     * Takes a map of the given type and size from the pool, or generates one on the calling thread if the pool is empty.
+     * @param mapType the type of map (see {@link MapCreator#createMap(String, int)}).
+     * @param size the size of the map, which cannot be larger than {@link Map#MAX_SIZE}.
+     * @return a generated map, which has already been checked for playability, and which is not handed out again.
+     * @throws IllegalArgumentException if the map type or size is invalid.
+     */
+    public Map take(String mapType, int size) {
+        return take(mapType, size, false);
+    }
+
+    /**
+     * Same as {@link MapPool#take(String, int)}, but takes a map created in large-map mode if {@code largeMap} is true.
+     * @param mapType the type of map (see {@link MapCreator#createMap(String, int)}).
+     * @param size the size of the map.
+     * @param largeMap true if the map should be created in large-map mode (see {@link Map#isLargeMap()}).
+     * @return a generated map, which has already been checked for playability, and which is not handed out again.
+     * @throws IllegalArgumentException if the map type or size is invalid.
+     */
+    public Map take(String mapType, int size, boolean largeMap) {
+        mapType = mapType.toLowerCase();
+        MapCreator.checkMapType(mapType);
+        MapCreator.checkMapSize(size, largeMap);
+
+        Entry entry = entryFor(new Key(mapType, size, largeMap));
+        Map map = entry.maps.poll();
+
+        if(map != null) {
+            hits.incrementAndGet();
+            // The map has not been used since it was pooled, hence it retains the same number of bytes it was charged
+            pooledBytes.addAndGet(-map.retainedBytes());
+        }
+        else {
+            misses.incrementAndGet();
+        }
+
+        if(entry.maps.size() <= lowWatermark) {
+            refill(entry);
+        }
+
+        return (map != null) ? map : MapCreator.generateMap(mapType, size, largeMap);
+    }
+
+    /**
+     * Starts filling the pool of maps of the given type and size in the background, such that maps can be taken from
+     * the pool without waiting for them to be generated.
+     * @param mapType the type of map (see {@link MapCreator#createMap(String, int)}).
+     * @param size the size of the map, which cannot be larger than {@link Map#MAX_SIZE}.
+     * @throws IllegalArgumentException if the map type or size is invalid.
+     */
+    public void prefill(String mapType, int size) {
+        prefill(mapType, size, false);
+    }
+
+    /**
+     * Same as {@link MapPool#prefill(String, int)}, but fills the pool of maps created in large-map mode if
+     * {@code largeMap} is true.
+     * @param mapType the type of map (see {@link MapCreator#createMap(String, int)}).
+     * @param size the size of the map.
+     * @param largeMap true if the maps should be created in large-map mode (see {@link Map#isLargeMap()}).
+     * @throws IllegalArgumentException if the map type or size is invalid.
+     */
+    public void prefill(String mapType, int size, boolean largeMap) {
+        mapType = mapType.toLowerCase();
+        MapCreator.checkMapType(mapType);
+        MapCreator.checkMapSize(size, largeMap);
+
+        refill(entryFor(new Key(mapType, size, largeMap)));
+    }
+
+    /**
+     * @return the number of maps which were taken from the pool.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of maps which had to be generated on the calling thread since the pool was empty.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the fraction of requested maps which were taken from the pool, or 0 if no maps were requested.
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long requests = hitCount + misses.get();
+        return (requests == 0) ? 0 : hitCount / (double) requests;
+    }
+
+    /**
+     * @param mapType the type of map.
+     * @param size the size of the map.
+     * @return the number of maps of the given type and size (not in large-map mode) currently in the pool.
+     */
+    public int getPooledMapCount(String mapType, int size) {
+        return getPooledMapCount(mapType, size, false);
+    }
+
+    /**
+     * @param mapType the type of map.
+     * @param size the size of the map.
+     * @param largeMap true to count the maps created in large-map mode.
+     * @return the number of maps of the given type, size and mode currently in the pool.
+     */
+    public int getPooledMapCount(String mapType, int size, boolean largeMap) {
+        Entry entry = pools.get(new Key(mapType.toLowerCase(), size, largeMap));
+        return (entry == null) ? 0 : entry.maps.size();
+    }
+
+    /**
+     * @return the total number of bytes retained by all of the maps currently in the pool (see
+     * {@link Map#retainedBytes()}).
+     */
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    /**
+     * Stops the worker threads. Maps which are already in the pool can still be taken, but the pool is no longer
+     * refilled.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Helper function used to get the pool of maps of a given type, size and mode, creating it if needed.
+     * @param key the type, size and mode of the maps.
+     * @return the pool of maps.
+     */
+    private Entry entryFor(Key key) {
+        return pools.computeIfAbsent(key, k -> new Entry(k, capacity));
+    }
+
+    /**
+     * Helper function used to start refilling a pool on a worker thread, unless it is already being refilled.
+     * @param entry the pool to be refilled.
+     */
+    private void refill(Entry entry) {
+        if(!workers.isShutdown() && entry.refilling.compareAndSet(false, true)) {
+            try {
+                workers.execute(() -> fill(entry));
+            }
+            catch(RejectedExecutionException e) {
+                // The pool was shut down in the meantime
+                entry.refilling.set(false);
+            }
+        }
+    }
+
+    /**
+     * Helper function run by the worker threads to fill a pool up to its capacity, or until the limit on the total
+     * number of bytes retained by the maps in the pool is reached.
+     * @param entry the pool to be filled.
+     */
+    private void fill(Entry entry) {
+        try {
+            while(entry.maps.size() < capacity && !Thread.currentThread().isInterrupted()) {
+                // Reserve the bytes retained by the last map generated for the pool before generating the next one, so
+                // that maps are not generated only to be dropped
+                long reserved = entry.mapBytes;
+                if(pooledBytes.addAndGet(reserved) > maxPooledBytes) {
+                    pooledBytes.addAndGet(-reserved);
+                    break;
+                }
+
+                Map map = null;
+                try {
+                    map = MapCreator.generateMap(entry.key.mapType, entry.key.size, entry.key.largeMap);
+
+                    // Charge the bytes which the map actually retains instead of the reserved bytes
+                    long bytes = map.retainedBytes();
+                    entry.mapBytes = bytes;
+                    pooledBytes.addAndGet(bytes - reserved);
+                    reserved = bytes;
+                }
+                finally {
+                    // Release the reserved bytes if the map could not be generated, does not fit within the limit, or
+                    // could not be added to the pool
+                    if(map == null || pooledBytes.get() > maxPooledBytes || !entry.maps.offer(map)) {
+                        pooledBytes.addAndGet(-reserved);
+                        map = null;
+                    }
+                }
+
+                if(map == null) {
+                    break;
+                }
+            }
+        }
+        finally {
+            entry.refilling.set(false);
+        }
+
+        // Maps may have been taken after the pool was found to be full but before it was marked as not refilling
+        if(entry.maps.size() <= lowWatermark && pooledBytes.get() + entry.mapBytes <= maxPooledBytes) {
+            refill(entry);
+        }
+    }
+
+    /**
+     * The type, size and mode of a pooled map.
+     */
+    private static final class Key {
+        private final String mapType;
+        private final int size;
+        private final boolean largeMap;
+
+        Key(String mapType, int size, boolean largeMap) {
+            this.mapType = mapType;
+            this.size = size;
+            this.largeMap = largeMap;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return size == other.size && largeMap == other.largeMap && mapType.equals(other.mapType);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * mapType.hashCode() + size) + (largeMap ? 1 : 0);
+        }
+    }
+
+    /**
+     * The pool of maps of a single type, size and mode.
+     */
+    private static final class Entry {
+        private final Key key;
+        private final BlockingQueue<Map> maps;
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private volatile long mapBytes; // the bytes retained by the last map generated for the pool
+
+        Entry(Key key, int capacity) {
+            this.key = key;
+            this.maps = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.xd.cps2002.map;
+
+import java.util.Arrays;
+
+/**
+ * The {@code PackedTileGrid} class is the storage engine used by {@link Map} to hold the tiles of an {@code n} x
+ * {@code n} map. Rather than storing a {@link TileType} reference for each tile (8 bytes per tile on top of the headers
+ * of each row array), each tile is stored as a 2 bit code, along with a single bit marking whether the treasure can be
+ * reached from the tile. All of these bits are kept in a single flat array of {@code long} words, so a 50 x 50 map takes
+ * up less than 1KB and scanning the map touches memory sequentially.
+ *
+ * Tiles are addressed using a linear index {@code y * size + x}, such that tiles in the same row of the map are stored
+ * next to each other. The array of words is split into two planes:
+ *
+ * <ul>
+ *     <li>The <b>type plane</b> stores 32 tiles per word, with 2 bits per tile. The code {@link PackedTileGrid#EMPTY}
+ *     marks a tile which has not been set yet (the equivalent of a {@code null} tile).</li>
+ *     <li>The <b>winnable plane</b> stores 64 tiles per word, with 1 bit per tile.</li>
+ * </ul>
+ *
+ * @implNote The class is package-private since it is an implementation detail of the {@link Map} class hierarchy.
+ * Client code should keep using {@link Map#getTileType(int, int)} and {@link Map#isPositionWinnable}.
+ */
+final class PackedTileGrid {
+    /**
+     * Code of a tile which has not been set yet.
+     */
+    static final int EMPTY = 0;
+    /**
+     * Code of a {@link TileType#Grass} tile.
+     */
+    static final int GRASS = 1;
+    /**
+     * Code of a {@link TileType#Water} tile.
+     */
+    static final int WATER = 2;
+    /**
+     * Code of a {@link TileType#Treasure} tile.
+     */
+    static final int TREASURE = 3;
+
+    /**
+     * Lookup table used to convert a 2 bit tile code back to its {@link TileType}.
+     */
+    private static final TileType[] TILE_TYPES = {null, TileType.Grass, TileType.Water, TileType.Treasure};
+
+    /**
+     * Mask selecting the low bit of each of the 32 tile codes in a word of the type plane.
+     */
+    private static final long LOW_BITS = 0x5555555555555555L;
+
+    /**
+     * The dimension of the square grid (size x size tiles).
+     */
+    private final int size;
+    /**
+     * The total number of tiles in the grid.
+     */
+    private final int tileCount;
+    /**
+     * The index of the first word of the winnable plane in {@link PackedTileGrid#words}.
+     */
+    private final int winnableOffset;
+    /**
+     * The type plane followed by the winnable plane.
+     */
+    private final long[] words;
+
+    /**
+     * Creates an empty grid of {@code size} x {@code size} tiles, where every tile is set to
+     * {@link PackedTileGrid#EMPTY} and no tile is marked as winnable.
+     * @param size the dimension of the square grid.
+     */
+    PackedTileGrid(int size) {
+        this.size = size;
+        this.tileCount = size * size;
+        this.winnableOffset = (tileCount + 31) >>> 5;
+        this.words = new long[winnableOffset + ((tileCount + 63) >>> 6)];
+    }
+
+    /**
+     * @return the dimension of the square grid.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the total number of tiles in the grid.
+     */
+    int tileCount() {
+        return tileCount;
+    }
+
+    /**
+     * @return the number of bytes taken up by the words of the grid.
+     */
+    long retainedBytes() {
+        return 8L * words.length;
+    }
+
+    /**
+     * Converts an (x,y)--coordinate to the linear index used to address tiles in the grid.
+     * @param x x-coordinate in the grid
+     * @param y y-coordinate in the grid
+     * @return the linear index of the tile.
+     */
+    int index(int x, int y) {
+        return y * size + x;
+    }
+
+    /**
+     * @param idx linear index of a tile.
+     * @return the x-coordinate of the tile at index {@code idx}.
+     */
+    int x(int idx) {
+        return idx % size;
+    }
+
+    /**
+     * @param idx linear index of a tile.
+     * @return the y-coordinate of the tile at index {@code idx}.
+     */
+    int y(int idx) {
+        return idx / size;
+    }
+
+    /**
+     * @param idx linear index of a tile.
+     * @return the 2 bit code of the tile at index {@code idx}.
+     */
+    int code(int idx) {
+        return (int) (words[idx >>> 5] >>> ((idx & 31) << 1)) & 3;
+    }
+
+    /**
+     * Overwrites the 2 bit code of the tile at index {@code idx}.
+     * @param idx linear index of a tile.
+     * @param code the new code of the tile.
+     */
+    void setCode(int idx, int code) {
+        int shift = (idx & 31) << 1;
+        int word = idx >>> 5;
+        words[word] = (words[word] & ~(3L << shift)) | ((long) code << shift);
+    }
+
+    /**
+     * @param idx linear index of a tile.
+     * @return the {@link TileType} of the tile at index {@code idx}, or {@code null} if the tile has not been set.
+     */
+    TileType get(int idx) {
+        return TILE_TYPES[code(idx)];
+    }
+
+    /**
+     * Sets the tile at index {@code idx} to the given {@link TileType}.
+     * @param idx linear index of a tile.
+     * @param tile the type of the tile, which cannot be null.
+     */
+    void set(int idx, TileType tile) {
+        setCode(idx, codeOf(tile));
+    }
+
+    /**
+     * Converts a {@link TileType} to its 2 bit code.
+     * @param tile the type of the tile.
+     * @return the code used to store the tile in the grid.
+     */
+    static int codeOf(TileType tile) {
+        switch (tile) {
+            case Grass: return GRASS;
+            case Water: return WATER;
+            case Treasure: return TREASURE;
+            default: throw new IllegalArgumentException("Tile type " + tile + " cannot be stored in a packed grid.");
+        }
+    }
+
+    /**
+     * Sets every tile which is still {@link PackedTileGrid#EMPTY} to {@link PackedTileGrid#GRASS}.
+     *
+     * @implNote Since {@code GRASS} is {@code 01} in binary, this is done 32 tiles at a time by setting the low bit of
+     * every 2 bit code in a word which is currently {@code 00}.
+     */
+    void fillEmptyWithGrass() {
+        for(int w = 0; w < winnableOffset; w++) {
+            long word = words[w];
+            // A tile is empty if neither of its two bits is set
+            long empty = ~(word | (word >>> 1)) & LOW_BITS;
+            words[w] = word | empty;
+        }
+
+        // Clear any codes set past the last tile, so that the padding of the final word is left untouched
+        int tail = tileCount & 31;
+        if(tail != 0) {
+            words[winnableOffset - 1] &= (1L << (tail << 1)) - 1;
+        }
+    }
+
+    /**
+     * @param idx linear index of a tile.
+     * @return true if the tile at index {@code idx} is marked as winnable.
+     */
+    boolean isWinnable(int idx) {
+        return (words[winnableOffset + (idx >>> 6)] & (1L << idx)) != 0;
+    }
+
+    /**
+     * Marks the tile at index {@code idx} as winnable.
+     * @param idx linear index of a tile.
+     */
+    void setWinnable(int idx) {
+        words[winnableOffset + (idx >>> 6)] |= 1L << idx;
+    }
+
+    /**
+     * Un-marks the tile at index {@code idx} as winnable.
+     * @param idx linear index of a tile.
+     */
+    void clearWinnable(int idx) {
+        words[winnableOffset + (idx >>> 6)] &= ~(1L << idx);
+    }
+
+    /**
+     * Un-marks every tile in the grid as winnable.
+     */
+    void clearAllWinnable() {
+        Arrays.fill(words, winnableOffset, words.length, 0L);
+    }
+
+    /**
+     * Resets every tile in the grid to {@link PackedTileGrid#EMPTY} and un-marks every tile as winnable, so that the
+     * grid can be reused when a map is regenerated.
+     */
+    void clear() {
+        Arrays.fill(words, 0L);
+    }
+}
@@ -0,0 +1,190 @@
+package com.xd.cps2002.map;
+
+import com.xd.cps2002.player.Position;
+import com.xd.cps2002.util.RandomSource;
+
+/**
+ * The {@code StartPositionSampler} class draws distinct starting positions at random from the winnable tiles of a map,
+ * which are kept by the map as a compact array of linear indices (see {@link Map#getStartPositionSampler(RandomSource)}).
+ *
+ * Each draw takes a constant amount of time, no matter how few of the tiles in the map are winnable, since the
+ * positions are drawn directly from the winnable tiles rather than drawing random tiles until a winnable one is found.
+ *
+ * @implNote The sampler carries out a Fisher-Yates shuffle of the winnable tiles one step at a time, stopping as soon as
+ * enough positions have been drawn. Since the array of winnable tiles belongs to the map (and may be shared by many games
+ * if the map is frozen), the swaps are not carried out on the array itself. Instead, only the entries which have been
+ * swapped are kept in a small open addressing hash table, which only grows with the number of positions drawn.
+ */
+public final class StartPositionSampler {
+
+    /**
+     * The size of the map, used to convert the linear indices of the tiles into positions.
+     */
+    private final int size;
+
+    /**
+     * The linear indices of the winnable tiles of the map, of which only the first {@code count} are used.
+     */
+    private final int[] winnableTiles;
+
+    /**
+     * The number of winnable tiles in the map.
+     */
+    private final int count;
+
+    /**
+     * The source of random numbers used to draw the positions.
+     */
+    private final RandomSource random;
+
+    /**
+     * The number of positions drawn so far. The winnable tiles which have not been drawn yet are the ones shuffled into
+     * the entries from {@code drawn} to {@code count - 1}.
+     */
+    private int drawn;
+
+    /**
+     * The entries of the array of winnable tiles which have been swapped, stored plus one such that 0 marks an empty
+     * slot in the hash table.
+     */
+    private int[] swappedEntries;
+
+    /**
+     * The linear index of the tile which has been swapped into each entry in {@link StartPositionSampler#swappedEntries}.
+     */
+    private int[] swappedTiles;
+
+    /**
+     * The number of swapped entries kept in the hash table.
+     */
+    private int swapCount;
+
+    /**
+     * Constructor used by {@link Map#getStartPositionSampler(RandomSource)} to create a sampler over its winnable tiles.
+     * @param size the size of the map.
+     * @param winnableTiles the linear indices of the winnable tiles of the map.
+     * @param count the number of winnable tiles in the map.
+     * @param random the source of random numbers used to draw the positions.
+     */
+    StartPositionSampler(int size, int[] winnableTiles, int count, RandomSource random) {
+        this.size = size;
+        this.winnableTiles = winnableTiles;
+        this.count = count;
+        this.random = random;
+
+        this.swappedEntries = new int[16];
+        this.swappedTiles = new int[16];
+    }
+
+    /**
+     * @return the number of winnable tiles which have not been drawn yet.
+     */
+    public int remaining() {
+        return count - drawn;
+    }
+
+    /**
+     * @return true if there are winnable tiles which have not been drawn yet.
+     */
+    public boolean hasNext() {
+        return drawn < count;
+    }
+
+    /**
+     * Draws a winnable tile which has not been drawn before, with every such tile being equally likely.
+     * @return the linear index {@code y * size + x} of the tile.
+     * @throws IllegalStateException if every winnable tile has already been drawn.
+     */
+    public int nextIndex() {
+        if(drawn >= count) {
+            throw new IllegalStateException("No winnable tiles are left to draw a start position from.");
+        }
+
+        // Pick one of the entries which have not been drawn yet, and swap it with the first of these entries
+        int entry = drawn + random.nextInt(count - drawn);
+        int tile = tileAt(entry);
+        if(entry != drawn) {
+            put(entry, tileAt(drawn));
+        }
+        drawn++;
+
+        return tile;
+    }
+
+    /**
+     * Draws a winnable tile which has not been drawn before, with every such tile being equally likely.
+     * @return the position of the tile.
+     * @throws IllegalStateException if every winnable tile has already been drawn.
+     */
+    public Position next() {
+        int idx = nextIndex();
+        return new Position(idx % size, idx / size);
+    }
+
+    /**
+     * Helper function used to get the tile which has been shuffled into an entry of the array of winnable tiles.
+     * @param entry the entry of the array.
+     * @return the linear index of the tile swapped into the entry, or the one in the array if it was not swapped.
+     */
+    private int tileAt(int entry) {
+        int mask = swappedEntries.length - 1;
+        for(int slot = hash(entry) & mask; swappedEntries[slot] != 0; slot = (slot + 1) & mask) {
+            if(swappedEntries[slot] == entry + 1) {
+                return swappedTiles[slot];
+            }
+        }
+        return winnableTiles[entry];
+    }
+
+    /**
+     * Helper function used to store the tile which has been swapped into an entry of the array of winnable tiles.
+     * @param entry the entry of the array.
+     * @param tile the linear index of the tile.
+     */
+    private void put(int entry, int tile) {
+        // Keep the hash table at most half full, so that lookups stay short
+        if(2 * (swapCount + 1) > swappedEntries.length) {
+            grow();
+        }
+
+        int mask = swappedEntries.length - 1;
+        int slot = hash(entry) & mask;
+        while(swappedEntries[slot] != 0 && swappedEntries[slot] != entry + 1) {
+            slot = (slot + 1) & mask;
+        }
+
+        if(swappedEntries[slot] == 0) {
+            swappedEntries[slot] = entry + 1;
+            swapCount++;
+        }
+        swappedTiles[slot] = tile;
+    }
+
+    /**
+     * Helper function used to double the size of the hash table of swapped entries.
+     */
+    private void grow() {
+        int[] oldEntries = swappedEntries;
+        int[] oldTiles = swappedTiles;
+
+        swappedEntries = new int[2 * oldEntries.length];
+        swappedTiles = new int[2 * oldTiles.length];
+        swapCount = 0;
+
+        for(int slot = 0; slot < oldEntries.length; slot++) {
+            if(oldEntries[slot] != 0) {
+                put(oldEntries[slot] - 1, oldTiles[slot]);
+            }
+        }
+    }
+
+    /**
+     * Helper function used to spread the entries of the array across the hash table.
+     * @param entry the entry of the array.
+     * @return the hash of the entry.
+     */
+    private static int hash(int entry) {
+        int h = entry * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -33,11 +33,13 @@ public enum TileType {
     public final PlayerStatus statusAfterMove;
 
     /**
-     * These two values describe the CSS style of the tile. The first, html_handle, is a simple string identifier used
-     * to reference the html_blurb. The blurb is what actually describes the CSS style of the tile.
+     * These values describe the CSS style of the tile. The first, html_handle, is a simple string identifier used
+     * to reference the html_blurb. The blurb is what actually describes the CSS style of the tile, including its colour,
+     * html_colour, which is also used to draw the tile on a canvas.
      */
     public final String html_handle;
     public final String html_blurb;
+    public final String html_colour;
 
     /**
      * This function is used to initialize each tile type.
@@ -50,8 +52,9 @@ public enum TileType {
     TileType(PlayerStatus statusAfterMove, String html_handle, int r, int g, int b) {
         this.statusAfterMove = statusAfterMove;
         this.html_handle = html_handle;
+        this.html_colour = "rgba(" + r + ", " + g + ", " + b + ", 0.8)";
         this.html_blurb = "." + html_handle +
-                          " {\nbackground-color: rgba(" + r + ", " + g + ", " + b + ", 0.8);\n" +
+                          " {\nbackground-color: " + html_colour + ";\n" +
                           "border: 1px solid rgba(0, 0, 0, 0.8);\n" +
                           "font-size: 30px;\n" +
                           "text-align: center;}\n\n";
@@ -4,29 +4,59 @@ import com.xd.cps2002.player.player_exceptions.MoveException;
 import com.xd.cps2002.player.player_exceptions.NullPositionException;
 import com.xd.cps2002.player.player_exceptions.NullTeamException;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * The Player class defines a player in the game, and is responsible for calculating the new Position after a move.
  *
+ * The state of the player is kept in a PlayerStore, of which a Player is a view (or adapter) of a single index. This
+ * allows games with many players to keep all of their state in parallel primitive arrays and move them in bulk, while
+ * the rest of the game keeps on using the Player class. A Player created using its own constructor is the only player
+ * of a store of its own.
+ *
+ * The current position is kept packed into a long (see Position.pack(int x, int y)), such that moves can be resolved
+ * using movePacked(char input) and setPosition(long packed_position) without allocating a Position for each move. The
+ * Position returned by getPosition() is only created when it is asked for.
+ *
  * @author Xandru Mifsud
  */
 public class Player{
-    private static int global_player_count = 0; // maintains count of the number of Player instances created
-    private int player_id; // auto-incrementing upon instantiation
-    private Position position = null; // maintain the current player position
-    private Position start_position = null; // maintain the start position of the player
-
-    private Team team;
+    // maintains count of the number of Player instances created, atomically since games may be set up concurrently
+    private static final AtomicInteger global_player_count = new AtomicInteger();
+    private final PlayerStore store; // the store which keeps the state of the player
+    private final int index; // the index of the player in the store
+    private Position position = null; // the last Position returned by getPosition(), reused while still current
+    private Position start_position = null; // the last Position returned by getStartPosition(), reused while current
 
     public Player(){
-        this.player_id = global_player_count++; // auto-incrementation
+        this.store = new PlayerStore(1);
+        this.index = store.add(this); // auto-incrementation of the player id is carried out by the store
+    }
+
+    /**
+     * Constructor for a view of a player in a PlayerStore, used by PlayerStore.get(int index).
+     * @param store is the store which keeps the state of the player.
+     * @param index is the index of the player in the store.
+     */
+    Player(PlayerStore store, int index){
+        this.store = store;
+        this.index = index;
+    }
+
+    /**
+     * Gives out the next unique player id, shared by all stores.
+     * @return int the next player id.
+     */
+    static int nextPlayerId(){
+        return global_player_count.getAndIncrement(); // auto-incrementation
     }
 
     /**
-     * Getter for private static int global_player_count.
+     * Getter for the value of private static AtomicInteger global_player_count.
      * @return int global_player_count - the count of the number of Player instances created.
      */
     public static int get_global_player_count(){
-        return global_player_count;
+        return global_player_count.get();
     }
 
     /**
@@ -34,15 +64,31 @@ public class Player{
      * @return int this.player_id - the auto-incrementation derived unique player id.
      */
     public int get_pID(){
-        return this.player_id;
+        return store.getId(index);
+    }
+
+    /**
+     * Getter for the PlayerStore which keeps the state of the player.
+     * @return PlayerStore this.store - the store of which the player is a view.
+     */
+    public PlayerStore getStore(){
+        return store;
+    }
+
+    /**
+     * Getter for the index of the player in its PlayerStore.
+     * @return int this.index - the index of the player in the store.
+     */
+    public int getStoreIndex(){
+        return index;
     }
 
     /**
      * Getter for the Team instance associated with the player.
-     * @return Team this.team - the Team instance associated with the player.
+     * @return Team - the Team instance associated with the player.
      */
     public Team getTeam(){
-        return this.team;
+        return store.getTeam(index);
     }
 
     /**
@@ -54,7 +100,16 @@ public class Player{
         if(team == null){
             throw new IllegalArgumentException("Team instance cannot be null");
         }
-        this.team = team;
+        store.setTeam(index, team);
+    }
+
+    /**
+     * Getter for the status of the player after its last move applied by PlayerStore.applyMoves(). The status is Normal
+     * again once the position of the player is set through setPosition(), eg. when the player is reset.
+     * @return PlayerStatus - the player's status.
+     */
+    public PlayerStatus getStatus(){
+        return store.getStatus(index);
     }
 
     /**
@@ -62,27 +117,58 @@ public class Player{
      * @return Position position - the current player's position.
      */
     public Position getPosition(){
+        if(!store.hasPosition(index)){
+            return null;
+        }
+
+        position = current(position, store.getPosition(index)); // create the Position only when asked for
         return position;
     }
 
+    /**
+     * Getter for the player position, packed into a long.
+     * @return long packed_position - the current player's position, as packed by Position.pack(int x, int y).
+     * @throws NullPositionException is thrown when the position is null, i.e. when it has not been set.
+     */
+    public long getPackedPosition(){
+        return store.getPosition(index);
+    }
+
     /**
      * Setter for the player Position position, only allowed if start_position has been set beforehand. It is also
-     * responsible for notifying the Team instance of the new position.
+     * responsible for notifying the Team instance of the new position, and for setting the status kept in the store back
+     * to Normal, since the status of the last move applied by PlayerStore.applyMoves() no longer holds.
      * @param position is a Position object to which the player's position will be set upon correct execution.
      * @throws NullPositionException is thrown when Position start_position is null, i.e. when it has not been set.
      * @throws NullTeamException is thrown when Team team is null, i.e. when it has not been set.
      */
     public void setPosition(Position position){
-        if(start_position == null){
-            throw new NullPositionException(player_id);
-        }
-        else if(team == null){
-            throw new NullTeamException(player_id);
+        Team team = checkCanMove();
+
+        if(position == null){
+            store.clearPosition(index);
         }
         else{
-            this.position = position;
-            team.update(position); // TO-DO: THROW EXCEPTION IF TEAM NOT SET
+            store.setPosition(index, position.pack());
         }
+        store.setStatus(index, PlayerStatus.Normal);
+        this.position = position;
+        team.update(position);
+    }
+
+    /**
+     * Setter for the player position, packed into a long, which does not allocate a Position object. Otherwise, it is
+     * the same as setPosition(Position position).
+     * @param packed_position is the position to which the player will be moved, as packed by Position.pack(int x, int y).
+     * @throws NullPositionException is thrown when Position start_position is null, i.e. when it has not been set.
+     * @throws NullTeamException is thrown when Team team is null, i.e. when it has not been set.
+     */
+    public void setPosition(long packed_position){
+        Team team = checkCanMove();
+
+        store.setPosition(index, packed_position);
+        store.setStatus(index, PlayerStatus.Normal);
+        team.update(packed_position);
     }
 
     /**
@@ -90,6 +176,11 @@ public class Player{
      * @return Position start_position - the player's starting position.
      */
     public Position getStartPosition(){
+        if(!store.hasStartPosition(index)){
+            return null;
+        }
+
+        start_position = current(start_position, store.getStartPosition(index));
         return start_position;
     }
 
@@ -98,8 +189,14 @@ public class Player{
      * @param start_position is a Position object to which the player's starting and current positions will be set.
      */
     public void setStartPosition(Position start_position){
+        if(start_position == null){
+            store.clearStartPosition(index);
+        }
+        else{
+            store.setStartPosition(index, start_position.pack());
+        }
         this.start_position = start_position;
-        position = start_position;
+        this.position = start_position;
     }
 
     /**
@@ -107,12 +204,7 @@ public class Player{
      * @throws NullPositionException is thrown when Position start_position is null, i.e. when it has not been set.
      */
     public void reset(){
-        if(start_position == null){
-            throw new NullPositionException(player_id);
-        }
-        else {
-            setPosition(start_position);
-        }
+        setPosition(store.getStartPosition(index));
     }
 
     /**
@@ -133,17 +225,64 @@ public class Player{
      * @throws NullPositionException is thrown whenever the Player.position is not set.
      */
     public Position move(char input) throws MoveException{
-        // in case position is not set, throw exception
-        if(position == null){
-            throw new NullPositionException(player_id);
-        }
+        return Position.unpack(movePacked(input));
+    }
+
+    /**
+     * Same as move(char input), but returns the new coordinates packed into a long rather than as a Position, such that
+     * moves can be resolved (and rejected, eg. if outside of the map boundary) without any allocation.
+     * @param input is a char specifying the direction to shift the coordinates, if the char is in the set {'u', 'd', 'r', 'l'}.
+     * @return long with the coordinates derived from the player's current position and the coordinate shifts, as packed
+     * by Position.pack(int x, int y).
+     * @throws MoveException is thrown whenever the input is not a valid character.
+     * @throws NullPositionException is thrown whenever the Player.position is not set.
+     */
+    public long movePacked(char input) throws MoveException{
+        // in case position is not set, an exception is thrown by the store
+        long packed_position = store.getPosition(index);
+
+        int x = Position.unpackX(packed_position);
+        int y = Position.unpackY(packed_position);
         switch(Character.toLowerCase(input)){ // test against cases to carry out necessary logic for shifting position
-            case 'u': return new Position(position.x, position.y - 1);
-            case 'd': return new Position(position.x, position.y + 1);
-            case 'l': return new Position(position.x - 1, position.y);
-            case 'r': return new Position(position.x + 1, position.y);
+            case 'u': return Position.pack(x, y - 1);
+            case 'd': return Position.pack(x, y + 1);
+            case 'l': return Position.pack(x - 1, y);
+            case 'r': return Position.pack(x + 1, y);
 
             default: throw new MoveException();
         }
     }
+
+    /**
+     * Checks that the player can be moved, i.e. that its start position and team have been set.
+     * @return Team of the player.
+     * @throws NullPositionException is thrown when Position start_position is null, i.e. when it has not been set.
+     * @throws NullTeamException is thrown when Team team is null, i.e. when it has not been set.
+     */
+    private Team checkCanMove(){
+        Team team = store.getTeam(index);
+
+        if(!store.hasStartPosition(index)){
+            throw new NullPositionException(get_pID());
+        }
+        else if(team == null){
+            throw new NullTeamException(get_pID());
+        }
+
+        return team;
+    }
+
+    /**
+     * Gives a Position with the given packed coordinates, reusing the previous one if its coordinates are the same, such
+     * that the Position only needs to be created again after the player has moved.
+     * @param previous is the Position previously returned, or null.
+     * @param packed_position is the packed position in the store.
+     * @return Position with the coordinates of packed_position.
+     */
+    private static Position current(Position previous, long packed_position){
+        if(previous != null && previous.pack() == packed_position){
+            return previous;
+        }
+        return Position.unpack(packed_position);
+    }
 }
\ No newline at end of file
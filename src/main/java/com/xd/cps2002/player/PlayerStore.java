@@ -0,0 +1,389 @@
+package com.xd.cps2002.player;
+
+import com.xd.cps2002.player.player_exceptions.MoveException;
+import com.xd.cps2002.player.player_exceptions.NullPositionException;
+import com.xd.cps2002.player.player_exceptions.NullTeamException;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * The PlayerStore class keeps the state of many players in parallel primitive arrays (struct-of-arrays), rather than in
+ * a Player object per player with references to Position and Team objects. Each player is identified by its index in
+ * the store, and its id, current and start positions (packed using Position.pack(int x, int y)), team and status are
+ * kept at that index of the corresponding array. This keeps the memory used per player small and the state of
+ * consecutive players next to each other in memory, such that moves can be applied to all players in bulk using
+ * applyMoves(byte[] moves, int map_size, LongFunction status_lookup).
+ *
+ * A Player is a view of a single index in a store, returned by get(int index), so that the rest of the game can keep
+ * on using the Player class. A Player created using its own constructor is the only player of a store of its own.
+ */
+public final class PlayerStore{
+    // move encodings used by applyMoves(), as returned by direction(char input)
+    public static final byte NONE = 0; // the player does not move
+    public static final byte UP = 1;
+    public static final byte DOWN = 2;
+    public static final byte LEFT = 3;
+    public static final byte RIGHT = 4;
+
+    private static final byte HAS_POSITION = 1; // flag set when the current position of a player is set
+    private static final byte HAS_START_POSITION = 2; // flag set when the start position of a player is set
+    private static final PlayerStatus[] STATUSES = PlayerStatus.values(); // statuses, indexed by ordinal
+
+    private int size = 0; // the number of players in the store
+    private int[] ids; // the unique player id of each player
+    private long[] positions; // the packed current position of each player
+    private long[] start_positions; // the packed start position of each player
+    private int[] team_slots; // the index in teams of the team of each player, or -1 if not set
+    private byte[] statuses; // the ordinal of the PlayerStatus after the last move of each player
+    private byte[] flags; // HAS_POSITION and HAS_START_POSITION flags of each player
+    private Player[] views; // the Player view of each player, created on demand
+
+    private Team[] teams = new Team[1]; // the distinct teams joined by the players in the store
+    private int team_count = 0;
+
+    /**
+     * Creates an empty store.
+     * @param capacity is the number of players for which space is initially allocated; the store grows as needed.
+     * @throws IllegalArgumentException is thrown whenever the capacity is negative.
+     */
+    public PlayerStore(int capacity){
+        if(capacity < 0){
+            throw new IllegalArgumentException("The capacity of a player store cannot be negative.");
+        }
+
+        ids = new int[capacity];
+        positions = new long[capacity];
+        start_positions = new long[capacity];
+        team_slots = new int[capacity];
+        statuses = new byte[capacity];
+        flags = new byte[capacity];
+        views = new Player[capacity];
+    }
+
+    /**
+     * Adds a new player to the store, with a new unique player id and without a position or team.
+     * @return int index of the new player in the store.
+     */
+    public int add(){
+        if(size == ids.length){
+            grow();
+        }
+
+        int index = size++;
+        ids[index] = Player.nextPlayerId();
+        team_slots[index] = -1;
+        statuses[index] = (byte) PlayerStatus.Normal.ordinal();
+        return index;
+    }
+
+    /**
+     * Adds a new player to the store, which is viewed by an existing Player.
+     * @param view is the Player which views the new player.
+     * @return int index of the new player in the store.
+     */
+    int add(Player view){
+        int index = add();
+        views[index] = view;
+        return index;
+    }
+
+    /**
+     * Getter for the number of players in the store.
+     * @return int size - the number of players.
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Getter for the Player view of a player in the store.
+     * @param index is the index of the player in the store.
+     * @return Player which reads and writes the state of the player in the store.
+     */
+    public Player get(int index){
+        checkIndex(index);
+        if(views[index] == null){
+            views[index] = new Player(this, index);
+        }
+        return views[index];
+    }
+
+    /**
+     * Getter for the unique player id of a player.
+     * @param index is the index of the player in the store.
+     * @return int player id.
+     */
+    public int getId(int index){
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * Checks whether the current position of a player is set.
+     * @param index is the index of the player in the store.
+     * @return true if the position is set.
+     */
+    public boolean hasPosition(int index){
+        checkIndex(index);
+        return (flags[index] & HAS_POSITION) != 0;
+    }
+
+    /**
+     * Getter for the current position of a player.
+     * @param index is the index of the player in the store.
+     * @return long packed position of the player.
+     * @throws NullPositionException is thrown when the position of the player is not set.
+     */
+    public long getPosition(int index){
+        if(!hasPosition(index)){
+            throw new NullPositionException(ids[index]);
+        }
+        return positions[index];
+    }
+
+    /**
+     * Setter for the current position of a player. Unlike Player.setPosition(long packed_position), it does not check
+     * the start position or update the team of the player.
+     * @param index is the index of the player in the store.
+     * @param packed_position is the packed position of the player.
+     */
+    public void setPosition(int index, long packed_position){
+        checkIndex(index);
+        positions[index] = packed_position;
+        flags[index] |= HAS_POSITION;
+    }
+
+    /**
+     * Unsets the current position of a player.
+     * @param index is the index of the player in the store.
+     */
+    void clearPosition(int index){
+        flags[index] &= ~HAS_POSITION;
+        positions[index] = 0;
+    }
+
+    /**
+     * Checks whether the start position of a player is set.
+     * @param index is the index of the player in the store.
+     * @return true if the start position is set.
+     */
+    public boolean hasStartPosition(int index){
+        checkIndex(index);
+        return (flags[index] & HAS_START_POSITION) != 0;
+    }
+
+    /**
+     * Getter for the start position of a player.
+     * @param index is the index of the player in the store.
+     * @return long packed start position of the player.
+     * @throws NullPositionException is thrown when the start position of the player is not set.
+     */
+    public long getStartPosition(int index){
+        if(!hasStartPosition(index)){
+            throw new NullPositionException(ids[index]);
+        }
+        return start_positions[index];
+    }
+
+    /**
+     * Setter for the start position of a player, and hence also its current position.
+     * @param index is the index of the player in the store.
+     * @param packed_position is the packed start position of the player.
+     */
+    public void setStartPosition(int index, long packed_position){
+        checkIndex(index);
+        start_positions[index] = packed_position;
+        positions[index] = packed_position;
+        flags[index] |= HAS_START_POSITION | HAS_POSITION;
+    }
+
+    /**
+     * Unsets the start position of a player, and hence also its current position.
+     * @param index is the index of the player in the store.
+     */
+    void clearStartPosition(int index){
+        flags[index] = 0;
+        start_positions[index] = 0;
+        positions[index] = 0;
+    }
+
+    /**
+     * Getter for the team of a player.
+     * @param index is the index of the player in the store.
+     * @return Team of the player, or null if it has not been set.
+     */
+    public Team getTeam(int index){
+        checkIndex(index);
+        return (team_slots[index] < 0) ? null : teams[team_slots[index]];
+    }
+
+    /**
+     * Getter for the id of the team of a player.
+     * @param index is the index of the player in the store.
+     * @return int team id of the player, or -1 if the team has not been set.
+     */
+    public int getTeamId(int index){
+        Team team = getTeam(index);
+        return (team == null) ? -1 : team.get_tID();
+    }
+
+    /**
+     * Setter for the team of a player.
+     * @param index is the index of the player in the store.
+     * @param team is the Team of the player.
+     * @throws IllegalArgumentException whenever the passed team instance is null.
+     */
+    public void setTeam(int index, Team team){
+        checkIndex(index);
+        if(team == null){
+            throw new IllegalArgumentException("Team instance cannot be null");
+        }
+
+        // look for the team amongst those already joined by players in the store, since there are only a few of them
+        int slot = 0;
+        while(slot < team_count && teams[slot] != team){
+            slot++;
+        }
+
+        if(slot == team_count){
+            if(team_count == teams.length){
+                teams = Arrays.copyOf(teams, 2 * teams.length);
+            }
+            teams[team_count++] = team;
+        }
+
+        team_slots[index] = slot;
+    }
+
+    /**
+     * Getter for the status of a player after its last move.
+     * @param index is the index of the player in the store.
+     * @return PlayerStatus after the last move applied to the player, or Normal if it has not moved yet.
+     */
+    public PlayerStatus getStatus(int index){
+        checkIndex(index);
+        return STATUSES[statuses[index]];
+    }
+
+    /**
+     * Setter for the status of a player.
+     * @param index is the index of the player in the store.
+     * @param status is the PlayerStatus of the player.
+     */
+    public void setStatus(int index, PlayerStatus status){
+        checkIndex(index);
+        statuses[index] = (byte) status.ordinal();
+    }
+
+    /**
+     * Applies one move to each player in the store, in the order of their indices, with the same rules as the game:
+     * (i) Moves resulting in a position outside of the (map_size x map_size) map are rejected, and the player stays put.
+     * (ii) Otherwise the player is moved, the new position is added to the team's history, and the status of the player
+     * is set to the status of the tile landed on.
+     * (iii) If the player dies (eg. by landing on a water tile), it is reset to its start position.
+     * Players without a position, players who have already won, and players whose move is NONE are skipped.
+     *
+     * The loop works directly on the primitive arrays and does not allocate anything, other than a Position for the
+     * team history the first time that a team visits a tile.
+     *
+     * @param moves is the move of each player (NONE, UP, DOWN, LEFT or RIGHT), indexed by the index in the store.
+     * @param map_size is the size of the map.
+     * @param status_lookup gives the status of a player after landing on the tile at a packed position.
+     * @return int number of moves which were applied, i.e. not skipped or rejected.
+     * @throws IllegalArgumentException is thrown whenever there are fewer moves than players, or a move is invalid.
+     * @throws NullTeamException is thrown whenever a player to be moved has not been joined with a team.
+     */
+    public int applyMoves(byte[] moves, int map_size, LongFunction<PlayerStatus> status_lookup){
+        if(moves.length < size){
+            throw new IllegalArgumentException("A move must be given for every player in the store.");
+        }
+
+        int applied = 0;
+        int win = PlayerStatus.Win.ordinal();
+
+        for(int i = 0; i < size; i++){
+            byte move = moves[i];
+            if(move == NONE || (flags[i] & HAS_POSITION) == 0 || statuses[i] == win){
+                continue; // skip players which do not move
+            }
+
+            int x = Position.unpackX(positions[i]);
+            int y = Position.unpackY(positions[i]);
+            switch(move){
+                case UP: y--; break;
+                case DOWN: y++; break;
+                case LEFT: x--; break;
+                case RIGHT: x++; break;
+
+                default: throw new IllegalArgumentException("Invalid move.");
+            }
+
+            if(x < 0 || x >= map_size || y < 0 || y >= map_size){
+                continue; // reject moves outside of the map boundary
+            }
+
+            if(team_slots[i] < 0){
+                throw new NullTeamException(ids[i]);
+            }
+            Team team = teams[team_slots[i]];
+
+            long packed_position = Position.pack(x, y);
+            positions[i] = packed_position;
+            team.update(packed_position);
+
+            PlayerStatus status = status_lookup.apply(packed_position);
+            statuses[i] = (byte) status.ordinal();
+            if(status == PlayerStatus.Death){ // if dead, reset player
+                positions[i] = start_positions[i];
+                team.update(start_positions[i]);
+            }
+
+            applied++;
+        }
+
+        return applied;
+    }
+
+    /**
+     * Converts a character from the set {'u', 'd', 'r', 'l'} (case-insensitive) into a move for applyMoves().
+     * @param input is a char specifying the direction of the move.
+     * @return byte UP, DOWN, LEFT or RIGHT.
+     * @throws MoveException is thrown whenever the input is not a valid character.
+     */
+    public static byte direction(char input) throws MoveException{
+        switch(Character.toLowerCase(input)){
+            case 'u': return UP;
+            case 'd': return DOWN;
+            case 'l': return LEFT;
+            case 'r': return RIGHT;
+
+            default: throw new MoveException();
+        }
+    }
+
+    /**
+     * Checks that an index refers to a player in the store.
+     * @param index is the index to check.
+     * @throws IndexOutOfBoundsException is thrown whenever the index is negative or not less than size().
+     */
+    private void checkIndex(int index){
+        if(index < 0 || index >= size){
+            throw new IndexOutOfBoundsException("Invalid player index: " + index);
+        }
+    }
+
+    /**
+     * Doubles the capacity of the store.
+     */
+    private void grow(){
+        int capacity = Math.max(4, 2 * ids.length);
+        ids = Arrays.copyOf(ids, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        start_positions = Arrays.copyOf(start_positions, capacity);
+        team_slots = Arrays.copyOf(team_slots, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        views = Arrays.copyOf(views, capacity);
+    }
+}
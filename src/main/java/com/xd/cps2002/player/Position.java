@@ -3,6 +3,10 @@ package com.xd.cps2002.player;
 /**
  * Simple convenience class to maintain (x,y)--coordinates (representative of indices).
  *
+ * The coordinates may also be packed into a single long, with x in the upper 32 bits and y in the lower 32 bits, such
+ * that hot paths (eg. resolving a move) can pass coordinates around without allocating a Position each time. The
+ * packed form supports negative coordinates, since the Player is agnostic of the map boundary.
+ *
  * @author Xandru Mifsud
  */
 public class Position{
@@ -19,6 +23,51 @@ public class Position{
         this.y = y;
     }
 
+    /**
+     * Packs (x, y)--coordinates into a single long.
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return long with x in the upper 32 bits and y in the lower 32 bits.
+     */
+    public static long pack(int x, int y){
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Extracts the x-coordinate from packed coordinates.
+     * @param packed The coordinates, as packed by pack(int x, int y).
+     * @return The x-coordinate.
+     */
+    public static int unpackX(long packed){
+        return (int) (packed >> 32);
+    }
+
+    /**
+     * Extracts the y-coordinate from packed coordinates.
+     * @param packed The coordinates, as packed by pack(int x, int y).
+     * @return The y-coordinate.
+     */
+    public static int unpackY(long packed){
+        return (int) packed;
+    }
+
+    /**
+     * Creates a Position from packed coordinates.
+     * @param packed The coordinates, as packed by pack(int x, int y).
+     * @return A new Position with the unpacked coordinates.
+     */
+    public static Position unpack(long packed){
+        return new Position(unpackX(packed), unpackY(packed));
+    }
+
+    /**
+     * Packs the coordinates of this Position into a single long.
+     * @return long with x in the upper 32 bits and y in the lower 32 bits.
+     */
+    public long pack(){
+        return pack(x, y);
+    }
+
     /**
      * Basic equality operator to check if two Positions are the same with regards
      * to their coordinates on the plane.
@@ -37,4 +86,13 @@ public class Position{
 
         return (position.x == this.x) && (position.y == this.y); // and return equality check
     }
+
+    /**
+     * Hash code consistent with equals(Object o), such that Positions can be kept in hashed collections.
+     * @return an int hash of the (x, y)--coordinates.
+     */
+    @Override
+    public int hashCode(){
+        return 31 * x + y;
+    }
 }
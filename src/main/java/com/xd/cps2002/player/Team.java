@@ -4,6 +4,11 @@ import com.xd.cps2002.player.player_exceptions.NullPositionException;
 import com.xd.cps2002.player.player_exceptions.TeamOverrideException;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The Team class defines the notion of a team in the game, and is responsible for maintaining the collective history
@@ -12,25 +17,51 @@ import java.util.ArrayList;
  * do so can be easily provided thanks to this design pattern. Eg. in the future, if one player of the team dies, all
  * all players of that team may be reset to their respective starting positions.
  *
+ * The visited positions are kept both as an ordered history and as a set, such that checking whether a position has
+ * already been visited does not depend on the length of the history. If the size of the map is known, the set is a
+ * BitSet with one bit per tile (indexed by y * map_size + x), otherwise it is a HashSet of packed positions. Both are
+ * only changed through the Team's own methods, such that they always agree: the history is given out as a read-only
+ * view, and holds copies of the positions passed to update(), since a Position's coordinates can be changed.
+ *
  * @author Xandru Mifsud
  */
 public class Team{
-    private static int global_team_count = 0; // maintains count of the number of Team instances created
+    // maintains count of the number of Team instances created, atomically since games may be set up concurrently
+    private static final AtomicInteger global_team_count = new AtomicInteger();
     private int team_id; // auto-incrementing upon instantiation
-    private ArrayList<Position> historical_positions = new ArrayList<Position>(); // maintain record of visited coords
+    private final int map_size; // size of the map the team is playing on, or 0 if not known
+    private final BitSet visited_tiles = new BitSet(); // marks the visited tiles within the map, by linear index
+    private final HashSet<Long> visited_positions = new HashSet<Long>(); // visited packed coords outside the map
+    private final ArrayList<Position> historical_positions = new ArrayList<Position>(); // record of visited coords
+    private final List<Position> history_view = Collections.unmodifiableList(historical_positions); // read-only
+    private int history_clears = 0; // the number of times that the history was cleared
 
     public ArrayList<Player> players = new ArrayList<Player>(); // maintain record of joined players
 
     public Team(){
-        this.team_id = global_team_count++; // auto-incrementation
+        this(0);
+    }
+
+    /**
+     * Constructor for a team playing on a map of a known size, such that visited positions are marked in a BitSet.
+     * @param map_size is the size of the (map_size x map_size) map, or 0 if not known.
+     * @throws IllegalArgumentException is thrown whenever map_size is negative.
+     */
+    public Team(int map_size){
+        if(map_size < 0){
+            throw new IllegalArgumentException();
+        }
+
+        this.map_size = map_size;
+        this.team_id = global_team_count.getAndIncrement(); // auto-incrementation
     }
 
     /**
-     * Getter for private static int global_team_count.
+     * Getter for the value of private static AtomicInteger global_team_count.
      * @return int global_team_count - the count of the number of Team instances created.
      */
     public static int get_global_team_count(){
-        return global_team_count;
+        return global_team_count.get();
     }
 
     /**
@@ -42,23 +73,103 @@ public class Team{
     }
 
     /**
-     * Getter for the team's Position history (from start/reset state till the current state).
-     * @return ArrayList{@literal <}Position{@literal >} historical_positions is an ArrayList of all previously visited Position(s).
+     * Getter for the size of the map the team is playing on.
+     * @return int this.map_size - the size of the map, or 0 if not known.
+     */
+    public int getMapSize(){
+        return map_size;
+    }
+
+    /**
+     * Getter for the team's Position history (from start/reset state till the current state), in the order in which
+     * the positions were first visited. The history is only changed through update() and clearHistory().
+     * @return List{@literal <}Position{@literal >} a read-only view of all previously visited Position(s).
+     */
+    public List<Position> getPositionHistory(){
+        return history_view;
+    }
+
+    /**
+     * Clears the team's Position history, such that every position can be visited again.
+     */
+    public void clearHistory(){
+        historical_positions.clear();
+        visited_tiles.clear();
+        visited_positions.clear();
+        history_clears++;
+    }
+
+    /**
+     * Getter for the number of times that the history was cleared, such that a consumer of the history can tell that
+     * the positions it has already seen were dropped, even if the history has since grown past its previous length.
+     * @return int this.history_clears - the number of calls to clearHistory().
+     */
+    public int getHistoryClears(){
+        return history_clears;
+    }
+
+    /**
+     * Checks whether a position has already been visited by the team, in O(1) time.
+     * @param position is the Position to check.
+     * @return true if the position is in the team's history.
      */
-    public ArrayList<Position> getPositionHistory(){
-        return historical_positions;
+    public boolean hasVisited(Position position){
+        if(position == null){
+            return false;
+        }
+        else if(isWithinMap(position)){
+            return visited_tiles.get(position.y * map_size + position.x);
+        }
+        return visited_positions.contains(position.pack());
+    }
+
+    /**
+     * Same as hasVisited(Position position), but takes the position packed into a long, such that positions within the
+     * map can be checked without allocating a Position.
+     * @param packed_position is the position to check, as packed by Position.pack(int x, int y).
+     * @return true if the position is in the team's history.
+     */
+    public boolean hasVisited(long packed_position){
+        int x = Position.unpackX(packed_position);
+        int y = Position.unpackY(packed_position);
+
+        if(isWithinMap(x, y)){
+            return visited_tiles.get(y * map_size + x);
+        }
+        return visited_positions.contains(packed_position);
     }
 
     /**
      * Responsible for the updating of the historical_positions array, ensuring no duplicates are added.
-     * Duplicate checking is carried out to restrict memory usage. The penalty to this is that duplication 
-     * checking is carried out in O(n^2) time complexity, where n is the size of the map (n x n positions).
-     * Future implementations, especially those involving larger maps, may wish to implement the Comparable
-     * interface and use hashing for better retrieval. 
+     * Duplicate checking is carried out to restrict memory usage, using the set of visited positions such that each
+     * update takes O(1) time rather than O(n) time in the length of the history. A copy of the position is recorded,
+     * such that later changes to its coordinates do not affect the history. Null positions are not recorded.
      */
     public void update(Position position){
-        if(!historical_positions.contains(position)){
-            historical_positions.add(position);
+        if(markVisited(position)){
+            historical_positions.add(new Position(position.x, position.y));
+        }
+    }
+
+    /**
+     * Same as update(Position position), but takes the position packed into a long. If the position lies within the map,
+     * a Position is only allocated the first time that the tile is visited, such that revisiting tiles (eg. moving back
+     * and forth) does not allocate anything.
+     * @param packed_position is the position to record, as packed by Position.pack(int x, int y).
+     */
+    public void update(long packed_position){
+        int x = Position.unpackX(packed_position);
+        int y = Position.unpackY(packed_position);
+
+        if(isWithinMap(x, y)){
+            int idx = y * map_size + x;
+            if(!visited_tiles.get(idx)){
+                visited_tiles.set(idx);
+                historical_positions.add(new Position(x, y));
+            }
+        }
+        else if(visited_positions.add(packed_position)){
+            historical_positions.add(new Position(x, y));
         }
     }
 
@@ -88,4 +199,45 @@ public class Team{
             player.setTeam(this);
         }
     }
+
+    /**
+     * Marks a position as visited.
+     * @param position is the Position to mark.
+     * @return true if the position had not been visited before, and false if it had or if it is null.
+     */
+    private boolean markVisited(Position position){
+        if(position == null){
+            return false;
+        }
+        else if(isWithinMap(position)){
+            int idx = position.y * map_size + position.x;
+            if(visited_tiles.get(idx)){
+                return false;
+            }
+
+            visited_tiles.set(idx);
+            return true;
+        }
+
+        return visited_positions.add(position.pack());
+    }
+
+    /**
+     * Checks whether a position can be marked in the BitSet of visited tiles.
+     * @param position is the Position to check.
+     * @return true if the size of the map is known and the position lies within the map.
+     */
+    private boolean isWithinMap(Position position){
+        return isWithinMap(position.x, position.y);
+    }
+
+    /**
+     * Checks whether (x, y)--coordinates can be marked in the BitSet of visited tiles.
+     * @param x is the x-coordinate.
+     * @param y is the y-coordinate.
+     * @return true if the size of the map is known and the coordinates lie within the map.
+     */
+    private boolean isWithinMap(int x, int y){
+        return x >= 0 && x < map_size && y >= 0 && y < map_size;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.xd.cps2002.session;
+
+import com.xd.cps2002.game.Game;
+import com.xd.cps2002.game.game_exceptions.SetupOperationPrecedenceException;
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.player.Player;
+import com.xd.cps2002.player.PlayerStatus;
+import com.xd.cps2002.player.player_exceptions.MoveException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+
+/**
+ * The GameSession class plays a single set up Game to completion, taking the moves of its players from a
+ * MoveSource. The rules are the same as those of the Launcher's game play sequence: each player gets one valid move per
+ * round, a player landing on a water tile is reset to its starting position, and the game ends after the round in which
+ * a player lands on the treasure tile. If the game has an HTML directory set, the HTML maps are written as in Launcher.
+ *
+ * A session is a Callable, such that it can be run by a SessionExecutor, and spends most of its time blocked on its
+ * MoveSource waiting for input. Since the players of a game take turns, a single thread per game is sufficient.
+ */
+public class GameSession implements Callable<ArrayList<Integer>>{
+    private final Game game;
+    private final MoveSource source;
+    private final int max_rounds; // the number of rounds after which the game ends, even if nobody has won
+    private volatile int rounds = 0; // the number of rounds played so far
+    private volatile int rejected_moves = 0; // the number of moves rejected so far, i.e. invalid or outside the map
+
+    /**
+     * Constructor for a session playing until a player finds the treasure.
+     * @param game is a Game instance to play, whose players, map and teams have been set up (eg. by initialise()).
+     * @param source is the MoveSource from which the moves of the players are taken.
+     */
+    public GameSession(Game game, MoveSource source){
+        this(game, source, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructor for a session playing until a player finds the treasure, or until max_rounds rounds have been played.
+     * @param game is a Game instance to play, whose players, map and teams have been set up.
+     * @param source is the MoveSource from which the moves of the players are taken.
+     * @param max_rounds is the maximum number of rounds to play.
+     * @throws IllegalArgumentException is thrown whenever max_rounds is less than 1.
+     */
+    public GameSession(Game game, MoveSource source, int max_rounds){
+        if(max_rounds < 1){
+            throw new IllegalArgumentException("A game session must play at least one round.");
+        }
+
+        this.game = game;
+        this.source = source;
+        this.max_rounds = max_rounds;
+    }
+
+    /**
+     * Getter for the Game instance played by the session.
+     * @return Game this.game - the game played.
+     */
+    public Game getGame(){
+        return game;
+    }
+
+    /**
+     * Getter for the number of rounds played so far.
+     * @return int this.rounds - the number of complete rounds.
+     */
+    public int getRounds(){
+        return rounds;
+    }
+
+    /**
+     * Getter for the number of moves rejected so far, since they were invalid or outside the map boundary.
+     * @return int this.rejected_moves - the number of rejected moves.
+     */
+    public int getRejectedMoves(){
+        return rejected_moves;
+    }
+
+    /**
+     * Plays the game until a player finds the treasure, or until max_rounds rounds have been played.
+     * @return ArrayList of type Integer, of the winners if any, containing their unique identifier.
+     * @throws SetupOperationPrecedenceException is thrown when the players, map or teams of the game are not set up.
+     * @throws InterruptedException is thrown whenever the session is interrupted while waiting for input.
+     * @throws IOException is thrown when there is a failure in persisting the HTML maps to disk.
+     */
+    @Override
+    public ArrayList<Integer> call() throws InterruptedException, IOException{
+        if(game.getPlayers() == null || game.getMap() == null || game.getTeams() == null){
+            throw new SetupOperationPrecedenceException("Attempted to play a game session before the players, map and " +
+                    "teams are set up.");
+        }
+
+        Map map = game.getMap();
+
+        // initialise maps
+        if(game.dir != null){
+            for(Player player : game.getPlayers()){
+                game.writeHTMLFile(player, map);
+            }
+        }
+
+        while(game.getWinners().isEmpty() && rounds < max_rounds){
+            for(Player player : game.getPlayers()){
+                player.setPosition(nextValidPosition(player, map));
+
+                PlayerStatus status = map.getTileType(player.getPackedPosition()).statusAfterMove;
+                if(status == PlayerStatus.Death){ // if dead, reset player
+                    player.reset();
+                }
+                else if(status == PlayerStatus.Win){
+                    game.addWinner(player.get_pID());
+                }
+
+                // for each player in the same team, update HTML maps
+                if(game.dir != null){
+                    for(Player team_player : player.getTeam().players){
+                        game.writeHTMLFile(team_player, map);
+                    }
+                }
+            }
+
+            // under PER_ROUND, force the HTML maps written in the round to disk
+            if(game.dir != null){
+                game.endRound();
+            }
+
+            rounds++;
+        }
+
+        // wait for the last HTML maps to be persisted, if they are persisted asynchronously
+        if(game.dir != null){
+            game.flushHTMLFiles();
+        }
+
+        return game.getWinners();
+    }
+
+    /**
+     * Asks the MoveSource for moves of a player until it gives a valid move within the map boundary.
+     * @param player is the Player whose turn it is.
+     * @param map is the Map on which the game is played.
+     * @return long new position of the player, as packed by Position.pack(int x, int y).
+     * @throws InterruptedException is thrown whenever the session is interrupted while waiting for input.
+     */
+    private long nextValidPosition(Player player, Map map) throws InterruptedException{
+        while(true){
+            try{
+                long new_position = player.movePacked(source.nextMove(player));
+                if(map.isValidPosition(new_position)){
+                    return new_position;
+                }
+            }
+            catch(MoveException ignored){
+            }
+
+            rejected_moves++; // only written by the session's own thread
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.xd.cps2002.session;
+
+import com.xd.cps2002.player.Player;
+
+/**
+ * A MoveSource supplies the moves of the players of a game played by a GameSession, eg. from a console, a network
+ * connection or a simulated player. It decouples the game play sequence from the way in which input is obtained, such
+ * that a session only blocks on its own source rather than on System.in.
+ */
+public interface MoveSource{
+    /**
+     * Waits for the next move of a player. The move is any character; characters outside of the set {'u', 'd', 'l',
+     * 'r'} (case-insensitive), or moves outside of the map boundary, are rejected by the session and asked for again.
+     * @param player is the Player whose turn it is.
+     * @return char specifying the direction of the move.
+     * @throws InterruptedException is thrown whenever the session is interrupted while waiting for input.
+     */
+    char nextMove(Player player) throws InterruptedException;
+}
@@ -0,0 +1,49 @@
+package com.xd.cps2002.session;
+
+import com.xd.cps2002.player.Player;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The QueueMoveSource class is a MoveSource to which the moves of each player are submitted by other threads (eg. the
+ * threads handling the players' connections, or simulated players). Each player has a queue of its own, on which the
+ * session blocks until the player's next move is submitted.
+ */
+public final class QueueMoveSource implements MoveSource{
+    private final ConcurrentHashMap<Integer, BlockingQueue<Character>> queues = new ConcurrentHashMap<>(); // by p_id
+
+    /**
+     * Submits the next move of a player, which is queued until the session asks for it.
+     * @param p_id is the unique identifier of the player.
+     * @param move is a char specifying the direction of the move.
+     */
+    public void submit(int p_id, char move){
+        queueOf(p_id).add(move);
+    }
+
+    /**
+     * Getter for the number of moves of a player which have been submitted but not yet asked for.
+     * @param p_id is the unique identifier of the player.
+     * @return int number of pending moves.
+     */
+    public int pending(int p_id){
+        BlockingQueue<Character> queue = queues.get(p_id);
+        return (queue == null) ? 0 : queue.size();
+    }
+
+    @Override
+    public char nextMove(Player player) throws InterruptedException{
+        return queueOf(player.get_pID()).take();
+    }
+
+    /**
+     * Helper function used to get the queue of a player, creating it if needed.
+     * @param p_id is the unique identifier of the player.
+     * @return BlockingQueue of the player's moves.
+     */
+    private BlockingQueue<Character> queueOf(int p_id){
+        return queues.computeIfAbsent(p_id, id -> new LinkedBlockingQueue<>());
+    }
+}
@@ -0,0 +1,197 @@
+package com.xd.cps2002.session;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The SessionExecutor class runs many GameSessions at once. Since a session spends most of its time blocked waiting for
+ * the input of its players, each session is run on a virtual thread of its own where the JDK provides them (Java 21
+ * onwards), such that thousands of waiting games do not tie up thousands of OS threads. Virtual threads are looked up
+ * reflectively, so that the project can still be built for and run on Java 8.
+ *
+ * On older JDKs (or if virtual threads are not wanted), sessions are run on a bounded pool of platform threads instead.
+ * In that case at most max_platform_threads sessions are played at once, and the rest are queued until a thread is
+ * free; isVirtual() tells which of the two is in use.
+ */
+public final class SessionExecutor{
+    private final ExecutorService executor;
+    private final boolean is_virtual; // true if sessions are run on virtual threads
+
+    // session metrics
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger peak_running = new AtomicInteger();
+
+    /**
+     * Creates an executor running each session on a virtual thread if available, else on a bounded pool of platform
+     * threads.
+     * @param max_platform_threads is the number of platform threads used if virtual threads are not available.
+     * @throws IllegalArgumentException is thrown whenever max_platform_threads is less than 1.
+     */
+    public SessionExecutor(int max_platform_threads){
+        this(max_platform_threads, true);
+    }
+
+    /**
+     * Creates an executor running each session on a virtual thread if available and wanted, else on a bounded pool of
+     * platform threads.
+     * @param max_platform_threads is the number of platform threads used if virtual threads are not used.
+     * @param use_virtual_threads is false if sessions are always to be run on platform threads.
+     * @throws IllegalArgumentException is thrown whenever max_platform_threads is less than 1.
+     */
+    public SessionExecutor(int max_platform_threads, boolean use_virtual_threads){
+        if(max_platform_threads < 1){
+            throw new IllegalArgumentException("A session executor needs at least one platform thread.");
+        }
+
+        ExecutorService virtual = use_virtual_threads ? newVirtualThreadExecutor() : null;
+        if(virtual != null){
+            executor = virtual;
+            is_virtual = true;
+        }
+        else{
+            // use daemon threads, such that waiting sessions do not stop the JVM from exiting
+            AtomicInteger thread_count = new AtomicInteger();
+            ThreadFactory thread_factory = runnable -> {
+                Thread thread = new Thread(runnable, "game-session-" + thread_count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+
+            executor = Executors.newFixedThreadPool(max_platform_threads, thread_factory);
+            is_virtual = false;
+        }
+    }
+
+    /**
+     * Checks whether virtual threads are available in the running JDK.
+     * @return true if sessions can be run on virtual threads.
+     */
+    public static boolean isVirtualThreadSupported(){
+        ExecutorService virtual = newVirtualThreadExecutor();
+        if(virtual == null){
+            return false;
+        }
+
+        virtual.shutdown();
+        return true;
+    }
+
+    /**
+     * Submits a session to be played.
+     * @param session is the GameSession to play.
+     * @return Future giving the winners of the game once the session is over.
+     */
+    public Future<ArrayList<Integer>> submit(GameSession session){
+        submitted.incrementAndGet();
+
+        // keep track of the sessions which are actually being played, rather than queued
+        FutureTask<ArrayList<Integer>> task = new FutureTask<>(() -> {
+            peak_running.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try{
+                ArrayList<Integer> winners = session.call();
+                completed.incrementAndGet();
+                return winners;
+            }
+            catch(Exception e){
+                failed.incrementAndGet();
+                throw e;
+            }
+            finally{
+                running.decrementAndGet();
+            }
+        });
+
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * @return boolean which is true if sessions are run on virtual threads, or false if on a pool of platform threads.
+     */
+    public boolean isVirtual(){
+        return is_virtual;
+    }
+
+    /**
+     * @return long the number of sessions submitted.
+     */
+    public long getSubmittedSessions(){
+        return submitted.get();
+    }
+
+    /**
+     * @return long the number of sessions which were played to completion.
+     */
+    public long getCompletedSessions(){
+        return completed.get();
+    }
+
+    /**
+     * @return long the number of sessions which ended with an exception, eg. since they were interrupted.
+     */
+    public long getFailedSessions(){
+        return failed.get();
+    }
+
+    /**
+     * @return int the number of sessions currently being played, i.e. which are not queued.
+     */
+    public int getRunningSessions(){
+        return running.get();
+    }
+
+    /**
+     * @return int the largest number of sessions played at once.
+     */
+    public int getPeakRunningSessions(){
+        return peak_running.get();
+    }
+
+    /**
+     * Stops accepting new sessions; the sessions already submitted are still played.
+     */
+    public void shutdown(){
+        executor.shutdown();
+    }
+
+    /**
+     * Interrupts the sessions being played and discards those which are queued.
+     */
+    public void shutdownNow(){
+        executor.shutdownNow();
+    }
+
+    /**
+     * Waits for all of the submitted sessions to end, after a call to shutdown().
+     * @param timeout is the maximum time to wait.
+     * @param unit is the unit of the timeout.
+     * @return true if all sessions ended, or false if the timeout elapsed first.
+     * @throws InterruptedException is thrown whenever interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException{
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread per task, through Executors.newVirtualThreadPerTaskExecutor().
+     * @return ExecutorService running each task on a virtual thread, or null if virtual threads are not available.
+     */
+    private static ExecutorService newVirtualThreadExecutor(){
+        try{
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch(ReflectiveOperationException | RuntimeException e){ // not available, or a preview feature not enabled
+            return null;
+        }
+    }
+}
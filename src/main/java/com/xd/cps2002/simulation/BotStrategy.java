@@ -0,0 +1,19 @@
+package com.xd.cps2002.simulation;
+
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.player.Player;
+
+/**
+ * A BotStrategy decides the moves of simulated players. A SimulationEngine creates a strategy for each game it plays,
+ * and asks it for the move of each player of the game in turn, such that a strategy may keep state (eg. buffers) which
+ * is reused between moves, but should not assume that consecutive moves are made by the same player.
+ */
+public interface BotStrategy{
+    /**
+     * Decides the next move of a player.
+     * @param player is the Player whose turn it is, which has a position and a team.
+     * @param map is the Map on which the game is played.
+     * @return char 'u', 'd', 'l' or 'r', specifying the direction of the move.
+     */
+    char nextMove(Player player, Map map);
+}
@@ -0,0 +1,172 @@
+package com.xd.cps2002.simulation;
+
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.map.TileType;
+import com.xd.cps2002.player.Player;
+import com.xd.cps2002.player.Position;
+import com.xd.cps2002.player.Team;
+import com.xd.cps2002.util.RandomSource;
+
+import java.util.Arrays;
+
+/**
+ * The FrontierBot class is a BotStrategy which explores the map using only what the player's team knows, i.e. the
+ * tiles in the team's history (as shown on the team's HTML maps). Each player walks along the shortest path over tiles
+ * known to be safe (visited tiles which are not water) to the nearest tile which the team has not visited yet, such
+ * that the team spreads out over the map rather than revisiting tiles. Directions are tried in a random order, so that
+ * players do not all explore in the same direction.
+ *
+ * The search only reaches the tiles visited by the team and the tiles next to them, so both the time it takes and the
+ * memory held by its buffers are proportional to the number of tiles visited by the team rather than to the size of the
+ * map, including for maps in large-map mode. The buffers are reused between moves.
+ */
+public class FrontierBot implements BotStrategy{
+    private static final int INITIAL_CAPACITY = 64; // a power of 2
+
+    private final RandomSource random;
+
+    // buffers for the breadth-first search, holding the linear indices y * size + x of the tiles reached by the search
+    private int[] queue = new int[INITIAL_CAPACITY];
+    private int[] reached = new int[INITIAL_CAPACITY]; // open-addressing hash set of the tiles reached, by linear index
+    private int[] reached_in = new int[INITIAL_CAPACITY]; // the search in which each slot was last filled
+    private byte[] first_move = new byte[INITIAL_CAPACITY]; // the first move on the path from the player to each tile
+    private int n_reached = 0; // the number of tiles reached by the current search
+    private int search = 0; // the number of searches carried out, such that the hash set need not be cleared
+
+    /**
+     * Constructor for a bot choosing the order in which directions are tried using the given source of random numbers.
+     * @param random is the source of random numbers.
+     */
+    public FrontierBot(RandomSource random){
+        this.random = random;
+    }
+
+    @Override
+    public char nextMove(Player player, Map map){
+        long position = player.getPackedPosition();
+        int x = Position.unpackX(position);
+        int y = Position.unpackY(position);
+        int size = map.getSize();
+        Team team = player.getTeam();
+
+        search++;
+        n_reached = 0;
+
+        int offset = random.nextInt(Moves.DIRECTIONS.length); // the direction tried first
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = y * size + x;
+        reach(y * size + x);
+
+        while(head < tail){
+            int idx = queue[head++];
+            int tx = idx % size;
+            int ty = idx / size;
+
+            for(int k = 0; k < Moves.DIRECTIONS.length; k++){
+                int d = (offset + k) % Moves.DIRECTIONS.length;
+                int nx = tx + Moves.DX[d];
+                int ny = ty + Moves.DY[d];
+                if(!map.isValidPosition(nx, ny)){
+                    continue;
+                }
+
+                int n_slot = reach(ny * size + nx);
+                if(n_slot < 0){ // already reached
+                    continue;
+                }
+
+                // the first move is the direction taken from the player's own tile
+                byte move = (head == 1) ? (byte) d : first_move[find(idx)];
+
+                if(!team.hasVisited(Position.pack(nx, ny))){ // the nearest tile on the frontier
+                    return Moves.DIRECTIONS[move];
+                }
+                else if(map.getTileType(nx, ny) != TileType.Water){ // known to be safe, so keep on searching
+                    first_move[n_slot] = move;
+                    if(tail == queue.length){
+                        queue = Arrays.copyOf(queue, 2 * queue.length);
+                    }
+                    queue[tail++] = ny * size + nx;
+                }
+            }
+        }
+
+        // the team has visited every tile it can reach, so just wander
+        return Moves.randomValidMove(x, y, map, random);
+    }
+
+    /**
+     * Marks a tile as reached by the current search, growing the hash set if it is half full.
+     * @param idx is the linear index of the tile.
+     * @return int the slot of the tile in the hash set, or -1 if the tile had already been reached.
+     */
+    private int reach(int idx){
+        if(2 * (n_reached + 1) > reached.length){
+            grow();
+        }
+
+        int mask = reached.length - 1;
+        for(int slot = hash(idx) & mask; ; slot = (slot + 1) & mask){
+            if(reached_in[slot] != search){ // an empty slot, so the tile had not been reached
+                reached[slot] = idx;
+                reached_in[slot] = search;
+                n_reached++;
+                return slot;
+            }
+            else if(reached[slot] == idx){
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Finds the slot of a tile which has been reached by the current search.
+     * @param idx is the linear index of the tile.
+     * @return int the slot of the tile in the hash set.
+     */
+    private int find(int idx){
+        int mask = reached.length - 1;
+        int slot = hash(idx) & mask;
+        while(reached[slot] != idx || reached_in[slot] != search){
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the capacity of the hash set, moving over the tiles reached by the current search.
+     */
+    private void grow(){
+        int[] old_reached = reached;
+        int[] old_reached_in = reached_in;
+        byte[] old_first_move = first_move;
+
+        reached = new int[2 * old_reached.length];
+        reached_in = new int[2 * old_reached.length];
+        first_move = new byte[2 * old_reached.length];
+
+        int mask = reached.length - 1;
+        for(int i = 0; i < old_reached.length; i++){
+            if(old_reached_in[i] == search){
+                int slot = hash(old_reached[i]) & mask;
+                while(reached_in[slot] == search){
+                    slot = (slot + 1) & mask;
+                }
+                reached[slot] = old_reached[i];
+                reached_in[slot] = search;
+                first_move[slot] = old_first_move[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of a linear index, such that the tiles of a row do not fill consecutive slots.
+     * @param idx is the linear index of a tile.
+     * @return int the hash of the index.
+     */
+    private static int hash(int idx){
+        int h = idx * 0x9E3779B9; // Fibonacci hashing
+        return h ^ (h >>> 16);
+    }
+}
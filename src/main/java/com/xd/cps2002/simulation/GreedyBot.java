@@ -0,0 +1,67 @@
+package com.xd.cps2002.simulation;
+
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.player.Player;
+import com.xd.cps2002.player.Position;
+import com.xd.cps2002.util.RandomSource;
+
+/**
+ * The GreedyBot class is a BotStrategy which always knows where the treasure is: it moves each player to the adjacent
+ * tile closest to the treasure tile, as given by the map's treasure distance field (see Map.getTreasureDistance()),
+ * breaking ties at random. Since the players start on tiles from which the treasure can be reached, each player takes
+ * the shortest walk to the treasure tile, giving a lower bound on the length of games.
+ */
+public class GreedyBot implements BotStrategy{
+    private final RandomSource random;
+
+    /**
+     * Constructor for a bot breaking ties using the given source of random numbers.
+     * @param random is the source of random numbers.
+     */
+    public GreedyBot(RandomSource random){
+        this.random = random;
+    }
+
+    /**
+     * Decides the next move of a player, on a map whose treasure distances have been computed by Map.isPlayable().
+     * @param player is the Player whose turn it is, which has a position and a team.
+     * @param map is the Map on which the game is played.
+     * @return char 'u', 'd', 'l' or 'r', specifying the direction of the move.
+     * @throws NullPointerException is thrown whenever the treasure distances of the map have not been computed.
+     */
+    @Override
+    public char nextMove(Player player, Map map){
+        long position = player.getPackedPosition();
+        int x = Position.unpackX(position);
+        int y = Position.unpackY(position);
+
+        int chosen = -1;
+        int best = Integer.MAX_VALUE;
+        int ties = 0;
+
+        for(int d = 0; d < Moves.DIRECTIONS.length; d++){
+            int nx = x + Moves.DX[d];
+            int ny = y + Moves.DY[d];
+            if(!map.isValidPosition(nx, ny)){
+                continue;
+            }
+
+            int distance = map.getTreasureDistance(nx, ny);
+            if(distance < 0){ // water, or a tile from which the treasure cannot be reached
+                continue;
+            }
+
+            if(distance < best){
+                best = distance;
+                chosen = d;
+                ties = 1;
+            }
+            else if(distance == best && random.nextInt(++ties) == 0){
+                chosen = d;
+            }
+        }
+
+        // only the case if the player is not on a winnable tile, in which case no move gets closer to the treasure
+        return (chosen < 0) ? Moves.randomValidMove(x, y, map, random) : Moves.DIRECTIONS[chosen];
+    }
+}
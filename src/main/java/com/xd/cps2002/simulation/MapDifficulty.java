@@ -0,0 +1,138 @@
+package com.xd.cps2002.simulation;
+
+/**
+ * The MapDifficulty class holds the results of a MapDifficultyAnalyser for a single map type and size: how many turns a
+ * bot player takes to find the treasure (mean and variance), how often it drowns, and how often it does not find the
+ * treasure at all within the maximum number of turns.
+ */
+public final class MapDifficulty{
+    private final String map_type;
+    private final int map_size;
+    private final int maps; // the number of maps analysed
+    private final long games; // the number of games played, over all maps
+    private final long won_games; // the number of games in which the player found the treasure
+    private final double mean_turns; // the mean number of turns taken to find the treasure, over the won games
+    private final double variance_turns; // the (population) variance of the number of turns taken to find the treasure
+    private final long turns; // the number of turns played, over all games
+    private final long drownings; // the number of times the player landed on a water tile, over all games
+    private final long elapsed_nanos; // the time taken to generate the maps and play the games
+
+    /**
+     * Constructor for the results of an analysis, used by MapDifficultyAnalyser.
+     * @param map_type is the type of the maps analysed.
+     * @param map_size is the size of the maps analysed.
+     * @param maps is the number of maps analysed.
+     * @param games is the number of games played.
+     * @param won_games is the number of games in which the player found the treasure.
+     * @param mean_turns is the mean number of turns taken to find the treasure.
+     * @param variance_turns is the variance of the number of turns taken to find the treasure.
+     * @param turns is the number of turns played.
+     * @param drownings is the number of times the player landed on a water tile.
+     * @param elapsed_nanos is the time taken to generate the maps and play the games.
+     */
+    MapDifficulty(String map_type, int map_size, int maps, long games, long won_games, double mean_turns,
+                  double variance_turns, long turns, long drownings, long elapsed_nanos){
+        this.map_type = map_type;
+        this.map_size = map_size;
+        this.maps = maps;
+        this.games = games;
+        this.won_games = won_games;
+        this.mean_turns = mean_turns;
+        this.variance_turns = variance_turns;
+        this.turns = turns;
+        this.drownings = drownings;
+        this.elapsed_nanos = elapsed_nanos;
+    }
+
+    /**
+     * @return String the type of the maps analysed.
+     */
+    public String getMapType(){
+        return map_type;
+    }
+
+    /**
+     * @return int the size of the maps analysed.
+     */
+    public int getMapSize(){
+        return map_size;
+    }
+
+    /**
+     * @return int the number of maps analysed.
+     */
+    public int getMaps(){
+        return maps;
+    }
+
+    /**
+     * @return long the number of games played, over all maps.
+     */
+    public long getGames(){
+        return games;
+    }
+
+    /**
+     * @return double the fraction of games in which the player found the treasure within the maximum number of turns.
+     */
+    public double getWinRate(){
+        return (games == 0) ? 0 : won_games / (double) games;
+    }
+
+    /**
+     * @return double the expected number of turns taken to find the treasure, over the games won.
+     */
+    public double getMeanTurnsToWin(){
+        return mean_turns;
+    }
+
+    /**
+     * @return double the variance of the number of turns taken to find the treasure, over the games won.
+     */
+    public double getVarianceTurnsToWin(){
+        return variance_turns;
+    }
+
+    /**
+     * @return double the standard deviation of the number of turns taken to find the treasure, over the games won.
+     */
+    public double getStandardDeviationTurnsToWin(){
+        return Math.sqrt(variance_turns);
+    }
+
+    /**
+     * @return double the fraction of turns in which the player landed on a water tile and drowned.
+     */
+    public double getDrowningRate(){
+        return (turns == 0) ? 0 : drownings / (double) turns;
+    }
+
+    /**
+     * @return double the mean number of times the player drowned per game.
+     */
+    public double getMeanDrowningsPerGame(){
+        return (games == 0) ? 0 : drownings / (double) games;
+    }
+
+    /**
+     * @return long the number of turns played, over all games.
+     */
+    public long getTurns(){
+        return turns;
+    }
+
+    /**
+     * @return long the number of milliseconds taken to generate the maps and play the games.
+     */
+    public long getElapsedMillis(){
+        return elapsed_nanos / 1_000_000;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("%s %dx%d: %d maps, %d games in %dms, win rate %.3f, turns to win mean %.1f (sd %.1f), " +
+                        "drowning rate %.4f per turn (%.2f per game)", map_type, map_size, map_size, maps, games,
+                getElapsedMillis(), getWinRate(), mean_turns, getStandardDeviationTurnsToWin(), getDrowningRate(),
+                getMeanDrowningsPerGame());
+    }
+}
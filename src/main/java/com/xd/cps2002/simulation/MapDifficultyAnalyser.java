@@ -0,0 +1,285 @@
+package com.xd.cps2002.simulation;
+
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.map.MapCreator;
+import com.xd.cps2002.player.Player;
+import com.xd.cps2002.player.PlayerStatus;
+import com.xd.cps2002.player.Team;
+import com.xd.cps2002.player.player_exceptions.MoveException;
+import com.xd.cps2002.player.player_exceptions.TeamOverrideException;
+import com.xd.cps2002.util.RandomSource;
+import com.xd.cps2002.util.SplittableRandomSource;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * The MapDifficultyAnalyser class estimates how difficult the maps of a given type and size are to play, by Monte Carlo
+ * simulation: it generates a number of maps, and on each map plays a number of single-player games with a bot, each
+ * from a random starting position. The results are aggregated into a MapDifficulty, with the expected number of turns
+ * taken to find the treasure (and its variance) and the rate at which the player drowns.
+ *
+ * The maps are generated, and the games played, in parallel on a ForkJoinPool. The games are split into tasks of a
+ * fixed number of games, such that the work is spread evenly over all of the cores whatever the number of maps, and
+ * the tasks share nothing but the (read-only) maps, such that the analysis scales with the number of cores. Each map
+ * and task has a source of random numbers of its own, derived from the analyser's seed and its index, so the random
+ * numbers are confined to the thread running the task, and a seeded analysis gives the same results on any number of
+ * cores.
+ *
+ * The games are played on Player and Team instances of their own, and the maps are generated by
+ * MapCreator.createMap(String, int, RandomSource), so neither the shared Game instance nor the MapCreator's pool and
+ * cache are used.
+ */
+public final class MapDifficultyAnalyser{
+    private static final int GAMES_PER_TASK = 64; // the number of games played by each task, without splitting further
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L; // spreads the indices used to derive seeds
+
+    private final Function<RandomSource, BotStrategy> bots; // creates the strategy used by each task
+    private final ForkJoinPool pool;
+    private int games_per_map = 100;
+    private int max_turns = 10_000; // the number of turns after which a game is abandoned, if not won
+    private long seed = new SplittableRandomSource().nextLong();
+
+    /**
+     * Constructor for an analyser running on the common ForkJoinPool, i.e. on all cores.
+     * @param bots creates the BotStrategy playing the games, from a source of random numbers of its own.
+     */
+    public MapDifficultyAnalyser(Function<RandomSource, BotStrategy> bots){
+        this(bots, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for an analyser running on the given ForkJoinPool.
+     * @param bots creates the BotStrategy playing the games, from a source of random numbers of its own.
+     * @param pool is the ForkJoinPool on which the maps are generated and the games played.
+     */
+    public MapDifficultyAnalyser(Function<RandomSource, BotStrategy> bots, ForkJoinPool pool){
+        this.bots = bots;
+        this.pool = pool;
+    }
+
+    /**
+     * Setter for the number of games played on each map.
+     * @param games_per_map is the number of games per map.
+     * @throws IllegalArgumentException is thrown whenever games_per_map is less than 1.
+     */
+    public void setGamesPerMap(int games_per_map){
+        if(games_per_map < 1){
+            throw new IllegalArgumentException("At least one game must be played on each map.");
+        }
+        this.games_per_map = games_per_map;
+    }
+
+    /**
+     * Setter for the number of turns after which a game is abandoned, if the treasure has not been found.
+     * @param max_turns is the maximum number of turns of each game.
+     * @throws IllegalArgumentException is thrown whenever max_turns is less than 1.
+     */
+    public void setMaxTurns(int max_turns){
+        if(max_turns < 1){
+            throw new IllegalArgumentException("A game must be allowed to play at least one turn.");
+        }
+        this.max_turns = max_turns;
+    }
+
+    /**
+     * Seeds the analyser, such that the same maps are generated and the same games played on every analysis.
+     * @param seed is the seed from which the maps and games are derived.
+     */
+    public void setSeed(long seed){
+        this.seed = seed;
+    }
+
+    /**
+     * Analyses the maps of a given type and size.
+     * @param map_type is the type of map, "safe" or "hazardous" (see MapCreator.createMap(String, int)).
+     * @param map_size is the size of the maps.
+     * @param n_maps is the number of maps to generate and play on.
+     * @return MapDifficulty with the aggregated results of the games played.
+     * @throws IllegalArgumentException is thrown whenever n_maps is less than 1, or the map type or size is invalid.
+     */
+    public MapDifficulty analyse(String map_type, int map_size, int n_maps){
+        if(n_maps < 1){
+            throw new IllegalArgumentException("At least one map must be analysed.");
+        }
+
+        long start = System.nanoTime();
+
+        // generate the maps in parallel, each from a source of random numbers of its own
+        Map[] maps = new Map[n_maps];
+        pool.invoke(new GenerateTask(map_type, map_size, maps, 0, n_maps));
+
+        // play every game on every map in parallel, where game i is played on map i / games_per_map
+        Stats stats = pool.invoke(new PlayTask(maps, 0, (long) n_maps * games_per_map));
+
+        return new MapDifficulty(map_type.toLowerCase(), map_size, n_maps, stats.games, stats.won_games,
+                stats.mean_turns, (stats.won_games == 0) ? 0 : stats.m2_turns / stats.won_games, stats.turns,
+                stats.drownings, System.nanoTime() - start);
+    }
+
+    /**
+     * Helper function used to derive an independent source of random numbers from the analyser's seed and an index.
+     * @param stream distinguishes the sources used for different purposes (eg. maps and tasks).
+     * @param index is the index of the map or task.
+     * @return RandomSource for the map or task.
+     */
+    private RandomSource randomFor(long stream, long index){
+        // mix the seed and index (as in SplittableRandom), such that nearby indices do not give overlapping sequences
+        long z = seed + stream * GOLDEN_GAMMA + (index + 1) * GOLDEN_GAMMA * 31;
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return new SplittableRandomSource(z ^ (z >>> 33));
+    }
+
+    /**
+     * Generates the maps in the range [lo, hi), splitting the range in two until it holds a single map.
+     */
+    private final class GenerateTask extends RecursiveAction{
+        private final String map_type;
+        private final int map_size;
+        private final Map[] maps;
+        private final int lo;
+        private final int hi;
+
+        GenerateTask(String map_type, int map_size, Map[] maps, int lo, int hi){
+            this.map_type = map_type;
+            this.map_size = map_size;
+            this.maps = maps;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute(){
+            if(hi - lo == 1){
+                maps[lo] = MapCreator.createMap(map_type, map_size, randomFor(1, lo));
+            }
+            else{
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new GenerateTask(map_type, map_size, maps, lo, mid),
+                          new GenerateTask(map_type, map_size, maps, mid, hi));
+            }
+        }
+    }
+
+    /**
+     * Plays the games in the range [lo, hi), splitting the range in two until it holds at most GAMES_PER_TASK games.
+     * Since the ranges are split in the same way on any number of cores, so are the sources of random numbers.
+     */
+    private final class PlayTask extends RecursiveTask<Stats>{
+        private final Map[] maps;
+        private final long lo;
+        private final long hi;
+
+        PlayTask(Map[] maps, long lo, long hi){
+            this.maps = maps;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Stats compute(){
+            if(hi - lo > GAMES_PER_TASK){
+                long mid = (lo + hi) >>> 1;
+                PlayTask right = new PlayTask(maps, mid, hi);
+                right.fork();
+                Stats stats = new PlayTask(maps, lo, mid).compute();
+                stats.merge(right.join());
+                return stats;
+            }
+
+            // the task's own source of random numbers and bot, confined to the thread running the task
+            RandomSource random = randomFor(2, lo);
+            BotStrategy bot = bots.apply(random.split());
+
+            Stats stats = new Stats();
+            for(long i = lo; i < hi; i++){
+                play(maps[(int) (i / games_per_map)], bot, random, stats);
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Helper function used to play a single-player game from a random starting position, until the player finds the
+     * treasure or max_turns turns have been played, applying the same rules as the game.
+     * @param map is the Map on which the game is played.
+     * @param bot is the BotStrategy deciding the moves.
+     * @param random is the source of random numbers used to choose the starting position.
+     * @param stats is added to with the results of the game.
+     */
+    private void play(Map map, BotStrategy bot, RandomSource random, Stats stats){
+        Player player = new Player();
+        player.setStartPosition(map.getStartPositionSampler(random).next());
+        try{
+            new Team(map.getSize()).join(player);
+        }
+        catch(TeamOverrideException e){
+            throw new IllegalStateException(e); // never the case, since the player is new
+        }
+
+        stats.games++;
+        for(int turn = 1; turn <= max_turns; turn++){
+            stats.turns++;
+
+            long new_position;
+            try{
+                new_position = player.movePacked(bot.nextMove(player, map));
+            }
+            catch(MoveException e){
+                continue; // an invalid move loses the turn
+            }
+            if(!map.isValidPosition(new_position)){
+                continue; // as does a move outside of the map
+            }
+
+            player.setPosition(new_position);
+            PlayerStatus status = map.getTileType(new_position).statusAfterMove;
+            if(status == PlayerStatus.Death){ // if drowned, reset player
+                stats.drownings++;
+                player.reset();
+            }
+            else if(status == PlayerStatus.Win){
+                stats.addWin(turn);
+                return;
+            }
+        }
+    }
+
+    /**
+     * The aggregated results of a number of games, which can be merged with the results of other games. The mean and
+     * variance of the turns taken to win are kept using Welford's method, and merged using Chan et al.'s method, such
+     * that they are accurate however many games are played.
+     */
+    private static final class Stats{
+        private long games;
+        private long won_games;
+        private long turns;
+        private long drownings;
+        private double mean_turns; // the mean number of turns taken to win
+        private double m2_turns; // the sum of squared differences from mean_turns
+
+        void addWin(int turns_to_win){
+            won_games++;
+            double delta = turns_to_win - mean_turns;
+            mean_turns += delta / won_games;
+            m2_turns += delta * (turns_to_win - mean_turns);
+        }
+
+        void merge(Stats other){
+            games += other.games;
+            turns += other.turns;
+            drownings += other.drownings;
+
+            if(other.won_games > 0){
+                long won = won_games + other.won_games;
+                double delta = other.mean_turns - mean_turns;
+                mean_turns += delta * other.won_games / won;
+                m2_turns += other.m2_turns + delta * delta * won_games * other.won_games / won;
+                won_games = won;
+            }
+        }
+    }
+}
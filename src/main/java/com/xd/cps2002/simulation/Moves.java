@@ -0,0 +1,37 @@
+package com.xd.cps2002.simulation;
+
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.util.RandomSource;
+
+/**
+ * Helper class with the four moves available to a player, shared by the bot strategies.
+ */
+final class Moves{
+    static final char[] DIRECTIONS = {'u', 'd', 'l', 'r'}; // the move characters, as accepted by Player.move()
+    static final int[] DX = {0, 0, -1, 1}; // the change in the x-coordinate of each move
+    static final int[] DY = {-1, 1, 0, 0}; // the change in the y-coordinate of each move
+
+    private Moves(){ }
+
+    /**
+     * Chooses one of the moves which keep the player within the map, uniformly at random.
+     * @param x is the x-coordinate of the player.
+     * @param y is the y-coordinate of the player.
+     * @param map is the Map on which the game is played.
+     * @param random is the source of random numbers.
+     * @return char specifying the direction of the move.
+     */
+    static char randomValidMove(int x, int y, Map map, RandomSource random){
+        int chosen = -1;
+        int count = 0;
+
+        // reservoir sampling over the valid moves, such that nothing is allocated
+        for(int d = 0; d < DIRECTIONS.length; d++){
+            if(map.isValidPosition(x + DX[d], y + DY[d]) && random.nextInt(++count) == 0){
+                chosen = d;
+            }
+        }
+
+        return DIRECTIONS[chosen];
+    }
+}
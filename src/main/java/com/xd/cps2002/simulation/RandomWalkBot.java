@@ -0,0 +1,28 @@
+package com.xd.cps2002.simulation;
+
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.player.Player;
+import com.xd.cps2002.player.Position;
+import com.xd.cps2002.util.RandomSource;
+
+/**
+ * The RandomWalkBot class is a BotStrategy which moves each player in a random direction within the map, without any
+ * regard for the tiles already visited. It gives an upper bound on the length of games played by human players.
+ */
+public class RandomWalkBot implements BotStrategy{
+    private final RandomSource random;
+
+    /**
+     * Constructor for a bot choosing its moves using the given source of random numbers.
+     * @param random is the source of random numbers.
+     */
+    public RandomWalkBot(RandomSource random){
+        this.random = random;
+    }
+
+    @Override
+    public char nextMove(Player player, Map map){
+        long position = player.getPackedPosition();
+        return Moves.randomValidMove(Position.unpackX(position), Position.unpackY(position), map, random);
+    }
+}
@@ -0,0 +1,224 @@
+package com.xd.cps2002.simulation;
+
+import com.xd.cps2002.game.Game;
+import com.xd.cps2002.game.game_exceptions.*;
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.session.GameSession;
+import com.xd.cps2002.util.RandomSource;
+import com.xd.cps2002.util.SplittableRandomSource;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * The SimulationEngine class plays complete games headlessly, with every player being a bot, such that the game can be
+ * load tested without any user input. Each game is set up through Game.initialise(), exactly as an interactive game,
+ * and played by a GameSession, which applies the same rules as the Launcher's game play sequence. The moves are decided
+ * by a BotStrategy, created for each game by a pluggable factory, eg. RandomWalkBot::new, FrontierBot::new or
+ * GreedyBot::new.
+ *
+ * A run plays a number of games, optionally spread over several threads, and gives a SimulationReport with the number
+ * of moves per second and the distribution of the length of the games. If the engine is seeded using setSeed(), the
+ * games played (and hence all of the report other than the times) are the same on every run, for any number of
+ * threads.
+ */
+public final class SimulationEngine{
+    private final int n_players;
+    private final int n_teams;
+    private final int map_size;
+    private final String map_type;
+    private final Function<RandomSource, BotStrategy> bots; // creates the strategy of each game
+    private int max_rounds = 10_000; // the number of rounds after which a game ends, even if nobody has won
+    private int threads = 1; // the number of threads on which the games are played
+    private RandomSource seeds = new SplittableRandomSource(); // gives the seed of each game
+
+    /**
+     * Constructor for an engine playing games with the given settings, as passed to Game.initialise(). Maps larger than
+     * 50x50 are played in large-map mode.
+     * @param n_players is the number of players in each game (2 {@literal <}= n_players {@literal <}= 8).
+     * @param n_teams is the number of teams in each game, either n_players or between 2 and n_players - 1.
+     * @param map_size is the size of the map of each game.
+     * @param map_type is the type of map of each game, "safe" or "hazardous".
+     * @param bots creates the BotStrategy of each game, from a source of random numbers of the game's own.
+     * @throws InvalidNumberOfPlayersException is thrown if the number of players is invalid.
+     * @throws InvalidMapSizeException is thrown if the map size is invalid.
+     * @throws InvalidNumberOfTeamsException is thrown if the number of teams is invalid.
+     */
+    public SimulationEngine(int n_players, int n_teams, int map_size, String map_type,
+                            Function<RandomSource, BotStrategy> bots) throws InvalidNumberOfPlayersException,
+            InvalidMapSizeException, InvalidNumberOfTeamsException{
+
+        // validate the settings up front, such that every game can be set up
+        Game game = new Game();
+        game.setLargeMapMode(map_size > Map.MAX_SIZE);
+        if(!game.isValidNPlayers(n_players)){
+            throw new InvalidNumberOfPlayersException(n_players);
+        }
+        else if(!game.isValidMapSize(map_size, n_players)){
+            throw new InvalidMapSizeException(map_size);
+        }
+        else if(!game.isValidNTeams(n_teams, n_players) && n_teams != n_players){
+            throw new InvalidNumberOfTeamsException(n_teams);
+        }
+
+        this.n_players = n_players;
+        this.n_teams = n_teams;
+        this.map_size = map_size;
+        this.map_type = map_type;
+        this.bots = bots;
+    }
+
+    /**
+     * Setter for the number of rounds after which a game ends, even if nobody has found the treasure.
+     * @param max_rounds is the maximum number of rounds of each game.
+     * @throws IllegalArgumentException is thrown whenever max_rounds is less than 1.
+     */
+    public void setMaxRounds(int max_rounds){
+        if(max_rounds < 1){
+            throw new IllegalArgumentException("A game must be allowed to play at least one round.");
+        }
+        this.max_rounds = max_rounds;
+    }
+
+    /**
+     * Setter for the number of threads on which the games are played.
+     * @param threads is the number of threads.
+     * @throws IllegalArgumentException is thrown whenever threads is less than 1.
+     */
+    public void setThreads(int threads){
+        if(threads < 1){
+            throw new IllegalArgumentException("Games must be played on at least one thread.");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Seeds the engine, such that the same games are played on every run.
+     * @param seed is the seed from which the seed of each game is drawn.
+     */
+    public void setSeed(long seed){
+        seeds = new SplittableRandomSource(seed);
+    }
+
+    /**
+     * Plays a number of games, and reports on them.
+     * @param n_games is the number of games to play.
+     * @return SimulationReport on the games played.
+     * @throws IllegalArgumentException is thrown whenever n_games is negative.
+     * @throws IllegalStateException is thrown whenever a game fails to be set up or played.
+     */
+    public SimulationReport run(int n_games){
+        if(n_games < 0){
+            throw new IllegalArgumentException("The number of games cannot be negative.");
+        }
+
+        // draw the seed of each game up front, such that the games do not depend on the number of threads
+        long[] game_seeds = new long[n_games];
+        for(int i = 0; i < n_games; i++){
+            game_seeds[i] = seeds.nextLong();
+        }
+
+        int[] game_lengths = new int[n_games];
+        long start = System.nanoTime();
+        Totals totals = new Totals();
+
+        if(threads == 1){
+            play(game_seeds, game_lengths, 0, 1, totals);
+        }
+        else{
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try{
+                ArrayList<Future<Totals>> results = new ArrayList<>();
+                for(int t = 0; t < threads; t++){
+                    int first = t;
+                    results.add(executor.submit(() -> {
+                        Totals partial = new Totals();
+                        play(game_seeds, game_lengths, first, threads, partial);
+                        return partial;
+                    }));
+                }
+
+                for(Future<Totals> result : results){
+                    totals.add(result.get());
+                }
+            }
+            catch(ExecutionException e){
+                throw new IllegalStateException("A simulated game failed.", e.getCause());
+            }
+            catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("The simulation was interrupted.", e);
+            }
+            finally{
+                executor.shutdownNow();
+            }
+        }
+
+        return new SimulationReport(threads, totals.won_games, totals.moves, totals.rejected_moves,
+                System.nanoTime() - start, totals.play_nanos, game_lengths);
+    }
+
+    /**
+     * Helper function used to play every stride-th game, starting from the first-th.
+     * @param game_seeds is the seed of each game.
+     * @param game_lengths is filled in with the number of rounds played in each game.
+     * @param first is the index of the first game to play.
+     * @param stride is the difference between the indices of consecutive games played.
+     * @param totals is added to with the results of the games played.
+     */
+    private void play(long[] game_seeds, int[] game_lengths, int first, int stride, Totals totals){
+        for(int i = first; i < game_seeds.length; i += stride){
+            RandomSource random = new SplittableRandomSource(game_seeds[i]);
+
+            Game game = new Game();
+            game.setLargeMapMode(map_size > Map.MAX_SIZE);
+            game.setSeed(random.nextLong());
+            try{
+                game.initialise(n_players, n_teams, map_size, map_type);
+            }
+            catch(InvalidNumberOfPlayersException | InvalidMapSizeException | InvalidNumberOfTeamsException e){
+                throw new IllegalStateException("A simulated game could not be set up.", e); // validated up front
+            }
+
+            BotStrategy bot = bots.apply(random.split());
+            Map map = game.getMap();
+            GameSession session = new GameSession(game, player -> bot.nextMove(player, map), max_rounds);
+
+            long start = System.nanoTime();
+            try{
+                if(!session.call().isEmpty()){
+                    totals.won_games++;
+                }
+            }
+            catch(Exception e){ // bots never block nor write files, so this is never expected
+                throw new IllegalStateException("A simulated game failed.", e);
+            }
+            totals.play_nanos += System.nanoTime() - start;
+
+            game_lengths[i] = session.getRounds();
+            totals.moves += (long) session.getRounds() * n_players; // every player makes a valid move each round
+            totals.rejected_moves += session.getRejectedMoves();
+        }
+    }
+
+    /**
+     * The totals of the games played by a thread.
+     */
+    private static final class Totals{
+        private int won_games;
+        private long moves;
+        private long rejected_moves;
+        private long play_nanos;
+
+        void add(Totals other){
+            won_games += other.won_games;
+            moves += other.moves;
+            rejected_moves += other.rejected_moves;
+            play_nanos += other.play_nanos;
+        }
+    }
+}
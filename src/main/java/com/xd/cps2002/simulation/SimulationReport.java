@@ -0,0 +1,165 @@
+package com.xd.cps2002.simulation;
+
+import java.util.Arrays;
+
+/**
+ * The SimulationReport class holds the results of a run of a SimulationEngine: the number of games played and won,
+ * the number of moves made and the time taken (from which the number of moves per second follows), and the
+ * distribution of the length of the games, in rounds.
+ */
+public final class SimulationReport{
+    private final int threads; // the number of threads on which the games were played
+    private final int won_games; // the number of games in which a player found the treasure
+    private final long moves; // the number of valid moves made by all players
+    private final long rejected_moves; // the number of moves rejected, since they were invalid or outside the map
+    private final long elapsed_nanos; // the wall-clock time taken to set up and play all of the games
+    private final long play_nanos; // the time spent playing (rather than setting up) games, summed over all threads
+    private final int[] game_lengths; // the number of rounds played in each game, sorted in ascending order
+
+    /**
+     * Constructor for a report, used by SimulationEngine.
+     * @param threads is the number of threads on which the games were played.
+     * @param won_games is the number of games in which a player found the treasure.
+     * @param moves is the number of valid moves made by all players.
+     * @param rejected_moves is the number of moves rejected.
+     * @param elapsed_nanos is the wall-clock time taken to set up and play all of the games.
+     * @param play_nanos is the time spent playing games, summed over all threads.
+     * @param game_lengths is the number of rounds played in each game, which is sorted by the report.
+     */
+    SimulationReport(int threads, int won_games, long moves, long rejected_moves, long elapsed_nanos, long play_nanos,
+                     int[] game_lengths){
+        this.threads = threads;
+        this.won_games = won_games;
+        this.moves = moves;
+        this.rejected_moves = rejected_moves;
+        this.elapsed_nanos = elapsed_nanos;
+        this.play_nanos = play_nanos;
+        this.game_lengths = game_lengths.clone();
+        Arrays.sort(this.game_lengths);
+    }
+
+    /**
+     * @return int the number of games played.
+     */
+    public int getGames(){
+        return game_lengths.length;
+    }
+
+    /**
+     * @return int the number of games in which a player found the treasure, rather than reaching the maximum number of
+     * rounds.
+     */
+    public int getWonGames(){
+        return won_games;
+    }
+
+    /**
+     * @return long the number of valid moves made by all players.
+     */
+    public long getMoves(){
+        return moves;
+    }
+
+    /**
+     * @return long the number of moves rejected, since they were invalid or outside the map boundary.
+     */
+    public long getRejectedMoves(){
+        return rejected_moves;
+    }
+
+    /**
+     * @return long the number of milliseconds taken to set up and play all of the games.
+     */
+    public long getElapsedMillis(){
+        return elapsed_nanos / 1_000_000;
+    }
+
+    /**
+     * @return double the number of valid moves made per second of wall-clock time, including the time taken to set up
+     * the games (eg. to generate their maps), or 0 if no time was measured.
+     */
+    public double getMovesPerSecond(){
+        return (elapsed_nanos == 0) ? 0 : moves / (elapsed_nanos / 1e9);
+    }
+
+    /**
+     * @return double the number of valid moves made per second spent playing games on a single thread, excluding the
+     * time taken to set up the games, or 0 if no time was measured.
+     */
+    public double getPlayMovesPerSecond(){
+        return (play_nanos == 0) ? 0 : moves / (play_nanos / 1e9);
+    }
+
+    /**
+     * @return int the length, in rounds, of the shortest game, or 0 if no games were played.
+     */
+    public int getMinGameLength(){
+        return (game_lengths.length == 0) ? 0 : game_lengths[0];
+    }
+
+    /**
+     * @return int the length, in rounds, of the longest game, or 0 if no games were played.
+     */
+    public int getMaxGameLength(){
+        return (game_lengths.length == 0) ? 0 : game_lengths[game_lengths.length - 1];
+    }
+
+    /**
+     * @return double the mean length, in rounds, of the games, or 0 if no games were played.
+     */
+    public double getMeanGameLength(){
+        long total = 0;
+        for(int length : game_lengths){
+            total += length;
+        }
+        return (game_lengths.length == 0) ? 0 : total / (double) game_lengths.length;
+    }
+
+    /**
+     * Gives a percentile of the length of the games, using the nearest-rank method.
+     * @param percentile is the percentile, between 0 and 100 (both inclusive).
+     * @return int the length, in rounds, which at least percentile% of the games did not exceed, or 0 if no games were
+     * played.
+     * @throws IllegalArgumentException is thrown whenever the percentile is not between 0 and 100.
+     */
+    public int getGameLengthPercentile(double percentile){
+        if(percentile < 0 || percentile > 100){
+            throw new IllegalArgumentException("A percentile must be between 0 and 100.");
+        }
+        else if(game_lengths.length == 0){
+            return 0;
+        }
+
+        int rank = (int) Math.ceil(percentile / 100 * game_lengths.length);
+        return game_lengths[Math.max(rank, 1) - 1];
+    }
+
+    /**
+     * Gives the number of games whose length falls in each of a number of buckets of equal width, from the shortest to
+     * the longest game.
+     * @param buckets is the number of buckets.
+     * @return int[] with the number of games in each bucket.
+     * @throws IllegalArgumentException is thrown whenever the number of buckets is less than 1.
+     */
+    public int[] getGameLengthHistogram(int buckets){
+        if(buckets < 1){
+            throw new IllegalArgumentException("A histogram must have at least one bucket.");
+        }
+
+        int[] histogram = new int[buckets];
+        long range = (long) getMaxGameLength() - getMinGameLength() + 1;
+        for(int length : game_lengths){
+            histogram[(int) ((length - getMinGameLength()) * buckets / range)]++;
+        }
+        return histogram;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("%d games (%d won) on %d thread(s) in %dms: %d moves, %.0f moves/s (%.0f moves/s per " +
+                        "thread while playing), game length in rounds min %d, mean %.1f, p50 %d, p90 %d, p99 %d, max %d",
+                getGames(), won_games, threads, getElapsedMillis(), moves, getMovesPerSecond(), getPlayMovesPerSecond(),
+                getMinGameLength(), getMeanGameLength(), getGameLengthPercentile(50), getGameLengthPercentile(90),
+                getGameLengthPercentile(99), getMaxGameLength());
+    }
+}
@@ -0,0 +1,31 @@
+package com.xd.cps2002.util;
+
+/**
+ * The {@code RandomSource} interface is the source of random numbers used to generate maps, choose the starting
+ * positions of the players and shuffle them. Passing a {@code RandomSource} around, rather than creating a new
+ * {@link java.util.Random} wherever random numbers are needed, allows a whole game to be reproduced from a single seed.
+ *
+ * A {@code RandomSource} is not expected to be thread-safe. Code which needs random numbers on another thread should
+ * {@link RandomSource#split()} off a source of its own, such that no state is shared between threads.
+ */
+public interface RandomSource {
+
+    /**
+     * @param bound the upper bound (exclusive), which must be positive.
+     * @return a random integer between 0 (inclusive) and {@code bound} (exclusive).
+     * @throws IllegalArgumentException if {@code bound} is not positive.
+     */
+    int nextInt(int bound);
+
+    /**
+     * @return a random long.
+     */
+    long nextLong();
+
+    /**
+     * Creates a new source whose random numbers are independent of the ones returned by this source. If this source
+     * was created from a seed, the new source (and the numbers it returns) is also determined by that seed.
+     * @return a new {@code RandomSource}.
+     */
+    RandomSource split();
+}
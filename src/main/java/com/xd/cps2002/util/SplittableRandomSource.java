@@ -0,0 +1,49 @@
+package com.xd.cps2002.util;
+
+import java.util.SplittableRandom;
+
+/**
+ * The {@code SplittableRandomSource} class is a {@link RandomSource} backed by a {@link SplittableRandom}.
+ *
+ * Unlike {@link java.util.Random}, a {@link SplittableRandom} does not update its state atomically, and creating one
+ * without a seed does not go through the seed uniquifier shared by every {@link java.util.Random} in the program. Hence,
+ * many games can generate their maps in parallel, each with a source of its own, without contending with one another.
+ */
+public final class SplittableRandomSource implements RandomSource {
+
+    private final SplittableRandom random;
+
+    /**
+     * Creates a source with a seed which is different on every run of the program.
+     */
+    public SplittableRandomSource() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Creates a source which always returns the same sequence of random numbers for the same seed.
+     * @param seed the seed of the source.
+     */
+    public SplittableRandomSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableRandomSource(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public RandomSource split() {
+        return new SplittableRandomSource(random.split());
+    }
+}
@@ -3,9 +3,7 @@ package com.xd.cps2002;
 import com.xd.cps2002.game.Game;
 import com.xd.cps2002.game.game_exceptions.*;
 import com.xd.cps2002.map.Map;
-import com.xd.cps2002.map.MapCreator;
 import com.xd.cps2002.player.*;
-import com.xd.cps2002.map.BasicMap;
 import com.xd.cps2002.map.TileType;
 
 import java.util.ArrayList;
@@ -23,16 +21,9 @@ import static org.junit.Assert.*;
 public class LauncherTest{
     private Game game;
 
-    // define the Map by means of a 2D TileType array
-    private final TileType[][] tiles = {{TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass},
-                                        {TileType.Grass, TileType.Grass, TileType.Water, TileType.Water, TileType.Water},
-                                        {TileType.Grass, TileType.Grass, TileType.Treasure, TileType.Water, TileType.Water},
-                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water, TileType.Water},
-                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water}};
-
     @Before
     public void setupLauncherTest(){
-        game = Game.getGame();
+        game = new Game();
     }
 
     /**
@@ -59,30 +50,22 @@ public class LauncherTest{
 
     /**
      * Tests that if multiple players are currently at the treasure tile, then they are all returned.
+     * @throws InvalidNumberOfPlayersException is thrown if the number of players is invalid (not expected).
+     * @throws InvalidMapSizeException is thrown if the map size is invalid (not expected).
+     * @throws InvalidNumberOfTeamsException is thrown if the number of teams is invalid (not expected).
      * @throws SetupOperationPrecedenceException is thrown when there is an attempted call to updateGameState() before a
      * call to initializeGame() (not expected).
      */
     @Test
-    public void multipleWinners_updateGameStateTest(){
-        // initialize a number of players
-        Player[] players = new Player[3];
-        players[0] = new Player();
-        players[0].setStartPosition(new Position(2, 2)); // at treasure tile
-        players[1] = new Player();
-        players[1].setStartPosition(new Position(0, 0)); // not at treasure tile
-        players[2] = new Player();
-        players[2].setStartPosition(new Position(2, 2)); // at treasure tile
-
-        // initialise a map instance
-        Map map = MapCreator.createMap("basic", tiles);
-        map.isPlayable();
-
-        // set the necessary state variables in Game instance
-        game.setPlayers(players);
-        game.setMap(map);
-
-        // explicitly set isInitialised to true for testing
-        Launcher.isInitialised = true;
+    public void multipleWinners_updateGameStateTest() throws InvalidNumberOfPlayersException, InvalidMapSizeException,
+            InvalidNumberOfTeamsException{
+        game.initialise(3, 3, 5, "hazardous");
+        Player[] players = game.getPlayers();
+
+        // move the first and last players to the treasure tile; the starting position is never the treasure tile
+        Position treasure = findTile(game.getMap(), TileType.Treasure);
+        players[0].setPosition(treasure);
+        players[2].setPosition(treasure);
 
         ArrayList<Integer> winners = new ArrayList<Integer>();
         // update game state for each player
@@ -97,33 +80,41 @@ public class LauncherTest{
 
     /**
      * Tests that a player is reset if they land on a water tile.
+     * @throws InvalidNumberOfPlayersException is thrown if the number of players is invalid (not expected).
+     * @throws InvalidMapSizeException is thrown if the map size is invalid (not expected).
+     * @throws InvalidNumberOfTeamsException is thrown if the number of teams is invalid (not expected).
      * @throws SetupOperationPrecedenceException is thrown when there is an attempted call to updateGameState() before a
      * call to initializeGame() (not expected).
      */
     @Test
-    public void deadPlayer_updateGameStateTest(){
-        // initialise a number of players
-        Player[] players = new Player[1];
-        players[0] = new Player();
-        players[0].setStartPosition(new Position(0, 2)); // at grass tile
-        players[0].setTeam(new Team());
-        players[0].setPosition(new Position(1, 2)); // at water tile
+    public void deadPlayer_updateGameStateTest() throws InvalidNumberOfPlayersException, InvalidMapSizeException,
+            InvalidNumberOfTeamsException{
+        game.initialise(2, 2, 5, "hazardous"); // a hazardous map always has water tiles
+        Player player = game.getPlayers()[0];
+        Position start = player.getStartPosition();
 
-        // initialise a map instance
-        Map map = MapCreator.createMap("basic", tiles);;
-        map.isPlayable();
+        player.setPosition(findTile(game.getMap(), TileType.Water)); // at water tile
 
-        // set the necessary state variables in Game instance
-        game.setPlayers(players);
-        game.setMap(map);
+        Launcher.updateGameState(game, player);
 
-        // explicitly set isInitialised to true for testing
-        Launcher.isInitialised = true;
+        assertEquals(start.x, game.getPlayers()[0].getPosition().x);
+        assertEquals(start.y, game.getPlayers()[0].getPosition().y);
+    }
 
-        Launcher.updateGameState(game, players[0]);
+    /**
+     * Tests that a game is only considered initialised once it is initialised itself, and not because another game was.
+     * @throws InvalidNumberOfPlayersException is thrown if the number of players is invalid (not expected).
+     * @throws InvalidMapSizeException is thrown if the map size is invalid (not expected).
+     * @throws InvalidNumberOfTeamsException is thrown if the number of teams is invalid (not expected).
+     * @throws SetupOperationPrecedenceException is thrown when there is an attempted call to updateGameState() before a
+     * call to initializeGame() (expected).
+     */
+    @Test(expected = SetupOperationPrecedenceException.class)
+    public void otherGameInitialised_updateGameStateTest() throws InvalidNumberOfPlayersException,
+            InvalidMapSizeException, InvalidNumberOfTeamsException{
+        game.initialise(2, 2, 5, "safe");
 
-        assertEquals(0, game.getPlayers()[0].getPosition().x);
-        assertEquals(2, game.getPlayers()[0].getPosition().y);
+        Launcher.updateGameState(new Game(), game.getPlayers()[0]);
     }
 
     /**
@@ -139,7 +130,23 @@ public class LauncherTest{
 
     @After
     public void teardownLauncherTest(){
-        Launcher.isInitialised = false;
-        game.reset();
+        game = null; // dereference
+    }
+
+    /**
+     * Helper function used to find a tile of some TileType in a map.
+     * @param map is the Map instance to search.
+     * @param tile_type is the TileType of the tile to find.
+     * @return Position of the first tile of the TileType found, or null if there is none.
+     */
+    private static Position findTile(Map map, TileType tile_type){
+        for(int x = 0; x < map.getSize(); x++){
+            for(int y = 0; y < map.getSize(); y++){
+                if(map.getTileType(x, y) == tile_type){
+                    return new Position(x, y);
+                }
+            }
+        }
+        return null;
     }
 }
@@ -0,0 +1,170 @@
+package com.xd.cps2002.game;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the AtomicFileWriter class.
+ */
+public class AtomicFileWriterTest{
+    private Path dir;
+    private Path file;
+
+    /**
+     * Creates a temporary directory to write the files to, before every unit test.
+     * @throws IOException is thrown when the directory cannot be created (not expected).
+     */
+    @Before
+    public void setupAtomicFileWriterTest() throws IOException{
+        dir = Files.createTempDirectory("cps2002_atomic");
+        file = dir.resolve("player_1_map.html");
+    }
+
+    /**
+     * Tests that a file is replaced by the buffers written, in order, and that no temporary file is left behind.
+     * @throws IOException is thrown when there is a failure in persisting to disk (not expected).
+     */
+    @Test
+    public void replaced_writeTest() throws IOException{
+        AtomicFileWriter writer = new AtomicFileWriter(FsyncPolicy.NONE);
+        writer.write(file, bytes("<html>a much longer previous map</html>"));
+        writer.write(file, ByteBuffer.wrap(bytes("<html>")), ByteBuffer.wrap(bytes("new")),
+                     ByteBuffer.wrap(bytes("</html>")));
+
+        assertEquals("<html>new</html>", read(file));
+        assertArrayEquals(new String[]{file.getFileName().toString()}, dir.toFile().list());
+        assertEquals(2, writer.getFilesWritten());
+        assertEquals(0, writer.getFsyncs());
+    }
+
+    /**
+     * Tests that a temporary file left behind by a crash in the middle of a write is overwritten by the next write,
+     * while the file itself holds the previous map until then.
+     * @throws IOException is thrown when there is a failure in persisting to disk (not expected).
+     */
+    @Test
+    public void crashedWrite_writeTest() throws IOException{
+        AtomicFileWriter writer = new AtomicFileWriter(FsyncPolicy.NONE);
+        writer.write(file, bytes("<html>1</html>"));
+
+        Path temp = dir.resolve(file.getFileName() + AtomicFileWriter.TEMP_SUFFIX);
+        Files.write(temp, bytes("<html>half-wri"));
+        assertEquals("<html>1</html>", read(file));
+
+        writer.write(file, bytes("<html>2</html>"));
+        assertEquals("<html>2</html>", read(file));
+        assertFalse(Files.exists(temp));
+    }
+
+    /**
+     * Tests that under PER_WRITE, every file is forced to disk as it is written, and sync() has no effect.
+     * @throws IOException is thrown when there is a failure in persisting to disk (not expected).
+     */
+    @Test
+    public void perWrite_writeTest() throws IOException{
+        AtomicFileWriter writer = new AtomicFileWriter(FsyncPolicy.PER_WRITE);
+        writer.write(file, bytes("<html>1</html>"));
+        long fsyncs = writer.getFsyncs();
+        assertTrue(fsyncs >= 1); // the file, and the directory where supported
+
+        writer.write(file, bytes("<html>2</html>"));
+        assertEquals(2 * fsyncs, writer.getFsyncs());
+
+        writer.sync();
+        assertEquals(2 * fsyncs, writer.getFsyncs());
+        assertEquals("<html>2</html>", read(file));
+    }
+
+    /**
+     * Tests that under PER_ROUND, every file is forced to disk as it is written, and their directory only by sync(), once
+     * however many files were written to it in the round.
+     * @throws IOException is thrown when there is a failure in persisting to disk (not expected).
+     */
+    @Test
+    public void perRound_syncTest() throws IOException{
+        AtomicFileWriter writer = new AtomicFileWriter(FsyncPolicy.PER_ROUND);
+        Path other = dir.resolve("player_2_map.html");
+        writer.write(file, bytes("<html>1</html>"));
+        writer.write(file, bytes("<html>2</html>"));
+        writer.write(other, bytes("<html>3</html>"));
+        assertEquals(3, writer.getFsyncs()); // the temporary files, before being moved into place
+
+        writer.sync();
+        long fsyncs = writer.getFsyncs();
+        assertTrue(fsyncs <= 4); // the directory, where supported
+
+        writer.sync(); // nothing was written since
+        assertEquals(fsyncs, writer.getFsyncs());
+        assertEquals("<html>2</html>", read(file));
+        assertEquals("<html>3</html>", read(other));
+    }
+
+    /**
+     * Tests that under NONE, sync() does not force any files to disk.
+     * @throws IOException is thrown when there is a failure in persisting to disk (not expected).
+     */
+    @Test
+    public void none_syncTest() throws IOException{
+        AtomicFileWriter writer = new AtomicFileWriter(FsyncPolicy.NONE);
+        writer.write(file, bytes("<html>1</html>"));
+        writer.sync();
+        assertEquals(0, writer.getFsyncs());
+    }
+
+    /**
+     * Tests that an IOException is thrown when the directory of the file does not exist.
+     * @throws IOException is thrown since the temporary file cannot be created (expected).
+     */
+    @Test(expected = IOException.class)
+    public void missingDirectory_writeTest() throws IOException{
+        new AtomicFileWriter(FsyncPolicy.NONE).write(dir.resolve("missing").resolve("map.html"), bytes("<html/>"));
+    }
+
+    /**
+     * Tests that an IllegalArgumentException is thrown when a writer is created without an FsyncPolicy.
+     * @throws IllegalArgumentException is thrown since the policy is null (expected).
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nullPolicy_AtomicFileWriterTest(){
+        new AtomicFileWriter(null);
+    }
+
+    @After
+    public void teardownAtomicFileWriterTest() throws IOException{
+        for(File f : dir.toFile().listFiles()){
+            f.delete();
+        }
+        Files.delete(dir);
+        dir = null; // dereference
+        file = null;
+    }
+
+    /**
+     * Helper function used to read a file as a String.
+     * @param file is the path of the file.
+     * @return String with the contents of the file.
+     * @throws IOException is thrown when the file cannot be read (not expected).
+     */
+    private static String read(Path file) throws IOException{
+        return new String(Files.readAllBytes(file), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Helper function used to encode a String as bytes.
+     * @param s is the String.
+     * @return byte[] with the encoded String.
+     */
+    private static byte[] bytes(String s){
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,265 @@
+package com.xd.cps2002.game;
+
+import com.xd.cps2002.game.game_exceptions.SetupOperationPrecedenceException;
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.map.MapCreator;
+import com.xd.cps2002.map.TileType;
+import com.xd.cps2002.player.Player;
+import com.xd.cps2002.player.Position;
+import com.xd.cps2002.player.Team;
+import com.xd.cps2002.player.player_exceptions.TeamOverrideException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the CompactMapRenderer class.
+ */
+public class CompactMapRendererTest{
+    private Team team;
+    private Player player;
+    private Player teammate;
+    private CompactMapRenderer renderer;
+
+    // define the Map by means of a 2D TileType array
+    private final TileType[][] tiles = {{TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass},
+                                        {TileType.Grass, TileType.Grass, TileType.Water, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Treasure, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water}};
+    private final Map map = MapCreator.createMap("basic", tiles); // initialize a BasicMap based on the tiles above
+
+    /**
+     * Initialises two players in a team playing on the map, and a renderer, before every unit test.
+     * @throws TeamOverrideException is thrown whenever a Player instance has already joined a team (not expected).
+     */
+    @Before
+    public void setupCompactMapRendererTest() throws TeamOverrideException{
+        team = new Team(5);
+        player = new Player();
+        teammate = new Player();
+        player.setStartPosition(new Position(0, 0));
+        teammate.setStartPosition(new Position(0, 4));
+        team.join(player);
+        team.join(teammate);
+
+        renderer = new CompactMapRenderer();
+    }
+
+    /**
+     * Testing whether the packed tiles of the HTML map hold exactly the tiles visited by the team, with their TileType,
+     * and the markers hold the start and current positions of the player.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void visitedTiles_writePlayerMapTest() throws IOException{
+        player.setPosition(new Position(1, 0));
+        player.setPosition(new Position(1, 1));
+        player.setPosition(new Position(1, 2)); // water
+
+        renderer.render(team, map);
+        String page = written(renderer, player);
+        assertArrayEquals(expectedCodes(), decodedCodes(page));
+        assertEquals("5", attribute(page, "data-size"));
+        assertEquals("0", attribute(page, "data-start"));
+        assertEquals("11", attribute(page, "data-current"));
+        assertTrue(page.contains("<h1>Map for Player #" + player.get_pID() + " in Team #" + team.get_tID() + "</h1>"));
+        assertTrue(page.contains("<script src=\"" + CompactMapRenderer.SCRIPT_FILE + "\"></script>"));
+
+        assertEquals("20", attribute(written(renderer, teammate), "data-start"));
+    }
+
+    /**
+     * Testing whether the packed tiles are brought up to date after every round by rendering only the tiles newly
+     * visited by the team, and are the same as the ones written by a new renderer.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void rounds_renderTest() throws IOException{
+        renderer.render(team, map);
+
+        Position[] moves = {new Position(1, 0), new Position(1, 1), new Position(2, 1), new Position(2, 2),
+                            new Position(3, 2), new Position(4, 2)};
+        for(Position move : moves){
+            player.setPosition(move);
+            teammate.setPosition(new Position(move.y, 4 - move.x));
+            renderer.render(team, map);
+
+            CompactMapRenderer new_renderer = new CompactMapRenderer();
+            new_renderer.render(team, map);
+            for(Player p : new Player[]{player, teammate}){
+                assertEquals(written(new_renderer, p), written(renderer, p));
+            }
+            assertArrayEquals(expectedCodes(), decodedCodes(written(renderer, player)));
+        }
+
+        assertEquals(1, renderer.getFullRenders());
+        assertEquals(moves.length, renderer.getDeltaRenders());
+    }
+
+    /**
+     * Testing whether the packed tiles are rendered from scratch when the team's history is cleared, or a different map
+     * is rendered.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void stateChanged_renderTest() throws IOException{
+        player.setPosition(new Position(1, 0));
+        renderer.render(team, map);
+
+        team.clearHistory();
+        renderer.render(team, map);
+        assertEquals(2, renderer.getFullRenders());
+        assertArrayEquals(expectedCodes(), decodedCodes(written(renderer, player)));
+
+        renderer.render(team, MapCreator.createMap("safe", 5));
+        assertEquals(3, renderer.getFullRenders());
+        assertEquals(0, renderer.getDeltaRenders());
+    }
+
+    /**
+     * Testing whether the HTML map of a 50x50 map takes at least 10 times fewer bytes than in the GRID MapFormat.
+     * @throws TeamOverrideException is thrown whenever a Player instance has already joined a team (not expected).
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void smallerThanGrid_writePlayerMapTest() throws TeamOverrideException, IOException{
+        Map large_map = MapCreator.createMap("safe", 50);
+        Team large_team = new Team(50);
+        Player large_player = new Player();
+        large_player.setStartPosition(new Position(0, 0));
+        large_team.join(large_player);
+        for(int x = 1; x < 50; x++){
+            large_player.setPosition(new Position(x, x / 2));
+        }
+
+        TeamMapRenderer grid_renderer = new TeamMapRenderer();
+        grid_renderer.render(large_team, large_map);
+        renderer.render(large_team, large_map);
+
+        assertTrue(10 * renderer.toByteArray(large_player).length < grid_renderer.toByteArray(large_player).length);
+    }
+
+    /**
+     * Testing whether the shared script holds the colour of every TileType.
+     */
+    @Test
+    public void colours_scriptTest(){
+        String script = new String(CompactMapRenderer.SCRIPT, StandardCharsets.US_ASCII);
+        for(TileType tile : TileType.values()){
+            assertTrue(script.contains(tile.html_colour));
+        }
+    }
+
+    /**
+     * Testing whether a SetupOperationPrecedenceException is raised when a map is written before being rendered.
+     * @throws SetupOperationPrecedenceException is thrown if the tiles have not been rendered (expected).
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test(expected = SetupOperationPrecedenceException.class)
+    public void notRendered_writePlayerMapTest() throws IOException{
+        renderer.writePlayerMap(player, new ByteArrayOutputStream());
+    }
+
+    /**
+     * Testing whether an IllegalArgumentException is raised when the map of a player outside of the rendered team is
+     * written.
+     * @throws IllegalArgumentException is thrown if the player is not in the rendered team (expected).
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void playerNotInTeam_toByteArrayTest(){
+        renderer.render(team, map);
+        renderer.toByteArray(new Player());
+    }
+
+    /**
+     * Testing whether an IllegalArgumentException is raised when render is called with a null Map instance.
+     * @throws IllegalArgumentException whenever the Team or Map instances passed are null (expected).
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nullMap_renderTest(){
+        renderer.render(team, null);
+    }
+
+    /**
+     * Testing whether the renderers are created for their MapFormat.
+     */
+    @Test
+    public void format_createTest(){
+        assertTrue(MapRenderer.create(MapFormat.COMPACT) instanceof CompactMapRenderer);
+        assertTrue(MapRenderer.create(MapFormat.GRID) instanceof TeamMapRenderer);
+    }
+
+    @After
+    public void teardownCompactMapRendererTest(){
+        team = null; // dereference
+        player = null;
+        teammate = null;
+        renderer = null;
+    }
+
+    /**
+     * Helper function used to give the expected code of every tile: 0 if not visited by the team, else 1 + the ordinal
+     * of its TileType.
+     * @return int[] with the codes, by linear index.
+     */
+    private int[] expectedCodes(){
+        int[] codes = new int[25];
+        for(Position position : team.getPositionHistory()){
+            codes[5*position.y + position.x] = 1 + map.getTileType(position.x, position.y).ordinal();
+        }
+        return codes;
+    }
+
+    /**
+     * Helper function used to decode the packed tiles of an HTML map, as done by the shared script.
+     * @param page is the HTML map.
+     * @return int[] with the code of every tile, by linear index.
+     */
+    private static int[] decodedCodes(String page){
+        byte[] packed = Base64.getDecoder().decode(attribute(page, "data-tiles"));
+        int bits = Integer.parseInt(attribute(page, "data-bits"));
+        int per_byte = 8 / bits;
+
+        int[] codes = new int[25];
+        for(int idx = 0; idx < codes.length; idx++){
+            codes[idx] = (packed[idx / per_byte] >> (idx % per_byte * bits)) & ((1 << bits) - 1);
+        }
+        return codes;
+    }
+
+    /**
+     * Helper function used to give the value of an attribute of the canvas of an HTML map.
+     * @param page is the HTML map.
+     * @param name is the name of the attribute.
+     * @return String with the value of the attribute.
+     */
+    private static String attribute(String page, String name){
+        Matcher matcher = Pattern.compile(" " + name + "=\"([^\"]*)\"").matcher(page);
+        assertTrue(matcher.find());
+        return matcher.group(1);
+    }
+
+    /**
+     * Helper function used to write the HTML map of a player to a String.
+     * @param renderer is the CompactMapRenderer.
+     * @param player is the Player instance for which the map is written.
+     * @return String with the HTML map.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    private static String written(CompactMapRenderer renderer, Player player) throws IOException{
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderer.writePlayerMap(player, out);
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+}
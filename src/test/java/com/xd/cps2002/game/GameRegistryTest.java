@@ -0,0 +1,223 @@
+package com.xd.cps2002.game;
+
+import com.xd.cps2002.game.game_exceptions.*;
+import com.xd.cps2002.player.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the GameRegistry class.
+ */
+public class GameRegistryTest{
+    private GameRegistry registry;
+    private final AtomicLong clock = new AtomicLong(); // time in nanoseconds, moved on by the tests
+
+    @Before
+    public void setupGameRegistryTest(){
+        registry = new GameRegistry(4, null, clock::get);
+    }
+
+    /**
+     * Tests that games created by the registry are independent from one another, and from the game used by Launcher.
+     * @throws IOException is thrown when an output directory cannot be created (not expected).
+     * @throws InvalidNumberOfPlayersException is thrown when the number of players is invalid (not expected).
+     * @throws InvalidMapSizeException is thrown when the map size is invalid (not expected).
+     * @throws InvalidNumberOfTeamsException is thrown when the number of teams is invalid (not expected).
+     */
+    @Test
+    public void independent_createTest() throws IOException, InvalidNumberOfPlayersException, InvalidMapSizeException,
+            InvalidNumberOfTeamsException{
+        int first_id = registry.create();
+        int second_id = registry.create();
+        assertNotEquals(first_id, second_id);
+
+        Game first = registry.get(first_id);
+        Game second = registry.get(second_id);
+        assertNotSame(first, second);
+
+        first.initialise(2, 2, 5, "safe");
+        second.initialise(3, 3, 6, "hazardous");
+
+        assertEquals(2, first.getPlayers().length);
+        assertEquals(3, second.getPlayers().length);
+        assertEquals(5, first.getMap().getSize());
+        assertEquals(6, second.getMap().getSize());
+        assertNotSame(first.getPlayers()[0].getStore(), second.getPlayers()[0].getStore());
+
+        // winners are kept per game
+        first.addWinner(first.getPlayers()[0].get_pID());
+        assertEquals(1, first.getWinners().size());
+        assertEquals(0, second.getWinners().size());
+    }
+
+    /**
+     * Tests that a GameRegistryFullException is thrown when more than max_games games are created.
+     * @throws GameRegistryFullException is thrown when the registry is full (expected).
+     * @throws IOException is thrown when an output directory cannot be created (not expected).
+     */
+    @Test(expected = GameRegistryFullException.class)
+    public void full_createTest() throws IOException{
+        for(int i = 0; i < 5; i++){
+            registry.create();
+        }
+    }
+
+    /**
+     * Tests that retiring a game frees its slot, resets the game and updates the lifecycle metrics.
+     * @throws IOException is thrown when an output directory cannot be created (not expected).
+     * @throws InvalidNumberOfPlayersException is thrown when the number of players is invalid (not expected).
+     */
+    @Test
+    public void correct_retireTest() throws IOException, InvalidNumberOfPlayersException{
+        for(int i = 0; i < 4; i++){
+            registry.create();
+        }
+
+        try{
+            registry.create();
+            fail();
+        }
+        catch(GameRegistryFullException ignored){
+        }
+
+        int game_id = registry.getGameIds().get(0);
+        Game game = registry.get(game_id);
+        Player[] players = game.genPlayers(2);
+        game.setPlayers(players);
+
+        clock.addAndGet(3_000_000); // 3ms later
+        assertEquals(3, registry.getAgeMillis(game_id));
+        assertTrue(registry.retire(game_id));
+        assertFalse(registry.retire(game_id)); // already retired
+
+        assertNull(registry.get(game_id));
+        assertNull(game.getPlayers()); // the game was reset
+        assertEquals(-1, registry.getAgeMillis(game_id));
+
+        registry.create(); // the slot is free once again
+
+        assertEquals(4, registry.getActiveGames());
+        assertEquals(4, registry.getPeakActiveGames());
+        assertEquals(5, registry.getCreatedGames());
+        assertEquals(1, registry.getRetiredGames());
+        assertEquals(1, registry.getRejectedGames());
+        assertEquals(3.0, registry.getAverageLifetimeMillis(), 1e-9);
+    }
+
+    /**
+     * Tests that only games older than the given age are retired by retireOlderThan().
+     * @throws IOException is thrown when an output directory cannot be created (not expected).
+     */
+    @Test
+    public void correct_retireOlderThanTest() throws IOException{
+        int old_id = registry.create();
+        clock.addAndGet(10_000_000); // 10ms later
+        int new_id = registry.create();
+        clock.addAndGet(2_000_000); // 2ms later
+
+        assertEquals(1, registry.retireOlderThan(5));
+        assertNull(registry.get(old_id));
+        assertNotNull(registry.get(new_id));
+        assertEquals(12.0, registry.getAverageLifetimeMillis(), 1e-9);
+    }
+
+    /**
+     * Tests that each game is given an output directory of its own, within the registry's output directory.
+     * @throws IOException is thrown when an output directory cannot be created (not expected).
+     */
+    @Test
+    public void outputDirectory_createTest() throws IOException{
+        Path root = Files.createTempDirectory("cps2002_registry");
+
+        try{
+            registry = new GameRegistry(2, root.toString());
+            Game first = registry.get(registry.create());
+            Game second = registry.get(registry.create());
+
+            assertNotEquals(first.dir, second.dir);
+            assertTrue(Files.isDirectory(root.resolve(new File(first.dir).getName())));
+            assertTrue(Files.isDirectory(root.resolve(new File(second.dir).getName())));
+        }
+        finally{
+            for(File dir : root.toFile().listFiles()){
+                dir.delete();
+            }
+            Files.delete(root);
+        }
+    }
+
+    /**
+     * Tests that an IOException is thrown when the registry's output directory does not exist.
+     * @throws IOException is thrown when the output directory does not exist (expected).
+     */
+    @Test(expected = IOException.class)
+    public void invalidDirectory_constructorTest() throws IOException{
+        new GameRegistry(2, "this_directory_does_not_exist");
+    }
+
+    /**
+     * Tests that an IllegalArgumentException is thrown when the registry cannot hold any games.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMaxGames_constructorTest(){
+        new GameRegistry(0);
+    }
+
+    /**
+     * Tests that games can be created and retired by many threads at once, without exceeding the maximum number of
+     * games held and without giving out the same game id twice.
+     * @throws InterruptedException is thrown if the test is interrupted (not expected).
+     */
+    @Test
+    public void concurrent_createTest() throws InterruptedException{
+        registry = new GameRegistry(16);
+        ConcurrentLinkedQueue<Integer> game_ids = new ConcurrentLinkedQueue<>();
+
+        ArrayList<Thread> threads = new ArrayList<>();
+        for(int t = 0; t < 8; t++){
+            Thread thread = new Thread(() -> {
+                for(int i = 0; i < 500; i++){
+                    try{
+                        int game_id = registry.create();
+                        game_ids.add(game_id);
+                        registry.retire(game_id);
+                    }
+                    catch(GameRegistryFullException ignored){
+                    }
+                    catch(IOException ioe){
+                        throw new RuntimeException(ioe);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+
+        assertEquals(game_ids.size(), new HashSet<>(game_ids).size()); // all ids are unique
+        assertEquals(game_ids.size(), registry.getCreatedGames());
+        assertEquals(registry.getCreatedGames(), registry.getRetiredGames());
+        assertEquals(0, registry.getActiveGames());
+        assertTrue(registry.getPeakActiveGames() <= 16);
+    }
+
+    @After
+    public void teardownGameRegistryTest(){
+        registry = null; // dereference
+    }
+}
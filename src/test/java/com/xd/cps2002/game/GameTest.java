@@ -7,6 +7,10 @@ import com.xd.cps2002.player.*;
 import com.xd.cps2002.map.TileType;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 
 import org.junit.After;
 import org.junit.Before;
@@ -30,17 +34,19 @@ public class GameTest {
 
     @Before
     public void setupMainGameTest(){
-        game = Game.getGame();
+        game = new Game();
     }
 
     /**
-     * Tests whether the same instance is returned when attempting to create a new instance (i.e. testing the singleton
-     * pattern).
+     * Tests that a new Game instance does not share the state of other instances.
      */
     @Test
-    public void singletonTest(){
-        Game new_Game = Game.getGame();
-        assertEquals(game, new_Game);
+    public void independent_constructorTest(){
+        game.setPlayers(new Player[2]);
+
+        Game new_Game = new Game();
+        assertNotSame(game, new_Game);
+        assertNull(new_Game.getPlayers());
     }
 
     //----- TESTING SETTERS -----
@@ -77,7 +83,7 @@ public class GameTest {
      */
     @Test
     public void mapSet_setMapTest(){
-        game.setMap(MapCreator.createMap("basic", 5));
+        game.setMap(MapCreator.createMap("safe", 5));
         assertNotNull(game.getMap());
     }
 
@@ -89,10 +95,10 @@ public class GameTest {
      */
     @Test(expected = SetupOperationPrecedenceException.class)
     public void mapNotNull_setMapTest(){
-        game.setMap(MapCreator.createMap("basic", 5));
+        game.setMap(MapCreator.createMap("safe", 5));
         assertNotNull(game.getMap()); // should pass - if not, test mapSet_setMapTest should fail too
 
-        game.setMap(MapCreator.createMap("basic", 5)); // should throw exception since trying to set map instance twice
+        game.setMap(MapCreator.createMap("safe", 5)); // should throw exception since trying to set map instance twice
     }
 
     /**
@@ -256,6 +262,60 @@ public class GameTest {
         assertEquals(map_size, map.getSize());
     }
 
+    /**
+     * Tests that map sizes larger than 50x50 are only valid when large-map mode is enabled.
+     */
+    @Test
+    public void largeMapMode_isValidMapSizeTest(){
+        assertFalse(game.isValidMapSize(120, 2));
+
+        game.setLargeMapMode(true);
+        assertTrue(game.isValidMapSize(120, 2));
+        assertFalse(game.isValidMapSize(Map.MAX_LARGE_SIZE + 1, 2));
+    }
+
+    /**
+     * Tests that two games initialised using the same seed have the same map and the same player starting positions.
+     * @throws InvalidNumberOfPlayersException is propagated from initialise() (not expected).
+     * @throws InvalidMapSizeException is propagated from initialise() (not expected).
+     * @throws InvalidNumberOfTeamsException is propagated from initialise() (not expected).
+     */
+    @Test
+    public void sameSeed_initialiseTest() throws InvalidNumberOfPlayersException, InvalidMapSizeException,
+            InvalidNumberOfTeamsException{
+        game.setSeed(2002);
+        game.initialise(4, 2, 20, "hazardous");
+        Map first_map = game.getMap();
+        Player[] first_players = game.getPlayers();
+
+        game.reset();
+        game.setSeed(2002);
+        game.initialise(4, 2, 20, "hazardous");
+
+        for(int x = 0; x < 20; x++){
+            for(int y = 0; y < 20; y++){
+                assertEquals(first_map.getTileType(x, y), game.getMap().getTileType(x, y));
+            }
+        }
+        for(int i = 0; i < first_players.length; i++){
+            assertEquals(first_players[i].getStartPosition(), game.getPlayers()[i].getStartPosition());
+        }
+    }
+
+    /**
+     * Tests that a SetupOperationPrecedenceException is thrown when trying to seed a game after it was initialised.
+     * @throws SetupOperationPrecedenceException is thrown when initialise() was called prior (expected).
+     * @throws InvalidNumberOfPlayersException is propagated from initialise() (not expected).
+     * @throws InvalidMapSizeException is propagated from initialise() (not expected).
+     * @throws InvalidNumberOfTeamsException is propagated from initialise() (not expected).
+     */
+    @Test(expected = SetupOperationPrecedenceException.class)
+    public void afterInitialise_setSeedTest() throws InvalidNumberOfPlayersException, InvalidMapSizeException,
+            InvalidNumberOfTeamsException{
+        game.initialise(2, 2, 5, "safe");
+        game.setSeed(2002);
+    }
+
     /**
      * Tests that all player positions have been initialized correctly.
      */
@@ -275,6 +335,27 @@ public class GameTest {
         }
     }
 
+    /**
+     * Tests that each player is given a different, winnable, starting position.
+     */
+    @Test
+    public void distinct_genPlayerPositionsTest(){
+        Player[] players = new Player[8];
+        for(int i = 0; i < 8; i++){
+            players[i] = new Player();
+        }
+
+        Map map = MapCreator.createMap("hazardous", 8);
+
+        players = game.genPlayerPositions(players, map);
+        for(int i = 0; i < 8; i++){
+            assertTrue(map.isPositionWinnable(players[i].getStartPosition()));
+            for(int j = 0; j < i; j++){
+                assertNotEquals(players[j].getStartPosition(), players[i].getStartPosition());
+            }
+        }
+    }
+
     /**
      * Tests that an InvalidNumberOfTeamsException is thrown when n_teams {@literal <} 2, for any length of the players array.
      * @throws InvalidNumberOfTeamsException is thrown if n_teams is invalid (expected).
@@ -409,7 +490,7 @@ public class GameTest {
     public void noDirPathSpecified_writeHTMLFilesTest() throws IOException{
         game.dir = null;
 
-        game.writeHTMLFile(new Player(), MapCreator.createMap("basic", 5));
+        game.writeHTMLFile(new Player(), MapCreator.createMap("safe", 5));
     }
 
     /**
@@ -422,8 +503,328 @@ public class GameTest {
         game.writeHTMLFile(new Player(), null);
     }
 
+    /**
+     * Tests that the HTML map file written for a player through an HTMLWriter is persisted by the time that the HTML
+     * files are flushed.
+     * @throws IOException is thrown when there is a failure in persisting to disk [generally fatal] (not expected).
+     */
+    @Test
+    public void htmlWriter_writeHTMLFileTest() throws IOException{
+        Map map = MapCreator.createMap("basic", tiles);
+        Player player = new Player();
+        player.setStartPosition(new Position(0, 0));
+        player.setTeam(new Team());
+
+        Path dir = Files.createTempDirectory("cps2002_game");
+        Path file = dir.resolve("player_" + player.get_pID() + "_map.html");
+        HTMLWriter html_writer = new HTMLWriter();
+        try{
+            game.setHTMLDirectory(dir.toString());
+            game.setHTMLWriter(html_writer);
+            game.writeHTMLFile(player, map);
+            player.setPosition(new Position(0, 1));
+            game.writeHTMLFile(player, map);
+            game.flushHTMLFiles();
+
+            assertEquals(expectedHTMLFile(player, map),
+                    new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).replaceAll(" +\n", "\n"));
+            assertEquals(2, html_writer.getSubmittedWrites());
+        }
+        finally{
+            html_writer.close();
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir.resolve(HTMLGenerator.STYLESHEET_FILE));
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Tests that under PER_ROUND the HTML map file written for a player replaces the previous one, leaving no temporary
+     * file behind, and that ending a round succeeds; and that reset() restores the default FsyncPolicy.
+     * @throws IOException is thrown when there is a failure in persisting to disk [generally fatal] (not expected).
+     */
+    @Test
+    public void fsyncPolicy_writeHTMLFileTest() throws IOException{
+        Map map = MapCreator.createMap("basic", tiles);
+        Player player = new Player();
+        player.setStartPosition(new Position(0, 0));
+        player.setTeam(new Team());
+
+        Path dir = Files.createTempDirectory("cps2002_game");
+        Path file = dir.resolve("player_" + player.get_pID() + "_map.html");
+        try{
+            assertEquals(FsyncPolicy.NONE, game.getFsyncPolicy());
+            game.setFsyncPolicy(FsyncPolicy.PER_ROUND);
+            game.setHTMLDirectory(dir.toString());
+            game.writeHTMLFile(player, map);
+            player.setPosition(new Position(0, 1));
+            game.writeHTMLFile(player, map);
+            game.endRound();
+
+            assertEquals(expectedHTMLFile(player, map),
+                    new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).replaceAll(" +\n", "\n"));
+            assertEquals(2, dir.toFile().listFiles().length); // the HTML map and the stylesheet
+            assertEquals(FsyncPolicy.PER_ROUND, game.getFsyncPolicy());
+
+            game.reset();
+            assertEquals(FsyncPolicy.NONE, game.getFsyncPolicy());
+        }
+        finally{
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir.resolve(HTMLGenerator.STYLESHEET_FILE));
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Tests that the FsyncPolicy can be set to the policy of the HTMLWriter set, but not changed from it.
+     * @throws SetupOperationPrecedenceException is thrown since the HTMLWriter's policy cannot be changed (expected).
+     * @throws IOException is thrown when there is a failure in closing the HTMLWriter (not expected).
+     */
+    @Test(expected = SetupOperationPrecedenceException.class)
+    public void htmlWriter_setFsyncPolicyTest() throws IOException{
+        try(HTMLWriter html_writer = new HTMLWriter(8, 8, FsyncPolicy.PER_ROUND)){
+            game.setHTMLWriter(html_writer);
+            game.setFsyncPolicy(FsyncPolicy.PER_ROUND);
+            assertEquals(FsyncPolicy.PER_ROUND, game.getFsyncPolicy());
+
+            game.setFsyncPolicy(FsyncPolicy.NONE);
+        }
+    }
+
+    /**
+     * Tests that in the COMPACT MapFormat, the HTML map file written for a player is the one written by a
+     * CompactMapRenderer, and the script drawing it is written alongside; and that reset() restores the GRID MapFormat.
+     * @throws IOException is thrown when there is a failure in persisting to disk [generally fatal] (not expected).
+     */
+    @Test
+    public void compactFormat_writeHTMLFileTest() throws IOException{
+        Map map = MapCreator.createMap("basic", tiles);
+        Player player = new Player();
+        player.setStartPosition(new Position(0, 0));
+        player.setTeam(new Team());
+
+        Path dir = Files.createTempDirectory("cps2002_game");
+        Path file = dir.resolve("player_" + player.get_pID() + "_map.html");
+        Path script = dir.resolve(CompactMapRenderer.SCRIPT_FILE);
+        try{
+            assertEquals(MapFormat.GRID, game.getMapFormat());
+            game.setMapFormat(MapFormat.COMPACT);
+            game.setHTMLDirectory(dir.toString());
+            game.writeHTMLFile(player, map);
+            player.setPosition(new Position(0, 1));
+            game.writeHTMLFile(player, map);
+
+            CompactMapRenderer renderer = new CompactMapRenderer();
+            renderer.render(player.getTeam(), map);
+            assertArrayEquals(renderer.toByteArray(player), Files.readAllBytes(file));
+            assertArrayEquals(CompactMapRenderer.SCRIPT, Files.readAllBytes(script));
+
+            game.reset();
+            assertEquals(MapFormat.GRID, game.getMapFormat());
+        }
+        finally{
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(script);
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Tests that an IllegalArgumentException is thrown when the MapFormat is set to null.
+     * @throws IllegalArgumentException is thrown since the MapFormat is null (expected).
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nullMapFormat_setMapFormatTest(){
+        game.setMapFormat(null);
+    }
+
+    /**
+     * Tests that a map one tile wider than the largest map whose tiles fit in a byte array is rejected, both when its
+     * HTML maps are written in the GRID MapFormat and when the MapFormat is set to GRID once it is the game's map, while
+     * it is accepted in the COMPACT MapFormat.
+     * @throws IOException is thrown when there is a failure in persisting to disk [generally fatal] (not expected).
+     */
+    @Test
+    public void tooLargeMap_gridFormatTest() throws IOException{
+        int max_size = 1;
+        while(TeamMapRenderer.canRender(max_size + 1)){
+            max_size++;
+        }
+
+        // an empty large map one tile wider than the largest one which can be written in the GRID MapFormat
+        Map too_large = new Map(max_size + 1, true){
+            @Override
+            public void generate(){}
+
+            @Override
+            public boolean isPlayable(){
+                return true;
+            }
+        };
+        Player player = new Player();
+        player.setStartPosition(new Position(0, 0));
+        player.setTeam(new Team());
+
+        Path dir = Files.createTempDirectory("cps2002_game");
+        try{
+            game.setHTMLDirectory(dir.toString());
+            try{
+                game.writeHTMLFile(player, too_large);
+                fail("Expected an IllegalArgumentException in the GRID MapFormat.");
+            }
+            catch(IllegalArgumentException e){
+                assertTrue(e.getMessage().contains("GRID"));
+            }
+
+            game.setMap(too_large);
+            game.setMapFormat(MapFormat.COMPACT);
+            try{
+                game.setMapFormat(MapFormat.GRID);
+                fail("Expected an IllegalArgumentException when setting the GRID MapFormat.");
+            }
+            catch(IllegalArgumentException e){
+                assertEquals(MapFormat.COMPACT, game.getMapFormat());
+            }
+        }
+        finally{
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Tests that the HTML map file written for a player holds the same HTML as generated by genPlayerMap(), but for the
+     * padding of the tiles to a fixed width and the head linking to the stylesheet, which is written alongside.
+     * @throws IOException is thrown when there is a failure in persisting to disk [generally fatal] (not expected).
+     */
+    @Test
+    public void sameAsGenPlayerMap_writeHTMLFileTest() throws IOException{
+        Map map = MapCreator.createMap("basic", tiles);
+        Player player = new Player();
+        player.setStartPosition(new Position(0, 0));
+        player.setTeam(new Team());
+        player.setPosition(new Position(0, 1));
+        player.setPosition(new Position(1, 1));
+
+        Path dir = Files.createTempDirectory("cps2002_game");
+        Path file = dir.resolve("player_" + player.get_pID() + "_map.html");
+        try{
+            game.setHTMLDirectory(dir.toString());
+            game.writeHTMLFile(player, map);
+
+            assertEquals(expectedHTMLFile(player, map),
+                    new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).replaceAll(" +\n", "\n"));
+            assertArrayEquals(HTMLGenerator.STYLESHEET, Files.readAllBytes(dir.resolve(HTMLGenerator.STYLESHEET_FILE)));
+        }
+        finally{
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir.resolve(HTMLGenerator.STYLESHEET_FILE));
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Tests that moves applied in bulk follow the rules of the game: players landing on the treasure tile win, and
+     * players landing on a water tile are reset to their starting position.
+     * @throws InvalidNumberOfPlayersException is propagated from genPlayers() (not expected).
+     * @throws InvalidNumberOfTeamsException is propagated from genTeams() (not expected).
+     */
+    @Test
+    public void correct_applyMovesTest() throws InvalidNumberOfPlayersException, InvalidNumberOfTeamsException{
+        Player[] players = game.genPlayers(2);
+        Player winner = players[0]; // keep references, since genTeams() shuffles the players array
+        Player loser = players[1];
+        winner.setStartPosition(new Position(2, 1)); // above the treasure tile
+        loser.setStartPosition(new Position(1, 1)); // above a water tile
+
+        game.setPlayers(players);
+        game.setMap(MapCreator.createMap("basic", tiles));
+        game.genTeams(2, players);
+
+        byte[] moves = new byte[2];
+        moves[winner.getStoreIndex()] = PlayerStore.DOWN;
+        moves[loser.getStoreIndex()] = PlayerStore.DOWN;
+        assertEquals(2, game.applyMoves(moves));
+
+        assertEquals(PlayerStatus.Win, winner.getStatus());
+        assertEquals(new Position(2, 2), winner.getPosition());
+        assertEquals(PlayerStatus.Death, loser.getStatus());
+        assertEquals(new Position(1, 1), loser.getPosition());
+    }
+
+    /**
+     * Tests that players who find the treasure through moves applied in bulk are recorded as winners, only once, even if
+     * moves keep being applied after they have won.
+     * @throws InvalidNumberOfPlayersException is propagated from genPlayers() (not expected).
+     * @throws InvalidNumberOfTeamsException is propagated from genTeams() (not expected).
+     */
+    @Test
+    public void winners_applyMovesTest() throws InvalidNumberOfPlayersException, InvalidNumberOfTeamsException{
+        Player[] players = game.genPlayers(2);
+        Player winner = players[0]; // keep references, since genTeams() shuffles the players array
+        Player loser = players[1];
+        winner.setStartPosition(new Position(2, 1)); // above the treasure tile
+        loser.setStartPosition(new Position(0, 0));
+
+        game.setPlayers(players);
+        game.setMap(MapCreator.createMap("basic", tiles));
+        game.genTeams(2, players);
+
+        byte[] moves = new byte[2];
+        moves[winner.getStoreIndex()] = PlayerStore.DOWN;
+        moves[loser.getStoreIndex()] = PlayerStore.RIGHT;
+        game.applyMoves(moves);
+        game.applyMoves(moves);
+
+        assertEquals(1, game.getWinners().size());
+        assertEquals(winner.get_pID(), (int) game.getWinners().get(0));
+    }
+
+    /**
+     * Tests that a SetupOperationPrecedenceException is thrown when applying moves in bulk to players which do not share
+     * a PlayerStore.
+     * @throws SetupOperationPrecedenceException is thrown if the players were not created by genPlayers() (expected).
+     */
+    @Test(expected = SetupOperationPrecedenceException.class)
+    public void separatePlayers_applyMovesTest(){
+        game.setPlayers(new Player[]{new Player(), new Player()});
+        game.setMap(MapCreator.createMap("basic", tiles));
+
+        game.applyMoves(new byte[2]);
+    }
+
+    /**
+     * Tests that winners are recorded per Game instance, and cleared when the game is reset.
+     */
+    @Test
+    public void correct_addWinnerTest(){
+        Game other = new Game();
+        game.addWinner(3);
+        game.addWinner(7);
+
+        assertEquals(2, game.getWinners().size());
+        assertEquals(7, (int) game.getWinners().get(1));
+        assertEquals(0, other.getWinners().size());
+
+        game.reset();
+        assertEquals(0, game.getWinners().size());
+    }
+
     @After
     public void teardownMainGameTest(){
         game.reset();
     }
+
+    /**
+     * Helper function used to generate the expected HTML map file of a player, using genPlayerMap() with the head block
+     * linking to the stylesheet.
+     * @param player is the Player instance for which the HTML map is generated.
+     * @param map is the Map instance on which the HTML map is based.
+     * @return String with the HTML map.
+     */
+    private static String expectedHTMLFile(Player player, Map map){
+        ArrayList<String> html = HTMLGenerator.getHTMLGenerator().genPlayerMap(player, map);
+        html.set(1, HTMLGenerator.getHTMLGenerator().genLinkedHTMLHead(map.getSize()));
+        return String.join("", html);
+    }
 }
@@ -0,0 +1,271 @@
+package com.xd.cps2002.game;
+
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.map.MapCreator;
+import com.xd.cps2002.player.Player;
+import com.xd.cps2002.player.Position;
+import com.xd.cps2002.player.Team;
+import com.xd.cps2002.player.player_exceptions.TeamOverrideException;
+import com.xd.cps2002.util.SplittableRandomSource;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains benchmarks which compare generating the HTML maps as a list of Strings (as written by Game prior
+ * to streaming) with streaming them through a buffer, by the time taken, the bytes allocated and the number of writes
+ * reaching the underlying stream, and streaming the whole map of every player in a team after each round with rendering
+ * only the newly visited tiles once for the team, as well as the GRID and COMPACT MapFormats by the bytes written and
+ * the time taken per round. Since these benchmarks take a while to run, they are excluded from the default test run and
+ * can be run using {@code mvn test -P benchmarks}.
+ */
+public class HTMLGeneratorBenchmark{
+    private final int map_size = 50;
+    private final int pages = 2_000;
+    private final int team_size = 4;
+
+    private final HTMLGenerator htmlGenerator = HTMLGenerator.getHTMLGenerator();
+    private Map map;
+    private Player player;
+
+    /**
+     * Sets up a player whose team has visited about half of the tiles of a safe 50x50 map.
+     * @throws TeamOverrideException is thrown whenever a Player instance has already joined a team (not expected).
+     */
+    @Before
+    public void setupHTMLGeneratorBenchmark() throws TeamOverrideException{
+        map = MapCreator.createMap("safe", map_size, new SplittableRandomSource(2002));
+        player = new Player();
+        player.setStartPosition(new Position(0, 0));
+        new Team(map_size).join(player);
+
+        for(int y = 0; y < map_size; y++){
+            for(int x = 0; x < map_size; x++){
+                if((x + y) % 2 == 0){
+                    player.setPosition(new Position(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void listVersusStreamed_pagesBenchmark() throws IOException{
+        CountingOutputStream list_sink = new CountingOutputStream();
+        CountingOutputStream streamed_sink = new CountingOutputStream();
+
+        // warm up the JIT compiler first
+        for(int i = 0; i < pages / 4; i++){
+            writeList(new CountingOutputStream());
+            writeStreamed(player, new CountingOutputStream());
+        }
+
+        long list_allocated = allocatedBytes();
+        long start = System.nanoTime();
+        for(int i = 0; i < pages; i++){
+            writeList(list_sink);
+        }
+        long list_nanos = System.nanoTime() - start;
+        list_allocated = allocatedBytes() - list_allocated;
+
+        long streamed_allocated = allocatedBytes();
+        start = System.nanoTime();
+        for(int i = 0; i < pages; i++){
+            writeStreamed(player, streamed_sink);
+        }
+        long streamed_nanos = System.nanoTime() - start;
+        streamed_allocated = allocatedBytes() - streamed_allocated;
+
+        System.out.println("[HTMLGeneratorBenchmark] " + pages + " " + map_size + "x" + map_size + " pages as a list " +
+                "in " + list_nanos / 1_000_000 + "ms (" + list_allocated / pages + " bytes allocated and " +
+                list_sink.writes / pages + " writes per page), streamed in " + streamed_nanos / 1_000_000 + "ms (" +
+                streamed_allocated / pages + " bytes allocated and " + streamed_sink.writes / pages + " writes per page)");
+
+        assertEquals(list_sink.bytes, streamed_sink.bytes);
+        assertTrue(streamed_sink.writes < list_sink.writes);
+    }
+
+    @Test
+    public void teamVersusStreamed_roundsBenchmark() throws IOException, TeamOverrideException{
+        int rounds = 5_000;
+
+        // add teammates to the player's team, who stay on their start positions
+        Player[] players = new Player[team_size];
+        players[0] = player;
+        for(int i = 1; i < team_size; i++){
+            players[i] = new Player();
+            players[i].setStartPosition(new Position(i, 0));
+            player.getTeam().join(players[i]);
+        }
+
+        TeamMapRenderer renderer = new TeamMapRenderer();
+        CountingOutputStream sink = new CountingOutputStream();
+
+        // warm up the JIT compiler first
+        for(int i = 0; i < rounds / 4; i++){
+            moveAlongRow(i);
+            writeTeam(renderer, players, sink);
+            for(Player p : players){
+                writeStreamed(p, sink);
+            }
+        }
+
+        long start = System.nanoTime();
+        for(int i = 0; i < rounds; i++){
+            moveAlongRow(i);
+            writeTeam(renderer, players, sink);
+        }
+        long team_nanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for(int i = 0; i < rounds; i++){
+            moveAlongRow(i);
+            for(Player p : players){
+                writeStreamed(p, sink);
+            }
+        }
+        long streamed_nanos = System.nanoTime() - start;
+
+        System.out.println("[HTMLGeneratorBenchmark] " + rounds + " rounds of a team of " + team_size + " on a " +
+                map_size + "x" + map_size + " map rendered once per team and spliced in " + team_nanos / 1_000_000 +
+                "ms (" + team_nanos / rounds + "ns per round), streamed in full per player in " +
+                streamed_nanos / 1_000_000 + "ms (" + streamed_nanos / rounds + "ns per round)");
+
+        assertEquals(1, renderer.getFullRenders());
+        assertTrue(team_nanos < streamed_nanos);
+    }
+
+    @Test
+    public void gridVersusCompact_roundsBenchmark() throws IOException, TeamOverrideException{
+        int rounds = 5_000;
+
+        // add teammates to the player's team, who stay on their start positions
+        Player[] players = new Player[team_size];
+        players[0] = player;
+        for(int i = 1; i < team_size; i++){
+            players[i] = new Player();
+            players[i].setStartPosition(new Position(i, 0));
+            player.getTeam().join(players[i]);
+        }
+
+        long[] nanos = new long[MapFormat.values().length];
+        long[] bytes = new long[MapFormat.values().length];
+        for(MapFormat format : MapFormat.values()){
+            MapRenderer renderer = MapRenderer.create(format);
+            CountingOutputStream sink = new CountingOutputStream();
+            for(int i = 0; i < rounds / 4; i++){ // warm up the JIT compiler first
+                moveAlongRow(i);
+                writeTeam(renderer, players, sink);
+            }
+
+            sink = new CountingOutputStream();
+            long start = System.nanoTime();
+            for(int i = 0; i < rounds; i++){
+                moveAlongRow(i);
+                writeTeam(renderer, players, sink);
+            }
+            nanos[format.ordinal()] = System.nanoTime() - start;
+            bytes[format.ordinal()] = sink.bytes;
+        }
+
+        int grid = MapFormat.GRID.ordinal();
+        int compact = MapFormat.COMPACT.ordinal();
+        long pages = (long) rounds * team_size;
+        System.out.println("[HTMLGeneratorBenchmark] " + rounds + " rounds of a team of " + team_size + " on a " +
+                map_size + "x" + map_size + " map written as a GRID in " + nanos[grid] / 1_000_000 + "ms (" +
+                nanos[grid] / rounds + "ns per round, " + bytes[grid] / pages + " bytes per page), as COMPACT in " +
+                nanos[compact] / 1_000_000 + "ms (" + nanos[compact] / rounds + "ns per round, " +
+                bytes[compact] / pages + " bytes per page, " + bytes[grid] / bytes[compact] + "x smaller)");
+
+        assertTrue(10 * bytes[compact] < bytes[grid]);
+    }
+
+    /**
+     * Helper function used to bring a team's rendered tiles up to date, and write the map of every player in the team.
+     * @param renderer is the MapRenderer of the team.
+     * @param players are the players in the team.
+     * @param out is the OutputStream to which the pages are written.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    private void writeTeam(MapRenderer renderer, Player[] players, OutputStream out) throws IOException{
+        renderer.render(players[0].getTeam(), map);
+        for(Player p : players){
+            renderer.writePlayerMap(p, out);
+        }
+    }
+
+    /**
+     * Helper function used to move the player back and forth along the last row of the map.
+     * @param i is the number of the move.
+     */
+    private void moveAlongRow(int i){
+        int x = i % (2 * (map_size - 1));
+        player.setPosition(new Position((x < map_size) ? x : 2 * (map_size - 1) - x, map_size - 1));
+    }
+
+    /**
+     * Helper function used to write a page as Game did prior to streaming, i.e. line by line through a Writer.
+     * @param out is the OutputStream to which the page is written.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    private void writeList(OutputStream out) throws IOException{
+        Writer writer = new OutputStreamWriter(out);
+        for(String ln : htmlGenerator.genPlayerMap(player, map)){
+            writer.write(ln);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Helper function used to stream a page through a buffer.
+     * @param player is the Player instance for which the page is written.
+     * @param out is the OutputStream to which the page is written.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    private void writeStreamed(Player player, OutputStream out) throws IOException{
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+        htmlGenerator.writePlayerMap(player, map, buffered);
+        buffered.flush();
+    }
+
+    /**
+     * Helper function used to measure the bytes allocated by the current thread, if supported by the JVM.
+     * @return long the number of bytes allocated so far, or 0 if not supported.
+     */
+    private long allocatedBytes(){
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(bean instanceof com.sun.management.ThreadMXBean){
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * An OutputStream discarding what is written to it, counting the writes (as a stand-in for system calls) and bytes.
+     */
+    private static final class CountingOutputStream extends OutputStream{
+        private long writes = 0;
+        private long bytes = 0;
+
+        @Override
+        public void write(int b){
+            writes++;
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len){
+            writes++;
+            bytes += len;
+        }
+    }
+}
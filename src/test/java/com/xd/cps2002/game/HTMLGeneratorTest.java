@@ -1,5 +1,8 @@
 package com.xd.cps2002.game;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 import com.xd.cps2002.map.BasicMap;
@@ -9,6 +12,7 @@ import com.xd.cps2002.map.TileType;
 import com.xd.cps2002.player.Team;
 import com.xd.cps2002.player.player_exceptions.NullPositionException;
 import com.xd.cps2002.player.player_exceptions.NullTeamException;
+import com.xd.cps2002.player.player_exceptions.TeamOverrideException;
 import com.xd.cps2002.player.Player;
 import com.xd.cps2002.player.Position;
 
@@ -167,6 +171,105 @@ public class HTMLGeneratorTest{
         htmlGenerator.genPlayerMap(player2, map);
     }
 
+    /* ----- This section tests that writePlayerMap streams exactly the same HTML as genPlayerMap ----- */
+
+    /**
+     * Testing whether the streamed HTML map is the same as the one generated by genPlayerMap, for a Team instance which
+     * does not know the size of the map.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void sameAsGenPlayerMap_writePlayerMapTest() throws IOException{
+        assertEquals(String.join("", htmlGenerator.genPlayerMap(player, map)), write(player));
+    }
+
+    /**
+     * Testing whether the streamed HTML map is the same as the one generated by genPlayerMap, for players in a Team
+     * instance which marks its visited tiles for a map of the same size.
+     * @throws TeamOverrideException is thrown whenever a Player instance has already joined a team (not expected).
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void teamWithMapSize_writePlayerMapTest() throws TeamOverrideException, IOException{
+        Team team = new Team(5);
+        Player player1 = new Player();
+        Player player2 = new Player();
+        player1.setStartPosition(new Position(0, 4));
+        player2.setStartPosition(new Position(4, 0));
+        team.join(player1);
+        team.join(player2);
+
+        player1.setPosition(new Position(1, 4));
+        player2.setPosition(new Position(3, 0));
+        player2.setPosition(new Position(3, 1));
+
+        assertEquals(String.join("", htmlGenerator.genPlayerMap(player1, map)), write(player1));
+        assertEquals(String.join("", htmlGenerator.genPlayerMap(player2, map)), write(player2));
+    }
+
+    /**
+     * Testing whether the streamed HTML map is the same as the one generated by genPlayerMap when the player is back
+     * on their starting tile, i.e. the current position marker takes precedence over the start position marker.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void atStartPosition_writePlayerMapTest() throws IOException{
+        player.reset();
+
+        assertEquals(String.join("", htmlGenerator.genPlayerMap(player, map)), write(player));
+    }
+
+    /**
+     * Testing whether a NullTeamException is raised when writePlayerMap is called with a Player having no Team instance,
+     * before anything is written to the stream.
+     * @throws NullTeamException is thrown when Team team is null, i.e. when it has not been set (expected).
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void playerNullTeam_writePlayerMapTest() throws IOException{
+        Player player2 = new Player();
+        player2.setStartPosition(new Position(0, 0));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try{
+            htmlGenerator.writePlayerMap(player2, map, out);
+            fail("A NullTeamException was expected.");
+        }
+        catch(NullTeamException e){
+            assertEquals(0, out.size());
+        }
+    }
+
+    /**
+     * Testing whether the prologue is cached per map size, and whether the linked head together with the shared
+     * stylesheet holds the same style as the embedded head.
+     */
+    @Test
+    public void cached_prologueTest(){
+        assertSame(HTMLGenerator.prologue(5, true), HTMLGenerator.prologue(5, true));
+        assertNotSame(HTMLGenerator.prologue(5, true), HTMLGenerator.prologue(6, true));
+
+        String inline = new String(HTMLGenerator.prologue(5, false), StandardCharsets.US_ASCII);
+        String linked = new String(HTMLGenerator.prologue(5, true), StandardCharsets.US_ASCII);
+        String stylesheet = new String(HTMLGenerator.STYLESHEET, StandardCharsets.US_ASCII);
+        assertEquals("<!DOCTYPE html>\n<html>\n\n" + htmlGenerator.genHTMLHead(5), inline);
+        assertTrue(linked.contains("<link rel=\"stylesheet\" href=\"" + HTMLGenerator.STYLESHEET_FILE + "\">"));
+        assertEquals(inline.replace(stylesheet, ""),
+                     linked.replace("<link rel=\"stylesheet\" href=\"" + HTMLGenerator.STYLESHEET_FILE + "\">\n", ""));
+    }
+
+    /**
+     * Helper function used to stream the HTML map of a player on the map to a String.
+     * @param player is the Player instance for which the map is streamed.
+     * @return String with the streamed HTML map.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    private String write(Player player) throws IOException{
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        htmlGenerator.writePlayerMap(player, map, out);
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
     @After
     public void teardownHTMLGeneratorTest(){
         player = null; // dereference
@@ -0,0 +1,151 @@
+package com.xd.cps2002.game;
+
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.map.MapCreator;
+import com.xd.cps2002.player.Player;
+import com.xd.cps2002.player.Position;
+import com.xd.cps2002.player.Team;
+import com.xd.cps2002.player.player_exceptions.TeamOverrideException;
+import com.xd.cps2002.util.SplittableRandomSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains benchmarks which compare the time taken by Game.writeHTMLFile(), i.e. the time added to the turn
+ * of a player, when the HTML maps are persisted synchronously and when they are persisted asynchronously by an
+ * HTMLWriter, as well as the throughput of each FsyncPolicy. Since these benchmarks take a while to run, they are excluded from the default test run and can be run
+ * using {@code mvn test -P benchmarks}.
+ */
+public class HTMLWriterBenchmark{
+    private final int map_size = 50;
+    private final int n_players = 8;
+    private final int rounds = 500;
+
+    private Game game;
+    private Map map;
+    private Player[] players;
+    private Path dir;
+
+    /**
+     * Sets up a game whose players are all in a team, each on a row of their own of a safe 50x50 map.
+     * @throws TeamOverrideException is thrown whenever a Player instance has already joined a team (not expected).
+     * @throws IOException is thrown when the directory of the HTML maps cannot be created (not expected).
+     */
+    @Before
+    public void setupHTMLWriterBenchmark() throws TeamOverrideException, IOException{
+        map = MapCreator.createMap("safe", map_size, new SplittableRandomSource(2002));
+        Team team = new Team(map_size);
+        players = new Player[n_players];
+        for(int i = 0; i < n_players; i++){
+            players[i] = new Player();
+            players[i].setStartPosition(new Position(0, i));
+            team.join(players[i]);
+        }
+
+        dir = Files.createTempDirectory("cps2002_writer_benchmark");
+        game = new Game();
+        game.setHTMLDirectory(dir.toString());
+    }
+
+    @After
+    public void teardownHTMLWriterBenchmark(){
+        for(File file : dir.toFile().listFiles()){
+            file.delete();
+        }
+        dir.toFile().delete();
+        game = null; // dereference
+    }
+
+    @Test
+    public void synchronousVersusAsynchronous_writeHTMLFileBenchmark() throws IOException{
+        play(rounds / 4); // warm up the JIT compiler first
+        long sync_nanos = play(rounds);
+
+        HTMLWriter html_writer = new HTMLWriter();
+        game.setHTMLWriter(html_writer);
+        long async_nanos;
+        long flush_nanos;
+        try{
+            async_nanos = play(rounds);
+            long start = System.nanoTime();
+            game.flushHTMLFiles();
+            flush_nanos = System.nanoTime() - start;
+        }
+        finally{
+            html_writer.close();
+        }
+
+        long writes = (long) rounds * n_players * n_players;
+        System.out.println("[HTMLWriterBenchmark] " + writes + " HTML maps written synchronously in " +
+                sync_nanos / 1_000_000 + "ms (" + sync_nanos / writes + "ns per turn write), asynchronously in " +
+                async_nanos / 1_000_000 + "ms (" + async_nanos / writes + "ns per turn write) plus " +
+                flush_nanos / 1_000_000 + "ms to flush; " + html_writer.getCompletedWrites() + " files written in " +
+                html_writer.getBatches() + " batches, " + html_writer.getCoalescedWrites() + " coalesced, peak queue " +
+                "depth " + html_writer.getPeakQueueDepth() + ", mean latency " +
+                String.format("%.0f", html_writer.getMeanWriteLatencyMicros()) + "us, " +
+                html_writer.getBackpressureWaits() + " backpressure waits");
+
+        assertEquals(writes, html_writer.getSubmittedWrites());
+        assertEquals(writes, html_writer.getCompletedWrites() + html_writer.getCoalescedWrites());
+        assertTrue(async_nanos < sync_nanos);
+    }
+
+    @Test
+    public void fsyncPolicies_writeHTMLFileBenchmark() throws IOException{
+        int policy_rounds = rounds / 10; // forcing every file to disk is slow
+        long writes = (long) policy_rounds * n_players * n_players;
+        play(policy_rounds); // warm up the JIT compiler first
+
+        long none_nanos = 0;
+        for(FsyncPolicy policy : FsyncPolicy.values()){
+            game.setFsyncPolicy(policy);
+            long nanos = play(policy_rounds);
+            if(policy == FsyncPolicy.NONE){
+                none_nanos = nanos;
+            }
+
+            System.out.println("[HTMLWriterBenchmark] " + policy + ": " + writes + " HTML maps written synchronously " +
+                    "in " + nanos / 1_000_000 + "ms (" + String.format("%.0f", writes * 1e9 / nanos) + " maps/s, " +
+                    nanos / writes + "ns per turn write, " + String.format("%.1f", (double) nanos / none_nanos) +
+                    "x NONE)");
+        }
+    }
+
+    /**
+     * Helper function used to play a number of rounds, in which every player moves along their row and the HTML maps
+     * of the whole team are written after every move, and the round is ended after every player moved, as in the
+     * Launcher.
+     * @param rounds is the number of rounds to play.
+     * @return long the number of nanoseconds spent in writeHTMLFile() and endRound().
+     * @throws IOException is thrown when there is a failure in persisting to disk (not expected).
+     */
+    private long play(int rounds) throws IOException{
+        long nanos = 0;
+        for(int r = 0; r < rounds; r++){
+            for(Player player : players){
+                int x = r % (2 * (map_size - 1));
+                player.setPosition(new Position((x < map_size) ? x : 2 * (map_size - 1) - x, player.getPosition().y));
+
+                long start = System.nanoTime();
+                for(Player team_player : players){
+                    game.writeHTMLFile(team_player, map);
+                }
+                nanos += System.nanoTime() - start;
+            }
+
+            long start = System.nanoTime();
+            game.endRound();
+            nanos += System.nanoTime() - start;
+        }
+        return nanos;
+    }
+}
@@ -0,0 +1,351 @@
+package com.xd.cps2002.game;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the HTMLWriter class.
+ */
+public class HTMLWriterTest{
+    private HTMLWriter writer;
+
+    // the files written by a writer whose I/O thread blocks on the first file written, until released
+    private List<String> written_pages;
+    private CountDownLatch first_write;
+    private CountDownLatch release;
+
+    /**
+     * Sets up the record of the files written by a blocking writer, before every unit test.
+     */
+    @Before
+    public void setupHTMLWriterTest(){
+        written_pages = Collections.synchronizedList(new ArrayList<>());
+        first_write = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+    }
+
+    /**
+     * Tests that the submitted HTML maps are written to their files by the time flush() returns.
+     * @throws IOException is thrown when there is a failure in persisting to disk (not expected).
+     */
+    @Test
+    public void written_flushTest() throws IOException{
+        Path dir = Files.createTempDirectory("cps2002_writer");
+        Path file = dir.resolve("player_1_map.html");
+
+        try{
+            writer = new HTMLWriter();
+            writer.submit(file, bytes("<html>1</html>"));
+            writer.submit(file, bytes("<html>2</html>"));
+            writer.flush();
+
+            assertEquals("<html>2</html>", new String(Files.readAllBytes(file), StandardCharsets.US_ASCII));
+            assertEquals(0, writer.getQueueDepth());
+            assertEquals(2, writer.getSubmittedWrites());
+            assertEquals(writer.getSubmittedWrites(), writer.getCompletedWrites() + writer.getCoalescedWrites());
+            assertTrue(writer.getMaxWriteLatencyMicros() >= writer.getMeanWriteLatencyMicros());
+        }
+        finally{
+            for(File f : dir.toFile().listFiles()){
+                f.delete();
+            }
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Tests that HTML maps submitted for a file which already has a map waiting to be written replace the waiting map,
+     * such that only the latest map is written.
+     * @throws Exception is thrown if the writer fails (not expected).
+     */
+    @Test
+    public void coalesced_submitTest() throws Exception{
+        writer = new HTMLWriter(8, 8, this::blockingWrite);
+        writer.submit(Paths.get("a"), bytes("a1"));
+        assertTrue(first_write.await(5, TimeUnit.SECONDS)); // the I/O thread is now blocked writing a
+
+        writer.submit(Paths.get("b"), bytes("b1"));
+        writer.submit(Paths.get("b"), bytes("b2"));
+        writer.submit(Paths.get("a"), bytes("a2"));
+        writer.submit(Paths.get("b"), bytes("b3"));
+        assertEquals(2, writer.getQueueDepth());
+        assertEquals(2, writer.getCoalescedWrites());
+
+        release.countDown();
+        writer.flush();
+
+        // b was queued before a, and only the latest maps are written
+        assertEquals(Arrays.asList("a:a1", "b:b3", "a:a2"), written_pages);
+        assertEquals(3, writer.getCompletedWrites());
+    }
+
+    /**
+     * Tests that the queued files are taken by the I/O thread in batches of at most batch_size files.
+     * @throws Exception is thrown if the writer fails (not expected).
+     */
+    @Test
+    public void batches_submitTest() throws Exception{
+        writer = new HTMLWriter(16, 4, this::blockingWrite);
+        writer.submit(Paths.get("first"), bytes("0"));
+        assertTrue(first_write.await(5, TimeUnit.SECONDS));
+
+        for(int i = 1; i <= 10; i++){
+            writer.submit(Paths.get("file_" + i), bytes(Integer.toString(i)));
+        }
+        assertEquals(10, writer.getPeakQueueDepth());
+
+        release.countDown();
+        writer.flush();
+
+        assertEquals(11, writer.getCompletedWrites());
+        assertEquals(4, writer.getBatches()); // the first file, then batches of 4, 4 and 2 files
+    }
+
+    /**
+     * Tests that submit() blocks while the queue is full, until the I/O thread makes room.
+     * @throws Exception is thrown if the writer fails (not expected).
+     */
+    @Test
+    public void backpressure_submitTest() throws Exception{
+        writer = new HTMLWriter(1, 1, this::blockingWrite);
+        writer.submit(Paths.get("a"), bytes("a"));
+        assertTrue(first_write.await(5, TimeUnit.SECONDS));
+        writer.submit(Paths.get("b"), bytes("b")); // fills the queue
+
+        Thread submitter = new Thread(() -> {
+            try{
+                writer.submit(Paths.get("c"), bytes("c"));
+            }
+            catch(IOException e){
+                throw new IllegalStateException(e);
+            }
+        });
+        submitter.start();
+
+        // wait until the submitter is blocked
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(writer.getBackpressureWaits() == 0 && System.nanoTime() < deadline){
+            Thread.sleep(1);
+        }
+        assertEquals(1, writer.getBackpressureWaits());
+        assertTrue(submitter.isAlive());
+
+        release.countDown();
+        submitter.join(5000);
+        writer.flush();
+
+        assertFalse(submitter.isAlive());
+        assertEquals(Arrays.asList("a:a", "b:b", "c:c"), written_pages);
+    }
+
+    /**
+     * Tests that after the end of a round, the files are forced to disk once, after the HTML maps submitted in the round
+     * have been written.
+     * @throws Exception is thrown if the writer fails (not expected).
+     */
+    @Test
+    public void synced_endRoundTest() throws Exception{
+        writer = new HTMLWriter(8, 1, new HTMLWriter.FileSink(){
+            @Override
+            public void write(Path file, byte[] page) throws IOException{
+                blockingWrite(file, page);
+            }
+
+            @Override
+            public void sync(){
+                written_pages.add("sync");
+            }
+        });
+        writer.submit(Paths.get("a"), bytes("a"));
+        assertTrue(first_write.await(5, TimeUnit.SECONDS));
+        writer.submit(Paths.get("b"), bytes("b"));
+        writer.submit(Paths.get("c"), bytes("c"));
+        writer.endRound();
+
+        release.countDown();
+        writer.flush();
+        assertEquals(Arrays.asList("a:a", "b:b", "c:c", "sync"), written_pages);
+
+        writer.endRound(); // a round in which nothing was written
+        writer.flush();
+        assertEquals(Arrays.asList("a:a", "b:b", "c:c", "sync", "sync"), written_pages);
+        assertEquals(3, writer.getBatches());
+    }
+
+    /**
+     * Tests that the files are forced to disk as soon as the HTML maps submitted by the end of a round are written, even
+     * if more maps are submitted after the end of the round and are still waiting to be written.
+     * @throws Exception is thrown if the writer fails (not expected).
+     */
+    @Test
+    public void laterSubmits_endRoundTest() throws Exception{
+        writer = new HTMLWriter(8, 1, new HTMLWriter.FileSink(){
+            @Override
+            public void write(Path file, byte[] page) throws IOException{
+                blockingWrite(file, page);
+            }
+
+            @Override
+            public void sync(){
+                written_pages.add("sync");
+            }
+        });
+        writer.submit(Paths.get("a"), bytes("a"));
+        assertTrue(first_write.await(5, TimeUnit.SECONDS));
+        writer.submit(Paths.get("b"), bytes("b"));
+        writer.endRound();
+        writer.submit(Paths.get("c"), bytes("c")); // submitted in the next round
+        writer.submit(Paths.get("b"), bytes("b2")); // replaces the map of the ended round, which keeps its place
+        writer.submit(Paths.get("d"), bytes("d"));
+
+        release.countDown();
+        writer.flush();
+        assertEquals(Arrays.asList("a:a", "b:b2", "sync", "c:c", "d:d"), written_pages);
+    }
+
+    /**
+     * Tests that under PER_ROUND, the HTML maps are replaced atomically in their files by the default FileSink.
+     * @throws IOException is thrown when there is a failure in persisting to disk (not expected).
+     */
+    @Test
+    public void perRound_endRoundTest() throws IOException{
+        Path dir = Files.createTempDirectory("cps2002_writer");
+        Path file = dir.resolve("player_1_map.html");
+
+        try{
+            writer = new HTMLWriter(8, 8, FsyncPolicy.PER_ROUND);
+            assertEquals(FsyncPolicy.PER_ROUND, writer.getFsyncPolicy());
+            writer.submit(file, bytes("<html>1</html>"));
+            writer.endRound();
+            writer.submit(file, bytes("<html>2</html>"));
+            writer.endRound();
+            writer.flush();
+
+            assertEquals("<html>2</html>", new String(Files.readAllBytes(file), StandardCharsets.US_ASCII));
+            assertEquals(1, dir.toFile().listFiles().length); // no temporary file is left behind
+        }
+        finally{
+            for(File f : dir.toFile().listFiles()){
+                f.delete();
+            }
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Tests that a failure of the I/O thread is rethrown by flush() and by later calls to submit().
+     * @throws IOException is thrown by flush() and submit(), since a file failed to be written (expected).
+     */
+    @Test
+    public void failedWrite_flushTest() throws IOException{
+        writer = new HTMLWriter(8, 8, (file, page) -> {
+            throw new IOException("disk full");
+        });
+        writer.submit(Paths.get("a"), bytes("a"));
+
+        try{
+            writer.flush();
+            fail("An IOException was expected.");
+        }
+        catch(IOException e){
+            assertEquals("disk full", e.getMessage());
+        }
+
+        try{
+            writer.submit(Paths.get("b"), bytes("b"));
+            fail("An IOException was expected.");
+        }
+        catch(IOException e){
+            assertEquals("disk full", e.getMessage());
+        }
+        assertEquals(1, writer.getFailedWrites());
+    }
+
+    /**
+     * Tests that an IllegalStateException is thrown when an HTML map is submitted to a closed writer.
+     * @throws IllegalStateException is thrown since the writer is closed (expected).
+     * @throws IOException is thrown when there is a failure in persisting to disk (not expected).
+     */
+    @Test(expected = IllegalStateException.class)
+    public void closed_submitTest() throws IOException{
+        writer = new HTMLWriter(8, 8, (file, page) -> { });
+        writer.close();
+        writer.submit(Paths.get("a"), bytes("a"));
+    }
+
+    /**
+     * Tests that an IllegalArgumentException is thrown when a writer is created with an empty queue.
+     * @throws IllegalArgumentException is thrown since max_pending is less than 1 (expected).
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMaxPending_HTMLWriterTest(){
+        writer = new HTMLWriter(0, 8);
+    }
+
+    /**
+     * Tests that an IllegalArgumentException is thrown when a writer is created with empty batches.
+     * @throws IllegalArgumentException is thrown since batch_size is less than 1 (expected).
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBatchSize_HTMLWriterTest(){
+        writer = new HTMLWriter(8, 0);
+    }
+
+    @After
+    public void teardownHTMLWriterTest() throws IOException{
+        release.countDown();
+        if(writer != null){
+            try{
+                writer.close();
+            }
+            catch(IOException ignored){ // eg. failedWrite_flushTest
+            }
+        }
+        writer = null; // dereference
+    }
+
+    /**
+     * Helper function used as a FileSink which records the files written, and blocks on the first file written until
+     * released.
+     * @param file is the path of the file.
+     * @param page is the HTML map.
+     * @throws IOException is never thrown.
+     */
+    private void blockingWrite(Path file, byte[] page) throws IOException{
+        written_pages.add(file + ":" + new String(page, StandardCharsets.US_ASCII));
+        if(first_write.getCount() > 0){
+            first_write.countDown();
+            try{
+                release.await(5, TimeUnit.SECONDS);
+            }
+            catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Helper function used to encode a String as bytes.
+     * @param s is the String.
+     * @return byte[] with the encoded String.
+     */
+    private static byte[] bytes(String s){
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
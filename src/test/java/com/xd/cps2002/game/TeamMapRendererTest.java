@@ -0,0 +1,374 @@
+package com.xd.cps2002.game;
+
+import com.xd.cps2002.game.game_exceptions.SetupOperationPrecedenceException;
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.map.MapCreator;
+import com.xd.cps2002.map.TileType;
+import com.xd.cps2002.player.Player;
+import com.xd.cps2002.player.Position;
+import com.xd.cps2002.player.Team;
+import com.xd.cps2002.player.player_exceptions.TeamOverrideException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the TeamMapRenderer class.
+ */
+public class TeamMapRendererTest{
+    private Team team;
+    private Player player;
+    private Player teammate;
+    private TeamMapRenderer renderer;
+
+    // define the Map by means of a 2D TileType array
+    private final TileType[][] tiles = {{TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass},
+                                        {TileType.Grass, TileType.Grass, TileType.Water, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Treasure, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water}};
+    private final Map map = MapCreator.createMap("basic", tiles); // initialize a BasicMap based on the tiles above
+    private final HTMLGenerator htmlGenerator = HTMLGenerator.getHTMLGenerator(); // get HTMLGenerator singleton instance
+
+    /**
+     * Initialises two players in a team playing on the map, and a renderer, before every unit test.
+     * @throws TeamOverrideException is thrown whenever a Player instance has already joined a team (not expected).
+     */
+    @Before
+    public void setupTeamMapRendererTest() throws TeamOverrideException{
+        team = new Team(5);
+        player = new Player();
+        teammate = new Player();
+        player.setStartPosition(new Position(0, 0));
+        teammate.setStartPosition(new Position(0, 4));
+        team.join(player);
+        team.join(teammate);
+
+        renderer = new TeamMapRenderer();
+    }
+
+    /**
+     * Testing whether the HTML map written for each player in the team is the same as the one generated by
+     * genPlayerMap, but for the padding of the tiles to a fixed width and the head linking to the stylesheet.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void sameAsGenPlayerMap_writePlayerMapTest() throws IOException{
+        player.setPosition(new Position(1, 0));
+        player.setPosition(new Position(1, 1));
+
+        renderer.render(team, map);
+        assertEquals(expected(player), unpadded(player));
+        assertEquals(expected(teammate), unpadded(teammate));
+    }
+
+    /**
+     * Testing whether the HTML maps are brought up to date after every round by rendering only the tiles newly visited
+     * by the team, once for the whole team, and are the same as the maps written by a new renderer.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void rounds_renderTest() throws IOException{
+        renderer.render(team, map);
+
+        Position[] moves = {new Position(1, 0), new Position(1, 1), new Position(2, 1), new Position(1, 1)};
+        for(Position move : moves){
+            player.setPosition(move);
+            teammate.setPosition(new Position(move.y, 4 - move.x));
+            renderer.render(team, map);
+
+            TeamMapRenderer new_renderer = new TeamMapRenderer();
+            new_renderer.render(team, map);
+            for(Player p : new Player[]{player, teammate}){
+                assertEquals(written(new_renderer, p), written(renderer, p));
+                assertEquals(expected(p), unpadded(p));
+            }
+        }
+
+        assertEquals(1, renderer.getFullRenders());
+        assertEquals(moves.length, renderer.getDeltaRenders());
+    }
+
+    /**
+     * Testing whether only the current position marker is written when the player is back on their start position
+     * (eg. after drowning), and the start position marker is written again once they move off it.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void backToStartPosition_writePlayerMapTest() throws IOException{
+        player.setPosition(new Position(1, 0));
+        player.reset();
+        renderer.render(team, map);
+        assertEquals(expected(player), unpadded(player));
+
+        player.setPosition(new Position(0, 1));
+        renderer.render(team, map);
+        assertEquals(expected(player), unpadded(player));
+    }
+
+    /**
+     * Testing whether the tiles are rendered from scratch when the team's history is cleared, or a different map or team
+     * is rendered.
+     * @throws TeamOverrideException is thrown whenever a Player instance has already joined a team (not expected).
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void stateChanged_renderTest() throws TeamOverrideException, IOException{
+        player.setPosition(new Position(1, 0));
+        renderer.render(team, map);
+
+        team.clearHistory();
+        renderer.render(team, map);
+        assertEquals(2, renderer.getFullRenders());
+        assertEquals(expected(player), unpadded(player));
+
+        // the history is cleared and grows back past its previous length between renders
+        team.clearHistory();
+        player.setPosition(new Position(0, 1));
+        player.setPosition(new Position(1, 1));
+        player.setPosition(new Position(2, 1));
+        renderer.render(team, map);
+        assertEquals(3, renderer.getFullRenders());
+        assertEquals(expected(player), unpadded(player));
+
+        renderer.render(team, MapCreator.createMap("safe", 5));
+        assertEquals(4, renderer.getFullRenders());
+
+        Player other = new Player();
+        other.setStartPosition(new Position(2, 2));
+        Team other_team = new Team(5);
+        other_team.join(other);
+        renderer.render(other_team, map);
+        assertEquals(5, renderer.getFullRenders());
+        assertEquals(expected(other), unpadded(other));
+        assertEquals(0, renderer.getDeltaRenders());
+    }
+
+    /**
+     * Testing that a map whose tiles would not fit in a single byte array is rejected with an IllegalArgumentException
+     * before anything is rendered, while the largest map whose tiles fit is accepted.
+     */
+    @Test
+    public void tooLargeMap_renderTest(){
+        int max_size = 1;
+        while(TeamMapRenderer.canRender(max_size + 1)){
+            max_size++;
+        }
+        assertTrue((long) max_size*max_size*TeamMapRenderer.TILE_WIDTH <= TeamMapRenderer.MAX_TILES_LENGTH);
+        assertTrue((long) max_size*max_size*TeamMapRenderer.TILE_WIDTH > Integer.MAX_VALUE / 2);
+
+        // an empty large map one tile wider than the largest one which can be rendered
+        Map too_large = new Map(max_size + 1, true){
+            @Override
+            public void generate(){}
+
+            @Override
+            public boolean isPlayable(){
+                return true;
+            }
+        };
+
+        try{
+            renderer.render(team, too_large);
+            fail("Expected an IllegalArgumentException for a " + (max_size + 1) + "x" + (max_size + 1) + " map.");
+        }
+        catch(IllegalArgumentException e){
+            assertTrue(e.getMessage().contains("too large"));
+        }
+        assertEquals(0, renderer.getFullRenders());
+    }
+
+    /**
+     * Testing whether the header is brought up to date when a player joins the team, since the header shows whether the
+     * player is alone in their team.
+     * @throws TeamOverrideException is thrown whenever a Player instance has already joined a team (not expected).
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void playerJoined_writePlayerMapTest() throws TeamOverrideException, IOException{
+        Player alone = new Player();
+        alone.setStartPosition(new Position(4, 4));
+        Team new_team = new Team(5);
+        new_team.join(alone);
+        renderer.render(new_team, map);
+        assertEquals(expected(alone), unpadded(alone));
+
+        Player joined = new Player();
+        joined.setStartPosition(new Position(4, 0));
+        new_team.join(joined);
+        renderer.render(new_team, map);
+        assertEquals(expected(alone), unpadded(alone));
+        assertEquals(expected(joined), unpadded(joined));
+    }
+
+    /**
+     * Testing whether the HTML map written to a channel is the same as the one written to a stream.
+     * @throws IOException is thrown when there is a failure in writing to the channel (not expected).
+     */
+    @Test
+    public void channel_writePlayerMapTest() throws IOException{
+        player.setPosition(new Position(1, 0));
+        renderer.render(team, map);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderer.writePlayerMap(player, new GatheringChannel(out));
+        assertEquals(written(renderer, player), new String(out.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Testing whether every tile is written as the same number of bytes, such that the length of the HTML maps does not
+     * change as tiles are uncovered.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test
+    public void fixedWidthTiles_renderTest() throws IOException{
+        renderer.render(team, map);
+        int length = written(renderer, player).length();
+
+        player.setPosition(new Position(1, 0));
+        player.setPosition(new Position(2, 0));
+        renderer.render(team, map);
+
+        assertEquals(length, written(renderer, player).length());
+        assertEquals(length, written(renderer, teammate).length());
+    }
+
+    /**
+     * Testing whether a SetupOperationPrecedenceException is raised when a map is written before being rendered.
+     * @throws SetupOperationPrecedenceException is thrown if the tiles have not been rendered (expected).
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test(expected = SetupOperationPrecedenceException.class)
+    public void notRendered_writePlayerMapTest() throws IOException{
+        renderer.writePlayerMap(player, new ByteArrayOutputStream());
+    }
+
+    /**
+     * Testing whether an IllegalArgumentException is raised when the map of a player outside of the rendered team is
+     * written.
+     * @throws IllegalArgumentException is thrown if the player is not in the rendered team (expected).
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void playerNotInTeam_writePlayerMapTest() throws IOException{
+        renderer.render(team, map);
+        renderer.writePlayerMap(new Player(), new ByteArrayOutputStream());
+    }
+
+    /**
+     * Testing whether an IllegalArgumentException is raised when render is called with a null Map instance.
+     * @throws IllegalArgumentException whenever the Team or Map instances passed are null (expected).
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nullMap_renderTest(){
+        renderer.render(team, null);
+    }
+
+    /**
+     * Testing whether an IllegalArgumentException is raised when render is called with a null Team instance.
+     * @throws IllegalArgumentException whenever the Team or Map instances passed are null (expected).
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nullTeam_renderTest(){
+        renderer.render(null, map);
+    }
+
+    @After
+    public void teardownTeamMapRendererTest(){
+        team = null; // dereference
+        player = null;
+        teammate = null;
+        renderer = null;
+    }
+
+    /**
+     * Helper function used to generate the expected HTML map of a player, using genPlayerMap with the head block linking
+     * to the stylesheet.
+     * @param player is the Player instance for which the map is generated.
+     * @return String with the HTML map.
+     */
+    private String expected(Player player){
+        ArrayList<String> html = htmlGenerator.genPlayerMap(player, map);
+        html.set(1, htmlGenerator.genLinkedHTMLHead(map.getSize()));
+        return String.join("", html);
+    }
+
+    /**
+     * Helper function used to write the HTML map of a player to a String.
+     * @param renderer is the TeamMapRenderer.
+     * @param player is the Player instance for which the map is written.
+     * @return String with the HTML map.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    private String written(TeamMapRenderer renderer, Player player) throws IOException{
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderer.writePlayerMap(player, out);
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Helper function used to write the HTML map of a player to a String, without the padding of the tiles.
+     * @param player is the Player instance for which the map is written.
+     * @return String with the HTML map.
+     * @throws IOException is thrown when there is a failure in writing to the stream (not expected).
+     */
+    private String unpadded(Player player) throws IOException{
+        return written(renderer, player).replaceAll(" +\n", "\n");
+    }
+
+    /**
+     * A GatheringByteChannel writing to an OutputStream, which writes at most a few bytes per call to check that the
+     * renderer writes the whole map even if a write is partial.
+     */
+    private static final class GatheringChannel implements GatheringByteChannel{
+        private final WritableByteChannel channel;
+
+        GatheringChannel(ByteArrayOutputStream out){
+            channel = Channels.newChannel(out);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException{
+            for(int i = offset; i < offset + length; i++){
+                if(srcs[i].hasRemaining()){
+                    ByteBuffer partial = srcs[i].duplicate();
+                    partial.limit(partial.position() + Math.min(partial.remaining(), 7));
+                    int written = channel.write(partial);
+                    srcs[i].position(srcs[i].position() + written);
+                    return written;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) throws IOException{
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException{
+            return (int) write(new ByteBuffer[]{src});
+        }
+
+        @Override
+        public boolean isOpen(){
+            return true;
+        }
+
+        @Override
+        public void close(){ }
+    }
+}
@@ -1,12 +1,20 @@
 package com.xd.cps2002.map;
 
 import com.xd.cps2002.player.Position;
+import com.xd.cps2002.util.SplittableRandomSource;
 import org.junit.After;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Stack;
+
 import static org.junit.Assert.*;
 
 /**
@@ -219,6 +227,100 @@ public class BasicMapTest {
         basicMap = new BasicMap(size);
     }
 
+    @Test
+    public void BasicMap_setsMapSize_IfGivenAMapSizeAbove50InLargeMapMode() {
+        // Try to initialize the map in large-map mode with a size above the standard maximum
+        int size = 51;
+        basicMap = new BasicMap(size, true);
+
+        // Check that the map size and mode were set correctly
+        assertEquals(size, basicMap.getSize());
+        assertTrue(basicMap.isLargeMap());
+    }
+
+    @Test
+    public void BasicMap_throwsIllegalArgumentException_IfGivenMapSizeIsTooBigInLargeMapMode() {
+        // Expect BasicMap to throw an IllegalArgumentException
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("BasicMap was initialized with an invalid size argument.");
+
+        // Try to initialize the map in large-map mode with a size above the valid size range
+        int size = Map.MAX_LARGE_SIZE + 1;
+        basicMap = new BasicMap(size, true);
+    }
+
+    @Test
+    public void isPlayable_marksEveryTileButTheTreasureAsWinnable_forALargeMapWithOnlyGrassTiles() {
+        // Create a new empty 300 x 300 map in large-map mode without any water tiles
+        int size = 300;
+        basicMap = new BasicMap(size, true);
+        basicMap.setWaterTilePercentage(0, 0);
+        basicMap.generate();
+
+        // Check that the map is 100% playable
+        basicMap.setMinPlayableTilesPercentage(100);
+        assertTrue(basicMap.isPlayable());
+
+        // Check that every tile except the treasure tile is winnable
+        for(int i = 0; i < size; i++) {
+            for(int j = 0; j < size; j++) {
+                Position position = new Position(i, j);
+                assertEquals(!position.equals(basicMap.treasurePos), basicMap.isPositionWinnable(position));
+            }
+        }
+    }
+
+    /*
+     * The tests below are scaled-down versions of the checks in LargeMapBenchmark, such that large-map mode is covered
+     * by the default test run.
+     */
+
+    @Test
+    public void generate_keepsMemoryUsageBelow1BytePerTile_forA2000x2000Map() {
+        long before = usedMemory();
+
+        // Create a new 2,000 x 2,000 "safe" map in large-map mode
+        int size = 2000;
+        basicMap = new BasicMap(size, true);
+        basicMap.setWaterTilePercentage(0, 10);
+        basicMap.generate();
+        basicMap.isPlayable();
+
+        // The map stores 3 bits per tile, hence a byte per tile leaves plenty of room for the garbage collector's noise
+        long retained = usedMemory() - before;
+        assertTrue(retained < (long) size * size);
+    }
+
+    @Test
+    public void generateAndIsPlayable_giveAPlayableMapWithinTheWaterRangeInBoundedTime_forAHazardous2000x2000Map() {
+        // Create a new 2,000 x 2,000 "hazardous" map in large-map mode
+        int size = 2000;
+        basicMap = new BasicMap(size, true);
+        basicMap.setWaterTilePercentage(25, 35);
+        basicMap.setMinPlayableTilesPercentage(60);
+
+        long start = System.nanoTime();
+        do {
+            basicMap.generate();
+        } while(!basicMap.isPlayable());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Check that the percentage of water tiles is within the set range
+        long waterTiles = 0;
+        for(int x = 0; x < size; x++) {
+            for(int y = 0; y < size; y++) {
+                if(basicMap.getTileType(x, y) == TileType.Water) {
+                    waterTiles++;
+                }
+            }
+        }
+        double waterPercentage = 100.0 * waterTiles / ((long) size * size);
+        assertTrue(waterPercentage >= 25 && waterPercentage <= 35);
+
+        // A 20,000 x 20,000 map takes well under two minutes, hence this map should take well under 30 seconds
+        assertTrue(elapsedMillis < 30_000);
+    }
+
     /*
      * The tests below test the version of getTileType which takes individual x and y coordinates.
      */
@@ -320,6 +422,40 @@ public class BasicMapTest {
         basicMap.getTileType(pos);
     }
 
+    /*
+     * The tests below test the versions of getTileType and isValidPosition which take packed coordinates.
+     */
+
+    @Test
+    public void getTileTypePacked_returnsCorrectTileType_ifTileExists() {
+        // Get each tile in the map using getTileType and make sure the type matches that of the pre-generated tiles
+        for(int i = 0; i < defaultSize; i++) {
+            for(int j = 0; j < defaultSize; j++) {
+                assertEquals(defaultTiles[i][j], basicMap.getTileType(Position.pack(i,j)));
+            }
+        }
+    }
+
+    @Test
+    public void getTileTypePacked_throwsIllegalArgumentException_IfGivenPositionIsInvalid() {
+        // Expect getTileType to throw an IllegalArgumentException
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Given tile position is not valid.");
+
+        // Try to get a tile from a position which does not exist in the map
+        basicMap.getTileType(Position.pack(-2,5));
+    }
+
+    @Test
+    public void isValidPositionPacked_givesTheSameResultAsIsValidPositionXY() {
+        // Check positions inside and around the 5x5 map, including negative coordinates
+        for(int x = -2; x < defaultSize + 2; x++) {
+            for(int y = -2; y < defaultSize + 2; y++) {
+                assertEquals(basicMap.isValidPosition(x,y), basicMap.isValidPosition(Position.pack(x,y)));
+            }
+        }
+    }
+
     /*
      * The tests below test the version of isValidPosition which takes individual x and y coordinates.
      */
@@ -632,8 +768,8 @@ public class BasicMapTest {
      * This unit test is meant to show that map generate still works in the absolute worst case: when you have a 5 x 5
      * sized map and want to have 64% of the tiles in the map be water tiles. Even with the restriction that water tiles
      * cannot be placed next to the treasure tile, this case should always work. However, if the user could set the
-     * percentage to even 1% higher, the function might deadlock since it may not have enough space to place the
-     * remaining tile (assuming that 9 tiles are taken up by the treasure tile and its adjacent tiles).
+     * percentage to even 1% higher, there might not be enough space to place the remaining tile (assuming that 9 tiles
+     * are taken up by the treasure tile and its adjacent tiles).
      */
     @Test
     public void generate_generatesCorrectNumberOfWaterTiles_whenPercentagesHaveBeenSetToMaximumInASmallMap() {
@@ -662,6 +798,102 @@ public class BasicMapTest {
         assertEquals(0.64, actualRatio, 0.01);
     }
 
+    @Test
+    public void generate_alwaysGeneratesAPlayableMapWithTheRightNumberOfWaterTiles_ifAlwaysPlayableIsSet() {
+        Random r = new Random(2002);
+
+        for(int n = 0; n < 200; n++) {
+            // Create a new "hazardous" map of a random size which is always playable
+            int size = 5 + r.nextInt(46);
+            basicMap = new BasicMap(size);
+            basicMap.setWaterTilePercentage(25, 35);
+            basicMap.setMinPlayableTilesPercentage(60);
+            basicMap.setAlwaysPlayable(true);
+
+            basicMap.generate();
+
+            // Check that the map is playable the first time it is generated
+            assertTrue(basicMap.isPlayable());
+
+            // Check that every tile which is not a water tile can reach the treasure, and count the water tiles
+            int waterCount = 0;
+            for(int x = 0; x < size; x++) {
+                for(int y = 0; y < size; y++) {
+                    TileType tile = basicMap.getTileType(x, y);
+                    if(tile == TileType.Water) waterCount++;
+                    else if(tile == TileType.Grass) assertTrue(basicMap.isPositionWinnable(new Position(x, y)));
+                }
+            }
+
+            // Check that the number of water tiles is within the percentages set
+            assertTrue(waterCount >= Math.ceil(size * size * 0.25));
+            assertTrue(waterCount <= Math.ceil(size * size * 0.35));
+        }
+    }
+
+    @Test
+    public void generate_placesFewerWaterTiles_ifAlwaysPlayableIsSetAndThereWouldBeTooFewPlayableTiles() {
+        // Create a new 20 x 20 tile map with 64% water tiles, where 50% of the tiles need to be playable
+        int size = 20;
+        basicMap = new BasicMap(size);
+        basicMap.setWaterTilePercentage(64, 64);
+        basicMap.setMinPlayableTilesPercentage(50);
+        basicMap.setAlwaysPlayable(true);
+
+        for(int n = 0; n < 50; n++) {
+            basicMap.generate();
+
+            // Check that the map is still playable
+            assertTrue(basicMap.isPlayable());
+        }
+    }
+
+    @Test
+    public void generate_generatesTheSameTiles_ifGivenSourcesOfRandomNumbersWithTheSameSeed() {
+        // Create two "hazardous" 30 x 30 tile maps, each with a source of random numbers created from the same seed
+        int size = 30;
+        BasicMap first = new BasicMap(size);
+        BasicMap second = new BasicMap(size);
+        for(BasicMap map : new BasicMap[]{first, second}) {
+            map.setWaterTilePercentage(25, 35);
+            map.setRandomSource(new SplittableRandomSource(2002));
+        }
+
+        // Generate both maps a few times, checking that they always have the same tiles
+        for(int n = 0; n < 5; n++) {
+            first.generate();
+            second.generate();
+
+            for(int x = 0; x < size; x++) {
+                for(int y = 0; y < size; y++) {
+                    assertEquals(first.getTileType(x, y), second.getTileType(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void generate_placesWaterTilesEvenlyAcrossTheMap_whenCalledRepeatedly() {
+        // Create a new empty 10 x 10 tile map with 30% water tiles
+        int size = 10;
+        basicMap = new BasicMap(size);
+        basicMap.setWaterTilePercentage(30, 30);
+
+        // Count the number of water tiles placed in the first and last rows over many generated maps
+        int firstRowWater = 0, lastRowWater = 0;
+        for(int n = 0; n < 1000; n++) {
+            basicMap.generate();
+            for(int x = 0; x < size; x++) {
+                if(basicMap.getTileType(x, 0) == TileType.Water) firstRowWater++;
+                if(basicMap.getTileType(x, size - 1) == TileType.Water) lastRowWater++;
+            }
+        }
+
+        // The tiles are visited in order when placing water tiles, so check that the first tiles are not favoured
+        // Note: each row is expected to hold about 3,000 water tiles in total, hence a 10% difference is very unlikely
+        assertEquals(firstRowWater, lastRowWater, 0.1 * (firstRowWater + lastRowWater) / 2);
+    }
+
     @Test
     public void setWaterTilePercentage_throwsIllegalArgumentException_ifMinimumPercentageIsNegative() {
         // Expect the unit test to throw an IllegalArgumentException
@@ -928,6 +1160,334 @@ public class BasicMapTest {
         assertTrue(basicMap.isPlayable());
     }
 
+    /**
+     * This unit test checks that the breadth first search over tile indices carried out by {@link BasicMap#isPlayable()}
+     * marks exactly the same winnable tiles as the original depth first search over {@link Position} objects, which is
+     * re-implemented in {@link BasicMapTest#referenceWinnableTiles(TileType[][], Position)}.
+     */
+    @Test
+    public void isPlayable_marksTheSameWinnableTilesAsADepthFirstSearch_forRandomMaps() {
+        Random r = new Random(2002);
+
+        for(int n = 0; n < 200; n++) {
+            // Create a random map with a random size and between 0% and 60% water tiles
+            int size = 5 + r.nextInt(46);
+            double waterRatio = r.nextDouble() * 0.6;
+            TileType[][] tiles = new TileType[size][size];
+            for(int i = 0; i < size; i++) {
+                for(int j = 0; j < size; j++) {
+                    tiles[i][j] = (r.nextDouble() < waterRatio) ? TileType.Water : TileType.Grass;
+                }
+            }
+            Position treasurePos = new Position(r.nextInt(size), r.nextInt(size));
+            tiles[treasurePos.x][treasurePos.y] = TileType.Treasure;
+
+            basicMap = new BasicMap(tiles);
+            basicMap.isPlayable();
+
+            // Check that every tile is winnable if and only if it is winnable according to the reference search
+            boolean[][] expected = referenceWinnableTiles(tiles, treasurePos);
+            for(int i = 0; i < size; i++) {
+                for(int j = 0; j < size; j++) {
+                    assertEquals(expected[i][j], basicMap.isPositionWinnable(new Position(i, j)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void getTreasureDistance_givesTheLengthOfTheShortestWalkToTheTreasure_forRandomMaps() {
+        Random r = new Random(2010);
+
+        for(int n = 0; n < 100; n++) {
+            // Create a random map with a random size and between 0% and 50% water tiles
+            int size = 5 + r.nextInt(26);
+            double waterRatio = r.nextDouble() * 0.5;
+            TileType[][] tiles = new TileType[size][size];
+            for(int i = 0; i < size; i++) {
+                for(int j = 0; j < size; j++) {
+                    tiles[i][j] = (r.nextDouble() < waterRatio) ? TileType.Water : TileType.Grass;
+                }
+            }
+            Position treasurePos = new Position(r.nextInt(size), r.nextInt(size));
+            tiles[treasurePos.x][treasurePos.y] = TileType.Treasure;
+
+            basicMap = new BasicMap(tiles);
+            basicMap.isPlayable();
+
+            // Check the distance of every tile against the distances found by the reference
+            int[][] expected = referenceTreasureDistances(tiles, treasurePos);
+            for(int i = 0; i < size; i++) {
+                for(int j = 0; j < size; j++) {
+                    assertEquals(expected[i][j], basicMap.getTreasureDistance(i, j));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void getTreasureDistance_throwsNullPointerException_ifIsPlayableHasNotBeenRunYet() {
+        // Expect the function to throw a NullPointerException
+        expectedException.expect(NullPointerException.class);
+        expectedException.expectMessage("The isPlayable function must be run with treasure distances enabled " +
+                "before getTreasureDistance.");
+
+        // Generate a new 10 x 10 map without checking it
+        basicMap = new BasicMap(10);
+        basicMap.generate();
+
+        basicMap.getTreasureDistance(0, 0);
+    }
+
+    @Test
+    public void getTreasureDistance_throwsNullPointerException_ifDistancesAreNotEnabledInLargeMapMode() {
+        // Create a new 60 x 60 tile map in large-map mode, where the distances are not computed by default
+        basicMap = new BasicMap(60, true);
+        assertFalse(basicMap.isTreasureDistancesEnabled());
+        basicMap.generate();
+        basicMap.isPlayable();
+
+        // Expect the function to throw a NullPointerException
+        expectedException.expect(NullPointerException.class);
+
+        basicMap.getTreasureDistance(0, 0);
+    }
+
+    /**
+     * Helper function used to find the distance of each tile from the treasure tile, by repeatedly setting the distance
+     * of each tile to one more than the smallest distance of its neighbours until no distance changes. This is used as
+     * a reference to check the distances found by {@link BasicMap#isPlayable()}.
+     * @param tiles the tiles of the map.
+     * @param treasurePos the position of the treasure tile.
+     * @return the distance of each tile from the treasure tile, or -1 if the treasure tile cannot be reached.
+     */
+    private static int[][] referenceTreasureDistances(TileType[][] tiles, Position treasurePos) {
+        int size = tiles.length;
+        int[][] distances = new int[size][size];
+        for(int[] column : distances) {
+            Arrays.fill(column, Integer.MAX_VALUE);
+        }
+        distances[treasurePos.x][treasurePos.y] = 0;
+
+        boolean changed = true;
+        while(changed) {
+            changed = false;
+            for(int x = 0; x < size; x++) {
+                for(int y = 0; y < size; y++) {
+                    if(tiles[x][y] == TileType.Water || (x == treasurePos.x && y == treasurePos.y)) continue;
+
+                    int[][] offsets = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+                    for(int[] offset : offsets) {
+                        int nx = x + offset[0], ny = y + offset[1];
+                        if(nx >= 0 && nx < size && ny >= 0 && ny < size && distances[nx][ny] != Integer.MAX_VALUE
+                                && distances[nx][ny] + 1 < distances[x][y]) {
+                            distances[x][y] = distances[nx][ny] + 1;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        for(int[] column : distances) {
+            for(int y = 0; y < size; y++) {
+                if(column[y] == Integer.MAX_VALUE) column[y] = -1;
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * This unit test checks that labelling the components of a map in parallel gives exactly the same result and the
+     * same winnable tiles as searching the map from the treasure tile.
+     */
+    @Test
+    public void isPlayable_givesTheSameResult_whenLabellingTheMapInParallel() {
+        Random r = new Random(2020);
+
+        for(int n = 0; n < 200; n++) {
+            // Create a random map with a random size, between 0% and 60% water tiles, and a random minimum percentage
+            int size = 5 + r.nextInt(46);
+            double waterRatio = r.nextDouble() * 0.6;
+            TileType[][] tiles = new TileType[size][size];
+            for(int i = 0; i < size; i++) {
+                for(int j = 0; j < size; j++) {
+                    tiles[i][j] = (r.nextDouble() < waterRatio) ? TileType.Water : TileType.Grass;
+                }
+            }
+            tiles[r.nextInt(size)][r.nextInt(size)] = TileType.Treasure;
+            int minPlayableTilesPercentage = 1 + r.nextInt(100);
+
+            // Check the map using a search
+            BasicMap searchedMap = new BasicMap(tiles);
+            searchedMap.setParallelLabelling(false);
+            searchedMap.setMinPlayableTilesPercentage(minPlayableTilesPercentage);
+
+            // Check the map by labelling it in parallel
+            BasicMap labelledMap = new BasicMap(tiles);
+            labelledMap.setParallelLabelling(true);
+            labelledMap.setMinPlayableTilesPercentage(minPlayableTilesPercentage);
+
+            assertEquals(searchedMap.isPlayable(), labelledMap.isPlayable());
+            for(int i = 0; i < size; i++) {
+                for(int j = 0; j < size; j++) {
+                    Position position = new Position(i, j);
+                    assertEquals(searchedMap.isPositionWinnable(position), labelledMap.isPositionWinnable(position));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void isPlayable_dropsTheComponentLabels_whenLabellingTheMapInParallel() {
+        // Check the default map by labelling it in parallel
+        basicMap.setParallelLabelling(true);
+        basicMap.isPlayable();
+
+        // The labels take up an int per tile, hence they should not be kept once the winnable tiles are marked
+        assertNull(basicMap.componentIds);
+
+        // The labels should still be computed again when they are asked for
+        assertEquals(0, basicMap.getComponentId(0, 0));
+        assertNotNull(basicMap.componentIds);
+    }
+
+    @Test
+    public void getWinnableTileCount_countsTheWinnableTiles_whetherTheMapIsSearchedOrLabelled() {
+        Random r = new Random(2011);
+
+        for(int n = 0; n < 100; n++) {
+            // Create a random map with a random size and between 0% and 60% water tiles
+            int size = 5 + r.nextInt(46);
+            double waterRatio = r.nextDouble() * 0.6;
+            TileType[][] tiles = new TileType[size][size];
+            for(int i = 0; i < size; i++) {
+                for(int j = 0; j < size; j++) {
+                    tiles[i][j] = (r.nextDouble() < waterRatio) ? TileType.Water : TileType.Grass;
+                }
+            }
+            Position treasurePos = new Position(r.nextInt(size), r.nextInt(size));
+            tiles[treasurePos.x][treasurePos.y] = TileType.Treasure;
+
+            // Count the winnable tiles according to the reference search
+            boolean[][] expected = referenceWinnableTiles(tiles, treasurePos);
+            int expectedCount = 0;
+            for(int i = 0; i < size; i++) {
+                for(int j = 0; j < size; j++) {
+                    if(expected[i][j]) expectedCount++;
+                }
+            }
+
+            // Check the count both when the map is searched and when it is labelled in parallel
+            for(boolean parallelLabelling : new boolean[] {false, true}) {
+                basicMap = new BasicMap(tiles);
+                basicMap.setParallelLabelling(parallelLabelling);
+                basicMap.isPlayable();
+
+                assertEquals(expectedCount, basicMap.getWinnableTileCount());
+            }
+        }
+    }
+
+    @Test
+    public void getStartPositionSampler_drawsOnlyWinnableTiles_inLargeMapMode() {
+        // Create a new 60 x 60 tile map in large-map mode, where the winnable tiles are only collected on demand
+        basicMap = new BasicMap(60, true);
+        basicMap.setWaterTilePercentage(25, 35);
+        basicMap.generate();
+        basicMap.isPlayable();
+
+        // Draw every winnable tile, and check that each of them is actually winnable
+        StartPositionSampler sampler = basicMap.getStartPositionSampler(new SplittableRandomSource(60));
+        assertEquals(basicMap.getWinnableTileCount(), sampler.remaining());
+        while(sampler.hasNext()) {
+            assertTrue(basicMap.isPositionWinnable(sampler.next()));
+        }
+    }
+
+    @Test
+    public void getStartPositionSampler_throwsNullPointerException_ifIsPlayableHasNotBeenRunYet() {
+        // Expect the function to throw a NullPointerException
+        expectedException.expect(NullPointerException.class);
+        expectedException.expectMessage("The isPlayable function must be run before getStartPositionSampler.");
+
+        // Generate a new 10 x 10 map without checking it
+        basicMap = new BasicMap(10);
+        basicMap.generate();
+
+        basicMap.getStartPositionSampler(new SplittableRandomSource());
+    }
+
+    @Test
+    public void getComponentId_givesTilesTheSameLabel_ifAndOnlyIfTheyAreConnected() {
+        // The default tiles have alternating columns of grass and water tiles (the first index is the x-coordinate)
+        for(int i = 0; i < defaultSize; i++) {
+            for(int j = 0; j < defaultSize; j++) {
+                int expected = (i % 2 == 0) ? i : -1;
+                assertEquals(expected, basicMap.getComponentId(i, j));
+            }
+        }
+    }
+
+    /**
+     * This unit test checks that once {@link BasicMap#isPlayable()} has been run on a map, running it again does not
+     * allocate any memory. The test is skipped on JVMs which cannot measure the memory allocated by a thread.
+     */
+    @Test
+    public void isPlayable_doesNotAllocateMemory_whenCalledRepeatedly() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        long threadId = Thread.currentThread().getId();
+
+        // Create a new 50 x 50 map and check it a number of times, so that the queue grows to its final size
+        basicMap = new BasicMap(50);
+        basicMap.generate();
+        for(int i = 0; i < 1000; i++) {
+            basicMap.isPlayable();
+        }
+
+        // Measure the memory allocated while checking the map again
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for(int i = 0; i < 1000; i++) {
+            basicMap.isPlayable();
+        }
+        long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+        // Allow for a few bytes of noise from the measurement itself
+        assertTrue("isPlayable allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    /**
+     * Helper function implementing the original depth first search of {@link BasicMap#isPlayable()}, which is used as
+     * a reference to check the winnable tiles marked by the function.
+     * @param tiles 2D array of tiles of the map.
+     * @param treasurePos position of the treasure tile.
+     * @return a 2D array marking the tiles from which the treasure tile can be reached (excluding the treasure tile).
+     */
+    private static boolean[][] referenceWinnableTiles(TileType[][] tiles, Position treasurePos) {
+        int size = tiles.length;
+        boolean[][] winnable = new boolean[size][size];
+        Stack<Position> uncheckedPositions = new Stack<>();
+        uncheckedPositions.push(treasurePos);
+
+        while(!uncheckedPositions.empty()) {
+            Position currentPos = uncheckedPositions.pop();
+            int[][] offsets = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+            for(int[] offset : offsets) {
+                int x = currentPos.x + offset[0];
+                int y = currentPos.y + offset[1];
+                if(x >= 0 && x < size && y >= 0 && y < size && !winnable[x][y] && tiles[x][y] != TileType.Water) {
+                    winnable[x][y] = true;
+                    uncheckedPositions.push(new Position(x, y));
+                }
+            }
+        }
+
+        winnable[treasurePos.x][treasurePos.y] = false;
+        return winnable;
+    }
+
     @Test
     public void setMinPlayableTilesPercentage_throwsIllegalArgumentException_IfPercentageIsLessThan1() {
         // Expect the function to throw the IllegalArgumentException
@@ -1027,4 +1587,16 @@ public class BasicMapTest {
         Position pos = new Position(-6,7);
         basicMap.isPositionWinnable(pos);
     }
+
+    /**
+     * Helper function used to measure the heap memory in use after a garbage collection.
+     * @return the number of bytes in use.
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
 }
@@ -0,0 +1,127 @@
+package com.xd.cps2002.map;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains unit tests used to test the parallel {@link ComponentLabeller}.
+ */
+public class ComponentLabellerTest {
+
+    /**
+     * Fork/join pool with more threads than strips in the smaller test grids, so that strips are labelled concurrently
+     * even on a single core machine.
+     */
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @Test
+    public void label_labelsEachComponentWithItsFirstTile_whenGridIsSplitIntoSingleRowStrips() {
+        Random r = new Random(2002);
+
+        for(int n = 0; n < 100; n++) {
+            // Create a random grid with between 0% and 60% water tiles
+            int size = 5 + r.nextInt(60);
+            PackedTileGrid grid = randomGrid(size, r.nextDouble() * 0.6, r);
+
+            // Label the grid using strips of a single row, so that every pair of rows is merged across a border
+            int[] labels = new ComponentLabeller(grid, 4, 1).label(pool);
+
+            assertArrayEquals(referenceLabels(grid), labels);
+        }
+    }
+
+    @Test
+    public void label_givesTheSameLabels_regardlessOfTheNumberOfStrips() {
+        // Create a random 200 x 200 grid with 40% water tiles
+        PackedTileGrid grid = randomGrid(200, 0.4, new Random(7));
+
+        // Label the grid using different strip sizes
+        int[] expected = referenceLabels(grid);
+        for(int rows : new int[]{1, 3, 50, 200}) {
+            assertArrayEquals(expected, new ComponentLabeller(grid, 4, rows).label(pool));
+        }
+    }
+
+    @Test
+    public void label_labelsAWindingComponentWhichCrossesEveryStripBorderManyTimes() {
+        // Create a grid where the grass tiles form a single snake winding down the grid in columns
+        int size = 31;
+        PackedTileGrid grid = new PackedTileGrid(size);
+        for(int x = 0; x < size; x++) {
+            for(int y = 0; y < size; y++) {
+                boolean isWall = x % 2 == 1 && ((x / 2) % 2 == 0 ? y != size - 1 : y != 0);
+                grid.set(grid.index(x, y), isWall ? TileType.Water : TileType.Grass);
+            }
+        }
+
+        int[] labels = new ComponentLabeller(grid, 4, 2).label(pool);
+
+        // Check that all grass tiles belong to the component of the first tile
+        for(int idx = 0; idx < labels.length; idx++) {
+            int expected = (grid.code(idx) == PackedTileGrid.WATER) ? ComponentLabeller.WATER : 0;
+            assertEquals(expected, labels[idx]);
+        }
+    }
+
+    /**
+     * Helper function used to create a grid with randomly placed water tiles and a single treasure tile.
+     * @param size the size of the grid.
+     * @param waterRatio the probability of each tile being a water tile.
+     * @param r the random number generator used.
+     * @return the generated grid.
+     */
+    private static PackedTileGrid randomGrid(int size, double waterRatio, Random r) {
+        PackedTileGrid grid = new PackedTileGrid(size);
+        for(int idx = 0; idx < grid.tileCount(); idx++) {
+            grid.set(idx, (r.nextDouble() < waterRatio) ? TileType.Water : TileType.Grass);
+        }
+        grid.set(r.nextInt(grid.tileCount()), TileType.Treasure);
+        return grid;
+    }
+
+    /**
+     * Helper function used to label the components of a grid using a simple breadth first search from the first tile
+     * of each component, which is used as a reference to check the labels given by the labeller.
+     * @param grid the grid to be labelled.
+     * @return the label of each tile.
+     */
+    private static int[] referenceLabels(PackedTileGrid grid) {
+        int size = grid.size();
+        int[] labels = new int[grid.tileCount()];
+        boolean[] visited = new boolean[grid.tileCount()];
+
+        for(int first = 0; first < labels.length; first++) {
+            if(grid.code(first) == PackedTileGrid.WATER) {
+                labels[first] = ComponentLabeller.WATER;
+            }
+            else if(!visited[first]) {
+                ArrayDeque<Integer> queue = new ArrayDeque<>();
+                queue.add(first);
+                visited[first] = true;
+
+                while(!queue.isEmpty()) {
+                    int idx = queue.poll();
+                    labels[idx] = first;
+
+                    int x = idx % size, y = idx / size;
+                    int[][] neighbours = {{x - 1, y}, {x + 1, y}, {x, y - 1}, {x, y + 1}};
+                    for(int[] n : neighbours) {
+                        if(n[0] >= 0 && n[0] < size && n[1] >= 0 && n[1] < size) {
+                            int next = grid.index(n[0], n[1]);
+                            if(!visited[next] && grid.code(next) != PackedTileGrid.WATER) {
+                                visited[next] = true;
+                                queue.add(next);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return labels;
+    }
+}
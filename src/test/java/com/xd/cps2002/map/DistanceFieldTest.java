@@ -0,0 +1,48 @@
+package com.xd.cps2002.map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains unit tests used to test the {@link DistanceField} which stores the distance of each tile from the
+ * treasure tile.
+ */
+public class DistanceFieldTest {
+
+    @Test
+    public void DistanceField_storesDistancesInChars_onlyIfTheMapHasFewerThan65535Tiles() {
+        assertTrue(new DistanceField(255 * 255).isCompact());
+        assertFalse(new DistanceField(256 * 256).isCompact());
+    }
+
+    @Test
+    public void retainedBytes_countsTwoBytesPerTile_onlyIfTheDistancesAreCompact() {
+        assertEquals(2L * 255 * 255, new DistanceField(255 * 255).retainedBytes());
+        assertEquals(4L * 256 * 256, new DistanceField(256 * 256).retainedBytes());
+    }
+
+    @Test
+    public void get_returnsTheDistanceSet_upToTheLongestPossibleWalk() {
+        // The longest walk in a map with 65,025 tiles visits every tile, hence it is 65,024 moves long
+        DistanceField field = new DistanceField(255 * 255);
+        field.set(0, 0);
+        field.set(1, 255 * 255 - 1);
+
+        assertEquals(0, field.get(0));
+        assertEquals(255 * 255 - 1, field.get(1));
+    }
+
+    @Test
+    public void get_returnsUnreachable_forTilesWhichHaveNotBeenSetOrHaveBeenCleared() {
+        for(int tiles : new int[]{25, 300 * 300}) {
+            DistanceField field = new DistanceField(tiles);
+            field.set(3, 12);
+
+            assertEquals(DistanceField.UNREACHABLE, field.get(4));
+
+            field.clear();
+            assertEquals(DistanceField.UNREACHABLE, field.get(3));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.xd.cps2002.map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains unit tests used to test the primitive {@link IntQueue} used to traverse maps.
+ */
+public class IntQueueTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void poll_returnsValuesInFirstInFirstOutOrder_whenQueueWrapsAroundAndGrows() {
+        // Create a queue with the smallest capacity
+        IntQueue queue = new IntQueue(1);
+        int capacity = queue.capacity();
+
+        // Move the head of the queue away from the start of the buffer, so that adding values wraps around
+        for(int i = 0; i < capacity / 2; i++) {
+            queue.add(-1);
+            queue.poll();
+        }
+
+        // Add more values than the initial capacity, forcing the queue to grow while wrapped around
+        int count = 3 * capacity;
+        for(int i = 0; i < count; i++) {
+            queue.add(i);
+        }
+
+        // Check that the values are returned in the same order that they were added
+        assertEquals(count, queue.size());
+        for(int i = 0; i < count; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void clear_keepsTheCapacityOfTheQueue_whenCalled() {
+        // Create a queue and grow it past its initial capacity
+        IntQueue queue = new IntQueue(16);
+        for(int i = 0; i < 100; i++) {
+            queue.add(i);
+        }
+        int capacity = queue.capacity();
+
+        queue.clear();
+
+        // Check that the queue is empty but still has the same buffer
+        assertTrue(queue.isEmpty());
+        assertEquals(capacity, queue.capacity());
+    }
+
+    @Test
+    public void poll_throwsIllegalStateException_ifQueueIsEmpty() {
+        // Expect poll to throw an IllegalStateException
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("Cannot poll an empty queue.");
+
+        new IntQueue(4).poll();
+    }
+}
@@ -0,0 +1,176 @@
+package com.xd.cps2002.map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains benchmarks which check that maps in large-map mode can be generated and checked for playability
+ * in linear time, within a bounded amount of memory. Since these benchmarks take a while to run and need a large heap,
+ * they are excluded from the default test run and can be run using {@code mvn test -P benchmarks}.
+ */
+public class LargeMapBenchmark {
+
+    /**
+     * Size of the largest map benchmarked (20,000 x 20,000 tiles).
+     */
+    private final int largeSize = 20000;
+
+    /**
+     * Upper bound on the time taken to generate the largest map and check that it is playable.
+     */
+    private final long maxLargeMapMillis = 120_000;
+
+    /**
+     * Map used in the benchmarks.
+     */
+    private BasicMap basicMap;
+
+    @After
+    public void teardown() {
+        // Remove the reference to the map, so that it can be garbage collected between benchmarks
+        basicMap = null;
+    }
+
+    @Test
+    public void generate_keepsMemoryUsageBelow4BitsPerTile_forA20000x20000Map() {
+        long before = usedMemory();
+
+        // Create a new 20,000 x 20,000 "safe" map in large-map mode
+        basicMap = new BasicMap(largeSize, true);
+        basicMap.setWaterTilePercentage(0, 10);
+        basicMap.generate();
+        basicMap.isPlayable();
+
+        long retained = usedMemory() - before;
+        long tiles = (long) largeSize * largeSize;
+        System.out.println("[LargeMapBenchmark] " + largeSize + "x" + largeSize + " map retains " +
+                (retained >> 20) + "MB (" + String.format("%.2f", retained * 8.0 / tiles) + " bits per tile)");
+
+        // The map stores 3 bits per tile, hence it should retain well below 4 bits (half a byte) per tile
+        assertTrue(retained < tiles / 2);
+    }
+
+    @Test
+    public void generateAndIsPlayable_finishInBoundedTime_forA20000x20000Map() {
+        // Create a new 20,000 x 20,000 "hazardous" map in large-map mode
+        basicMap = new BasicMap(largeSize, true);
+        basicMap.setWaterTilePercentage(25, 35);
+        basicMap.setMinPlayableTilesPercentage(60);
+
+        long start = System.nanoTime();
+        basicMap.generate();
+        long generated = System.nanoTime();
+        basicMap.isPlayable();
+        long checked = System.nanoTime();
+
+        System.out.println("[LargeMapBenchmark] " + largeSize + "x" + largeSize + " map generated in " +
+                (generated - start) / 1_000_000 + "ms and checked in " + (checked - generated) / 1_000_000 + "ms");
+
+        assertTrue((checked - start) / 1_000_000 < maxLargeMapMillis);
+    }
+
+    @Test
+    public void generateAndIsPlayable_scaleRoughlyLinearly_withTheNumberOfTiles() {
+        // Warm up the JIT compiler on a medium-sized map first
+        nanosPerTile(2000);
+
+        // Compare the time taken per tile for a small and a large map
+        double small = nanosPerTile(2500);
+        double large = nanosPerTile(10000);
+
+        System.out.println("[LargeMapBenchmark] " + String.format("%.2f", small) + "ns per tile at 2500x2500, " +
+                String.format("%.2f", large) + "ns per tile at 10000x10000");
+
+        // The large map has 16 times as many tiles, so a quadratic algorithm would take far more time per tile
+        assertTrue(large < 4 * small);
+    }
+
+    @Test
+    public void generate_givesAPlayableMapInASinglePass_forAHazardous8000x8000MapWhichIsAlwaysPlayable() {
+        // Create a new 8,000 x 8,000 "hazardous" map in large-map mode, which is always playable
+        int size = 8000;
+        basicMap = new BasicMap(size, true);
+        basicMap.setWaterTilePercentage(25, 35);
+        basicMap.setMinPlayableTilesPercentage(60);
+        basicMap.setAlwaysPlayable(true);
+
+        long start = System.nanoTime();
+        basicMap.generate();
+        long generated = System.nanoTime();
+        boolean playable = basicMap.isPlayable();
+        long checked = System.nanoTime();
+
+        System.out.println("[LargeMapBenchmark] " + size + "x" + size + " always playable map generated in " +
+                (generated - start) / 1_000_000 + "ms and checked in " + (checked - generated) / 1_000_000 + "ms");
+
+        // The map should never need to be generated again
+        assertTrue(playable);
+    }
+
+    @Test
+    public void isPlayable_labellingInParallel_isFasterThanSearchingOnSeveralCores_forAn8000x8000Map() {
+        // Create a new 8,000 x 8,000 "hazardous" map in large-map mode
+        int size = 8000;
+        basicMap = new BasicMap(size, true);
+        basicMap.setWaterTilePercentage(25, 35);
+        basicMap.setMinPlayableTilesPercentage(60);
+        basicMap.generate();
+
+        // Warm up both ways of checking the map, then time each of them
+        basicMap.setParallelLabelling(false);
+        basicMap.isPlayable();
+        long searchStart = System.nanoTime();
+        boolean searched = basicMap.isPlayable();
+        long searchMillis = (System.nanoTime() - searchStart) / 1_000_000;
+
+        basicMap.setParallelLabelling(true);
+        basicMap.isPlayable();
+        long labelStart = System.nanoTime();
+        boolean labelled = basicMap.isPlayable();
+        long labelMillis = (System.nanoTime() - labelStart) / 1_000_000;
+
+        int cores = ForkJoinPool.getCommonPoolParallelism();
+        System.out.println("[LargeMapBenchmark] " + size + "x" + size + " map searched in " + searchMillis +
+                "ms and labelled in " + labelMillis + "ms using " + cores + " core(s)");
+
+        assertEquals(searched, labelled);
+        // Labelling does more work per tile, so it is only expected to be faster when there are several cores
+        if(cores >= 4) {
+            assertTrue(labelMillis < searchMillis);
+        }
+    }
+
+    /**
+     * Helper function used to time the generation and playability check of a "safe" map.
+     * @param size size of the map.
+     * @return the average time taken per tile, in nanoseconds.
+     */
+    private double nanosPerTile(int size) {
+        basicMap = new BasicMap(size, true);
+        basicMap.setWaterTilePercentage(0, 10);
+
+        long start = System.nanoTime();
+        basicMap.generate();
+        basicMap.isPlayable();
+        long elapsed = System.nanoTime() - start;
+
+        basicMap = null;
+        return elapsed / ((double) size * size);
+    }
+
+    /**
+     * Helper function used to measure the heap memory in use after a garbage collection.
+     * @return the number of bytes in use.
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,171 @@
+package com.xd.cps2002.map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains unit tests used to test the cache of maps created from a seed, {@link MapCache}.
+ */
+public class MapCacheTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void get_evictsTheLeastRecentlyUsedMap_whenTheCacheHoldsTooManyMaps() {
+        MapCache cache = new MapCache(2, 10_000);
+
+        // Fill the cache, then use the first map again so that the second one is the least recently used
+        Map first = cache.get("safe", 8, 1L);
+        Map second = cache.get("safe", 8, 2L);
+        cache.get("safe", 8, 1L);
+
+        // Add a third map, which should evict the second one
+        cache.get("safe", 8, 3L);
+
+        assertEquals(2, cache.getCachedMapCount());
+        assertEquals(1, cache.getEvictions());
+        assertSame(first, cache.get("safe", 8, 1L));
+        assertNotSame(second, cache.get("safe", 8, 2L));
+    }
+
+    @Test
+    public void get_evictsMaps_whenTheCacheRetainsTooManyBytes() {
+        // Create a cache which can only hold the 10 x 10 and the 5 x 5 maps
+        MapCache cache = new MapCache(10, retainedBytes(10) + retainedBytes(5));
+
+        cache.get("safe", 10, 1L);
+        cache.get("safe", 5, 1L);
+        cache.get("safe", 6, 1L);
+
+        // The 10 x 10 map should have been evicted to make room for the 6 x 6 map
+        assertEquals(2, cache.getCachedMapCount());
+        assertEquals(retainedBytes(5) + retainedBytes(6), cache.getCachedBytes());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void get_doesNotCacheMaps_whichRetainMoreBytesThanTheLimit() {
+        MapCache cache = new MapCache(10, retainedBytes(10) - 1);
+
+        // Create a map which retains more bytes than the cache can hold
+        Map map = cache.get("hazardous", 10, 1L);
+
+        assertTrue(map.isFrozen());
+        assertEquals(0, cache.getCachedMapCount());
+        assertEquals(0, cache.getCachedBytes());
+    }
+
+    @Test
+    public void get_chargesTheComponentLabelsOfEachMap_beforeTheyAreComputed() {
+        MapCache cache = new MapCache(10, 1_000_000);
+        Map map = cache.get("safe", 20, 1L);
+        long cachedBytes = cache.getCachedBytes();
+
+        // Compute the component labels of the cached map, which are kept by the map from then on
+        map.getComponentIds();
+
+        // Check that the bytes charged already covered the labels, so that the map does not grow past them
+        assertEquals(map.retainedBytes(), cachedBytes);
+        assertTrue(cachedBytes >= 4L * 20 * 20);
+    }
+
+    @Test
+    public void get_chargesTheWinnableTilesOfEachLargeMap_beforeTheyAreCollected() {
+        MapCache cache = new MapCache(10, 1_000_000);
+        Map map = cache.get("safe", 60, true, 1L);
+        long cachedBytes = cache.getCachedBytes();
+
+        // Collect the winnable tiles of the cached map, which are only collected on demand in large-map mode
+        map.getWinnableTileCount();
+
+        // Check that the bytes charged already covered the winnable tiles
+        assertTrue(map.retainedBytes() <= cachedBytes);
+    }
+
+    @Test
+    public void get_keepsMapsInLargeMapModeApart_fromOtherMapsWithTheSameSeed() {
+        MapCache cache = new MapCache(10, 1_000_000);
+
+        Map map = cache.get("safe", 8, 1L);
+        Map largeMap = cache.get("safe", 8, true, 1L);
+
+        assertNotSame(map, largeMap);
+        assertTrue(largeMap.isLargeMap());
+        assertEquals(2, cache.getCachedMapCount());
+    }
+
+    @Test
+    public void get_generatesEachMapOnlyOnce_whenCalledByManyThreadsAtOnce() throws Exception {
+        MapCache cache = new MapCache(4, 1_000_000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            // Ask for the same map from many threads at once
+            List<Callable<Map>> tasks = new ArrayList<>();
+            for(int i = 0; i < 32; i++) {
+                tasks.add(() -> cache.get("hazardous", 40, 99L));
+            }
+            List<Future<Map>> maps = executor.invokeAll(tasks);
+
+            // Check that every thread got the same map
+            Map first = maps.get(0).get();
+            for(Future<Map> map : maps) {
+                assertSame(first, map.get());
+            }
+            assertEquals(1, cache.getCachedMapCount());
+            assertEquals(32, cache.getHits() + cache.getMisses());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void get_throwsIllegalArgumentException_ifMapSizeIsInvalid() {
+        // Expect the method to throw an IllegalArgumentException
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid map size.");
+
+        new MapCache(4, 10_000).get("safe", 4, 1L);
+    }
+
+    @Test
+    public void get_throwsIllegalArgumentException_ifSizeIsAboveMaxSizeWithoutLargeMapMode() {
+        // Expect the method to throw an IllegalArgumentException
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid map size.");
+
+        new MapCache(4, 1_000_000).get("safe", Map.MAX_SIZE + 1, 1L);
+    }
+
+    @Test
+    public void MapCache_throwsIllegalArgumentException_ifALimitIsNegative() {
+        // Expect the constructor to throw an IllegalArgumentException
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid map cache configuration.");
+
+        new MapCache(-1, 10_000);
+    }
+
+    /**
+     * Helper function used to get the number of bytes charged by the cache for a frozen "safe" map of a given size.
+     * @param size the size of the map.
+     * @return the number of bytes retained by the map.
+     */
+    private static long retainedBytes(int size) {
+        Map map = MapCreator.generateMap("safe", size, false, 1L);
+        map.freeze();
+        return map.retainedBytes();
+    }
+}
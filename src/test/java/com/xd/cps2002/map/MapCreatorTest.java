@@ -1,5 +1,6 @@
 package com.xd.cps2002.map;
 
+import com.xd.cps2002.player.Position;
 import org.junit.*;
 import org.junit.rules.ExpectedException;
 
@@ -23,23 +24,20 @@ public class MapCreatorTest {
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
 
-    @Before
-    public void setup() {
-        // Reset the singleton instance in "MapCreator" to null before each test
-        MapCreator.instance = null;
-    }
-
     /**
-     * This teardown method is important to avoid the static map instances created in these tests from interfering with
-     * the unit tests of other classes. This is important since most unit tests assume that "MapCreator" will always
-     * return the map instance that they requested. However, this may not be the case if the unit tests are not run in
-     * in order; for example, if a unit test from {@link com.xd.cps2002.game.HTMLGeneratorTest} is run right after one
-     * of the tests in this class.
+     * This teardown method stops the {@link MapPool} and restores the default {@link MapCache} if they were changed in
+     * a test, to avoid them from interfering with the other tests which create maps using "MapCreator".
      */
     @After
     public void teardown() {
-        // Reset the singleton instance in "MapCreator" to null after each test
-        MapCreator.instance = null;
+        // Stop using a pool of maps if one was set in the test
+        if(MapCreator.getMapPool() != null) {
+            MapCreator.getMapPool().shutdown();
+            MapCreator.setMapPool(null);
+        }
+
+        // Restore an empty cache with the default limits
+        MapCreator.setMapCache(new MapCache(MapCreator.DEFAULT_CACHED_MAPS, MapCreator.DEFAULT_CACHED_BYTES));
     }
 
     /* Generic tests used to test version of the "createMap" function which take map size as an argument. The map types
@@ -71,7 +69,27 @@ public class MapCreatorTest {
     }
 
     @Test
-    public void createMapOfSize_returnsSameInstance_ifCalledTwice() {
+    public void createMapOfSize_throwsIllegalArgumentException_ifSizeIsAboveMaxSizeWithoutLargeMapMode() {
+        // Expect the method to throw an IllegalArgumentException
+        expectedException.expect(IllegalArgumentException.class);
+
+        // Create a "safe" map larger than the maximum size without enabling large-map mode
+        createMap("safe", Map.MAX_SIZE + 1);
+    }
+
+    @Test
+    public void createMapOfSize_returnsLargeMap_ifLargeMapModeIsEnabled() {
+        // Create a "safe" map larger than the maximum size in large-map mode
+        int size = Map.MAX_SIZE + 1;
+        Map map = createMap("safe", size, true);
+
+        // Check that the created map is in large-map mode and has the specified size
+        assertTrue(map.isLargeMap());
+        assertEquals(size, map.getSize());
+    }
+
+    @Test
+    public void createMapOfSize_returnsDifferentInstances_ifCalledTwice() {
         // Create "safe" map objects of size 12 using "MapCreator"
         int size = 12;
 
@@ -79,8 +97,93 @@ public class MapCreatorTest {
         Map firstMap = createMap("safe", size);
         Map secondMap = createMap("safe", size);
 
-        // Check that the two map instances are actually the same
+        // Check that each call created a map of its own
+        assertNotSame(firstMap, secondMap);
+    }
+
+    @Test
+    public void createMapOfSize_returnsMapsOfTheRequestedTypeAndSize_whenCalledWithDifferentArguments() {
+        // Create maps of different types and sizes one after the other
+        Map safeMap = createMap("safe", 6);
+        Map hazardousMap = createMap("hazardous", 20);
+
+        // Check that each map has the size that was asked for, rather than that of the first map created
+        assertEquals(6, safeMap.getSize());
+        assertEquals(20, hazardousMap.getSize());
+    }
+
+    /* Tests for the version of the "createMap" function which takes a seed as an argument */
+
+    @Test
+    public void createMapWithSeed_returnsTheSameFrozenInstance_ifCalledTwiceWithTheSameSeed() {
+        // Create two "hazardous" maps of size 10 using the same seed
+        Map firstMap = createMap("hazardous", 10, 2002L);
+        Map secondMap = createMap("Hazardous", 10, 2002L);
+
+        // Check that the cached map is shared, and that it is frozen and playable
         assertSame(firstMap, secondMap);
+        assertTrue(firstMap.isFrozen());
+        assertTrue(firstMap.isPlayable());
+        assertEquals(1, MapCreator.getMapCache().getHits());
+        assertEquals(1, MapCreator.getMapCache().getMisses());
+    }
+
+    @Test
+    public void createMapWithSeed_returnsMapsWithTheSameTiles_ifTheSameSeedIsUsedAfterBeingEvicted() {
+        // Create a map from a seed, then clear the cache so that the same map has to be generated again
+        Map firstMap = createMap("hazardous", 15, 7L);
+        MapCreator.getMapCache().clear();
+        Map secondMap = createMap("hazardous", 15, 7L);
+
+        // Check that the maps are different objects with exactly the same tiles
+        assertNotSame(firstMap, secondMap);
+        for(int x = 0; x < 15; x++) {
+            for(int y = 0; y < 15; y++) {
+                assertEquals(firstMap.getTileType(x, y), secondMap.getTileType(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void createMapWithSeed_returnsDifferentMaps_ifGivenDifferentSeeds() {
+        // Create two "safe" maps of size 10 using different seeds
+        Map firstMap = createMap("safe", 10, 1L);
+        Map secondMap = createMap("safe", 10, 2L);
+
+        assertNotSame(firstMap, secondMap);
+        assertEquals(2, MapCreator.getMapCache().getCachedMapCount());
+    }
+
+    @Test
+    public void createMapWithSeed_throwsUnsupportedOperationException_ifTheSharedMapIsRegenerated() {
+        Map map = createMap("safe", 10, 1L);
+
+        // Expect the method to throw an UnsupportedOperationException
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("A frozen map cannot be changed.");
+
+        map.generate();
+    }
+
+    @Test
+    public void createMapOfSize_takesMapFromThePool_ifAMapPoolHasBeenSet() throws InterruptedException {
+        // Set a pool of maps and fill it with "safe" maps of size 10
+        MapPool pool = new MapPool(2, 0, 10_000, 1);
+        MapCreator.setMapPool(pool);
+        pool.prefill("safe", 10);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while(pool.getPooledMapCount("safe", 10) < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        // Create a "safe" map of size 10 using "MapCreator"
+        Map map = createMap("safe", 10);
+
+        // Check that the map was taken from the pool
+        assertEquals(10, map.getSize());
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getPooledMapCount("safe", 10));
     }
 
     /* Tests for the generation of "safe" maps */
@@ -199,6 +302,41 @@ public class MapCreatorTest {
         assertTrue(.25 <= actualRatio && actualRatio <= 0.35);
     }
 
+    @Test
+    public void createMapOfSize_doesNotKeepTheMapConnected_ifGivenMapTypeHazardous() {
+        // Create a "hazardous" map using "MapCreator"
+        BasicMap map = (BasicMap) createMap("hazardous", 10);
+
+        // Check that the water tiles of the map are placed freely, i.e. without keeping the rest of the map connected
+        assertFalse(map.isAlwaysPlayable());
+    }
+
+    @Test
+    public void createMapOfSize_makesEveryTileButWaterTilesWinnable_ifGivenMapTypeHazardousConnected() {
+        // Create a "hazardous-connected" map of size 20 using "MapCreator"
+        int size = 20;
+        BasicMap map = (BasicMap) createMap("Hazardous-Connected", size);
+        assertTrue(map.isAlwaysPlayable());
+
+        // Count the number of water tiles generated, and check that the player can win from every other tile
+        int waterCount = 0;
+        for(int i = 0; i < size; i++) {
+            for(int j = 0; j < size; j++) {
+                TileType tile = map.getTileType(i,j);
+                if(tile == TileType.Water) {
+                    waterCount++;
+                }
+                else if(tile != TileType.Treasure) {
+                    assertTrue(map.isPositionWinnable(new Position(i, j)));
+                }
+            }
+        }
+
+        // Check that the actual ratio of water tiles is in the range between 25% and 35%
+        double actualRatio = waterCount/((double) size * size);
+        assertTrue(.25 <= actualRatio && actualRatio <= 0.35);
+    }
+
     /* Tests for the version of the "createMap" function which take an array of tiles as an argument */
 
     @Test
@@ -243,13 +381,13 @@ public class MapCreatorTest {
     }
 
     @Test
-    public void createMapWithTiles_returnsSameInstance_ifCalledTwice() {
+    public void createMapWithTiles_returnsDifferentInstances_ifCalledTwice() {
         // Try to create two map instances with a pre-generated array of tiles
         Map firstMap = createMap("Basic", testTiles);
         Map secondMap = createMap("Basic", testTiles);
 
-        // Check that the two map instances are actually the same
-        assertSame(firstMap, secondMap);
+        // Check that each call created a map of its own
+        assertNotSame(firstMap, secondMap);
     }
 
     @Test
@@ -0,0 +1,192 @@
+package com.xd.cps2002.map;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains unit tests used to test the pool of pre-generated maps, {@link MapPool}.
+ */
+public class MapPoolTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    /**
+     * Pool used in the tests.
+     */
+    private MapPool pool;
+
+    @After
+    public void teardown() {
+        // Stop the worker threads of the pool used in the test
+        if(pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void take_generatesMapAndCountsAMiss_ifThePoolIsEmpty() {
+        pool = new MapPool(4, 1, 10_000, 1);
+
+        // Take a map before the pool has been filled
+        Map map = pool.take("Safe", 10);
+
+        // Check that a playable map of the right size was still returned
+        assertEquals(10, map.getSize());
+        assertTrue(map.isPlayable());
+        assertEquals(0, pool.getHits());
+        assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    public void take_returnsPooledMapsAndCountsHits_oncePoolHasBeenFilled() throws InterruptedException {
+        pool = new MapPool(4, 1, 10_000, 1);
+
+        // Fill the pool in the background and wait for it to be full
+        pool.prefill("hazardous", 12);
+        awaitPooledMaps("hazardous", 12, 4);
+
+        // Take a few maps, each of which should be a different map from the pool
+        Map first = pool.take("hazardous", 12);
+        Map second = pool.take("hazardous", 12);
+
+        assertNotSame(first, second);
+        assertEquals(12, first.getSize());
+        assertEquals(2, pool.getHits());
+        assertEquals(0, pool.getMisses());
+        assertEquals(1.0, pool.getHitRate(), 0);
+    }
+
+    @Test
+    public void take_refillsThePoolInTheBackground_onceItDropsToTheLowWatermark() throws InterruptedException {
+        pool = new MapPool(3, 1, 10_000, 1);
+        pool.prefill("safe", 8);
+        awaitPooledMaps("safe", 8, 3);
+
+        // Take maps until only the low watermark is left, which should start refilling the pool
+        pool.take("safe", 8);
+        pool.take("safe", 8);
+
+        // Check that the pool is filled back up to its capacity, and never above it
+        awaitPooledMaps("safe", 8, 3);
+        assertEquals(3, pool.getPooledMapCount("safe", 8));
+    }
+
+    @Test
+    public void take_releasesTheBytesRetainedByEachMap_onceItIsTakenFromThePool() throws InterruptedException {
+        pool = new MapPool(3, 0, 10_000, 1);
+        pool.prefill("safe", 8);
+        awaitPooledMaps("safe", 8, 3);
+
+        // Stop refilling the pool, then take every map from it
+        pool.shutdown();
+        long pooledBytes = pool.getPooledBytes();
+        long takenBytes = 0;
+        for(int i = 0; i < 3; i++) {
+            takenBytes += pool.take("safe", 8).retainedBytes();
+        }
+
+        // Check that the pool was charged the bytes retained by its maps, and that they were all released
+        assertEquals(pooledBytes, takenBytes);
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test
+    public void prefill_stopsFillingThePool_onceTheLimitOnPooledBytesIsReached() throws InterruptedException {
+        // Create a pool which can only hold about two and a half 10 x 10 maps, even though its capacity is higher
+        long mapBytes = MapCreator.generateMap("safe", 10, false).retainedBytes();
+        long maxPooledBytes = mapBytes * 5 / 2;
+        pool = new MapPool(5, 0, maxPooledBytes, 1);
+        pool.prefill("safe", 10);
+        awaitPooledMaps("safe", 10, 1);
+
+        // Give the worker some more time, then check that the pool stopped short of its capacity, within the limit
+        Thread.sleep(200);
+        assertTrue(pool.getPooledMapCount("safe", 10) < 5);
+        assertTrue(pool.getPooledBytes() <= maxPooledBytes);
+    }
+
+    @Test
+    public void take_keepsSeparatePools_forMapsInLargeMapMode() throws InterruptedException {
+        pool = new MapPool(2, 0, 10_000, 1);
+        pool.prefill("safe", 10, true);
+        awaitPooledMaps("safe", 10, true, 2);
+
+        // Check that the maps in large-map mode are not handed out for standard maps, and the other way round
+        assertEquals(0, pool.getPooledMapCount("safe", 10));
+        assertFalse(pool.take("safe", 10).isLargeMap());
+        assertTrue(pool.take("safe", 10, true).isLargeMap());
+        assertEquals(1, pool.getHits());
+    }
+
+    @Test
+    public void take_throwsIllegalArgumentException_ifSizeIsAboveMaxSizeWithoutLargeMapMode() {
+        pool = new MapPool(2, 0, 10_000, 1);
+
+        // Expect the method to throw an IllegalArgumentException
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid map size.");
+
+        pool.take("safe", Map.MAX_SIZE + 1);
+    }
+
+    @Test
+    public void take_throwsIllegalArgumentException_ifMapTypeDoesNotExist() {
+        pool = new MapPool(2, 0, 10_000, 1);
+
+        // Expect the method to throw an IllegalArgumentException
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid map type.");
+
+        pool.take("unknown", 10);
+    }
+
+    @Test
+    public void prefill_throwsIllegalArgumentException_ifMapSizeIsInvalid() {
+        pool = new MapPool(2, 0, 10_000, 1);
+
+        // Expect the method to throw an IllegalArgumentException
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid map size.");
+
+        pool.prefill("safe", 2);
+    }
+
+    @Test
+    public void MapPool_throwsIllegalArgumentException_ifLowWatermarkIsNotBelowCapacity() {
+        // Expect the constructor to throw an IllegalArgumentException
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid map pool configuration.");
+
+        pool = new MapPool(2, 2, 10_000, 1);
+    }
+
+    /**
+     * Helper function used to wait until the pool holds a given number of maps of a type and size.
+     * @param mapType the type of map.
+     * @param size the size of the map.
+     * @param count the number of maps to wait for.
+     */
+    private void awaitPooledMaps(String mapType, int size, int count) throws InterruptedException {
+        awaitPooledMaps(mapType, size, false, count);
+    }
+
+    /**
+     * Helper function used to wait until the pool holds a given number of maps of a type, size and mode.
+     * @param mapType the type of map.
+     * @param size the size of the map.
+     * @param largeMap true to wait for maps created in large-map mode.
+     * @param count the number of maps to wait for.
+     */
+    private void awaitPooledMaps(String mapType, int size, boolean largeMap, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while(pool.getPooledMapCount(mapType, size, largeMap) < count) {
+            assertTrue("Timed out waiting for the pool to be filled", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.xd.cps2002.map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains unit tests used to test the bit-packed {@link PackedTileGrid} storage engine used by {@link Map}.
+ */
+public class PackedTileGridTest {
+
+    @Test
+    public void PackedTileGrid_setsAllTilesToEmpty_whenCreated() {
+        // Create a new 7 x 7 grid (49 tiles, which do not fit in a whole number of words)
+        PackedTileGrid grid = new PackedTileGrid(7);
+
+        // Check that every tile is empty and not winnable
+        for(int idx = 0; idx < grid.tileCount(); idx++) {
+            assertEquals(PackedTileGrid.EMPTY, grid.code(idx));
+            assertNull(grid.get(idx));
+            assertFalse(grid.isWinnable(idx));
+        }
+    }
+
+    @Test
+    public void set_storesEachTileIndependently_whenNeighbouringTilesAreChanged() {
+        // Create a new 9 x 9 grid and set each tile to a type depending on its index
+        PackedTileGrid grid = new PackedTileGrid(9);
+        TileType[] types = TileType.values();
+        for(int idx = 0; idx < grid.tileCount(); idx++) {
+            grid.set(idx, types[idx % types.length]);
+        }
+
+        // Overwrite every other tile, which should not affect the tiles next to it in the same word
+        for(int idx = 0; idx < grid.tileCount(); idx += 2) {
+            grid.set(idx, TileType.Water);
+        }
+
+        // Check that each tile has the expected type
+        for(int idx = 0; idx < grid.tileCount(); idx++) {
+            TileType expected = (idx % 2 == 0) ? TileType.Water : types[idx % types.length];
+            assertEquals(expected, grid.get(idx));
+        }
+    }
+
+    @Test
+    public void index_matchesXAndYCoordinates_forEveryTile() {
+        // Create a new 6 x 6 grid
+        PackedTileGrid grid = new PackedTileGrid(6);
+
+        // Check that converting a coordinate to an index and back returns the same coordinate
+        for(int x = 0; x < 6; x++) {
+            for(int y = 0; y < 6; y++) {
+                int idx = grid.index(x, y);
+                assertEquals(x, grid.x(idx));
+                assertEquals(y, grid.y(idx));
+            }
+        }
+    }
+
+    @Test
+    public void fillEmptyWithGrass_onlyChangesEmptyTiles_whenCalled() {
+        // Create a new 11 x 11 grid with a treasure tile and a few water tiles
+        PackedTileGrid grid = new PackedTileGrid(11);
+        grid.set(0, TileType.Treasure);
+        grid.set(31, TileType.Water);
+        grid.set(32, TileType.Water);
+        grid.set(120, TileType.Water);
+
+        grid.fillEmptyWithGrass();
+
+        // Check that the tiles which were set are unchanged, and all others are now grass tiles
+        for(int idx = 0; idx < grid.tileCount(); idx++) {
+            TileType expected;
+            if(idx == 0) expected = TileType.Treasure;
+            else if(idx == 31 || idx == 32 || idx == 120) expected = TileType.Water;
+            else expected = TileType.Grass;
+
+            assertEquals(expected, grid.get(idx));
+        }
+    }
+
+    @Test
+    public void setWinnable_doesNotChangeTileTypes_whenCalled() {
+        // Create a new 8 x 8 grid made up of grass tiles
+        PackedTileGrid grid = new PackedTileGrid(8);
+        grid.fillEmptyWithGrass();
+
+        // Mark some of the tiles as winnable
+        grid.setWinnable(0);
+        grid.setWinnable(63);
+        grid.clearWinnable(0);
+
+        // Check that only tile 63 is winnable, and that all of the tiles are still grass tiles
+        for(int idx = 0; idx < grid.tileCount(); idx++) {
+            assertEquals(idx == 63, grid.isWinnable(idx));
+            assertEquals(TileType.Grass, grid.get(idx));
+        }
+
+        // Check that un-marking all tiles clears the winnable tile
+        grid.clearAllWinnable();
+        assertFalse(grid.isWinnable(63));
+    }
+}
@@ -0,0 +1,119 @@
+package com.xd.cps2002.map;
+
+import com.xd.cps2002.player.Position;
+import com.xd.cps2002.util.SplittableRandomSource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains unit tests used to test the sampler of start positions, {@link StartPositionSampler}.
+ */
+public class StartPositionSamplerTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    /**
+     * Map from which the start positions are drawn in the tests.
+     */
+    private Map map;
+
+    @Before
+    public void setup() {
+        // Create a 5 x 5 map where only the first column and the last row can reach the treasure tile at (0,0)
+        TileType[][] tiles = new TileType[5][5];
+        for(int i = 0; i < 5; i++) {
+            for(int j = 0; j < 5; j++) {
+                tiles[i][j] = (i == 0 || j == 4) ? TileType.Grass : TileType.Water;
+            }
+        }
+        tiles[0][0] = TileType.Treasure;
+
+        map = MapCreator.createMap("basic", tiles);
+        map.isPlayable();
+    }
+
+    @Test
+    public void next_drawsEveryWinnableTileExactlyOnce_untilNoTilesAreLeft() {
+        StartPositionSampler sampler = map.getStartPositionSampler(new SplittableRandomSource(1));
+
+        // The first column (apart from the treasure tile) and the last row give 4 + 4 winnable tiles
+        assertEquals(8, sampler.remaining());
+
+        // Draw every tile, checking that each of them is winnable and has not been drawn before
+        Set<Position> drawn = new HashSet<>();
+        while(sampler.hasNext()) {
+            Position position = sampler.next();
+            assertTrue(map.isPositionWinnable(position));
+            for(Position other : drawn) {
+                assertNotEquals(other, position);
+            }
+            drawn.add(position);
+        }
+
+        assertEquals(8, drawn.size());
+        assertEquals(0, sampler.remaining());
+    }
+
+    @Test
+    public void next_drawsEachWinnableTileAsTheFirstPosition_withRoughlyEqualProbability() {
+        SplittableRandomSource random = new SplittableRandomSource(2);
+        int[] counts = new int[25];
+        int draws = 80_000;
+
+        // Count how many times each tile is drawn first
+        for(int n = 0; n < draws; n++) {
+            counts[map.getStartPositionSampler(random).nextIndex()]++;
+        }
+
+        // Each of the 8 winnable tiles should be drawn about 10,000 times, and the other tiles never
+        for(int idx = 0; idx < 25; idx++) {
+            Position position = new Position(idx % 5, idx / 5);
+            if(map.isPositionWinnable(position)) {
+                assertEquals(draws / 8.0, counts[idx], draws / 8.0 * 0.05);
+            }
+            else {
+                assertEquals(0, counts[idx]);
+            }
+        }
+    }
+
+    @Test
+    public void next_drawsDistinctTiles_forLargeNumbersOfDraws() {
+        // Generate a 50 x 50 map, from which many more positions are drawn than fit in the initial hash table
+        Map largerMap = MapCreator.createMap("safe", 50, new SplittableRandomSource(3));
+        StartPositionSampler sampler = largerMap.getStartPositionSampler(new SplittableRandomSource(4));
+
+        boolean[] drawn = new boolean[50 * 50];
+        int count = 0;
+        while(sampler.hasNext()) {
+            int idx = sampler.nextIndex();
+            assertFalse(drawn[idx]);
+            drawn[idx] = true;
+            count++;
+        }
+
+        assertEquals(largerMap.getWinnableTileCount(), count);
+    }
+
+    @Test
+    public void next_throwsIllegalStateException_onceEveryTileHasBeenDrawn() {
+        StartPositionSampler sampler = map.getStartPositionSampler(new SplittableRandomSource(5));
+        for(int i = 0; i < 8; i++) {
+            sampler.next();
+        }
+
+        // Expect the function to throw an IllegalStateException
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("No winnable tiles are left to draw a start position from.");
+
+        sampler.next();
+    }
+}
@@ -0,0 +1,101 @@
+package com.xd.cps2002.map;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains benchmarks which compare the time taken by {@link BasicMap#generate()} to place water tiles
+ * against picking random positions until an empty one is found, which is how water tiles used to be placed. Since these
+ * benchmarks take a while to run, they are excluded from the default test run and can be run using
+ * {@code mvn test -P benchmarks}.
+ */
+public class WaterPlacementBenchmark {
+
+    @Test
+    public void generate_isFasterThanRejectionSampling_forAHazardousLargeMap() {
+        // Compare the time taken to generate a 4,000 x 4,000 "hazardous" map with 35% water tiles
+        compare(4000, 35, 3);
+    }
+
+    @Test
+    public void generate_isFasterThanRejectionSampling_forSmallMapsWith64PercentWaterTiles() {
+        // Compare the time taken to generate many 5 x 5 maps with the maximum percentage of water tiles
+        compare(5, 64, 200_000);
+    }
+
+    @Test
+    public void generate_isFasterThanRejectionSampling_forALargeMapWith64PercentWaterTiles() {
+        // Compare the time taken to generate a 4,000 x 4,000 map with the maximum percentage of water tiles
+        compare(4000, 64, 3);
+    }
+
+    /**
+     * Helper function used to time the generation of maps using both ways of placing water tiles, and check that
+     * {@link BasicMap#generate()} is faster.
+     * @param size size of the maps.
+     * @param waterPercent percentage of water tiles in the maps.
+     * @param repetitions number of maps generated using each way of placing water tiles.
+     */
+    private static void compare(int size, int waterPercent, int repetitions) {
+        BasicMap basicMap = new BasicMap(size, size > Map.MAX_SIZE);
+        basicMap.setWaterTilePercentage(waterPercent, waterPercent);
+        PackedTileGrid grid = new PackedTileGrid(size);
+        Random r = new Random();
+
+        // Warm up the JIT compiler on both ways of placing water tiles
+        for(int i = 0; i < Math.min(repetitions, 1000); i++) {
+            basicMap.generate();
+            generateByRejection(grid, waterPercent, r);
+        }
+
+        long start = System.nanoTime();
+        for(int i = 0; i < repetitions; i++) {
+            basicMap.generate();
+        }
+        long sampledMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        for(int i = 0; i < repetitions; i++) {
+            generateByRejection(grid, waterPercent, r);
+        }
+        long rejectedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("[WaterPlacementBenchmark] " + repetitions + " " + size + "x" + size + " map(s) with " +
+                waterPercent + "% water tiles generated in " + sampledMillis + "ms, or " + rejectedMillis +
+                "ms by rejection sampling");
+
+        assertTrue(sampledMillis < rejectedMillis);
+    }
+
+    /**
+     * Helper function used to generate a map by placing each water tile at a random position, trying again if the
+     * position already holds a tile or is next to the treasure tile.
+     * @param grid the grid to be filled in.
+     * @param waterPercent percentage of water tiles to be placed.
+     * @param r the random number generator used.
+     */
+    private static void generateByRejection(PackedTileGrid grid, int waterPercent, Random r) {
+        int size = grid.size();
+        grid.clear();
+
+        int treasureX = r.nextInt(size), treasureY = r.nextInt(size);
+        grid.setCode(grid.index(treasureX, treasureY), PackedTileGrid.TREASURE);
+
+        int waterTilesQuota = (int) Math.ceil(size * size * (waterPercent / 100f));
+        while(waterTilesQuota > 0) {
+            int waterX = r.nextInt(size), waterY = r.nextInt(size);
+            int waterIdx = grid.index(waterX, waterY);
+
+            boolean isNextToTreasure = Math.abs(waterX - treasureX) <= 1 && Math.abs(waterY - treasureY) <= 1;
+            if(grid.code(waterIdx) == PackedTileGrid.EMPTY && !isNextToTreasure) {
+                grid.setCode(waterIdx, PackedTileGrid.WATER);
+                waterTilesQuota--;
+            }
+        }
+
+        grid.fillEmptyWithGrass();
+    }
+}
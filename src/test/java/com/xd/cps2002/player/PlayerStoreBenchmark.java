@@ -0,0 +1,73 @@
+package com.xd.cps2002.player;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.function.LongFunction;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains benchmarks which check that moves can be applied in bulk to a PlayerStore holding a large number
+ * of players at a rate of millions of player-moves per second. Since these benchmarks take a while to run, they are
+ * excluded from the default test run and can be run using {@code mvn test -P benchmarks}.
+ */
+public class PlayerStoreBenchmark{
+    private final int n_players = 1_000_000;
+    private final int map_size = 1000;
+    private final int rounds = 20;
+    private final long min_moves_per_second = 1_000_000; // conservative, such that it also holds on a single core
+
+    // every tile is a grass tile, such that no player is ever reset or stops moving
+    private final LongFunction<PlayerStatus> status_lookup = packed -> PlayerStatus.Normal;
+
+    private PlayerStore store;
+
+    @After
+    public void teardownPlayerStoreBenchmark(){
+        store = null; // dereference, such that the store can be garbage collected between benchmarks
+    }
+
+    @Test
+    public void millionsOfMovesPerSecond_applyMovesBenchmark(){
+        store = new PlayerStore(n_players);
+
+        // spread the players over the map, split amongst the maximum of 8 teams
+        Team[] teams = new Team[8];
+        for(int t = 0; t < teams.length; t++){
+            teams[t] = new Team(map_size);
+        }
+        for(int i = 0; i < n_players; i++){
+            int index = store.add();
+            store.setStartPosition(index, Position.pack(i % map_size, (i / map_size) % map_size));
+            store.setTeam(index, teams[i % teams.length]);
+        }
+
+        // alternate between moving right and left, such that the players stay on the map
+        byte[] right = new byte[n_players];
+        byte[] left = new byte[n_players];
+        for(int i = 0; i < n_players; i++){
+            right[i] = (i % map_size == map_size - 1) ? PlayerStore.LEFT : PlayerStore.RIGHT;
+            left[i] = (i % map_size == map_size - 1) ? PlayerStore.RIGHT : PlayerStore.LEFT;
+        }
+
+        // warm up the JIT compiler, which also fills in the team histories
+        for(int r = 0; r < 4; r++){
+            store.applyMoves((r % 2 == 0) ? right : left, map_size, status_lookup);
+        }
+
+        long applied = 0;
+        long start = System.nanoTime();
+        for(int r = 0; r < rounds; r++){
+            applied += store.applyMoves((r % 2 == 0) ? right : left, map_size, status_lookup);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double moves_per_second = applied / (elapsed / 1e9);
+        System.out.println("[PlayerStoreBenchmark] " + applied + " moves applied in " + elapsed / 1_000_000 +
+                "ms (" + String.format("%.1f", moves_per_second / 1e6) + " million moves per second)");
+
+        assertEquals((long) n_players * rounds, applied);
+        assertTrue(moves_per_second > min_moves_per_second);
+    }
+}
@@ -0,0 +1,186 @@
+package com.xd.cps2002.player;
+
+import com.xd.cps2002.player.player_exceptions.MoveException;
+import com.xd.cps2002.player.player_exceptions.NullPositionException;
+import com.xd.cps2002.player.player_exceptions.NullTeamException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.function.LongFunction;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the PlayerStore class.
+ */
+public class PlayerStoreTest{
+    // PlayerStore object to initialise on setup and de-reference on teardown.
+    private PlayerStore store;
+    private Team team;
+
+    // status lookup for a 5x5 map with water at (2, 2) and the treasure at (4, 4)
+    private final LongFunction<PlayerStatus> status_lookup = packed -> {
+        if(packed == Position.pack(2, 2)){
+            return PlayerStatus.Death;
+        }
+        else if(packed == Position.pack(4, 4)){
+            return PlayerStatus.Win;
+        }
+        return PlayerStatus.Normal;
+    };
+
+    @Before
+    public void setupPlayerStoreTest(){
+        store = new PlayerStore(0); // start with no capacity, such that the store has to grow
+        team = new Team(5);
+
+        // add three players, starting at (0, 0), (2, 1) and (4, 3)
+        long[] start_positions = new long[]{Position.pack(0, 0), Position.pack(2, 1), Position.pack(4, 3)};
+        for(long start_position : start_positions){
+            int index = store.add();
+            store.setStartPosition(index, start_position);
+            store.setTeam(index, team);
+        }
+    }
+
+    /**
+     * Testing that players added to the store are given unique, auto-incremented, player ids.
+     */
+    @Test
+    public void autoincID_addTest(){
+        assertEquals(3, store.size());
+        assertEquals(Player.get_global_player_count() - 3, store.getId(0));
+        assertEquals(Player.get_global_player_count() - 2, store.getId(1));
+        assertEquals(Player.get_global_player_count() - 1, store.getId(2));
+    }
+
+    /**
+     * Testing that a Player view reads and writes the state kept in the store.
+     */
+    @Test
+    public void playerView_Test(){
+        Player player = store.get(1);
+        assertSame(player, store.get(1)); // the same view is returned every time
+        assertEquals(store.getId(1), player.get_pID());
+        assertEquals(new Position(2, 1), player.getStartPosition());
+        assertSame(team, player.getTeam());
+
+        player.setPosition(new Position(3, 1));
+        assertEquals(Position.pack(3, 1), store.getPosition(1));
+
+        store.setPosition(1, Position.pack(3, 0));
+        assertEquals(new Position(3, 0), player.getPosition());
+    }
+
+    /**
+     * Testing that moves are applied to every player, and that moves outside of the map boundary are rejected.
+     */
+    @Test
+    public void boundary_applyMovesTest(){
+        // (0, 0) moves up, which is outside of the map, (2, 1) moves right and (4, 3) moves left
+        byte[] moves = new byte[]{PlayerStore.UP, PlayerStore.RIGHT, PlayerStore.LEFT};
+        assertEquals(2, store.applyMoves(moves, 5, status_lookup));
+
+        assertEquals(Position.pack(0, 0), store.getPosition(0)); // rejected, so stays put
+        assertEquals(Position.pack(3, 1), store.getPosition(1));
+        assertEquals(Position.pack(3, 3), store.getPosition(2));
+
+        // check that the team's history was updated with the new positions
+        assertTrue(team.hasVisited(new Position(3, 1)));
+        assertTrue(team.hasVisited(new Position(3, 3)));
+    }
+
+    /**
+     * Testing that a player landing on a tile with status Death is reset to its start position, and that a player
+     * landing on a tile with status Win is not moved any further.
+     */
+    @Test
+    public void status_applyMovesTest(){
+        // (2, 1) moves down onto the water, and (4, 3) moves down onto the treasure
+        store.applyMoves(new byte[]{PlayerStore.NONE, PlayerStore.DOWN, PlayerStore.DOWN}, 5, status_lookup);
+
+        assertEquals(PlayerStatus.Normal, store.getStatus(0));
+        assertEquals(PlayerStatus.Death, store.getStatus(1));
+        assertEquals(Position.pack(2, 1), store.getPosition(1)); // reset to start position
+        assertEquals(PlayerStatus.Win, store.getStatus(2));
+        assertEquals(PlayerStatus.Win, store.get(2).getStatus());
+
+        // the winner does not move any further
+        assertEquals(1, store.applyMoves(new byte[]{PlayerStore.NONE, PlayerStore.UP, PlayerStore.UP}, 5, status_lookup));
+        assertEquals(Position.pack(4, 4), store.getPosition(2));
+    }
+
+    /**
+     * Testing that setting the position of a player through its Player view sets its status back to Normal, such that
+     * a player who won and is then moved elsewhere (eg. reset) is moved again by applyMoves().
+     */
+    @Test
+    public void status_setPositionTest(){
+        store.applyMoves(new byte[]{PlayerStore.NONE, PlayerStore.NONE, PlayerStore.DOWN}, 5, status_lookup);
+        assertEquals(PlayerStatus.Win, store.getStatus(2));
+
+        store.get(2).reset();
+        assertEquals(PlayerStatus.Normal, store.getStatus(2));
+        assertEquals(1, store.applyMoves(new byte[]{PlayerStore.NONE, PlayerStore.NONE, PlayerStore.UP}, 5, status_lookup));
+        assertEquals(Position.pack(4, 2), store.getPosition(2));
+    }
+
+    /**
+     * Testing that an IllegalArgumentException is thrown when fewer moves than players are given.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void tooFewMoves_applyMovesTest(){
+        store.applyMoves(new byte[2], 5, status_lookup);
+    }
+
+    /**
+     * Testing that a NullTeamException is thrown when a player without a team is moved.
+     * @throws NullTeamException is thrown whenever a player to be moved has not been joined with a team (expected).
+     */
+    @Test(expected = NullTeamException.class)
+    public void nullTeam_applyMovesTest(){
+        int index = store.add();
+        store.setStartPosition(index, Position.pack(1, 1));
+
+        store.applyMoves(new byte[]{PlayerStore.NONE, PlayerStore.NONE, PlayerStore.NONE, PlayerStore.UP}, 5,
+                status_lookup);
+    }
+
+    /**
+     * Testing that a NullPositionException is thrown when getting the position of a player whose position is not set.
+     * @throws NullPositionException is thrown whenever the position is not set (expected).
+     */
+    @Test(expected = NullPositionException.class)
+    public void nullPosition_getPositionTest(){
+        store.getPosition(store.add());
+    }
+
+    /**
+     * Testing that characters are converted into the moves used by applyMoves().
+     * @throws MoveException is thrown whenever the input is not a valid character (not expected).
+     */
+    @Test
+    public void direction_Test() throws MoveException{
+        assertEquals(PlayerStore.UP, PlayerStore.direction('u'));
+        assertEquals(PlayerStore.DOWN, PlayerStore.direction('D'));
+        assertEquals(PlayerStore.LEFT, PlayerStore.direction('l'));
+        assertEquals(PlayerStore.RIGHT, PlayerStore.direction('R'));
+    }
+
+    /**
+     * Testing exception is thrown when a char outside of the set {'u', 'd', 'r', 'l'} is converted into a move.
+     * @throws MoveException is expected to be thrown, since the input is not a valid character.
+     */
+    @Test(expected = MoveException.class)
+    public void invalidInput_directionTest() throws MoveException{
+        PlayerStore.direction('i');
+    }
+
+    @After
+    public void teardownPlayerStoreTest(){
+        store = null; // dereference
+        team = null;
+    }
+}
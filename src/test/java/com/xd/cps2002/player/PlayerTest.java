@@ -4,9 +4,13 @@ import com.xd.cps2002.player.player_exceptions.MoveException;
 import com.xd.cps2002.player.player_exceptions.NullPositionException;
 import com.xd.cps2002.player.player_exceptions.NullTeamException;
 import org.junit.After;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
 import static org.junit.Assert.*;
 
 /**
@@ -143,6 +147,31 @@ public class PlayerTest{
         assertEquals(0, p.y); // y remains at the origin
     }
 
+    /**
+     * Testing that movePacked() gives the same coordinates as move() for every valid character.
+     * @throws MoveException is thrown whenever the input is not a valid character (not expected).
+     * @throws NullPositionException is thrown whenever the Player.position is not set (not expected).
+     */
+    @Test
+    public void movePacked_PosCalcTest() throws MoveException{
+        player.setPosition(new Position(3, 7));
+
+        for(char c : new char[]{'u', 'd', 'l', 'r', 'U', 'D', 'L', 'R'}){
+            assertEquals(player.move(c), Position.unpack(player.movePacked(c)));
+        }
+    }
+
+    /**
+     * Testing exception is thrown when movePacked() is called and Player Position position is null.
+     * @throws MoveException is thrown whenever the input is not a valid character (not expected).
+     * @throws NullPositionException is expected to be thrown, since the Player.position is set to null.
+     */
+    @Test(expected = NullPositionException.class)
+    public void movePacked_NullPositionTest() throws MoveException{
+        player.setPosition(null);
+        player.movePacked('u');
+    }
+
     /* ---- This section is intended to test the setPosition() functionality ---- */
 
     /**
@@ -169,6 +198,68 @@ public class PlayerTest{
         player2.setPosition(new Position(0, 1));
     }
 
+    /**
+     * Testing that setting a packed position updates both the position and the team's history.
+     */
+    @Test
+    public void packed_setPositionTest(){
+        player.setPosition(Position.pack(2, 3));
+
+        assertEquals(new Position(2, 3), player.getPosition());
+        assertEquals(Position.pack(2, 3), player.getPackedPosition());
+        assertEquals(new Position(2, 3), player.getTeam().getPositionHistory().get(0));
+    }
+
+    /**
+     * Testing that once the team has visited the tiles, resolving moves using the packed coordinates does not allocate
+     * any memory. The test is skipped on JVMs which cannot measure the memory allocated by a thread.
+     * @throws MoveException is thrown whenever the input is not a valid character (not expected).
+     */
+    @Test
+    public void packed_noAllocationTest() throws MoveException{
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        long threadId = Thread.currentThread().getId();
+
+        Player sized_player = new Player();
+        sized_player.setStartPosition(new Position(0, 0));
+        sized_player.setTeam(new Team(5));
+
+        // move back and forth a number of times, such that both tiles are visited and the code is warmed up
+        char[] moves = new char[]{'r', 'l', 'l'}; // the last move is outside of the map boundary and is rejected
+        for(int i = 0; i < 10000; i++){
+            resolvePackedMoves(sized_player, moves);
+        }
+
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for(int i = 0; i < 10000; i++){
+            resolvePackedMoves(sized_player, moves);
+        }
+        long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+        // allow for a few bytes of noise from the measurement itself
+        assertTrue("Resolving moves allocated " + allocated + " bytes", allocated < 1024);
+        assertEquals(2, sized_player.getTeam().getPositionHistory().size());
+    }
+
+    /**
+     * Resolves a sequence of moves on a 5x5 map using the packed coordinates, rejecting moves outside of the map.
+     * @param player is the Player to move.
+     * @param moves is the sequence of characters to move by.
+     * @throws MoveException is thrown whenever the input is not a valid character.
+     */
+    private static void resolvePackedMoves(Player player, char[] moves) throws MoveException{
+        for(char move : moves){
+            long new_position = player.movePacked(move);
+            int x = Position.unpackX(new_position);
+            int y = Position.unpackY(new_position);
+            if(x >= 0 && x < 5 && y >= 0 && y < 5){
+                player.setPosition(new_position);
+            }
+        }
+    }
+
     /* ---- This section is intended to test the setTeam() functionality ---- */
 
     /**
@@ -52,4 +52,30 @@ public class PositionTest{
     public void falseComparison_equalityTest(){
         assertNotEquals(p, new Position(0,1));
     }
+
+    /**
+     * Testing that packing and unpacking coordinates gives back the same coordinates, including negative ones.
+     */
+    @Test
+    public void packUnpack_Test(){
+        int[] coordinates = new int[]{0, 1, -1, 49, 46339, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for(int x : coordinates){
+            for(int y : coordinates){
+                long packed = Position.pack(x, y);
+                assertEquals(x, Position.unpackX(packed));
+                assertEquals(y, Position.unpackY(packed));
+                assertEquals(new Position(x, y), Position.unpack(packed));
+                assertEquals(packed, new Position(x, y).pack());
+            }
+        }
+    }
+
+    /**
+     * Testing if two different position instances with the same coordinates have the same hash code.
+     */
+    @Test
+    public void equalPositions_hashCodeTest(){
+        assertEquals(p.hashCode(), new Position(0,0).hashCode());
+        assertEquals(new Position(3,7).hashCode(), new Position(3,7).hashCode());
+    }
 }
@@ -121,7 +121,7 @@ public class TeamTest{
      */
     @Test
     public void addDuplicatePosition_updateTest(){
-	team.getPositionHistory().add(new Position(0, 1));
+	team.update(new Position(0, 1));
 	assertEquals(1, team.getPositionHistory().size()); // check that size is 1
 
 	team.update(new Position(0, 1)); // attempt to add duplicate
@@ -129,6 +129,115 @@ public class TeamTest{
 
     }
 
+    /**
+     * Testing that a team playing on a map of known size keeps its history in order and without duplicates, including
+     * for positions lying outside of the map.
+     */
+    @Test
+    public void knownMapSize_updateTest(){
+        Team sized_team = new Team(5);
+        sized_team.update(new Position(4, 4));
+        sized_team.update(new Position(0, 1));
+        sized_team.update(new Position(4, 4)); // attempt to add duplicate
+        sized_team.update(new Position(5, 0)); // outside of the 5x5 map
+        sized_team.update(new Position(5, 0)); // attempt to add duplicate outside of the map
+
+        assertEquals(3, sized_team.getPositionHistory().size()); // check that duplicates were not added
+        // verify that the positions are kept in the order in which they were first visited
+        assertEquals(new Position(4, 4), sized_team.getPositionHistory().get(0));
+        assertEquals(new Position(0, 1), sized_team.getPositionHistory().get(1));
+        assertEquals(new Position(5, 0), sized_team.getPositionHistory().get(2));
+
+        assertTrue(sized_team.hasVisited(new Position(0, 1)));
+        assertTrue(sized_team.hasVisited(new Position(5, 0)));
+        assertFalse(sized_team.hasVisited(new Position(1, 0)));
+    }
+
+    /**
+     * Testing that updating the history using packed coordinates gives the same history as using Positions.
+     */
+    @Test
+    public void packed_updateTest(){
+        Team sized_team = new Team(5);
+        sized_team.update(Position.pack(1, 2));
+        sized_team.update(new Position(1, 2)); // attempt to add duplicate as a Position
+        sized_team.update(Position.pack(-1, 2)); // outside of the 5x5 map
+        sized_team.update(Position.pack(-1, 2)); // attempt to add duplicate outside of the map
+        sized_team.update(Position.pack(4, 0));
+
+        assertEquals(3, sized_team.getPositionHistory().size()); // check that duplicates were not added
+        assertEquals(new Position(1, 2), sized_team.getPositionHistory().get(0));
+        assertEquals(new Position(-1, 2), sized_team.getPositionHistory().get(1));
+        assertEquals(new Position(4, 0), sized_team.getPositionHistory().get(2));
+    }
+
+    /**
+     * Testing that positions checked in packed form, both within and outside of the map, are found in the history.
+     */
+    @Test
+    public void packed_hasVisitedTest(){
+        Team sized_team = new Team(5);
+        sized_team.update(new Position(3, 1));
+        sized_team.update(new Position(6, 1)); // outside of the 5x5 map
+
+        assertTrue(sized_team.hasVisited(Position.pack(3, 1)));
+        assertTrue(sized_team.hasVisited(Position.pack(6, 1)));
+        assertFalse(sized_team.hasVisited(Position.pack(1, 3)));
+        assertFalse(sized_team.hasVisited(Position.pack(1, 6)));
+    }
+
+    /**
+     * Testing that clearing the history also clears the visited positions, such that they can be visited again.
+     */
+    @Test
+    public void clearHistory_updateTest(){
+        team.update(new Position(0, 1));
+        team.clearHistory();
+        assertFalse(team.hasVisited(new Position(0, 1)));
+
+        team.update(new Position(0, 1));
+        assertEquals(1, team.getPositionHistory().size()); // check that the position was added again
+    }
+
+    /**
+     * Testing that the history cannot be changed other than through the Team, such that it cannot go out of sync with
+     * the visited positions.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnly_getPositionHistoryTest(){
+        team.update(new Position(0, 1));
+        team.getPositionHistory().remove(0);
+    }
+
+    /**
+     * Testing that changing the coordinates of a Position after recording it changes neither the history nor the
+     * visited positions, both within and outside of the map.
+     */
+    @Test
+    public void changedPosition_updateTest(){
+        Team sized_team = new Team(5);
+        Position inside = new Position(1, 1);
+        Position outside = new Position(7, 1); // outside of the 5x5 map
+        sized_team.update(inside);
+        sized_team.update(outside);
+
+        inside.x = 2;
+        outside.x = 8;
+        assertEquals(new Position(1, 1), sized_team.getPositionHistory().get(0));
+        assertEquals(new Position(7, 1), sized_team.getPositionHistory().get(1));
+        assertTrue(sized_team.hasVisited(new Position(7, 1)));
+        assertFalse(sized_team.hasVisited(new Position(8, 1)));
+        assertFalse(sized_team.hasVisited(inside));
+    }
+
+    /**
+     * Testing that a team cannot be created for a map with a negative size.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeMapSize_constructorTest(){
+        new Team(-1);
+    }
+
     @After
     public void teardownTeamTest(){
         team = null; // dereference
@@ -0,0 +1,153 @@
+package com.xd.cps2002.session;
+
+import com.xd.cps2002.game.Game;
+import com.xd.cps2002.game.game_exceptions.*;
+import com.xd.cps2002.map.MapCreator;
+import com.xd.cps2002.map.TileType;
+import com.xd.cps2002.player.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the GameSession class.
+ */
+public class GameSessionTest{
+    private Game game;
+    private QueueMoveSource source;
+    private Player first;
+    private Player second;
+
+    // define the Map by means of a 2D TileType array
+    private final TileType[][] tiles = {{TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass},
+                                        {TileType.Grass, TileType.Grass, TileType.Water, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Treasure, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water}};
+
+    @Before
+    public void setupGameSessionTest() throws InvalidNumberOfPlayersException{
+        game = new Game();
+        source = new QueueMoveSource();
+
+        Player[] players = game.genPlayers(2);
+        first = players[0]; // keep references, since genTeams() shuffles the players array
+        second = players[1];
+        game.setPlayers(players);
+        game.setMap(MapCreator.createMap("basic", tiles));
+    }
+
+    /**
+     * Helper function used to set the starting positions of the players and group them into teams.
+     * @param first_start is the starting position of the first player.
+     * @param second_start is the starting position of the second player.
+     * @throws InvalidNumberOfTeamsException is thrown when the number of teams is invalid (not expected).
+     */
+    private void setupPlayers(Position first_start, Position second_start) throws InvalidNumberOfTeamsException{
+        first.setStartPosition(first_start);
+        second.setStartPosition(second_start);
+        game.genTeams(2, game.getPlayers());
+    }
+
+    /**
+     * Tests that the game ends once a player lands on the treasure tile, and that invalid moves and moves outside of
+     * the map boundary are rejected and asked for again.
+     * @throws Exception is thrown if the session fails (not expected).
+     */
+    @Test
+    public void winner_callTest() throws Exception{
+        setupPlayers(new Position(2, 1), new Position(0, 0)); // above the treasure tile, and at the top left corner
+
+        source.submit(first.get_pID(), 'd'); // onto the treasure tile
+        source.submit(second.get_pID(), 'u'); // outside of the map, rejected
+        source.submit(second.get_pID(), 'x'); // invalid, rejected
+        source.submit(second.get_pID(), 'r');
+
+        GameSession session = new GameSession(game, source);
+        ArrayList<Integer> winners = session.call();
+
+        assertEquals(1, winners.size());
+        assertEquals(first.get_pID(), (int) winners.get(0));
+        assertEquals(1, session.getRounds());
+        assertEquals(2, session.getRejectedMoves());
+        assertEquals(new Position(1, 0), second.getPosition());
+    }
+
+    /**
+     * Tests that a player landing on a water tile is reset, and that the game ends after max_rounds rounds.
+     * @throws Exception is thrown if the session fails (not expected).
+     */
+    @Test
+    public void maxRounds_callTest() throws Exception{
+        setupPlayers(new Position(1, 1), new Position(0, 0)); // above a water tile, and at the top left corner
+
+        source.submit(first.get_pID(), 'd'); // onto the water tile
+        source.submit(second.get_pID(), 'd');
+
+        GameSession session = new GameSession(game, source, 1);
+        assertEquals(0, session.call().size());
+        assertEquals(1, session.getRounds());
+        assertEquals(new Position(1, 1), first.getPosition()); // reset to start position
+        assertEquals(new Position(0, 1), second.getPosition());
+    }
+
+    /**
+     * Tests that the HTML maps are written to the game's directory, if one is set.
+     * @throws Exception is thrown if the session fails (not expected).
+     */
+    @Test
+    public void htmlFiles_callTest() throws Exception{
+        Path dir = Files.createTempDirectory("cps2002_session");
+
+        try{
+            game.setHTMLDirectory(dir.toString());
+            setupPlayers(new Position(2, 1), new Position(0, 0));
+            source.submit(first.get_pID(), 'd');
+            source.submit(second.get_pID(), 'r');
+
+            new GameSession(game, source).call();
+
+            assertTrue(Files.exists(dir.resolve("player_" + first.get_pID() + "_map.html")));
+            assertTrue(Files.exists(dir.resolve("player_" + second.get_pID() + "_map.html")));
+        }
+        finally{
+            for(File file : dir.toFile().listFiles()){
+                file.delete();
+            }
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Tests that a SetupOperationPrecedenceException is thrown when the teams of the game are not set up.
+     * @throws SetupOperationPrecedenceException is thrown since the game is not set up (expected).
+     * @throws Exception is thrown if the session fails otherwise (not expected).
+     */
+    @Test(expected = SetupOperationPrecedenceException.class)
+    public void notSetup_callTest() throws Exception{
+        new GameSession(game, source).call();
+    }
+
+    /**
+     * Tests that an IllegalArgumentException is thrown when a session is not allowed to play any rounds.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMaxRounds_constructorTest(){
+        new GameSession(game, source, 0);
+    }
+
+    @After
+    public void teardownGameSessionTest(){
+        game = null; // dereference
+        source = null;
+    }
+}
@@ -0,0 +1,75 @@
+package com.xd.cps2002.session;
+
+import com.xd.cps2002.player.Player;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the QueueMoveSource class.
+ */
+public class QueueMoveSourceTest{
+    private QueueMoveSource source;
+    private Player player;
+
+    @Before
+    public void setupQueueMoveSourceTest(){
+        source = new QueueMoveSource();
+        player = new Player();
+    }
+
+    /**
+     * Tests that the moves of a player are given in the order in which they were submitted, separately per player.
+     * @throws InterruptedException is thrown if the test is interrupted (not expected).
+     */
+    @Test
+    public void order_nextMoveTest() throws InterruptedException{
+        Player other = new Player();
+        source.submit(player.get_pID(), 'u');
+        source.submit(other.get_pID(), 'l');
+        source.submit(player.get_pID(), 'r');
+
+        assertEquals(2, source.pending(player.get_pID()));
+        assertEquals('u', source.nextMove(player));
+        assertEquals('r', source.nextMove(player));
+        assertEquals('l', source.nextMove(other));
+        assertEquals(0, source.pending(player.get_pID()));
+    }
+
+    /**
+     * Tests that nextMove() waits until a move is submitted by another thread.
+     * @throws InterruptedException is thrown if the test is interrupted (not expected).
+     */
+    @Test
+    public void blocking_nextMoveTest() throws InterruptedException{
+        Thread submitter = new Thread(() -> {
+            try{
+                Thread.sleep(50);
+            }
+            catch(InterruptedException ignored){
+            }
+            source.submit(player.get_pID(), 'd');
+        });
+        submitter.start();
+
+        assertEquals('d', source.nextMove(player));
+        submitter.join();
+    }
+
+    /**
+     * Tests that there are no pending moves for a player who has not been submitted any.
+     */
+    @Test
+    public void unknownPlayer_pendingTest(){
+        assertEquals(0, source.pending(player.get_pID()));
+    }
+
+    @After
+    public void teardownQueueMoveSourceTest(){
+        source = null; // dereference
+        player = null;
+    }
+}
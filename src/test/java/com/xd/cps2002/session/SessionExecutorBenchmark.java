@@ -0,0 +1,122 @@
+package com.xd.cps2002.session;
+
+import com.xd.cps2002.game.Game;
+import com.xd.cps2002.game.GameRegistry;
+import com.xd.cps2002.player.Player;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains benchmarks which play 10,000 games through a SessionExecutor, each waiting on simulated input from
+ * its players. Since these benchmarks take a while to run, they are excluded from the default test run and can be run
+ * using {@code mvn test -P benchmarks}.
+ *
+ * Only the virtual threads benchmark shows 10,000 games waiting for input at once, and it needs Java 21 onwards; on an
+ * older JDK it is skipped. Since the project is built with older JDKs, the tests can be run on a Java 21 JVM using
+ * {@code mvn test -P benchmarks,jdk21 -Djdk21.home=<path to a Java 21 JDK>}. The bounded pool benchmark runs on any JDK,
+ * and only shows that the games queued behind a pool of platform threads are all played, at most a pool's worth at once.
+ */
+public class SessionExecutorBenchmark{
+    private final int n_games = 10_000;
+    private final int max_rounds = 50; // such that games in which nobody finds the treasure still end
+    private final int max_platform_threads = 256; // used if virtual threads are not available
+    private final long max_millis = 120_000;
+
+    private SessionExecutor executor;
+
+    @After
+    public void teardownSessionExecutorBenchmark(){
+        if(executor != null){
+            executor.shutdownNow();
+        }
+        executor = null; // dereference
+    }
+
+    @Test
+    public void tenThousandGames_waitingOnSimulatedInput_onVirtualThreads_submitBenchmark() throws Exception{
+        Assume.assumeTrue("virtual threads need Java 21 onwards", SessionExecutor.isVirtualThreadSupported());
+
+        executor = new SessionExecutor(max_platform_threads);
+        assertTrue(executor.isVirtual());
+        play("virtual threads");
+
+        // every game waits for input on a thread of its own, hence far more games wait at once than a pool would allow
+        assertTrue(executor.getPeakRunningSessions() > n_games / 2);
+    }
+
+    @Test
+    public void tenThousandGames_queuedBehindABoundedPool_submitBenchmark() throws Exception{
+        executor = new SessionExecutor(max_platform_threads, false);
+        assertFalse(executor.isVirtual());
+        play(max_platform_threads + " platform threads");
+
+        // this only shows that the queued games are all played, at most max_platform_threads of them at once
+        assertTrue(executor.getPeakRunningSessions() <= max_platform_threads);
+    }
+
+    /**
+     * Helper function used to play n_games games using the executor, simulating the players of each game, who each
+     * submit a random move whenever their previous move has been played.
+     * @param threads describes the threads on which the games are played, for the report.
+     * @throws Exception is thrown if a game cannot be set up or a session fails (not expected).
+     */
+    private void play(String threads) throws Exception{
+        GameRegistry registry = new GameRegistry(n_games);
+        ArrayList<Game> games = new ArrayList<>();
+        for(int i = 0; i < n_games; i++){
+            Game game = registry.get(registry.create());
+            game.initialise(2, 2, 5, "safe");
+            games.add(game);
+        }
+
+        QueueMoveSource source = new QueueMoveSource();
+
+        long start = System.nanoTime();
+        ArrayList<Future<ArrayList<Integer>>> results = new ArrayList<>();
+        for(Game game : games){
+            results.add(executor.submit(new GameSession(game, source, max_rounds)));
+        }
+
+        SplittableRandom random = new SplittableRandom(2002);
+        char[] moves = {'u', 'd', 'l', 'r'};
+        int done = 0;
+        while(done < n_games && (System.nanoTime() - start) / 1_000_000 < max_millis){
+            done = 0;
+            for(int i = 0; i < n_games; i++){
+                if(results.get(i).isDone()){
+                    done++;
+                    continue;
+                }
+
+                for(Player player : games.get(i).getPlayers()){
+                    if(source.pending(player.get_pID()) == 0){
+                        source.submit(player.get_pID(), moves[random.nextInt(moves.length)]);
+                    }
+                }
+            }
+            Thread.sleep(1); // think time
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+        int winners = 0;
+        for(Future<ArrayList<Integer>> result : results){
+            winners += result.get(1, TimeUnit.SECONDS).size();
+        }
+
+        System.out.println("[SessionExecutorBenchmark] " + n_games + " games played on " + threads + " in " + elapsed +
+                "ms, with at most " + executor.getPeakRunningSessions() + " games waiting for input at once and " +
+                winners + " winners");
+
+        assertEquals(n_games, executor.getCompletedSessions());
+        assertEquals(0, executor.getFailedSessions());
+    }
+}
@@ -0,0 +1,205 @@
+package com.xd.cps2002.session;
+
+import com.xd.cps2002.game.Game;
+import com.xd.cps2002.game.game_exceptions.*;
+import com.xd.cps2002.map.MapCreator;
+import com.xd.cps2002.map.TileType;
+import com.xd.cps2002.player.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the SessionExecutor class.
+ */
+public class SessionExecutorTest{
+    private SessionExecutor executor;
+
+    // define the Map by means of a 2D TileType array
+    private final TileType[][] tiles = {{TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass},
+                                        {TileType.Grass, TileType.Grass, TileType.Water, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Treasure, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water}};
+
+    /**
+     * Helper function used to set up a game of two players, the first of which is above the treasure tile.
+     * @return Game with its players, map and teams set up.
+     * @throws InvalidNumberOfPlayersException is thrown when the number of players is invalid (not expected).
+     * @throws InvalidNumberOfTeamsException is thrown when the number of teams is invalid (not expected).
+     */
+    private Game setupGame() throws InvalidNumberOfPlayersException, InvalidNumberOfTeamsException{
+        Game game = new Game();
+        Player[] players = game.genPlayers(2);
+        players[0].setStartPosition(new Position(2, 1)); // above the treasure tile
+        players[1].setStartPosition(new Position(0, 0));
+
+        game.setPlayers(players);
+        game.setMap(MapCreator.createMap("basic", tiles));
+        game.genTeams(2, players);
+        return game;
+    }
+
+    /**
+     * Helper function used to submit a move for every player of a game.
+     * @param game is the Game whose players are to move.
+     * @param source is the QueueMoveSource to submit the moves to.
+     * @param move is the move submitted for every player.
+     */
+    private void submitAll(Game game, QueueMoveSource source, char move){
+        for(Player player : game.getPlayers()){
+            source.submit(player.get_pID(), move);
+        }
+    }
+
+    /**
+     * Tests that sessions run on a pool of platform threads are played to completion, and that the metrics are kept.
+     * @throws Exception is thrown if a session fails (not expected).
+     */
+    @Test
+    public void platform_submitTest() throws Exception{
+        executor = new SessionExecutor(2, false);
+        assertFalse(executor.isVirtual());
+
+        Game first = setupGame();
+        Game second = setupGame();
+        QueueMoveSource source = new QueueMoveSource();
+        Future<ArrayList<Integer>> first_winners = executor.submit(new GameSession(first, source));
+        Future<ArrayList<Integer>> second_winners = executor.submit(new GameSession(second, source));
+
+        // everyone moves down, such that the player above the treasure tile wins
+        submitAll(first, source, 'd');
+        submitAll(second, source, 'd');
+
+        assertEquals(1, first_winners.get(10, TimeUnit.SECONDS).size());
+        assertEquals(1, second_winners.get(10, TimeUnit.SECONDS).size());
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(2, executor.getSubmittedSessions());
+        assertEquals(2, executor.getCompletedSessions());
+        assertEquals(0, executor.getFailedSessions());
+        assertEquals(0, executor.getRunningSessions());
+    }
+
+    /**
+     * Tests that virtual threads are used only if the running JDK supports them.
+     */
+    @Test
+    public void virtual_constructorTest(){
+        executor = new SessionExecutor(1);
+        assertEquals(SessionExecutor.isVirtualThreadSupported(), executor.isVirtual());
+    }
+
+    /**
+     * Tests that the reflective lookup of virtual threads finds them on Java 21 onwards, and only there.
+     */
+    @Test
+    public void javaVersion_isVirtualThreadSupportedTest(){
+        String version = System.getProperty("java.specification.version"); // eg. "1.8", "17" or "21"
+        int major = Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version.split("\\.")[0]);
+        assertEquals(major >= 21, SessionExecutor.isVirtualThreadSupported());
+    }
+
+    /**
+     * Tests that sessions run on virtual threads are not bounded by max_platform_threads, i.e. that every session waits
+     * for input at once. Only run on Java 21 onwards, eg. using {@code mvn test -P jdk21 -Djdk21.home=<path>}.
+     * @throws Exception is thrown if a session fails (not expected).
+     */
+    @Test
+    public void virtual_submitTest() throws Exception{
+        Assume.assumeTrue("virtual threads need Java 21 onwards", SessionExecutor.isVirtualThreadSupported());
+        executor = new SessionExecutor(1);
+        assertTrue(executor.isVirtual());
+
+        Game[] games = new Game[100];
+        QueueMoveSource source = new QueueMoveSource();
+        ArrayList<Future<ArrayList<Integer>>> winners = new ArrayList<>();
+        for(int i = 0; i < games.length; i++){
+            games[i] = setupGame();
+            winners.add(executor.submit(new GameSession(games[i], source)));
+        }
+
+        Thread.sleep(100); // every session is now waiting for input on a virtual thread of its own
+        assertEquals(games.length, executor.getRunningSessions());
+
+        for(int i = 0; i < games.length; i++){
+            submitAll(games[i], source, 'd');
+            assertEquals(1, winners.get(i).get(10, TimeUnit.SECONDS).size());
+        }
+        assertEquals(games.length, executor.getCompletedSessions());
+    }
+
+    /**
+     * Tests that at most max_platform_threads sessions are played at once on a pool of platform threads, and that the
+     * rest are queued until a thread is free.
+     * @throws Exception is thrown if a session fails (not expected).
+     */
+    @Test
+    public void bounded_submitTest() throws Exception{
+        executor = new SessionExecutor(1, false);
+
+        Game first = setupGame();
+        Game second = setupGame();
+        QueueMoveSource source = new QueueMoveSource();
+        Future<ArrayList<Integer>> first_winners = executor.submit(new GameSession(first, source));
+        Future<ArrayList<Integer>> second_winners = executor.submit(new GameSession(second, source));
+
+        Thread.sleep(100); // the first session is now waiting for input, and the second is queued
+        assertEquals(1, executor.getRunningSessions());
+
+        submitAll(first, source, 'd');
+        submitAll(second, source, 'd');
+        first_winners.get(10, TimeUnit.SECONDS);
+        second_winners.get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, executor.getPeakRunningSessions());
+    }
+
+    /**
+     * Tests that sessions waiting for input are interrupted by shutdownNow(), and counted as failed.
+     * @throws Exception is thrown if the test fails otherwise (not expected).
+     */
+    @Test
+    public void interrupted_shutdownNowTest() throws Exception{
+        executor = new SessionExecutor(1, false);
+        Future<ArrayList<Integer>> winners = executor.submit(new GameSession(setupGame(), new QueueMoveSource()));
+
+        Thread.sleep(100); // the session is now waiting for input
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        try{
+            winners.get();
+            fail();
+        }
+        catch(ExecutionException e){
+            assertTrue(e.getCause() instanceof InterruptedException);
+        }
+        assertEquals(1, executor.getFailedSessions());
+    }
+
+    /**
+     * Tests that an IllegalArgumentException is thrown when the executor has no platform threads.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreads_constructorTest(){
+        new SessionExecutor(0);
+    }
+
+    @After
+    public void teardownSessionExecutorTest(){
+        if(executor != null){
+            executor.shutdownNow();
+        }
+        executor = null; // dereference
+    }
+}
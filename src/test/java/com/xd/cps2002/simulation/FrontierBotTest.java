@@ -0,0 +1,154 @@
+package com.xd.cps2002.simulation;
+
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.map.MapCreator;
+import com.xd.cps2002.map.TileType;
+import com.xd.cps2002.player.*;
+import com.xd.cps2002.player.player_exceptions.TeamOverrideException;
+import com.xd.cps2002.util.SplittableRandomSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the FrontierBot class.
+ */
+public class FrontierBotTest{
+    private Map map;
+    private Player player;
+    private Team team;
+    private FrontierBot bot;
+
+    // define the Map by means of a 2D TileType array
+    private final TileType[][] tiles = {{TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass},
+                                        {TileType.Grass, TileType.Grass, TileType.Water, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Treasure, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water}};
+
+    @Before
+    public void setupFrontierBotTest(){
+        map = MapCreator.createMap("basic", tiles);
+        player = new Player();
+        team = new Team(5);
+        bot = new FrontierBot(new SplittableRandomSource(2002));
+    }
+
+    /**
+     * Testing that the bot moves onto a tile which the team has not visited, when there is one next to the player.
+     * @throws TeamOverrideException is thrown if the player has already joined a team (not expected).
+     */
+    @Test
+    public void adjacentFrontier_nextMoveTest() throws TeamOverrideException{
+        player.setStartPosition(new Position(0, 1));
+        team.join(player);
+        team.update(new Position(0, 0)); // the tile above has been visited
+
+        for(int i = 0; i < 20; i++){
+            char move = bot.nextMove(player, map);
+            assertTrue(move == 'd' || move == 'r'); // the tiles below and to the right have not been visited
+        }
+    }
+
+    /**
+     * Testing that the bot walks over visited tiles towards the nearest unvisited tile, and never over a water tile
+     * which the team has visited.
+     * @throws TeamOverrideException is thrown if the player has already joined a team (not expected).
+     */
+    @Test
+    public void avoidsKnownWater_nextMoveTest() throws TeamOverrideException{
+        player.setStartPosition(new Position(1, 1));
+        team.join(player);
+
+        // the team has visited the tiles around the player, including the water tile below it, and the column on the left
+        team.update(new Position(1, 2));
+        team.update(new Position(1, 0));
+        team.update(new Position(2, 1));
+        for(int y = 0; y < 5; y++){
+            team.update(new Position(0, y));
+        }
+
+        for(int i = 0; i < 20; i++){
+            char move = bot.nextMove(player, map);
+            assertTrue(move == 'u' || move == 'r'); // towards (2, 0), (2, 2) or (3, 1), at a distance of 2
+        }
+    }
+
+    /**
+     * Testing that the bot still moves within the map once the team has visited every tile.
+     * @throws TeamOverrideException is thrown if the player has already joined a team (not expected).
+     */
+    @Test
+    public void noFrontier_nextMoveTest() throws TeamOverrideException{
+        player.setStartPosition(new Position(0, 0));
+        team.join(player);
+        for(int x = 0; x < 5; x++){
+            for(int y = 0; y < 5; y++){
+                team.update(new Position(x, y));
+            }
+        }
+
+        char move = bot.nextMove(player, map);
+        assertTrue(move == 'd' || move == 'r');
+    }
+
+    /**
+     * Testing that the memory held by the bot depends on the tiles visited by the team rather than on the size of the
+     * map, for a 2,000 x 2,000 map in large-map mode.
+     * @throws TeamOverrideException is thrown if the player has already joined a team (not expected).
+     */
+    @Test
+    public void largeMap_nextMoveTest() throws TeamOverrideException{
+        int size = 2000;
+        map = MapCreator.createMap("safe", size, true, 2002L);
+        team = new Team(size);
+
+        // start the player on the first tile which is not water, and let the team visit the tiles around it
+        int x = 0;
+        while(map.getTileType(x, 0) == TileType.Water){
+            x++;
+        }
+        player.setStartPosition(new Position(x, 0));
+        team.join(player);
+        for(int dx = -5; dx <= 5; dx++){
+            for(int dy = 0; dy <= 5; dy++){
+                if(map.isValidPosition(x + dx, dy)){
+                    team.update(new Position(x + dx, dy));
+                }
+            }
+        }
+
+        long before = usedMemory();
+        for(int i = 0; i < 20; i++){
+            char move = bot.nextMove(player, map);
+            assertTrue(move == 'u' || move == 'd' || move == 'l' || move == 'r');
+        }
+
+        // a dense buffer would take up at least 4 bytes per tile, hence a byte per tile leaves room for the noise
+        long retained = usedMemory() - before;
+        assertNotNull(bot);
+        assertTrue(retained < (long) size * size);
+    }
+
+    @After
+    public void teardownFrontierBotTest(){
+        map = null; // dereference
+        player = null;
+        team = null;
+        bot = null;
+    }
+
+    /**
+     * @return long the memory used by the JVM after running the garbage collector.
+     */
+    private static long usedMemory(){
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++){
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
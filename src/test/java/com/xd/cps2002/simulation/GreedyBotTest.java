@@ -0,0 +1,79 @@
+package com.xd.cps2002.simulation;
+
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.map.MapCreator;
+import com.xd.cps2002.map.TileType;
+import com.xd.cps2002.player.*;
+import com.xd.cps2002.player.player_exceptions.MoveException;
+import com.xd.cps2002.player.player_exceptions.TeamOverrideException;
+import com.xd.cps2002.util.SplittableRandomSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the GreedyBot class.
+ */
+public class GreedyBotTest{
+    private Map map;
+    private Player player;
+    private GreedyBot bot;
+
+    // define the Map by means of a 2D TileType array
+    private final TileType[][] tiles = {{TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass},
+                                        {TileType.Grass, TileType.Grass, TileType.Water, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Treasure, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water}};
+
+    @Before
+    public void setupGreedyBotTest() throws TeamOverrideException{
+        map = MapCreator.createMap("basic", tiles);
+        map.isPlayable(); // computes the treasure distances
+        player = new Player();
+        bot = new GreedyBot(new SplittableRandomSource(2002));
+    }
+
+    /**
+     * Testing that the bot avoids water tiles, moving next to the water towards the treasure tile.
+     * @throws TeamOverrideException is thrown if the player has already joined a team (not expected).
+     */
+    @Test
+    public void avoidsWater_nextMoveTest() throws TeamOverrideException{
+        player.setStartPosition(new Position(1, 1)); // the tile below is water, and the one to the right is next to the treasure
+        new Team(5).join(player);
+
+        assertEquals('r', bot.nextMove(player, map));
+    }
+
+    /**
+     * Testing that following the bot's moves reaches the treasure tile along a shortest walk.
+     * @throws TeamOverrideException is thrown if the player has already joined a team (not expected).
+     * @throws MoveException is thrown if the bot makes an invalid move (not expected).
+     */
+    @Test
+    public void shortestWalk_nextMoveTest() throws TeamOverrideException, MoveException{
+        player.setStartPosition(new Position(0, 4)); // at the bottom left corner
+        new Team(5).join(player);
+
+        int moves = 0;
+        int distance = map.getTreasureDistance(0, 4);
+        while(map.getTileType(player.getPosition()) != TileType.Treasure){
+            player.setPosition(player.move(bot.nextMove(player, map)));
+            assertNotEquals(TileType.Water, map.getTileType(player.getPosition()));
+            moves++;
+        }
+
+        assertEquals(distance, moves);
+    }
+
+    @After
+    public void teardownGreedyBotTest(){
+        map = null; // dereference
+        player = null;
+        bot = null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.xd.cps2002.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains benchmarks which report the difficulty of safe and hazardous maps of several sizes, and check that
+ * the analysis scales with the number of cores. Since these benchmarks take a while to run, they are excluded from the
+ * default test run and can be run using {@code mvn test -P benchmarks}.
+ */
+public class MapDifficultyAnalyserBenchmark{
+    private final int n_maps = 20;
+    private final int games_per_map = 100;
+
+    @Test
+    public void mapTypesAndSizes_analyseBenchmark(){
+        MapDifficultyAnalyser analyser = new MapDifficultyAnalyser(FrontierBot::new);
+        analyser.setSeed(2002);
+        analyser.setGamesPerMap(games_per_map);
+
+        for(String map_type : new String[]{"safe", "hazardous"}){
+            for(int map_size : new int[]{5, 10, 25}){
+                MapDifficulty difficulty = analyser.analyse(map_type, map_size, n_maps);
+                System.out.println("[MapDifficultyAnalyserBenchmark] " + difficulty);
+                assertEquals((long) n_maps * games_per_map, difficulty.getGames());
+            }
+        }
+    }
+
+    @Test
+    public void analyse_scalesWithTheNumberOfCores(){
+        int cores = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool all = new ForkJoinPool(cores);
+
+        try{
+            // warm up the JIT compiler first
+            millis(single, 2);
+            long single_millis = millis(single, n_maps);
+            long all_millis = millis(all, n_maps);
+
+            System.out.println("[MapDifficultyAnalyserBenchmark] hazardous 25x25 maps analysed in " + single_millis +
+                    "ms on 1 core and " + all_millis + "ms on " + cores + " core(s)");
+
+            // the tasks share nothing but the maps, so the speed-up should be close to the number of cores
+            if(cores >= 4){
+                assertTrue(all_millis * cores / 2 < single_millis);
+            }
+        }
+        finally{
+            single.shutdown();
+            all.shutdown();
+        }
+    }
+
+    /**
+     * Helper function used to time the analysis of hazardous 25x25 maps.
+     * @param pool is the ForkJoinPool on which to run the analysis.
+     * @param maps is the number of maps to analyse.
+     * @return long the number of milliseconds taken.
+     */
+    private long millis(ForkJoinPool pool, int maps){
+        MapDifficultyAnalyser analyser = new MapDifficultyAnalyser(FrontierBot::new, pool);
+        analyser.setSeed(2002);
+        analyser.setGamesPerMap(games_per_map);
+        return analyser.analyse("hazardous", 25, maps).getElapsedMillis();
+    }
+}
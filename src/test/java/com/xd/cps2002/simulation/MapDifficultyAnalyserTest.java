@@ -0,0 +1,108 @@
+package com.xd.cps2002.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the MapDifficultyAnalyser class.
+ */
+public class MapDifficultyAnalyserTest{
+
+    /**
+     * Testing that a greedy bot always finds the treasure without drowning, since it follows a shortest walk.
+     */
+    @Test
+    public void greedy_analyseTest(){
+        MapDifficultyAnalyser analyser = new MapDifficultyAnalyser(GreedyBot::new);
+        analyser.setSeed(2002);
+        analyser.setGamesPerMap(50);
+        MapDifficulty difficulty = analyser.analyse("hazardous", 10, 8);
+
+        assertEquals("hazardous", difficulty.getMapType());
+        assertEquals(10, difficulty.getMapSize());
+        assertEquals(8, difficulty.getMaps());
+        assertEquals(8 * 50, difficulty.getGames());
+        assertEquals(1.0, difficulty.getWinRate(), 1e-9);
+        assertEquals(0.0, difficulty.getDrowningRate(), 1e-9);
+        assertTrue(difficulty.getMeanTurnsToWin() >= 1);
+        assertEquals(difficulty.getMeanTurnsToWin() * difficulty.getGames(), difficulty.getTurns(), 1e-6);
+    }
+
+    /**
+     * Testing that players exploring hazardous maps drown more often than on safe maps.
+     */
+    @Test
+    public void hazardousDrownMore_analyseTest(){
+        MapDifficultyAnalyser analyser = new MapDifficultyAnalyser(RandomWalkBot::new);
+        analyser.setSeed(2002);
+        analyser.setGamesPerMap(20);
+
+        MapDifficulty safe = analyser.analyse("safe", 10, 10);
+        MapDifficulty hazardous = analyser.analyse("hazardous", 10, 10);
+
+        assertTrue(hazardous.getDrowningRate() > safe.getDrowningRate());
+        assertTrue(hazardous.getMeanDrowningsPerGame() > 0);
+    }
+
+    /**
+     * Testing that a seeded analysis gives exactly the same results on any number of cores.
+     */
+    @Test
+    public void seeded_analyseTest(){
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(4);
+
+        try{
+            MapDifficultyAnalyser first = new MapDifficultyAnalyser(FrontierBot::new, single);
+            MapDifficultyAnalyser second = new MapDifficultyAnalyser(FrontierBot::new, several);
+            first.setSeed(42);
+            second.setSeed(42);
+
+            MapDifficulty first_difficulty = first.analyse("hazardous", 8, 5);
+            MapDifficulty second_difficulty = second.analyse("hazardous", 8, 5);
+
+            assertEquals(first_difficulty.getTurns(), second_difficulty.getTurns());
+            assertEquals(first_difficulty.getMeanTurnsToWin(), second_difficulty.getMeanTurnsToWin(), 0);
+            assertEquals(first_difficulty.getVarianceTurnsToWin(), second_difficulty.getVarianceTurnsToWin(), 0);
+            assertEquals(first_difficulty.getDrowningRate(), second_difficulty.getDrowningRate(), 0);
+        }
+        finally{
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    /**
+     * Testing that games are abandoned after the maximum number of turns.
+     */
+    @Test
+    public void maxTurns_analyseTest(){
+        MapDifficultyAnalyser analyser = new MapDifficultyAnalyser(RandomWalkBot::new);
+        analyser.setSeed(2002);
+        analyser.setGamesPerMap(10);
+        analyser.setMaxTurns(1);
+        MapDifficulty difficulty = analyser.analyse("safe", 20, 3);
+
+        assertEquals(30, difficulty.getGames());
+        assertEquals(30, difficulty.getTurns()); // one turn per game
+    }
+
+    /**
+     * Testing that an IllegalArgumentException is thrown when no maps are to be analysed.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void noMaps_analyseTest(){
+        new MapDifficultyAnalyser(RandomWalkBot::new).analyse("safe", 10, 0);
+    }
+
+    /**
+     * Testing that an IllegalArgumentException is thrown for an invalid map type.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMapType_analyseTest(){
+        new MapDifficultyAnalyser(RandomWalkBot::new).analyse("volcanic", 10, 1);
+    }
+}
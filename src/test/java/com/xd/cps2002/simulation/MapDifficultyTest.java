@@ -0,0 +1,41 @@
+package com.xd.cps2002.simulation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the MapDifficulty class.
+ */
+public class MapDifficultyTest{
+    private MapDifficulty difficulty;
+
+    @Before
+    public void setupMapDifficultyTest(){
+        // 100 games on 4 maps, of which 80 were won in 12.5 turns on average, with 50 drownings in 2,000 turns
+        difficulty = new MapDifficulty("safe", 10, 4, 100, 80, 12.5, 16.0, 2_000, 50, 3_000_000);
+    }
+
+    /**
+     * Testing that the rates are computed from the totals.
+     */
+    @Test
+    public void correct_ratesTest(){
+        assertEquals(0.8, difficulty.getWinRate(), 1e-9);
+        assertEquals(0.025, difficulty.getDrowningRate(), 1e-9);
+        assertEquals(0.5, difficulty.getMeanDrowningsPerGame(), 1e-9);
+        assertEquals(4.0, difficulty.getStandardDeviationTurnsToWin(), 1e-9);
+        assertEquals(3, difficulty.getElapsedMillis());
+    }
+
+    /**
+     * Testing that an analysis without any games gives zero rates rather than failing.
+     */
+    @Test
+    public void noGames_ratesTest(){
+        MapDifficulty empty = new MapDifficulty("safe", 10, 1, 0, 0, 0, 0, 0, 0, 0);
+        assertEquals(0.0, empty.getWinRate(), 1e-9);
+        assertEquals(0.0, empty.getDrowningRate(), 1e-9);
+    }
+}
@@ -0,0 +1,64 @@
+package com.xd.cps2002.simulation;
+
+import com.xd.cps2002.map.Map;
+import com.xd.cps2002.map.MapCreator;
+import com.xd.cps2002.map.TileType;
+import com.xd.cps2002.player.*;
+import com.xd.cps2002.player.player_exceptions.TeamOverrideException;
+import com.xd.cps2002.util.SplittableRandomSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the RandomWalkBot class.
+ */
+public class RandomWalkBotTest{
+    private Map map;
+    private Player player;
+    private RandomWalkBot bot;
+
+    // define the Map by means of a 2D TileType array
+    private final TileType[][] tiles = {{TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass},
+                                        {TileType.Grass, TileType.Grass, TileType.Water, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Treasure, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water, TileType.Water},
+                                        {TileType.Grass, TileType.Grass, TileType.Grass, TileType.Grass, TileType.Water}};
+
+    @Before
+    public void setupRandomWalkBotTest() throws TeamOverrideException{
+        map = MapCreator.createMap("basic", tiles);
+        player = new Player();
+        player.setStartPosition(new Position(0, 0)); // at the top left corner
+        new Team(5).join(player);
+        bot = new RandomWalkBot(new SplittableRandomSource(2002));
+    }
+
+    /**
+     * Testing that the bot only makes moves within the map boundary, in every direction available.
+     */
+    @Test
+    public void withinMap_nextMoveTest(){
+        boolean down = false;
+        boolean right = false;
+
+        for(int i = 0; i < 100; i++){
+            char move = bot.nextMove(player, map);
+            assertTrue(move == 'd' || move == 'r'); // up and left are outside of the map
+            down |= move == 'd';
+            right |= move == 'r';
+        }
+
+        assertTrue(down && right);
+    }
+
+    @After
+    public void teardownRandomWalkBotTest(){
+        map = null; // dereference
+        player = null;
+        bot = null;
+    }
+}
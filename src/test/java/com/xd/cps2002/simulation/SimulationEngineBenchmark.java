@@ -0,0 +1,54 @@
+package com.xd.cps2002.simulation;
+
+import com.xd.cps2002.util.RandomSource;
+
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class contains benchmarks which report the number of moves per second and the distribution of game lengths of
+ * games played by each bot strategy, which can be used to size the hardware needed to host many games. Since these
+ * benchmarks take a while to run, they are excluded from the default test run and can be run using
+ * {@code mvn test -P benchmarks}.
+ */
+public class SimulationEngineBenchmark{
+    private final int n_games = 2_000;
+    private final double min_moves_per_second = 50_000; // conservative, such that it also holds on a single core
+
+    @Test
+    public void randomWalk_runBenchmark() throws Exception{
+        benchmark("random walk", RandomWalkBot::new);
+    }
+
+    @Test
+    public void frontier_runBenchmark() throws Exception{
+        benchmark("frontier", FrontierBot::new);
+    }
+
+    @Test
+    public void greedy_runBenchmark() throws Exception{
+        benchmark("greedy", GreedyBot::new);
+    }
+
+    /**
+     * Helper function used to play games of 4 players in 2 teams on hazardous 25x25 maps, using every available core.
+     * @param name is the name of the bot strategy, for the report.
+     * @param bots creates the BotStrategy of each game.
+     * @throws Exception is thrown if the engine settings are invalid (not expected).
+     */
+    private void benchmark(String name, Function<RandomSource, BotStrategy> bots) throws Exception{
+        SimulationEngine engine = new SimulationEngine(4, 2, 25, "hazardous", bots);
+        engine.setSeed(2002);
+        engine.setThreads(Runtime.getRuntime().availableProcessors());
+
+        engine.run(n_games / 10); // warm up the JIT compiler
+        SimulationReport report = engine.run(n_games);
+
+        System.out.println("[SimulationEngineBenchmark] " + name + ": " + report);
+        assertEquals(n_games, report.getGames());
+        assertTrue(report.getMovesPerSecond() > min_moves_per_second);
+    }
+}
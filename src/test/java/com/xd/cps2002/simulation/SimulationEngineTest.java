@@ -0,0 +1,113 @@
+package com.xd.cps2002.simulation;
+
+import com.xd.cps2002.game.game_exceptions.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the SimulationEngine class.
+ */
+public class SimulationEngineTest{
+
+    /**
+     * Testing that every game played by greedy bots is won, and that the moves are counted for every player and round.
+     * @throws Exception is thrown if the engine settings are invalid (not expected).
+     */
+    @Test
+    public void greedy_runTest() throws Exception{
+        SimulationEngine engine = new SimulationEngine(3, 3, 8, "hazardous", GreedyBot::new);
+        engine.setSeed(2002);
+        SimulationReport report = engine.run(50);
+
+        assertEquals(50, report.getGames());
+        assertEquals(50, report.getWonGames());
+        assertEquals(0, report.getRejectedMoves());
+        assertEquals(Math.round(report.getMeanGameLength() * 50 * 3), report.getMoves());
+        assertTrue(report.getMinGameLength() >= 1);
+        assertTrue(report.getMaxGameLength() <= 8 * 8); // no shortest walk is longer than the number of tiles
+    }
+
+    /**
+     * Testing that the frontier and random walk bots also play games to completion, where the frontier bot needs no more
+     * rounds than the random walk bot on average.
+     * @throws Exception is thrown if the engine settings are invalid (not expected).
+     */
+    @Test
+    public void frontierAndRandomWalk_runTest() throws Exception{
+        SimulationEngine frontier = new SimulationEngine(2, 2, 10, "safe", FrontierBot::new);
+        SimulationEngine random_walk = new SimulationEngine(2, 2, 10, "safe", RandomWalkBot::new);
+        frontier.setSeed(2002);
+        random_walk.setSeed(2002);
+
+        SimulationReport frontier_report = frontier.run(100);
+        SimulationReport random_walk_report = random_walk.run(100);
+
+        assertEquals(100, frontier_report.getWonGames());
+        assertTrue(frontier_report.getMeanGameLength() <= random_walk_report.getMeanGameLength());
+    }
+
+    /**
+     * Testing that seeded runs play the same games, whatever the number of threads.
+     * @throws Exception is thrown if the engine settings are invalid (not expected).
+     */
+    @Test
+    public void seeded_runTest() throws Exception{
+        SimulationEngine engine = new SimulationEngine(4, 2, 10, "hazardous", FrontierBot::new);
+
+        engine.setSeed(42);
+        SimulationReport first = engine.run(40);
+        engine.setSeed(42);
+        engine.setThreads(3);
+        SimulationReport second = engine.run(40);
+
+        assertEquals(first.getMoves(), second.getMoves());
+        assertArrayEquals(first.getGameLengthHistogram(10), second.getGameLengthHistogram(10));
+    }
+
+    /**
+     * Testing that games end after the maximum number of rounds, even if nobody has found the treasure.
+     * @throws Exception is thrown if the engine settings are invalid (not expected).
+     */
+    @Test
+    public void maxRounds_runTest() throws Exception{
+        SimulationEngine engine = new SimulationEngine(2, 2, 50, "safe", RandomWalkBot::new);
+        engine.setSeed(2002);
+        engine.setMaxRounds(1);
+        SimulationReport report = engine.run(10);
+
+        assertEquals(1, report.getMaxGameLength());
+        assertEquals(10 * 2, report.getMoves());
+    }
+
+    /**
+     * Testing that an InvalidNumberOfPlayersException is thrown when the engine is given an invalid number of players.
+     * @throws InvalidNumberOfPlayersException is thrown since the number of players is invalid (expected).
+     * @throws Exception is thrown if the engine settings are invalid otherwise (not expected).
+     */
+    @Test(expected = InvalidNumberOfPlayersException.class)
+    public void invalidPlayers_constructorTest() throws Exception{
+        new SimulationEngine(9, 2, 10, "safe", RandomWalkBot::new);
+    }
+
+    /**
+     * Testing that an InvalidMapSizeException is thrown when the engine is given an invalid map size.
+     * @throws InvalidMapSizeException is thrown since the map size is invalid (expected).
+     * @throws Exception is thrown if the engine settings are invalid otherwise (not expected).
+     */
+    @Test(expected = InvalidMapSizeException.class)
+    public void invalidMapSize_constructorTest() throws Exception{
+        new SimulationEngine(6, 2, 6, "safe", RandomWalkBot::new);
+    }
+
+    /**
+     * Testing that an InvalidNumberOfTeamsException is thrown when the engine is given an invalid number of teams.
+     * @throws InvalidNumberOfTeamsException is thrown since the number of teams is invalid (expected).
+     * @throws Exception is thrown if the engine settings are invalid otherwise (not expected).
+     */
+    @Test(expected = InvalidNumberOfTeamsException.class)
+    public void invalidTeams_constructorTest() throws Exception{
+        new SimulationEngine(4, 1, 10, "safe", RandomWalkBot::new);
+    }
+}
@@ -0,0 +1,74 @@
+package com.xd.cps2002.simulation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the SimulationReport class.
+ */
+public class SimulationReportTest{
+    private SimulationReport report;
+
+    @Before
+    public void setupSimulationReportTest(){
+        // 10 games of lengths 1 to 10 rounds, given out of order, with 2 players making 110 moves in 2 seconds
+        int[] game_lengths = {10, 1, 9, 2, 8, 3, 7, 4, 6, 5};
+        report = new SimulationReport(1, 9, 110, 4, 2_000_000_000L, 1_000_000_000L, game_lengths);
+    }
+
+    /**
+     * Testing that the moves per second are computed over both the total and the playing time.
+     */
+    @Test
+    public void correct_getMovesPerSecondTest(){
+        assertEquals(55.0, report.getMovesPerSecond(), 1e-9);
+        assertEquals(110.0, report.getPlayMovesPerSecond(), 1e-9);
+        assertEquals(2000, report.getElapsedMillis());
+    }
+
+    /**
+     * Testing that the minimum, mean, maximum and percentiles of the game lengths are correct.
+     */
+    @Test
+    public void correct_gameLengthTest(){
+        assertEquals(10, report.getGames());
+        assertEquals(1, report.getMinGameLength());
+        assertEquals(10, report.getMaxGameLength());
+        assertEquals(5.5, report.getMeanGameLength(), 1e-9);
+        assertEquals(5, report.getGameLengthPercentile(50));
+        assertEquals(9, report.getGameLengthPercentile(90));
+        assertEquals(1, report.getGameLengthPercentile(0));
+        assertEquals(10, report.getGameLengthPercentile(100));
+    }
+
+    /**
+     * Testing that the histogram divides the game lengths into buckets of equal width.
+     */
+    @Test
+    public void correct_getGameLengthHistogramTest(){
+        assertArrayEquals(new int[]{5, 5}, report.getGameLengthHistogram(2));
+        assertArrayEquals(new int[]{4, 3, 3}, report.getGameLengthHistogram(3));
+    }
+
+    /**
+     * Testing that an empty report gives zeroes rather than failing.
+     */
+    @Test
+    public void empty_Test(){
+        SimulationReport empty = new SimulationReport(1, 0, 0, 0, 0, 0, new int[0]);
+        assertEquals(0, empty.getGameLengthPercentile(50));
+        assertEquals(0.0, empty.getMeanGameLength(), 1e-9);
+        assertEquals(0.0, empty.getMovesPerSecond(), 1e-9);
+        assertArrayEquals(new int[3], empty.getGameLengthHistogram(3));
+    }
+
+    /**
+     * Testing that an IllegalArgumentException is thrown for a percentile greater than 100.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalid_getGameLengthPercentileTest(){
+        report.getGameLengthPercentile(101);
+    }
+}
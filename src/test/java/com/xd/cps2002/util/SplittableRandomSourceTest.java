@@ -0,0 +1,66 @@
+package com.xd.cps2002.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tester class for the SplittableRandomSource implementation of RandomSource.
+ */
+public class SplittableRandomSourceTest {
+
+    /**
+     * Tests that two sources created using the same seed return the same sequence of random numbers.
+     */
+    @Test
+    public void sameSeed_nextIntTest(){
+        RandomSource first = new SplittableRandomSource(42);
+        RandomSource second = new SplittableRandomSource(42);
+
+        for(int i = 0; i < 1000; i++){
+            assertEquals(first.nextInt(100), second.nextInt(100));
+        }
+        assertEquals(first.nextLong(), second.nextLong());
+    }
+
+    /**
+     * Tests that sources split off sources with the same seed return the same sequence of random numbers, and that a
+     * split source does not return the same numbers as its parent.
+     */
+    @Test
+    public void sameSeed_splitTest(){
+        RandomSource first = new SplittableRandomSource(42);
+        RandomSource second = new SplittableRandomSource(42);
+
+        RandomSource first_split = first.split();
+        RandomSource second_split = second.split();
+
+        boolean differs_from_parent = false;
+        for(int i = 0; i < 100; i++){
+            long value = first_split.nextLong();
+            assertEquals(value, second_split.nextLong());
+            differs_from_parent |= value != first.nextLong();
+        }
+        assertTrue(differs_from_parent);
+    }
+
+    /**
+     * Tests that all values returned by nextInt fall within the given bound.
+     */
+    @Test
+    public void inrange_nextIntTest(){
+        RandomSource random = new SplittableRandomSource();
+        for(int i = 0; i < 1000; i++){
+            int value = random.nextInt(7);
+            assertTrue(0 <= value && value < 7);
+        }
+    }
+
+    /**
+     * Tests that an IllegalArgumentException is thrown if the bound passed to nextInt is not positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveBound_nextIntTest(){
+        new SplittableRandomSource().nextInt(0);
+    }
+}